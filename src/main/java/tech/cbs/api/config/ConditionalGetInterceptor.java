@@ -0,0 +1,114 @@
+package tech.cbs.api.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import tech.cbs.api.controller.ConditionalGet;
+import tech.cbs.api.repository.BookReadModel;
+import tech.cbs.api.repository.VersionRepository;
+import tech.cbs.api.repository.invalidation.EntityType;
+import tech.cbs.api.repository.routing.ReadYourWrites;
+
+import java.util.Map;
+
+/**
+ * Answers {@code If-None-Match} for {@link ConditionalGet} handlers with a version probe instead of the handler.
+ * <p>
+ * The version is read before the handler runs, so the ETag sent with a response never names a newer state than
+ * its body. With replicas the version and the body are read from the same one, see
+ * {@link ReadYourWrites#sameSource()}: another replica could be further behind than the one the version came from.
+ * Runs after the security filters, a 304 is only sent to clients allowed to read the resource.
+ * If the version cannot be read the handler runs without an ETag, it may still answer from a cache.
+ */
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    private static final String RESTORE_ATTRIBUTE = ConditionalGetInterceptor.class.getName() + ".restore";
+
+    private final VersionRepository versionRepository;
+    private final BookReadModel readModel;
+
+    /**
+     * @param readModel book lists read from the {@link BookReadModel#PROJECTION} lag behind the versions and get no ETag
+     */
+    public ConditionalGetInterceptor(VersionRepository versionRepository, BookReadModel readModel) {
+        this.versionRepository = versionRepository;
+        this.readModel = readModel;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        var restore = ReadYourWrites.sameSource();
+        String etag;
+        try {
+            etag = etag(request, handler);
+        } catch (DataAccessException e) {
+            etag = null;
+        }
+        if (etag == null) {
+            restore.run();
+            return true;
+        }
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            restore.run();
+            return false;
+        }
+        request.setAttribute(RESTORE_ATTRIBUTE, restore);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (request.getAttribute(RESTORE_ATTRIBUTE) instanceof Runnable restore) {
+            request.removeAttribute(RESTORE_ATTRIBUTE);
+            restore.run();
+        }
+    }
+
+    /**
+     * @return ETag of the resource, {@code null} if the handler answers without one
+     */
+    private String etag(HttpServletRequest request, Object handler) {
+        if (!(handler instanceof HandlerMethod method)
+                || !HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            return null;
+        }
+        var conditional = method.getMethodAnnotation(ConditionalGet.class);
+        if (conditional == null) {
+            return null;
+        }
+
+        if (conditional.list()) {
+            if (conditional.value() == EntityType.BOOK && readModel == BookReadModel.PROJECTION) {
+                return null;
+            }
+            return "W/\"" + versionRepository.findListVersion(conditional.value()) + "\"";
+        }
+        var id = pathId(request);
+        if (id == null) {
+            return null;
+        }
+        // a missing entity is left to the handler and its 404
+        return versionRepository.findVersion(conditional.value(), id)
+                .map(version -> "\"" + version + "\"")
+                .orElse(null);
+    }
+
+    private static Integer pathId(HttpServletRequest request) {
+        @SuppressWarnings("unchecked")
+        var variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variables == null || variables.get("id") == null) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(variables.get("id"));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package tech.cbs.api.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tech.cbs.api.repository.routing.Lsn;
+import tech.cbs.api.repository.routing.ReadYourWrites;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Carries the read-your-writes token between requests.
+ * <p>
+ * A write answers with the primary WAL position in the {@value #HEADER} header and the {@value #COOKIE} cookie.
+ * A request that sends either back is only served by replicas that have replayed up to that position.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Wal-Lsn";
+    public static final String COOKIE = "wal_lsn";
+
+    private final Duration tokenMaxAge;
+
+    public ReadYourWritesFilter(Duration tokenMaxAge) {
+        this.tokenMaxAge = tokenMaxAge;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ReadYourWrites.open(requiredLsn(request), lsn -> {
+            var token = Lsn.format(lsn);
+            response.setHeader(HEADER, token);
+            response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(COOKIE, token)
+                    .path("/")
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .maxAge(tokenMaxAge)
+                    .build()
+                    .toString());
+        });
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.close();
+        }
+    }
+
+    private static long requiredLsn(HttpServletRequest request) {
+        var token = request.getHeader(HEADER);
+        if (token == null && request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (COOKIE.equals(cookie.getName())) {
+                    token = cookie.getValue();
+                }
+            }
+        }
+        if (token == null) {
+            return 0;
+        }
+        try {
+            return Lsn.parse(token);
+        } catch (IllegalArgumentException e) {
+            // a stale or mangled token only costs freshness, the read still succeeds
+            return 0;
+        }
+    }
+}
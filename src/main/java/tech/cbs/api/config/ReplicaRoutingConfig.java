@@ -0,0 +1,84 @@
+package tech.cbs.api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import tech.cbs.api.repository.routing.ReplicaRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replica routing, active when {@code cbs.replicas.urls} lists at least one replica.
+ * <p>
+ * The primary {@link DataSource} built by Spring Boot is wrapped in a {@link ReplicaRoutingDataSource}, which sends
+ * {@code @Transactional(readOnly = true)} work to the replicas. Replica pools reuse the primary credentials.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "cbs.replicas", name = "urls")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    public static BeanPostProcessor replicaRoutingPostProcessor(Environment environment) {
+        return new ReplicaRoutingPostProcessor(environment);
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(Environment environment) {
+        return new ReadYourWritesFilter(environment.getProperty("cbs.replicas.token-max-age", Duration.class, Duration.ofMinutes(5)));
+    }
+
+    /**
+     * Runs first among the post-processors, other data source wrappers wrap the routing data source
+     */
+    private static final class ReplicaRoutingPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final Environment environment;
+
+        private ReplicaRoutingPostProcessor(Environment environment) {
+            this.environment = environment;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof HikariDataSource primary)) {
+                return bean;
+            }
+            var urls = environment.getProperty("cbs.replicas.urls", String[].class, new String[0]);
+            if (urls.length == 0) {
+                return bean;
+            }
+            int poolSize = environment.getProperty("cbs.replicas.pool-size", Integer.class, 10);
+            var healthCheckInterval = environment.getProperty("cbs.replicas.health-check-interval", Duration.class, Duration.ofSeconds(1));
+
+            List<DataSource> replicas = new ArrayList<>(urls.length);
+            for (int i = 0; i < urls.length; i++) {
+                var replica = new HikariDataSource();
+                replica.setPoolName("replica-" + i);
+                replica.setJdbcUrl(urls[i].trim());
+                replica.setUsername(primary.getUsername());
+                replica.setPassword(primary.getPassword());
+                replica.setMaximumPoolSize(poolSize);
+                replica.setReadOnly(true);
+                // a replica that is down at startup is picked up later by the health check
+                replica.setInitializationFailTimeout(-1);
+                replicas.add(replica);
+            }
+            var routing = new ReplicaRoutingDataSource(primary, replicas, healthCheckInterval);
+            // a replaced bean gets no init callbacks of its own
+            routing.start();
+            return routing;
+        }
+    }
+}
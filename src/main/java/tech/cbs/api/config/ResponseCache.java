@@ -0,0 +1,171 @@
+package tech.cbs.api.config;
+
+import tech.cbs.api.repository.invalidation.EntityType;
+import tech.cbs.api.repository.invalidation.InvalidationListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized responses with their gzip variant, evicted least recently used first once their total size
+ * exceeds the limit.
+ * <p>
+ * Every entity type has a generation counter incremented by every invalidation of that type. An entry records
+ * the sum of the generations of the types it was built from, read before the handler read them; as soon as
+ * the sum moves on the entry is no longer served. A write therefore drops every page of its type at once,
+ * without tracking which pages show which entities. Entries also expire after a fixed time, which bounds
+ * how long a response survives an invalidation that never reached this node.
+ */
+public class ResponseCache implements InvalidationListener {
+
+    private final long maxSize;
+    private final int maxEntrySize;
+    private final int minCompressSize;
+    private final long expireAfterWriteNanos;
+    private final LongSupplier nanoTime;
+    private final AtomicLongArray generations = new AtomicLongArray(EntityType.values().length);
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long size;
+
+    /**
+     * @param maxSize          bytes of all bodies together
+     * @param maxEntrySize     larger responses are not cached
+     * @param minCompressSize  smaller responses are kept without a gzip variant
+     * @param expireAfterWrite how long an entry is served at most
+     */
+    public ResponseCache(long maxSize, int maxEntrySize, int minCompressSize, Duration expireAfterWrite) {
+        this(maxSize, maxEntrySize, minCompressSize, expireAfterWrite, System::nanoTime);
+    }
+
+    /**
+     * @param nanoTime source of {@link System#nanoTime()}
+     */
+    ResponseCache(long maxSize, int maxEntrySize, int minCompressSize, Duration expireAfterWrite,
+                  LongSupplier nanoTime) {
+        this.maxSize = maxSize;
+        this.maxEntrySize = maxEntrySize;
+        this.minCompressSize = minCompressSize;
+        this.expireAfterWriteNanos = expireAfterWrite.toNanos();
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * @param types entity types a response is built from
+     * @return their current generation, to be read before reading the entities
+     */
+    public long generation(EntityType[] types) {
+        long generation = 0;
+        for (EntityType type : types) {
+            generation += generations.get(type.ordinal());
+        }
+        return generation;
+    }
+
+    /**
+     * @param key route and parameters
+     * @return the entry, {@code null} if there is none, it has expired or an entity it was built from has been
+     * written since
+     */
+    public synchronized Entry get(String key) {
+        var entry = entries.get(key);
+        if (entry != null && (entry.generation() != generation(entry.types())
+                || nanoTime.getAsLong() - entry.createdNanos() >= expireAfterWriteNanos)) {
+            remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Build an entry, compressing the body once for all clients accepting gzip
+     *
+     * @param generation {@link #generation(EntityType[])} of the types read before the handler ran
+     */
+    public Entry entry(byte[] body, String contentType, String etag, EntityType[] types, long generation) {
+        var gzipBody = body.length < minCompressSize ? null : gzip(body);
+        return new Entry(body, gzipBody, contentType, etag, types, generation, nanoTime.getAsLong());
+    }
+
+    /**
+     * Store an entry unless it is too large or already outdated
+     *
+     * @param key   route and parameters
+     * @param entry entry
+     */
+    public synchronized void put(String key, Entry entry) {
+        if (entry.size() > maxEntrySize || entry.generation() != generation(entry.types())) {
+            return;
+        }
+        remove(key);
+        entries.put(key, entry);
+        size += entry.size();
+        var iterator = entries.values().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            size -= iterator.next().size();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * @return bytes held by the cached bodies
+     */
+    public synchronized long size() {
+        return size;
+    }
+
+    @Override
+    public void invalidate(EntityType type, int id) {
+        generations.incrementAndGet(type.ordinal());
+    }
+
+    @Override
+    public void invalidateAll() {
+        for (EntityType type : EntityType.values()) {
+            generations.incrementAndGet(type.ordinal());
+        }
+        synchronized (this) {
+            entries.clear();
+            size = 0;
+        }
+    }
+
+    private void remove(String key) {
+        var removed = entries.remove(key);
+        if (removed != null) {
+            size -= removed.size();
+        }
+    }
+
+    private static byte[] gzip(byte[] body) {
+        var out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (var gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @param body         identity encoded body
+     * @param gzipBody     gzip encoded body, {@code null} for small bodies
+     * @param contentType  content type of both
+     * @param etag         ETag sent with the response, may be {@code null}
+     * @param types        entity types the body was built from
+     * @param generation   generation of the types when the handler started
+     * @param createdNanos {@link System#nanoTime()} when the entry was built
+     */
+    public record Entry(byte[] body, byte[] gzipBody, String contentType, String etag, EntityType[] types,
+                        long generation, long createdNanos) {
+
+        int size() {
+            return body.length + (gzipBody == null ? 0 : gzipBody.length);
+        }
+    }
+}
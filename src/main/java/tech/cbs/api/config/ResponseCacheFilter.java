@@ -0,0 +1,280 @@
+package tech.cbs.api.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tech.cbs.api.repository.invalidation.EntityType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.util.Locale;
+
+/**
+ * Serves GET requests from the {@link ResponseCache} before they reach Spring MVC.
+ * <p>
+ * A hit costs a map lookup and a copy of the precompressed or identity body, nothing is read or serialized.
+ * On a miss the response is captured only if {@link ResponseCacheInterceptor} found a cacheable handler, other
+ * responses, like the streamed exports, pass through untouched. Runs after the security filters, so a cached
+ * page is only sent to clients allowed to read it. Requests carrying a read-your-writes token bypass the cache:
+ * the invalidation of their own write may still be on its way. Responses marked stale by the
+ * {@link StaleReadFilter} are sent but not stored.
+ */
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    static final String CAPTURE_ATTRIBUTE = ResponseCacheFilter.class.getName() + ".capture";
+
+    private final ResponseCache cache;
+
+    public ResponseCacheFilter(ResponseCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod()) || hasReadYourWritesToken(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        var key = key(request);
+        var entry = cache.get(key);
+        if (entry != null) {
+            response.setContentType(entry.contentType());
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (entry.etag() != null && new ServletWebRequest(request, response).checkNotModified(entry.etag())) {
+                return;
+            }
+            write(request, response, entry);
+            return;
+        }
+
+        var capture = new CapturingResponse(response);
+        request.setAttribute(CAPTURE_ATTRIBUTE, capture);
+        try {
+            filterChain.doFilter(request, capture);
+        } finally {
+            request.removeAttribute(CAPTURE_ATTRIBUTE);
+        }
+        if (!capture.capturing()) {
+            return;
+        }
+
+        var body = capture.body();
+        var contentType = response.getContentType();
+        if (response.getStatus() != HttpServletResponse.SC_OK
+                || contentType == null
+                || !MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType))
+                || response.getHeader(HttpHeaders.SET_COOKIE) != null
+                || response.getHeader(HttpHeaders.CONTENT_ENCODING) != null
+                || response.getHeader(HttpHeaders.WARNING) != null) {
+            // after sendError the container writes the error page itself
+            if (body.length > 0) {
+                response.setContentLength(body.length);
+                response.getOutputStream().write(body);
+            }
+            return;
+        }
+        entry = cache.entry(body, contentType, response.getHeader(HttpHeaders.ETAG), capture.types, capture.generation);
+        cache.put(key, entry);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        write(request, response, entry);
+    }
+
+    private static void write(HttpServletRequest request, HttpServletResponse response, ResponseCache.Entry entry)
+            throws IOException {
+        var body = entry.body();
+        if (entry.gzipBody() != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            body = entry.gzipBody();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static String key(HttpServletRequest request) {
+        var query = request.getQueryString();
+        return query == null ? request.getRequestURI() : request.getRequestURI() + '?' + query;
+    }
+
+    /**
+     * @param acceptEncoding {@code Accept-Encoding} header, may be {@code null}
+     * @return whether gzip, or any encoding, is accepted with a non-zero quality
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        boolean accepted = false;
+        for (String coding : acceptEncoding.split(",")) {
+            var parts = coding.split(";");
+            var name = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (!name.equals("gzip") && !name.equals("x-gzip") && !name.equals("*")) {
+                continue;
+            }
+            boolean positive = true;
+            for (int i = 1; i < parts.length; i++) {
+                var parameter = parts[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        positive = Double.parseDouble(parameter.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        positive = false;
+                    }
+                }
+            }
+            if (!name.equals("*")) {
+                // an explicit gzip entry wins over the wildcard
+                return positive;
+            }
+            accepted = positive;
+        }
+        return accepted;
+    }
+
+    private static boolean hasReadYourWritesToken(HttpServletRequest request) {
+        if (request.getHeader(ReadYourWritesFilter.HEADER) != null) {
+            return true;
+        }
+        if (request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (ReadYourWritesFilter.COOKIE.equals(cookie.getName())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Passes everything through until {@link #capture(EntityType[], long)} is called, then keeps the body
+     * in memory for the filter to store and send
+     */
+    static final class CapturingResponse extends HttpServletResponseWrapper {
+
+        private ByteArrayOutputStream buffer;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+        private EntityType[] types;
+        private long generation;
+
+        private CapturingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        /**
+         * @param types      entity types the response is built from
+         * @param generation their generation before the handler runs
+         */
+        void capture(EntityType[] types, long generation) {
+            this.types = types;
+            this.generation = generation;
+            buffer = new ByteArrayOutputStream(1024);
+        }
+
+        private boolean capturing() {
+            return buffer != null;
+        }
+
+        private byte[] body() {
+            if (writer != null) {
+                writer.flush();
+            }
+            return buffer.toByteArray();
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (!capturing()) {
+                return super.getOutputStream();
+            }
+            if (outputStream == null) {
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) {
+                        buffer.write(b);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) {
+                        buffer.write(b, off, len);
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return true;
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        throw new UnsupportedOperationException("Captured responses are written synchronously");
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (!capturing()) {
+                return super.getWriter();
+            }
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), Charset.forName(getCharacterEncoding())));
+            }
+            return writer;
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            if (!capturing()) {
+                super.setContentLength(len);
+            }
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            if (!capturing()) {
+                super.setContentLengthLong(len);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (!capturing()) {
+                super.flushBuffer();
+            } else if (writer != null) {
+                writer.flush();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            if (capturing()) {
+                buffer.reset();
+            }
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            if (capturing()) {
+                buffer.reset();
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package tech.cbs.api.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import tech.cbs.api.controller.CachedResponse;
+import tech.cbs.api.repository.BookReadModel;
+import tech.cbs.api.repository.invalidation.EntityType;
+import tech.cbs.api.repository.routing.ReadYourWrites;
+
+import java.util.Arrays;
+
+/**
+ * Starts capturing the response of {@link CachedResponse} handlers for the {@link ResponseCacheFilter}.
+ * <p>
+ * The generation of the entity types is read here, before the handler reads the entities, so a write that
+ * lands while the handler runs leaves the entry outdated rather than cached with stale content. The handler
+ * of a captured response reads from the primary: a replica behind the invalidation would have the new
+ * generation stored with the old content.
+ */
+public class ResponseCacheInterceptor implements HandlerInterceptor {
+
+    private static final String RESTORE_ATTRIBUTE = ResponseCacheInterceptor.class.getName() + ".restore";
+
+    private final ResponseCache cache;
+    private final BookReadModel readModel;
+
+    /**
+     * @param readModel books read from the {@link BookReadModel#PROJECTION} lag behind their invalidations
+     *                  and are not cached
+     */
+    public ResponseCacheInterceptor(ResponseCache cache, BookReadModel readModel) {
+        this.cache = cache;
+        this.readModel = readModel;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod method)
+                || !(request.getAttribute(ResponseCacheFilter.CAPTURE_ATTRIBUTE) instanceof ResponseCacheFilter.CapturingResponse capture)) {
+            return true;
+        }
+        var cached = method.getMethodAnnotation(CachedResponse.class);
+        if (cached == null
+                || readModel == BookReadModel.PROJECTION && Arrays.asList(cached.value()).contains(EntityType.BOOK)) {
+            return true;
+        }
+        capture.capture(cached.value(), cache.generation(cached.value()));
+        request.setAttribute(RESTORE_ATTRIBUTE, ReadYourWrites.pinToPrimary());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (request.getAttribute(RESTORE_ATTRIBUTE) instanceof Runnable restore) {
+            request.removeAttribute(RESTORE_ATTRIBUTE);
+            restore.run();
+        }
+    }
+}
@@ -31,7 +31,7 @@ public class SecurityConfig {
 //                        .requestMatchers(HttpMethod.GET, "/api/v1/books/**", "/api/v1/authors/**", "/api/v1/tags/**").permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/v1/books/**", "/api/v1/authors/**", "/api/v1/tags/**").hasAuthority("SCOPE_write")
                         .requestMatchers("api/v1/users/**").authenticated()
-                        .requestMatchers("/api/v1/admin").hasAuthority("SCOPE_admin")
+                        .requestMatchers("/api/v1/admin", "/api/v1/admin/**").hasAuthority("SCOPE_admin")
                         .anyRequest().authenticated()
                 )
                 .oauth2ResourceServer(oauth2rs -> oauth2rs.jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter())))
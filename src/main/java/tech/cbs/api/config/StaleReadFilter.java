@@ -0,0 +1,111 @@
+package tech.cbs.api.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tech.cbs.api.service.impl.StaleReads;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Marks responses built from results the database did not confirm.
+ * <p>
+ * A response served with a result past its soft TTL gets {@code Warning: 110}, one served because the database
+ * failed gets {@code Warning: 111}; both carry the {@code Age} of their oldest result. Any response built from
+ * a cached result, fresh ones included, or from a prefetched page loses its {@code ETag}: the version it names
+ * was read from the database and may be newer than the body.
+ */
+public class StaleReadFilter extends OncePerRequestFilter {
+
+    static final String STALE_WARNING = "110 - \"Response is Stale\"";
+    static final String REVALIDATION_FAILED_WARNING = "111 - \"Revalidation Failed\"";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        var marked = new StaleMarkingResponse(response);
+        StaleReads.open(staleness -> {
+            response.setHeader(HttpHeaders.AGE, Long.toString(staleness.age().toSeconds()));
+            response.setHeader(HttpHeaders.WARNING,
+                    staleness.revalidationFailed() ? REVALIDATION_FAILED_WARNING : STALE_WARNING);
+        }, () -> marked.cached = true);
+        try {
+            filterChain.doFilter(request, marked);
+        } finally {
+            StaleReads.close();
+            marked.releaseEtag();
+        }
+    }
+
+    /**
+     * Holds the {@code ETag} back until the body is written, by then every read of the handler has reported
+     */
+    private static final class StaleMarkingResponse extends HttpServletResponseWrapper {
+
+        private String etag;
+        private boolean cached;
+
+        private StaleMarkingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (HttpHeaders.ETAG.equalsIgnoreCase(name)) {
+                etag = value;
+            } else {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (HttpHeaders.ETAG.equalsIgnoreCase(name)) {
+                etag = value;
+            } else {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return HttpHeaders.ETAG.equalsIgnoreCase(name) && etag != null ? etag : super.getHeader(name);
+        }
+
+        @Override
+        public boolean containsHeader(String name) {
+            return HttpHeaders.ETAG.equalsIgnoreCase(name) && etag != null || super.containsHeader(name);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            releaseEtag();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            releaseEtag();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            releaseEtag();
+            super.flushBuffer();
+        }
+
+        private void releaseEtag() {
+            if (etag != null && !cached) {
+                super.setHeader(HttpHeaders.ETAG, etag);
+            }
+            etag = null;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package tech.cbs.api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import tech.cbs.api.repository.limit.ConcurrencyLimitedDataSource;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Database concurrency of the virtual thread mode, active with {@code spring.threads.virtual.enabled}.
+ * <p>
+ * Spring Boot then runs requests, MVC async work and the task executors on virtual threads, so the number of
+ * requests in flight is no longer bounded by the Tomcat thread pool but by the connection pools. The data source
+ * is wrapped in a {@link ConcurrencyLimitedDataSource} with one permit per pooled connection, the primary pool
+ * and the replica pools, unless {@code cbs.db-concurrency.permits} sets the count.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadsConfig {
+
+    @Bean
+    public static BeanPostProcessor concurrencyLimitPostProcessor(Environment environment) {
+        return new ConcurrencyLimitPostProcessor(environment);
+    }
+
+    /**
+     * Runs last among the post-processors, after the replica routing wrapped the primary
+     */
+    private static final class ConcurrencyLimitPostProcessor implements BeanPostProcessor, Ordered {
+
+        /**
+         * Size Hikari gives a pool without {@code maximumPoolSize} when it starts
+         */
+        private static final int HIKARI_DEFAULT_POOL_SIZE = 10;
+
+        private final Environment environment;
+
+        private ConcurrencyLimitPostProcessor(Environment environment) {
+            this.environment = environment;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource) || bean instanceof ConcurrencyLimitedDataSource
+                    || !"dataSource".equals(beanName)) {
+                return bean;
+            }
+            int permits = environment.getProperty("cbs.db-concurrency.permits", Integer.class, 0);
+            if (permits <= 0) {
+                permits = poolSize(dataSource);
+            }
+            var acquireTimeout = environment.getProperty("cbs.db-concurrency.acquire-timeout", Duration.class, Duration.ofSeconds(30));
+            return new ConcurrencyLimitedDataSource(dataSource, permits, acquireTimeout);
+        }
+
+        private int poolSize(DataSource dataSource) {
+            HikariDataSource primary;
+            try {
+                primary = dataSource.unwrap(HikariDataSource.class);
+            } catch (SQLException e) {
+                throw new IllegalStateException("Set cbs.db-concurrency.permits for a data source without a Hikari pool", e);
+            }
+            var replicaUrls = environment.getProperty("cbs.replicas.urls", String[].class, new String[0]);
+            int replicaPoolSize = environment.getProperty("cbs.replicas.pool-size", Integer.class, 10);
+            int primarySize = primary.getMaximumPoolSize() > 0 ? primary.getMaximumPoolSize() : HIKARI_DEFAULT_POOL_SIZE;
+            return primarySize + replicaUrls.length * replicaPoolSize;
+        }
+    }
+}
@@ -1,11 +1,19 @@
 package tech.cbs.api.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import tech.cbs.api.repository.BookReadModel;
+import tech.cbs.api.repository.VersionRepository;
+
+import java.time.Duration;
 
 @Configuration
 public class WebConfig {
@@ -26,9 +34,62 @@ public class WebConfig {
                             HttpMethod.DELETE.name())
                     .allowedHeaders(
                             HttpHeaders.CONTENT_TYPE,
-                            HttpHeaders.AUTHORIZATION
-                    );
+                            HttpHeaders.AUTHORIZATION,
+                            HttpHeaders.IF_NONE_MATCH,
+                            ReadYourWritesFilter.HEADER
+                    )
+                    .exposedHeaders(ReadYourWritesFilter.HEADER, HttpHeaders.ETAG, HttpHeaders.AGE, HttpHeaders.WARNING);
+            }
+        };
+    }
+
+    @Bean
+    public WebMvcConfigurer conditionalGetConfigurer(
+            VersionRepository versionRepository,
+            @Value("${cbs.read-model.mode:JOIN}") BookReadModel readModel) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new ConditionalGetInterceptor(versionRepository, readModel));
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "cbs.response-cache", name = "enabled", havingValue = "true")
+    public ResponseCache responseCache(
+            @Value("${cbs.response-cache.max-size:64MB}") DataSize maxSize,
+            @Value("${cbs.response-cache.max-entry-size:1MB}") DataSize maxEntrySize,
+            @Value("${cbs.response-cache.min-compress-size:1KB}") DataSize minCompressSize,
+            @Value("${cbs.response-cache.expire-after-write:5m}") Duration expireAfterWrite) {
+        return new ResponseCache(maxSize.toBytes(), (int) maxEntrySize.toBytes(), (int) minCompressSize.toBytes(),
+                expireAfterWrite);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "cbs.response-cache", name = "enabled", havingValue = "true")
+    public ResponseCacheFilter responseCacheFilter(ResponseCache responseCache) {
+        return new ResponseCacheFilter(responseCache);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "cbs.response-cache", name = "enabled", havingValue = "true")
+    public WebMvcConfigurer responseCacheConfigurer(
+            ResponseCache responseCache,
+            @Value("${cbs.read-model.mode:JOIN}") BookReadModel readModel) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new ResponseCacheInterceptor(responseCache, readModel));
             }
         };
     }
+
+    /**
+     * Registered whatever the stale-read mode, prefetched pages are served from memory as well
+     */
+    @Bean
+    public StaleReadFilter staleReadFilter() {
+        return new StaleReadFilter();
+    }
 }
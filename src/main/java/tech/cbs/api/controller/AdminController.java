@@ -1,16 +1,69 @@
 package tech.cbs.api.controller;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import tech.cbs.api.service.BookImportService;
+import tech.cbs.api.service.CacheService;
+import tech.cbs.api.service.PinningService;
+import tech.cbs.api.service.dto.CacheStats;
+import tech.cbs.api.service.dto.ImportReport;
+import tech.cbs.api.service.dto.PinnedStack;
+import tech.cbs.api.service.importer.ImportFormat;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/admin")
 public class AdminController {
 
+    private final BookImportService bookImportService;
+    private final CacheService cacheService;
+    private final PinningService pinningService;
+
+    public AdminController(BookImportService bookImportService, CacheService cacheService, PinningService pinningService) {
+        this.bookImportService = bookImportService;
+        this.cacheService = cacheService;
+        this.pinningService = pinningService;
+    }
+
     @GetMapping
     public ResponseEntity<?> getAdmin() {
         return ResponseEntity.ok("Admin");
     }
+
+    @PostMapping(value = "/books/import", consumes = {ImportFormat.TEXT_CSV_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ImportReport> importBooks(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) {
+        return ResponseEntity.ok(bookImportService.importBooks(body, ImportFormat.of(contentType)));
+    }
+
+    @GetMapping("/imports")
+    public ResponseEntity<List<ImportReport>> getImports() {
+        return ResponseEntity.ok(bookImportService.getImports());
+    }
+
+    @GetMapping("/imports/{id}")
+    public ResponseEntity<ImportReport> getImport(@PathVariable("id") String id) {
+        return ResponseEntity.of(bookImportService.getImport(id));
+    }
+
+    @GetMapping("/caches")
+    public ResponseEntity<Map<String, CacheStats>> getCacheStats() {
+        return ResponseEntity.ok(cacheService.getStats());
+    }
+
+    @GetMapping("/pinning")
+    public ResponseEntity<List<PinnedStack>> getPinnedStacks() {
+        return ResponseEntity.ok(pinningService.getPinnedStacks());
+    }
 }
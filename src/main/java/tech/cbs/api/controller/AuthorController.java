@@ -24,6 +24,7 @@
 
 package tech.cbs.api.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -32,10 +33,17 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tech.cbs.api.repository.invalidation.EntityType;
 import tech.cbs.api.service.AuthorService;
 import tech.cbs.api.service.dto.AuthorDto;
+import tech.cbs.api.service.dto.CountPrecision;
+import tech.cbs.api.service.dto.CountedPage;
+import tech.cbs.api.service.dto.CursorPage;
 import tech.cbs.api.service.dto.Page;
+import tech.cbs.api.service.dto.Slice;
 
 import java.util.List;
 
@@ -44,19 +52,58 @@ import java.util.List;
 public class AuthorController {
 
     private final AuthorService authorService;
+    private final ObjectMapper objectMapper;
 
-    public AuthorController(AuthorService authorService) {
+    public AuthorController(AuthorService authorService, ObjectMapper objectMapper) {
         this.authorService = authorService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping("/{num}/{size}")
+    @CachedResponse(EntityType.AUTHOR)
+    @ConditionalGet(value = EntityType.AUTHOR, list = true)
     public ResponseEntity<List<AuthorDto>> getAuthors(@PathVariable("num") int num, @PathVariable("size") int size) {
         return ResponseEntity.ok(authorService.getAuthors(new Page(num, size)));
     }
 
+    @GetMapping
+    @CachedResponse(EntityType.AUTHOR)
+    @ConditionalGet(value = EntityType.AUTHOR, list = true)
+    public ResponseEntity<Slice<AuthorDto>> getAuthors(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "sort", defaultValue = "name") String sort,
+            @RequestParam(name = "size", defaultValue = "20") int size) {
+        return ResponseEntity.ok(authorService.getAuthors(CursorPage.of(cursor, sort, size)));
+    }
+
+    @GetMapping("/page")
+    @CachedResponse(EntityType.AUTHOR)
+    @ConditionalGet(value = EntityType.AUTHOR, list = true)
+    public ResponseEntity<CountedPage<AuthorDto>> getAuthorPage(
+            @RequestParam(name = "num", defaultValue = "0") int num,
+            @RequestParam(name = "size", defaultValue = "20") int size,
+            @RequestParam(name = "count", defaultValue = "ESTIMATE") CountPrecision precision) {
+        return ResponseEntity.ok(authorService.getAuthorPage(new Page(num, size), precision));
+    }
+
+    @GetMapping("/batch")
+    @CachedResponse(EntityType.AUTHOR)
+    @ConditionalGet(value = EntityType.AUTHOR, list = true)
+    public ResponseEntity<List<AuthorDto>> getAuthorsByIds(@RequestParam("ids") int[] ids) {
+        return ResponseEntity.ok(authorService.getAuthorsByIds(BatchRequests.checked(ids)));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAuthors() {
+        return NdjsonResponses.<AuthorDto>stream(objectMapper, authorService::exportAuthors);
+    }
+
     @GetMapping("/{id}")
+    @CachedResponse(EntityType.AUTHOR)
     public ResponseEntity<AuthorDto> getAuthor(@PathVariable("id") int id) {
-        return ResponseEntity.ok(authorService.getAuthor(id));
+        // the ETag comes with the body rather than from a probe, the body may be a cached copy
+        var author = authorService.getVersionedAuthor(id);
+        return ResponseEntity.ok().eTag(author.version()).body(author.value());
     }
 
     @PostMapping
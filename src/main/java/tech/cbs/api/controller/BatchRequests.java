@@ -0,0 +1,30 @@
+package tech.cbs.api.controller;
+
+import tech.cbs.api.exception.BatchTooLargeException;
+
+/**
+ * Limits of the {@code /batch} multi-get endpoints.
+ */
+final class BatchRequests {
+
+    /**
+     * Largest number of ids one request may ask for, keeps a single request from turning into
+     * an unbounded {@code = ANY(...)} scan and response
+     */
+    static final int MAX_IDS = 100;
+
+    private BatchRequests() {
+    }
+
+    /**
+     * @param ids requested ids
+     * @return the same ids
+     * @throws BatchTooLargeException if there are more than {@link #MAX_IDS} of them
+     */
+    static int[] checked(int[] ids) {
+        if (ids.length > MAX_IDS) {
+            throw new BatchTooLargeException("At most " + MAX_IDS + " ids per request: " + ids.length);
+        }
+        return ids;
+    }
+}
@@ -1,6 +1,8 @@
 package tech.cbs.api.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -9,46 +11,160 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tech.cbs.api.repository.invalidation.EntityType;
+import tech.cbs.api.repository.model.Level;
 import tech.cbs.api.service.BookService;
+import tech.cbs.api.service.BrowseService;
 import tech.cbs.api.service.dto.BookDto;
+import tech.cbs.api.service.dto.BookSearch;
+import tech.cbs.api.service.dto.BrowseDto;
+import tech.cbs.api.service.dto.BrowseQuery;
+import tech.cbs.api.service.dto.CountPrecision;
+import tech.cbs.api.service.dto.CountedPage;
+import tech.cbs.api.service.dto.CursorPage;
 import tech.cbs.api.service.dto.Page;
+import tech.cbs.api.service.dto.Slice;
+import tech.cbs.api.service.dto.TagMatch;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/v1/books")
 public class BookController {
 
     private final BookService bookService;
+    private final BrowseService browseService;
+    private final ObjectMapper objectMapper;
 
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, BrowseService browseService, ObjectMapper objectMapper) {
         this.bookService = bookService;
+        this.browseService = browseService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping("/{num}/{size}")
-    public ResponseEntity<List<BookDto>> getBooks(
+    @CachedResponse({EntityType.BOOK, EntityType.AUTHOR, EntityType.TAG})
+    @ConditionalGet(value = EntityType.BOOK, list = true)
+    public ResponseEntity<?> getBooks(
             @PathVariable("num") int num,
             @PathVariable("size") int size) {
-        return ResponseEntity.ok(bookService.getBooks(new Page(num, size)));
+        var page = new Page(num, size);
+        return jsonOr(bookService.getBooksJson(page), () -> bookService.getBooks(page));
+    }
+
+    @GetMapping
+    @CachedResponse({EntityType.BOOK, EntityType.AUTHOR, EntityType.TAG})
+    @ConditionalGet(value = EntityType.BOOK, list = true)
+    public ResponseEntity<Slice<BookDto>> getBooks(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "sort", defaultValue = "title") String sort,
+            @RequestParam(name = "size", defaultValue = "20") int size) {
+        return ResponseEntity.ok(bookService.getBooks(CursorPage.of(cursor, sort, size)));
+    }
+
+    @GetMapping("/page")
+    @CachedResponse({EntityType.BOOK, EntityType.AUTHOR, EntityType.TAG})
+    @ConditionalGet(value = EntityType.BOOK, list = true)
+    public ResponseEntity<CountedPage<BookDto>> getBookPage(
+            @RequestParam(name = "num", defaultValue = "0") int num,
+            @RequestParam(name = "size", defaultValue = "20") int size,
+            @RequestParam(name = "count", defaultValue = "ESTIMATE") CountPrecision precision) {
+        return ResponseEntity.ok(bookService.getBookPage(new Page(num, size), precision));
+    }
+
+    @GetMapping("/search")
+    @ConditionalGet(value = EntityType.BOOK, list = true)
+    public ResponseEntity<Slice<BookDto>> searchBooks(
+            @RequestParam("q") String query,
+            @RequestParam(name = "tag", required = false) Integer tagId,
+            @RequestParam(name = "level", required = false) Level level,
+            @RequestParam(name = "available", required = false) Boolean available,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "20") int size) {
+        return ResponseEntity.ok(bookService.searchBooks(
+                new BookSearch(query, tagId, level, available),
+                CursorPage.of(cursor, "rank", size)));
+    }
+
+    @GetMapping("/browse")
+    public ResponseEntity<BrowseDto> browseBooks(
+            @RequestParam(name = "level", required = false) Set<Level> levels,
+            @RequestParam(name = "tags", required = false) Set<Integer> allTags,
+            @RequestParam(name = "anyTags", required = false) Set<Integer> anyTags,
+            @RequestParam(name = "excludeTags", required = false) Set<Integer> noTags,
+            @RequestParam(name = "available", required = false) Boolean available,
+            @RequestParam(name = "yearFrom", required = false) Integer yearFrom,
+            @RequestParam(name = "yearTo", required = false) Integer yearTo,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "20") int size) {
+        return ResponseEntity.ok(browseService.browse(
+                new BrowseQuery(levels, allTags, anyTags, noTags, available, yearFrom, yearTo),
+                CursorPage.of(cursor, "id", size)));
+    }
+
+    @GetMapping("/batch")
+    @CachedResponse({EntityType.BOOK, EntityType.AUTHOR, EntityType.TAG})
+    @ConditionalGet(value = EntityType.BOOK, list = true)
+    public ResponseEntity<List<BookDto>> getBooksByIds(@RequestParam("ids") int[] ids) {
+        return ResponseEntity.ok(bookService.getBooksByIds(BatchRequests.checked(ids)));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBooks() {
+        return NdjsonResponses.<BookDto>stream(objectMapper, bookService::exportBooks);
     }
 
     @GetMapping("/{id}")
+    @CachedResponse({EntityType.BOOK, EntityType.AUTHOR, EntityType.TAG})
     public ResponseEntity<BookDto> getBook(@PathVariable("id") int id) {
-        return ResponseEntity.ok(bookService.getBook(id));
+        // the ETag comes with the body rather than from a probe, the body may be a cached copy
+        var book = bookService.getVersionedBook(id);
+        return ResponseEntity.ok().eTag(book.version()).body(book.value());
     }
 
     @GetMapping("/author/{id}")
-    public ResponseEntity<List<BookDto>> getBooksByAuthor(@PathVariable("id") int id) {
-        return ResponseEntity.ok(bookService.getBooksByAuthor(id));
+    @CachedResponse({EntityType.BOOK, EntityType.AUTHOR, EntityType.TAG})
+    @ConditionalGet(value = EntityType.BOOK, list = true)
+    public ResponseEntity<?> getBooksByAuthor(@PathVariable("id") int id) {
+        return jsonOr(bookService.getBooksByAuthorJson(id), () -> bookService.getBooksByAuthor(id));
     }
 
     @GetMapping("/tag/{id}/{num}/{size}")
-    public ResponseEntity<List<BookDto>> getBooksByTag(
+    @CachedResponse({EntityType.BOOK, EntityType.AUTHOR, EntityType.TAG})
+    @ConditionalGet(value = EntityType.BOOK, list = true)
+    public ResponseEntity<?> getBooksByTag(
             @PathVariable("id") int id,
             @PathVariable("num") int num,
             @PathVariable("size") int size) {
-        return ResponseEntity.ok(bookService.getBooksByTag(id, new Page(num, size)));
+        var page = new Page(num, size);
+        return jsonOr(bookService.getBooksByTagJson(id, page), () -> bookService.getBooksByTag(id, page));
+    }
+
+    @GetMapping("/tag/{id}/page")
+    @CachedResponse({EntityType.BOOK, EntityType.AUTHOR, EntityType.TAG})
+    @ConditionalGet(value = EntityType.BOOK, list = true)
+    public ResponseEntity<CountedPage<BookDto>> getBookPageByTag(
+            @PathVariable("id") int id,
+            @RequestParam(name = "num", defaultValue = "0") int num,
+            @RequestParam(name = "size", defaultValue = "20") int size) {
+        return ResponseEntity.ok(bookService.getBookPageByTag(id, new Page(num, size)));
+    }
+
+    @GetMapping("/tags")
+    @CachedResponse({EntityType.BOOK, EntityType.AUTHOR, EntityType.TAG})
+    @ConditionalGet(value = EntityType.BOOK, list = true)
+    public ResponseEntity<Slice<BookDto>> getBooksByTags(
+            @RequestParam("ids") int[] tagIds,
+            @RequestParam(name = "match", defaultValue = "ALL") TagMatch match,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "20") int size) {
+        return ResponseEntity.ok(bookService.getBooksByTags(tagIds, match, CursorPage.of(cursor, "id", size)));
     }
 
     @PostMapping
@@ -65,4 +181,12 @@ public class BookController {
     public ResponseEntity<Boolean> deleteBook(@PathVariable("id") int id) {
         return ResponseEntity.ok(bookService.deleteBook(id));
     }
+
+    /**
+     * JSON built by the database is written as is, otherwise the DTOs are serialized by Jackson
+     */
+    private static ResponseEntity<?> jsonOr(Optional<byte[]> json, Supplier<List<BookDto>> dtos) {
+        return json.<ResponseEntity<?>>map(body -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body))
+                .orElseGet(() -> ResponseEntity.ok(dtos.get()));
+    }
 }
@@ -0,0 +1,25 @@
+package tech.cbs.api.controller;
+
+import tech.cbs.api.repository.invalidation.EntityType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Handler whose serialized response is kept in the server-side response cache and sent again to every client
+ * asking for the same route and parameters, until an entity of one of the listed types is written.
+ * <p>
+ * Only for handlers whose output depends on nothing but the route, the parameters and the listed entities,
+ * and whose sources are up to date when the invalidation arrives.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CachedResponse {
+
+    /**
+     * @return entity types the response is built from, including the ones whose deletes cascade into it
+     */
+    EntityType[] value();
+}
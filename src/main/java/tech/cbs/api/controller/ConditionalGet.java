@@ -0,0 +1,32 @@
+package tech.cbs.api.controller;
+
+import tech.cbs.api.repository.invalidation.EntityType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Handler whose response carries an ETag from the row versions, and which is skipped with
+ * {@code 304 Not Modified} when the client already has it.
+ * <p>
+ * A single resource takes a strong ETag from the version of the entity named by the {@code id} path variable,
+ * a list a weak ETag from the version of the whole table.
+ * Only for handlers that read the database directly: a response built from an in-memory copy may lag behind
+ * the versions and would be cached under an ETag it does not match.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConditionalGet {
+
+    /**
+     * @return type of the returned entities
+     */
+    EntityType value();
+
+    /**
+     * @return whether the handler returns a list rather than the entity with the {@code id} path variable
+     */
+    boolean list() default false;
+}
@@ -0,0 +1,78 @@
+package tech.cbs.api.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
+/**
+ * Builds newline delimited JSON responses that are written row by row while the source is read.
+ * <p>
+ * A stream runs for as long as the client keeps reading, so it gets its own async timeout instead of
+ * the default of every other async handler.
+ */
+final class NdjsonResponses {
+
+    static final Duration TIMEOUT = Duration.ofHours(1);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Sets the timeout on the async request before it starts, a per-request counterpart of {@code WebAsyncTask}
+     */
+    private static final CallableProcessingInterceptor TIMEOUT_INTERCEPTOR = new CallableProcessingInterceptor() {
+        @Override
+        public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+            if (request instanceof AsyncWebRequest asyncRequest) {
+                asyncRequest.setTimeout(TIMEOUT.toMillis());
+            }
+        }
+    };
+
+    private NdjsonResponses() {
+    }
+
+    /**
+     * @param objectMapper mapper used for every row
+     * @param source       pushes rows into the given consumer
+     * @return streaming response
+     */
+    static <T> ResponseEntity<StreamingResponseBody> stream(ObjectMapper objectMapper, Consumer<Consumer<T>> source) {
+        var writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(new BufferedOutputStream(out, BUFFER_SIZE))) {
+                generator.setRootValueSeparator(null);
+                source.accept(row -> {
+                    try {
+                        writer.writeValue(generator, row);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            WebAsyncUtils.getAsyncManager(attributes.getRequest())
+                    .registerCallableInterceptor(NdjsonResponses.class, TIMEOUT_INTERCEPTOR);
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+}
@@ -0,0 +1,38 @@
+package tech.cbs.api.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import tech.cbs.api.service.SpellingService;
+import tech.cbs.api.service.SuggestService;
+import tech.cbs.api.service.dto.SpellingCorrectionDto;
+import tech.cbs.api.service.dto.SuggestionDto;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/suggest")
+public class SuggestController {
+
+    private final SuggestService suggestService;
+    private final SpellingService spellingService;
+
+    public SuggestController(SuggestService suggestService, SpellingService spellingService) {
+        this.suggestService = suggestService;
+        this.spellingService = spellingService;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<SuggestionDto>> suggest(
+            @RequestParam("q") String query,
+            @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        return ResponseEntity.ok(suggestService.suggest(query, limit));
+    }
+
+    @GetMapping("/spelling")
+    public ResponseEntity<SpellingCorrectionDto> correctSpelling(@RequestParam("q") String query) {
+        return ResponseEntity.ok(spellingService.correct(query));
+    }
+}
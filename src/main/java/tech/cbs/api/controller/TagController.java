@@ -1,5 +1,6 @@
 package tech.cbs.api.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -8,9 +9,15 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tech.cbs.api.repository.invalidation.EntityType;
 import tech.cbs.api.service.TagService;
+import tech.cbs.api.service.dto.CountedPage;
+import tech.cbs.api.service.dto.CursorPage;
 import tech.cbs.api.service.dto.Page;
+import tech.cbs.api.service.dto.Slice;
 import tech.cbs.api.service.dto.TagDto;
 
 import java.util.List;
@@ -20,12 +27,15 @@ import java.util.List;
 public class TagController {
 
     private final TagService tagService;
+    private final ObjectMapper objectMapper;
 
-    public TagController(TagService tagService) {
+    public TagController(TagService tagService, ObjectMapper objectMapper) {
         this.tagService = tagService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping("/{num}/{size}")
+    @CachedResponse(EntityType.TAG)
     public ResponseEntity<List<TagDto>> getTags(
             @PathVariable("num") int num,
             @PathVariable("size") int size
@@ -33,7 +43,36 @@ public class TagController {
         return ResponseEntity.ok(tagService.getTags(new Page(num, size)));
     }
 
+    @GetMapping
+    @CachedResponse(EntityType.TAG)
+    public ResponseEntity<Slice<TagDto>> getTags(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "sort", defaultValue = "name") String sort,
+            @RequestParam(name = "size", defaultValue = "20") int size) {
+        return ResponseEntity.ok(tagService.getTags(CursorPage.of(cursor, sort, size)));
+    }
+
+    @GetMapping("/page")
+    @CachedResponse(EntityType.TAG)
+    public ResponseEntity<CountedPage<TagDto>> getTagPage(
+            @RequestParam(name = "num", defaultValue = "0") int num,
+            @RequestParam(name = "size", defaultValue = "20") int size) {
+        return ResponseEntity.ok(tagService.getTagPage(new Page(num, size)));
+    }
+
+    @GetMapping("/batch")
+    @CachedResponse(EntityType.TAG)
+    public ResponseEntity<List<TagDto>> getTagsByIds(@RequestParam("ids") int[] ids) {
+        return ResponseEntity.ok(tagService.getTagsByIds(BatchRequests.checked(ids)));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTags() {
+        return NdjsonResponses.<TagDto>stream(objectMapper, tagService::exportTags);
+    }
+
     @GetMapping("/{id}")
+    @CachedResponse(EntityType.TAG)
     public ResponseEntity<TagDto> getTag(@PathVariable("id") int id) {
         return ResponseEntity.ok(tagService.getTag(id));
     }
@@ -1,7 +1,35 @@
 package tech.cbs.api.exception;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
 public class ResourceNotFoundException extends RuntimeException {
+
+    private final String resource;
+    private final int id;
+
     public ResourceNotFoundException(String message) {
         super(message);
+        this.resource = null;
+        this.id = 0;
+    }
+
+    /**
+     * Stackless, for lookups by id that miss often: the trace would only show the lookup itself.
+     * The message is built only if someone reads it.
+     *
+     * @param resource name of the resource, e.g. {@code book}
+     * @param id       id that was looked up
+     */
+    public ResourceNotFoundException(String resource, int id) {
+        super(null, null, false, false);
+        this.resource = resource;
+        this.id = id;
+    }
+
+    @Override
+    public String getMessage() {
+        return resource == null ? super.getMessage() : "Could not find " + resource + " with id " + id;
     }
 }
@@ -25,10 +25,14 @@
 package tech.cbs.api.repository;
 
 import tech.cbs.api.repository.model.Model;
+import tech.cbs.api.service.dto.CursorPage;
 import tech.cbs.api.service.dto.Page;
+import tech.cbs.api.service.dto.Slice;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 /**
  * Interface for all repositories
@@ -45,6 +49,29 @@ public interface AbstractModelRepository <T extends Model> {
      */
     List<T> findAll(Page page);
 
+    /**
+     * Find models using keyset pagination
+     *
+     * @param page cursor page
+     * @return slice of models with the cursor of the next page
+     */
+    Slice<T> findAll(CursorPage page);
+
+    /**
+     * Stream all models ordered by id through a server-side cursor.
+     * Must be called inside a transaction, otherwise the driver buffers the whole result.
+     *
+     * @param consumer receives models one by one
+     */
+    void streamAll(Consumer<T> consumer);
+
+    /**
+     * Stream the ids of all models in ascending order through a server-side cursor
+     *
+     * @param consumer receives ids one by one
+     */
+    void streamIds(IntConsumer consumer);
+
     /**
      * Find model by id
      *
@@ -53,6 +80,14 @@ public interface AbstractModelRepository <T extends Model> {
      */
     Optional<T> findById(int id);
 
+    /**
+     * Find models by ids in a single query, ids that do not exist are skipped
+     *
+     * @param ids model ids
+     * @return list of models ordered by id
+     */
+    List<T> findAllByIds(int[] ids);
+
     /**
      * Save model
      *
@@ -61,6 +96,14 @@ public interface AbstractModelRepository <T extends Model> {
      */
     int save(T model);
 
+    /**
+     * Insert model and read it back in the same statement
+     *
+     * @param model model
+     * @return created model as stored in the database
+     */
+    T create(T model);
+
 
     /**
      * Update model
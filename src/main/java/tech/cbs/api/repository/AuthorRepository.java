@@ -25,9 +25,20 @@
 package tech.cbs.api.repository;
 
 import tech.cbs.api.repository.model.Author;
+import tech.cbs.api.service.dto.Versioned;
+
+import java.util.List;
 
 /**
  * Interface for author repository
  */
 public interface AuthorRepository extends AbstractModelRepository<Author> {
+
+    /**
+     * {@link #findAllByIds(int[])} with the version of every author, read in the same statement
+     *
+     * @param ids author ids
+     * @return list of versioned authors ordered by id
+     */
+    List<Versioned<Author>> findAllVersionedByIds(int[] ids);
 }
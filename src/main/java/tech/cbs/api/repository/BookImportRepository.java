@@ -0,0 +1,20 @@
+package tech.cbs.api.repository;
+
+import tech.cbs.api.repository.model.ImportedBook;
+
+import java.util.List;
+
+/**
+ * Interface for bulk book import
+ */
+public interface BookImportRepository {
+
+    /**
+     * Import a batch of books in one transaction.
+     * Authors and tags are created when missing, books whose title or isbn already exist are skipped.
+     *
+     * @param batch books to import
+     * @return lines of the books that were skipped
+     */
+    List<Long> importBatch(List<ImportedBook> batch);
+}
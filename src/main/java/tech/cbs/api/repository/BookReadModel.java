@@ -0,0 +1,17 @@
+package tech.cbs.api.repository;
+
+/**
+ * Where the book list queries read from, set with {@code cbs.read-model.mode}
+ */
+public enum BookReadModel {
+
+    /**
+     * {@code book} with its tags aggregated per row, always current
+     */
+    JOIN,
+
+    /**
+     * The {@code book_read_model} materialized view, current as of its last refresh
+     */
+    PROJECTION
+}
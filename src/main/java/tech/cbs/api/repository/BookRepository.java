@@ -25,7 +25,12 @@
 package tech.cbs.api.repository;
 
 import tech.cbs.api.repository.model.Book;
+import tech.cbs.api.service.dto.BookSearch;
+import tech.cbs.api.service.dto.CursorPage;
 import tech.cbs.api.service.dto.Page;
+import tech.cbs.api.service.dto.Slice;
+import tech.cbs.api.service.dto.TagMatch;
+import tech.cbs.api.service.dto.Versioned;
 
 import java.util.List;
 
@@ -37,4 +42,56 @@ public interface BookRepository extends AbstractModelRepository<Book> {
     List<Book> findByAuthorId(int id);
 
     List<Book> findByTagId(int id, Page page);
+
+    /**
+     * {@link #findAllByIds(int[])} with the version of every book, read in the same statement
+     *
+     * @param ids book ids
+     * @return list of versioned books ordered by id
+     */
+    List<Versioned<Book>> findAllVersionedByIds(int[] ids);
+
+    /**
+     * {@link #findAll(Page)} serialized by the database
+     *
+     * @param page page
+     * @return UTF-8 JSON array of {@code BookDto}, byte for byte what Jackson writes for the mapped list
+     */
+    byte[] findAllJson(Page page);
+
+    /**
+     * {@link #findByAuthorId(int)} serialized by the database
+     *
+     * @param id author id
+     * @return UTF-8 JSON array of {@code BookDto}, byte for byte what Jackson writes for the mapped list
+     */
+    byte[] findByAuthorIdJson(int id);
+
+    /**
+     * {@link #findByTagId(int, Page)} serialized by the database
+     *
+     * @param id   tag id
+     * @param page page
+     * @return UTF-8 JSON array of {@code BookDto}, byte for byte what Jackson writes for the mapped list
+     */
+    byte[] findByTagIdJson(int id, Page page);
+
+    /**
+     * Books tagged with several tags, in id order
+     *
+     * @param tagIds tag ids; with {@link TagMatch#ALL} the first one is scanned and should be the most selective
+     * @param match  whether a book needs all or any of the tags
+     * @param page   cursor page, sorted by {@code id}
+     * @return slice of books with the cursor of the next page
+     */
+    Slice<Book> findByTagIds(int[] tagIds, TagMatch match, CursorPage page);
+
+    /**
+     * Full-text search ordered by relevance, best match first
+     *
+     * @param search query and filters
+     * @param page   cursor page, sorted by {@code rank}
+     * @return slice of matching books with the cursor of the next page
+     */
+    Slice<Book> search(BookSearch search, CursorPage page);
 }
@@ -0,0 +1,32 @@
+package tech.cbs.api.repository;
+
+import tech.cbs.api.repository.invalidation.EntityType;
+
+/**
+ * Total counts that never scan the counted table
+ */
+public interface CountRepository {
+
+    /**
+     * @param type entity type
+     * @return number of rows, from the counters maintained by triggers
+     */
+    long countExact(EntityType type);
+
+    /**
+     * @param type entity type
+     * @return planner estimate of the number of rows, the exact count if the table was never analyzed
+     */
+    long countEstimate(EntityType type);
+
+    /**
+     * @param tagId tag id
+     * @return number of books with the tag, from the {@code tag_book_count} rollup
+     */
+    long countBooksByTag(int tagId);
+
+    /**
+     * Fold the counter deltas appended by writers into one row per table and per tag
+     */
+    void compact();
+}
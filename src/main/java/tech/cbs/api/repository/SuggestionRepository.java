@@ -0,0 +1,25 @@
+package tech.cbs.api.repository;
+
+import tech.cbs.api.repository.invalidation.EntityType;
+import tech.cbs.api.repository.model.Suggestion;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Interface for the source of typeahead suggestions
+ */
+public interface SuggestionRepository {
+
+    /**
+     * @return book titles, author names and tag names with their popularity
+     */
+    List<Suggestion> findAll();
+
+    /**
+     * @param type entity type
+     * @param id   entity id
+     * @return title of a book, name of an author or a tag
+     */
+    Optional<String> findText(EntityType type, int id);
+}
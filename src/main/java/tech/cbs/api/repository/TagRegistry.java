@@ -0,0 +1,230 @@
+package tech.cbs.api.repository;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tech.cbs.api.exception.InvalidCursorException;
+import tech.cbs.api.repository.invalidation.EntityType;
+import tech.cbs.api.repository.invalidation.InvalidationListener;
+import tech.cbs.api.repository.mapper.TagRowMapper;
+import tech.cbs.api.repository.model.Tag;
+import tech.cbs.api.service.dto.CursorPage;
+import tech.cbs.api.service.dto.Page;
+import tech.cbs.api.service.dto.Slice;
+import tech.cbs.api.service.dto.TagDto;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory copy of the {@code tag} table.
+ * <p>
+ * Tags are a small bounded set, so all of them are kept as canonical {@link Tag} and {@link TagDto}
+ * instances that book reads share instead of allocating new ones per row. The registry is an immutable
+ * snapshot swapped as a whole; writers call {@link #refreshAfterCommit()}, writes on other nodes arrive
+ * through the {@link InvalidationListener}, and readers never block.
+ * The registry is the first listener, caches of responses built from it are dropped once it is reloaded.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TagRegistry implements InvalidationListener {
+
+    private static final Map<String, Comparator<Tag>> ORDERS = Map.of(
+            "id", Comparator.comparingInt(Tag::id),
+            "name", Comparator.comparing(Tag::name).thenComparingInt(Tag::id)
+    );
+
+    private final NamedParameterJdbcTemplate parameterJdbcTemplate;
+    /**
+     * Serializes reloads; not a monitor, a virtual thread waiting on the query would pin its carrier
+     */
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private volatile Snapshot snapshot = new Snapshot(List.of());
+
+    public TagRegistry(NamedParameterJdbcTemplate parameterJdbcTemplate) {
+        this.parameterJdbcTemplate = parameterJdbcTemplate;
+    }
+
+    /**
+     * Reload all tags from the database
+     */
+    @PostConstruct
+    public void reload() {
+        reloadLock.lock();
+        try {
+            load(parameterJdbcTemplate.query("SELECT id, name FROM tag;", new TagRowMapper()));
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * Replace the registry content
+     *
+     * @param tags all tags
+     */
+    public void load(Collection<Tag> tags) {
+        snapshot = new Snapshot(tags);
+    }
+
+    /**
+     * Reload the registry once the current transaction commits, or right away outside a transaction
+     */
+    public void refreshAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reload();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reload();
+            }
+        });
+    }
+
+    @Override
+    public void invalidate(EntityType type, int id) {
+        if (type == EntityType.TAG) {
+            reload();
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        reload();
+    }
+
+    /**
+     * Resolve a tag read from the database to its canonical instance
+     *
+     * @param id   tag id
+     * @param name tag name as read
+     * @return canonical tag, or a new one if the registry does not know it yet
+     */
+    public Tag tag(int id, String name) {
+        var entry = snapshot.get(id);
+        if (entry != null && entry.tag().name().equals(name)) {
+            return entry.tag();
+        }
+        return new Tag(id, name);
+    }
+
+    /**
+     * @param tag tag
+     * @return canonical dto of the tag
+     */
+    public TagDto dto(Tag tag) {
+        var entry = snapshot.get(tag.id());
+        if (entry != null && entry.tag().name().equals(tag.name())) {
+            return entry.dto();
+        }
+        return new TagDto(tag.id(), tag.name());
+    }
+
+    /**
+     * @return number of tags
+     */
+    public int size() {
+        return snapshot.sorted("id").size();
+    }
+
+    public Optional<Tag> findById(int id) {
+        var entry = snapshot.get(id);
+        return entry == null ? Optional.empty() : Optional.of(entry.tag());
+    }
+
+    /**
+     * @param page page
+     * @return tags ordered by id
+     */
+    public List<Tag> findAll(Page page) {
+        var tags = snapshot.sorted("id");
+        int from = Math.min(page.offset(), tags.size());
+        return tags.subList(from, Math.min(from + page.size(), tags.size()));
+    }
+
+    /**
+     * Same contract as {@link TagRepository#findAll(CursorPage)}, answered with a binary search
+     *
+     * @param page cursor page
+     * @return slice of tags with the cursor of the next page
+     */
+    public Slice<Tag> findAll(CursorPage page) {
+        var order = ORDERS.get(page.sort());
+        if (order == null) {
+            throw new InvalidCursorException("Unsupported sort: " + page.sort());
+        }
+        var tags = snapshot.sorted(page.sort());
+
+        int from = 0;
+        if (!page.isFirst()) {
+            int found = Collections.binarySearch(tags, new Tag(page.id(), page.key()), order);
+            from = found >= 0 ? found + 1 : -found - 1;
+        }
+        int to = Math.min(from + page.size(), tags.size());
+        var content = tags.subList(from, to);
+        if (to == tags.size()) {
+            return new Slice<>(content, null);
+        }
+        var last = content.getLast();
+        Object key = page.sort().equals("id") ? last.id() : last.name();
+        return new Slice<>(content, page.next(key, last.id()).encode());
+    }
+
+    private record Entry(Tag tag, TagDto dto) {
+    }
+
+    /**
+     * Open addressing table keyed by the primitive tag id, plus the tags in every supported order
+     */
+    private static final class Snapshot {
+
+        private final int[] keys;
+        private final Entry[] entries;
+        private final int mask;
+        private final Map<String, List<Tag>> sorted;
+
+        Snapshot(Collection<Tag> tags) {
+            int capacity = Integer.highestOneBit(Math.max(4, tags.size() * 2) - 1) << 1;
+            keys = new int[capacity];
+            entries = new Entry[capacity];
+            mask = capacity - 1;
+            for (Tag tag : tags) {
+                int slot = slot(tag.id());
+                keys[slot] = tag.id();
+                entries[slot] = new Entry(tag, new TagDto(tag.id(), tag.name()));
+            }
+
+            sorted = Map.of(
+                    "id", tags.stream().sorted(ORDERS.get("id")).toList(),
+                    "name", tags.stream().sorted(ORDERS.get("name")).toList()
+            );
+        }
+
+        Entry get(int id) {
+            return entries[slot(id)];
+        }
+
+        List<Tag> sorted(String sort) {
+            return sorted.get(sort);
+        }
+
+        private int slot(int id) {
+            int slot = (id * 0x9E3779B9) & mask;
+            while (entries[slot] != null && keys[slot] != id) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+}
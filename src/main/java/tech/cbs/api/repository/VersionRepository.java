@@ -0,0 +1,25 @@
+package tech.cbs.api.repository;
+
+import tech.cbs.api.repository.invalidation.EntityType;
+
+import java.util.Optional;
+
+/**
+ * Versions answering conditional requests without reading the resources, from the columns of
+ * {@code V7__Row_versions.sql}
+ */
+public interface VersionRepository {
+
+    /**
+     * @param type entity type
+     * @param id   entity id
+     * @return token that changes whenever the entity representation changes, empty if it does not exist
+     */
+    Optional<String> findVersion(EntityType type, int id);
+
+    /**
+     * @param type entity type
+     * @return token that changes whenever any list of the entities may change
+     */
+    String findListVersion(EntityType type);
+}
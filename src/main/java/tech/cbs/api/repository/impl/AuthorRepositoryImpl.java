@@ -24,16 +24,27 @@
 
 package tech.cbs.api.repository.impl;
 
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import tech.cbs.api.repository.AuthorRepository;
+import tech.cbs.api.repository.invalidation.EntityType;
+import tech.cbs.api.repository.invalidation.InvalidationPublisher;
 import tech.cbs.api.repository.mapper.AuthorRowMapper;
 import tech.cbs.api.repository.model.Author;
+import tech.cbs.api.service.dto.CursorPage;
 import tech.cbs.api.service.dto.Page;
+import tech.cbs.api.service.dto.Slice;
+import tech.cbs.api.service.dto.Versioned;
 
+import java.sql.Types;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 /**
  * Implementation of {@link AuthorRepository}
@@ -41,10 +52,17 @@ import java.util.Optional;
 @Repository
 public class AuthorRepositoryImpl implements AuthorRepository {
 
+    private static final Keyset<Author> KEYSET = new Keyset<>(Map.of(
+            "id", Keyset.Column.integer("id", Author::id),
+            "name", Keyset.Column.text("name", Author::name)
+    ), Author::id);
+
     private final NamedParameterJdbcTemplate parameterJdbcTemplate;
+    private final InvalidationPublisher invalidationPublisher;
 
-    public AuthorRepositoryImpl(NamedParameterJdbcTemplate parameterJdbcTemplate) {
+    public AuthorRepositoryImpl(NamedParameterJdbcTemplate parameterJdbcTemplate, InvalidationPublisher invalidationPublisher) {
         this.parameterJdbcTemplate = parameterJdbcTemplate;
+        this.invalidationPublisher = invalidationPublisher;
     }
 
     @Override
@@ -58,6 +76,37 @@ public class AuthorRepositoryImpl implements AuthorRepository {
         return parameterJdbcTemplate.query(SQL, Map.of("size", page.size(), "offset", page.offset()), new AuthorRowMapper());
     }
 
+    @Override
+    public Slice<Author> findAll(CursorPage page) {
+        var SQL = """
+                SELECT id, name, biography
+                FROM author
+                %s
+                %s
+                LIMIT :size;
+                """.formatted(KEYSET.where(page, ""), KEYSET.orderBy(page, ""));
+        return KEYSET.slice(parameterJdbcTemplate.query(SQL, KEYSET.parameters(page), new AuthorRowMapper()), page);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<Author> consumer) {
+        var mapper = new AuthorRowMapper();
+        parameterJdbcTemplate.getJdbcOperations().query(
+                new StreamingStatement("SELECT id, name, biography FROM author ORDER BY id;"),
+                (RowCallbackHandler) rs -> consumer.accept(mapper.mapRow(rs, 0))
+        );
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamIds(IntConsumer consumer) {
+        parameterJdbcTemplate.getJdbcOperations().query(
+                new StreamingStatement("SELECT id FROM author ORDER BY id;"),
+                (RowCallbackHandler) rs -> consumer.accept(rs.getInt(1))
+        );
+    }
+
     @Override
     public Optional<Author> findById(int id) {
         return parameterJdbcTemplate.query(
@@ -68,18 +117,47 @@ public class AuthorRepositoryImpl implements AuthorRepository {
     }
 
     @Override
+    public List<Author> findAllByIds(int[] ids) {
+        return parameterJdbcTemplate.query(
+                "SELECT id, name, biography FROM author WHERE id = ANY(:ids) ORDER BY id;",
+                new MapSqlParameterSource().addValue("ids", ids, Types.ARRAY),
+                new AuthorRowMapper()
+        );
+    }
+
+    @Override
+    public List<Versioned<Author>> findAllVersionedByIds(int[] ids) {
+        var authorRowMapper = new AuthorRowMapper();
+        return parameterJdbcTemplate.query(
+                "SELECT id, name, biography, version::text AS version FROM author WHERE id = ANY(:ids) ORDER BY id;",
+                new MapSqlParameterSource().addValue("ids", ids, Types.ARRAY),
+                (rs, rowNum) -> new Versioned<>(authorRowMapper.mapRow(rs, rowNum), rs.getString("version"))
+        );
+    }
+
+    @Override
+    @Transactional
     public int save(Author author) {
+        return create(author).id();
+    }
+
+    @Override
+    @Transactional
+    public Author create(Author author) {
         var INSERT_AUTHOR_SQL = """
                 INSERT INTO author (name, biography)
                 VALUES (:name, :biography)
-                RETURNING id;
+                RETURNING id, name, biography;
                 """;
-        return parameterJdbcTemplate.queryForObject(INSERT_AUTHOR_SQL, author.createParameterSources(), Integer.class);
+        var created = parameterJdbcTemplate.queryForObject(INSERT_AUTHOR_SQL, author.createParameterSources(), new AuthorRowMapper());
+        invalidationPublisher.publish(EntityType.AUTHOR, created.id());
+        return created;
     }
 
     @Override
+    @Transactional
     public boolean update(Author author) {
-        return parameterJdbcTemplate.update("""
+        boolean updated = parameterJdbcTemplate.update("""
                         UPDATE author
                         SET name=:name,
                             biography=:biography
@@ -87,10 +165,20 @@ public class AuthorRepositoryImpl implements AuthorRepository {
                         """,
                 author.createParameterSources()
         ) == 1;
+        if (updated) {
+            invalidationPublisher.publish(EntityType.AUTHOR, author.id());
+        }
+        return updated;
     }
 
     @Override
+    @Transactional
     public boolean deleteById(int id) {
-        return parameterJdbcTemplate.update("DELETE FROM author WHERE id=:id;", Map.of("id", id)) >= 1;
+        // books of the author go with it through ON DELETE CASCADE, listeners drop them on the author event
+        boolean deleted = parameterJdbcTemplate.update("DELETE FROM author WHERE id=:id;", Map.of("id", id)) >= 1;
+        if (deleted) {
+            invalidationPublisher.publish(EntityType.AUTHOR, id);
+        }
+        return deleted;
     }
 }
@@ -0,0 +1,197 @@
+package tech.cbs.api.repository.impl;
+
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import tech.cbs.api.repository.BookImportRepository;
+import tech.cbs.api.repository.TagRegistry;
+import tech.cbs.api.repository.invalidation.InvalidationPublisher;
+import tech.cbs.api.repository.model.ImportedBook;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Implementation of {@link BookImportRepository}.
+ * <p>
+ * A batch is copied into a temporary staging table with {@code COPY} and merged into {@code book}
+ * and {@code book_tags} with two set-based statements, so the cost per batch does not depend on
+ * the number of round trips per row. A batch that created anything publishes one invalidation of everything
+ * rather than one per row.
+ */
+@Repository
+public class BookImportRepositoryImpl implements BookImportRepository {
+
+    private static final String CREATE_STAGING_SQL = """
+            CREATE TEMP TABLE IF NOT EXISTS book_import
+            (
+                line             BIGINT,
+                title            VARCHAR(255),
+                author_id        INTEGER,
+                publication_year SMALLINT,
+                isbn             VARCHAR(13),
+                level            VARCHAR(12),
+                description      TEXT,
+                available        BOOLEAN,
+                tags             INTEGER[]
+            ) ON COMMIT DELETE ROWS;
+            """;
+
+    private static final String COPY_SQL = """
+            COPY book_import (line, title, author_id, publication_year, isbn, level, description, available, tags)
+            FROM STDIN (FORMAT csv)
+            """;
+
+    private static final String MERGE_SQL = """
+            WITH chosen AS (SELECT DISTINCT ON (title) *
+                            FROM book_import
+                            ORDER BY title, line),
+                 inserted AS (INSERT INTO book (title, author_id, publication_year, isbn, level, description, available)
+                     SELECT title, author_id, publication_year, isbn, level, description, available
+                     FROM chosen
+                     ORDER BY line
+                     ON CONFLICT DO NOTHING
+                     RETURNING id, title),
+                 tagged AS (INSERT INTO book_tags (book_id, tag_id)
+                     SELECT DISTINCT i.id, unnest(c.tags)
+                     FROM inserted AS i
+                     JOIN chosen AS c ON c.title = i.title
+                     ON CONFLICT DO NOTHING)
+            SELECT s.line
+            FROM book_import AS s
+            LEFT JOIN chosen AS c ON c.line = s.line
+            LEFT JOIN inserted AS i ON i.title = c.title
+            WHERE i.id IS NULL
+            ORDER BY s.line;
+            """;
+
+    private final NamedParameterJdbcTemplate parameterJdbcTemplate;
+    private final TagRegistry tagRegistry;
+    private final InvalidationPublisher invalidationPublisher;
+
+    public BookImportRepositoryImpl(
+            NamedParameterJdbcTemplate parameterJdbcTemplate,
+            TagRegistry tagRegistry,
+            InvalidationPublisher invalidationPublisher) {
+        this.parameterJdbcTemplate = parameterJdbcTemplate;
+        this.tagRegistry = tagRegistry;
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    @Override
+    @Transactional
+    public List<Long> importBatch(List<ImportedBook> batch) {
+
+        // sorted, so concurrent imports lock the unique index entries of shared names in the same order
+        Set<String> authorNames = new TreeSet<>();
+        Set<String> tagNames = new TreeSet<>();
+        for (ImportedBook book : batch) {
+            authorNames.add(book.author());
+            tagNames.addAll(book.tags());
+        }
+
+        var authors = upsertNames("""
+                INSERT INTO author (name, biography)
+                SELECT unnest(:names), ''
+                ON CONFLICT (name) DO NOTHING;
+                """, "SELECT id, name FROM author WHERE name = ANY(:names);", authorNames);
+        var tags = upsertNames("""
+                INSERT INTO tag (name)
+                SELECT unnest(:names)
+                ON CONFLICT (name) DO NOTHING;
+                """, "SELECT id, name FROM tag WHERE name = ANY(:names);", tagNames);
+        if (tags.created() > 0) {
+            tagRegistry.refreshAfterCommit();
+        }
+
+        parameterJdbcTemplate.getJdbcOperations().execute(CREATE_STAGING_SQL);
+        var csv = toCsv(batch, authors.ids(), tags.ids());
+        parameterJdbcTemplate.getJdbcOperations().execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class)
+                        .getCopyAPI()
+                        .copyIn(COPY_SQL, new StringReader(csv));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        var skipped = parameterJdbcTemplate.getJdbcOperations().queryForList(MERGE_SQL, Long.class);
+        if (skipped.size() < batch.size() || authors.created() > 0 || tags.created() > 0) {
+            invalidationPublisher.publishAll();
+        }
+        return skipped;
+    }
+
+    /**
+     * Inserts the missing names and returns the ids of all of them.
+     * Two statements are used so that the lookup sees rows committed concurrently by another import.
+     */
+    private Names upsertNames(String insertSql, String selectSql, Set<String> names) {
+        Map<String, Integer> ids = HashMap.newHashMap(names.size());
+        if (names.isEmpty()) {
+            return new Names(ids, 0);
+        }
+        var parameters = new MapSqlParameterSource().addValue("names", names.toArray(String[]::new), Types.ARRAY);
+        int created = parameterJdbcTemplate.update(insertSql, parameters);
+        parameterJdbcTemplate.query(selectSql, parameters, rs -> {
+            ids.put(rs.getString("name"), rs.getInt("id"));
+        });
+        return new Names(ids, created);
+    }
+
+    private static String toCsv(List<ImportedBook> batch, Map<String, Integer> authorIds, Map<String, Integer> tagIds) {
+        var csv = new StringBuilder(batch.size() * 256);
+        for (ImportedBook book : batch) {
+            csv.append(book.line()).append(',');
+            appendQuoted(csv, book.title()).append(',');
+            csv.append(authorIds.get(book.author())).append(',');
+            csv.append(book.publicationYear()).append(',');
+            if (book.isbn() != null) {
+                appendQuoted(csv, book.isbn());
+            }
+            csv.append(',');
+            csv.append(book.level().name()).append(',');
+            appendQuoted(csv, book.description()).append(',');
+            csv.append(book.available()).append(',');
+            csv.append("\"{");
+            for (int i = 0; i < book.tags().size(); i++) {
+                if (i > 0) {
+                    csv.append(',');
+                }
+                csv.append(tagIds.get(book.tags().get(i)));
+            }
+            csv.append("}\"\n");
+        }
+        return csv.toString();
+    }
+
+    private static StringBuilder appendQuoted(StringBuilder csv, String value) {
+        csv.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                csv.append('"');
+            }
+            csv.append(c);
+        }
+        return csv.append('"');
+    }
+
+    /**
+     * @param ids     ids by name
+     * @param created number of names that were inserted
+     */
+    private record Names(Map<String, Integer> ids, int created) {
+    }
+}
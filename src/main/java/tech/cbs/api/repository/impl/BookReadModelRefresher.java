@@ -0,0 +1,121 @@
+package tech.cbs.api.repository.impl;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import tech.cbs.api.repository.BookReadModel;
+import tech.cbs.api.repository.invalidation.EntityType;
+import tech.cbs.api.repository.invalidation.InvalidationListener;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the {@code book_read_model} materialized view close to the tables while the list queries read it.
+ * <p>
+ * Changes to books, authors and tags are batched into one {@code REFRESH MATERIALIZED VIEW CONCURRENTLY}
+ * per delay, which does not block readers of the view. Every node receives every invalidation, so only the
+ * node holding an advisory lock refreshes; a node that does not get the lock skips its refresh, since the
+ * holder refreshes again once it receives the same invalidation.
+ *
+ * @see BookReadModel#PROJECTION
+ */
+@Component
+@ConditionalOnProperty(prefix = "cbs.read-model", name = "mode", havingValue = "PROJECTION")
+public class BookReadModelRefresher implements InvalidationListener {
+
+    private static final Logger log = LoggerFactory.getLogger(BookReadModelRefresher.class);
+
+    private static final String LOCK_SQL = "SELECT pg_advisory_lock(hashtext('book_read_model'));";
+    private static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_lock(hashtext('book_read_model'));";
+    private static final String UNLOCK_SQL = "SELECT pg_advisory_unlock(hashtext('book_read_model'));";
+
+    private final NamedParameterJdbcTemplate parameterJdbcTemplate;
+    private final Duration refreshDelay;
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().daemon().name("book-read-model-refresh").factory());
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+
+    public BookReadModelRefresher(
+            NamedParameterJdbcTemplate parameterJdbcTemplate,
+            @Value("${cbs.read-model.refresh-delay:1s}") Duration refreshDelay) {
+        this.parameterJdbcTemplate = parameterJdbcTemplate;
+        this.refreshDelay = refreshDelay;
+    }
+
+    /**
+     * Refresh the view now, outside of any transaction, after the refresh of another node if one is running
+     */
+    public void refresh() {
+        refresh(true);
+    }
+
+    /**
+     * Refresh the view now, outside of any transaction, unless another node is refreshing it
+     *
+     * @return whether this node refreshed the view
+     */
+    public boolean tryRefresh() {
+        return refresh(false);
+    }
+
+    private boolean refresh(boolean wait) {
+        return parameterJdbcTemplate.getJdbcOperations().execute((ConnectionCallback<Boolean>) connection -> {
+            try (var statement = connection.createStatement()) {
+                if (wait) {
+                    statement.execute(LOCK_SQL);
+                } else {
+                    try (var locked = statement.executeQuery(TRY_LOCK_SQL)) {
+                        if (!locked.next() || !locked.getBoolean(1)) {
+                            return false;
+                        }
+                    }
+                }
+                try {
+                    statement.execute("REFRESH MATERIALIZED VIEW CONCURRENTLY book_read_model;");
+                } finally {
+                    // session lock, the pooled connection outlives this refresh
+                    statement.execute(UNLOCK_SQL);
+                }
+                return true;
+            }
+        });
+    }
+
+    @Override
+    public void invalidate(EntityType type, int id) {
+        scheduleRefresh();
+    }
+
+    @Override
+    public void invalidateAll() {
+        scheduleRefresh();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private void scheduleRefresh() {
+        if (!refreshScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        refresher.schedule(() -> {
+            refreshScheduled.set(false);
+            try {
+                tryRefresh();
+            } catch (RuntimeException e) {
+                log.warn("Could not refresh the book read model, lists stay as of the previous refresh", e);
+            }
+        }, refreshDelay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+}
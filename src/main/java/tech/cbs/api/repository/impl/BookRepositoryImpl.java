@@ -24,94 +24,262 @@
 
 package tech.cbs.api.repository.impl;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
-import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
+import tech.cbs.api.exception.InvalidCursorException;
+import tech.cbs.api.repository.BookReadModel;
 import tech.cbs.api.repository.BookRepository;
-import tech.cbs.api.repository.mapper.BookResultSetExtractor;
+import tech.cbs.api.repository.TagRegistry;
+import tech.cbs.api.repository.invalidation.EntityType;
+import tech.cbs.api.repository.invalidation.InvalidationPublisher;
 import tech.cbs.api.repository.mapper.BookRowMapper;
 import tech.cbs.api.repository.model.Book;
 import tech.cbs.api.repository.model.Tag;
+import tech.cbs.api.service.dto.BookSearch;
+import tech.cbs.api.service.dto.CursorPage;
 import tech.cbs.api.service.dto.Page;
+import tech.cbs.api.service.dto.Slice;
+import tech.cbs.api.service.dto.TagMatch;
+import tech.cbs.api.service.dto.Versioned;
 
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 /**
- * Implementation of {@link BookRepository}
+ * Implementation of {@link BookRepository}.
+ * <p>
+ * The list queries read from the source chosen by {@link BookReadModel}. Single books and the multi-gets,
+ * which are read right after writes and feed the in-memory indexes, always read the {@code book} table.
  */
 @Repository
 public class BookRepositoryImpl implements BookRepository {
 
+    private static final Keyset<Book> KEYSET = new Keyset<>(Map.of(
+            "id", Keyset.Column.integer("id", Book::id),
+            "title", Keyset.Column.text("title", Book::title),
+            "year", Keyset.Column.integer("publication_year", Book::publicationYear)
+    ), Book::id);
+
+    /**
+     * Aggregates the tags of {@code b} into one row, so a book is read as a single row
+     * instead of one row per tag repeating the book columns.
+     */
+    private static final String TAGS_JOIN = """
+            CROSS JOIN LATERAL (SELECT array_agg(tg.id ORDER BY tg.id) AS tag_ids,
+                                       array_agg(tg.name ORDER BY tg.id) AS tag_names
+                                FROM book_tags AS tb
+                                JOIN tag AS tg ON tg.id = tb.tag_id
+                                WHERE tb.book_id = b.id) AS tags""";
+
+    /**
+     * The read model rows already hold the tag arrays
+     */
+    private static final String READ_MODEL_TAGS = "CROSS JOIN LATERAL (SELECT b.tag_ids, b.tag_names) AS tags";
+
+    /**
+     * A row of {@link BookRowMapper#COLUMNS} as a {@code BookDto} object, written the way Jackson writes it:
+     * no whitespace, fields in record order, tags in id order and {@code to_json} escaping strings,
+     * whose remaining differences are fixed by {@link JacksonEscaping}
+     */
+    private static final String BOOK_JSON = """
+            '{"id":' || b.id
+            || ',"title":' || to_json(b.title)
+            || ',"authorId":' || coalesce(b.author_id, 0)
+            || ',"publicationYear":' || b.publication_year
+            || ',"isbn":' || coalesce(to_json(b.isbn)::text, 'null')
+            || ',"level":' || to_json(b.level)
+            || ',"description":' || coalesce(to_json(b.description)::text, 'null')
+            || ',"available":' || coalesce(b.available, false)
+            || ',"tags":[' || coalesce((SELECT string_agg('{"id":' || t.id || ',"name":' || to_json(t.name) || '}', ','
+                                                          ORDER BY t.id)
+                                        FROM unnest(b.tag_ids, b.tag_names) AS t(id, name)), '')
+            || ']}'""";
+
+    private static final String BOOK_COLUMNS = "id, title, author_id, publication_year, isbn, level, description, available";
+
     private final NamedParameterJdbcTemplate parameterJdbcTemplate;
+    private final BookRowMapper bookRowMapper;
+    private final InvalidationPublisher invalidationPublisher;
+
+    private final BookReadModel readModel;
+    // relation, subquery columns and tags join of the list queries
+    private final String listSource;
+    private final String listColumns;
+    private final String listTagsJoin;
 
-    public BookRepositoryImpl(NamedParameterJdbcTemplate parameterJdbcTemplate) {
+    public BookRepositoryImpl(
+            NamedParameterJdbcTemplate parameterJdbcTemplate,
+            TagRegistry tagRegistry,
+            InvalidationPublisher invalidationPublisher,
+            @Value("${cbs.read-model.mode:JOIN}") BookReadModel readModel) {
         this.parameterJdbcTemplate = parameterJdbcTemplate;
+        this.bookRowMapper = new BookRowMapper(tagRegistry);
+        this.invalidationPublisher = invalidationPublisher;
+        this.readModel = readModel;
+
+        switch (readModel) {
+            case JOIN -> {
+                listSource = "book";
+                listColumns = BOOK_COLUMNS;
+                listTagsJoin = TAGS_JOIN;
+            }
+            case PROJECTION -> {
+                listSource = "book_read_model";
+                listColumns = BOOK_COLUMNS + ", tag_ids, tag_names";
+                listTagsJoin = READ_MODEL_TAGS;
+            }
+            default -> throw new IllegalArgumentException("Unknown read model: " + readModel);
+        }
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Book> findAll(Page page) {
+        return parameterJdbcTemplate.query(findAllSql(), pageParameters(page), bookRowMapper);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public byte[] findAllJson(Page page) {
+        return queryJson(findAllSql(), "b.title, b.id", pageParameters(page));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Book> findAll(CursorPage page) {
         var sql = """
-                SELECT b.id, b.title, b.author_id, b.publication_year, b.isbn, b.level, b.description, b.available,
-                t.id AS tag_id, t.name AS tag_name
+                SELECT %s
+                FROM (SELECT %s
+                      FROM %s
+                      %s
+                      %s
+                      LIMIT :size) AS b
+                %s
+                %s;
+                """.formatted(BookRowMapper.COLUMNS, listColumns, listSource, KEYSET.where(page, ""),
+                KEYSET.orderBy(page, ""), listTagsJoin, KEYSET.orderBy(page, "b."));
+
+        return KEYSET.slice(parameterJdbcTemplate.query(sql, KEYSET.parameters(page), bookRowMapper), page);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<Book> consumer) {
+        var sql = """
+                SELECT %s
                 FROM book AS b
-                JOIN book_tags AS bt on b.id = bt.book_id
-                LEFT JOIN tag AS t on t.id = bt.tag_id
-                WHERE b.id IN (SELECT id FROM book LIMIT :size OFFSET :offset)
-                ORDER BY b.title;
-                """;
+                %s
+                ORDER BY b.id;
+                """.formatted(BookRowMapper.COLUMNS, TAGS_JOIN);
+
+        parameterJdbcTemplate.getJdbcOperations().query(new StreamingStatement(sql), rs -> {
+            consumer.accept(bookRowMapper.mapRow(rs, rs.getRow()));
+        });
+    }
 
-        return parameterJdbcTemplate.query(sql, Map.of("offset", page.offset(), "size", page.size()), new BookResultSetExtractor());
+    @Override
+    @Transactional(readOnly = true)
+    public void streamIds(IntConsumer consumer) {
+        parameterJdbcTemplate.getJdbcOperations().query(
+                new StreamingStatement("SELECT id FROM book ORDER BY id;"),
+                (RowCallbackHandler) rs -> consumer.accept(rs.getInt(1))
+        );
     }
 
     @Override
     public Optional<Book> findById(int id) {
         var sql = """
-                SELECT b.id, b.title, b.author_id, b.publication_year, b.isbn, b.level, b.description, b.available,
-                t.id AS tag_id, t.name AS tag_name
+                SELECT %s
                 FROM book AS b
-                JOIN book_tags AS bt on b.id = bt.book_id
-                LEFT JOIN tag AS t on bt.tag_id = t.id
-                WHERE b.id=:id
-                ORDER BY tag_id;
-                """;
+                %s
+                WHERE b.id=:id;
+                """.formatted(BookRowMapper.COLUMNS, TAGS_JOIN);
 
-        return Objects.requireNonNull(parameterJdbcTemplate.query(sql, Map.of("id", id), new BookResultSetExtractor()))
+        return parameterJdbcTemplate.query(sql, Map.of("id", id), bookRowMapper)
                 .stream().findFirst();
     }
 
     @Override
-    @Transactional
-    public int save(Book book) {
+    @Transactional(readOnly = true)
+    public List<Book> findAllByIds(int[] ids) {
+        var sql = """
+                SELECT %s
+                FROM book AS b
+                %s
+                WHERE b.id = ANY(:ids)
+                ORDER BY b.id;
+                """.formatted(BookRowMapper.COLUMNS, TAGS_JOIN);
 
-        var INSERT_BOOK_AND_RETURN_ID_SQL = """
-                INSERT INTO book(title, author_id, publication_year, isbn, level, description, available)
-                VALUES(:title, :author_id, :publication_year, :isbn, :level, :description, :available)
-                RETURNING id;
-                """;
+        return parameterJdbcTemplate.query(sql,
+                new MapSqlParameterSource().addValue("ids", ids, Types.ARRAY),
+                bookRowMapper);
+    }
 
-        int bookId = parameterJdbcTemplate.queryForObject(INSERT_BOOK_AND_RETURN_ID_SQL, book.createParameterSources(), Integer.class);
+    @Override
+    @Transactional(readOnly = true)
+    public List<Versioned<Book>> findAllVersionedByIds(int[] ids) {
+        // the version VersionRepositoryImpl probes, digested from the tag rows the book is read with
+        var sql = """
+                SELECT %s,
+                       b.version || '.' || md5(coalesce(tags.tag_versions, ''))
+                FROM book AS b
+                CROSS JOIN LATERAL (SELECT array_agg(tg.id ORDER BY tg.id) AS tag_ids,
+                                           array_agg(tg.name ORDER BY tg.id) AS tag_names,
+                                           string_agg(tg.id || ':' || tg.version, ',' ORDER BY tg.id) AS tag_versions
+                                    FROM book_tags AS tb
+                                    JOIN tag AS tg ON tg.id = tb.tag_id
+                                    WHERE tb.book_id = b.id) AS tags
+                WHERE b.id = ANY(:ids)
+                ORDER BY b.id;
+                """.formatted(BookRowMapper.COLUMNS);
 
-        var BATCH_TAG_INSERT_SQL = """
-                INSERT INTO book_tags(book_id, tag_id)
-                VALUES (:book_id, :tag_id);
-                """;
-        SqlParameterSource[] batchArgs = book.tags()
-                .stream()
-                .map(Tag::id)
-                .map(tagId -> new MapSqlParameterSource()
-                        .addValue("book_id", bookId)
-                        .addValue("tag_id", tagId))
-                .toArray(SqlParameterSource[]::new);
+        return parameterJdbcTemplate.query(sql,
+                new MapSqlParameterSource().addValue("ids", ids, Types.ARRAY),
+                (rs, rowNum) -> new Versioned<>(bookRowMapper.mapRow(rs, rowNum), rs.getString(11)));
+    }
+
+    @Override
+    @Transactional
+    public int save(Book book) {
+        return create(book).id();
+    }
+
+    @Override
+    @Transactional
+    public Book create(Book book) {
 
-        parameterJdbcTemplate.batchUpdate(BATCH_TAG_INSERT_SQL, batchArgs);
+        // rows inserted by a CTE are not visible to the outer query, so the tags are aggregated from the RETURNING output
+        var INSERT_BOOK_WITH_TAGS_SQL = """
+                WITH b AS (INSERT INTO book(title, author_id, publication_year, isbn, level, description, available)
+                           VALUES(:title, :author_id, :publication_year, :isbn, :level, :description, :available)
+                           RETURNING id, title, author_id, publication_year, isbn, level, description, available),
+                     bt AS (INSERT INTO book_tags(book_id, tag_id)
+                            SELECT b.id, tags.tag_id
+                            FROM b, (SELECT DISTINCT unnest(:tags) AS tag_id) AS tags
+                            RETURNING tag_id)
+                SELECT %s
+                FROM b
+                CROSS JOIN (SELECT array_agg(tg.id ORDER BY tg.id) AS tag_ids,
+                                   array_agg(tg.name ORDER BY tg.id) AS tag_names
+                            FROM bt
+                            JOIN tag AS tg ON tg.id = bt.tag_id) AS tags;
+                """.formatted(BookRowMapper.COLUMNS);
 
-        return bookId;
+        var created = parameterJdbcTemplate.queryForObject(INSERT_BOOK_WITH_TAGS_SQL, book.createParameterSources(),
+                bookRowMapper);
+        invalidationPublisher.publish(EntityType.BOOK, created.id());
+        return created;
     }
 
     @Override
@@ -130,61 +298,295 @@ public class BookRepositoryImpl implements BookRepository {
                 WHERE id=:id;
                 """;
 
-        parameterJdbcTemplate.update(sql, book.createParameterSources());
+        // the row lock taken here serializes concurrent updates of the same book,
+        // so the tag set read below cannot change until this transaction ends
+        if (parameterJdbcTemplate.update(sql, book.createParameterSources()) == 0) {
+            return false;
+        }
 
-        parameterJdbcTemplate.update("DELETE FROM book_tags WHERE book_id=:id;", Map.of("id", book.id()));
+        Set<Integer> currentTagIds = new HashSet<>(parameterJdbcTemplate.queryForList(
+                "SELECT tag_id FROM book_tags WHERE book_id=:id;", Map.of("id", book.id()), Integer.class));
 
-        SqlParameterSource[] argsForBatchInsert = book.tags()
-                .stream()
-                .map(tag -> new MapSqlParameterSource()
-                        .addValue("book_id", book.id())
-                        .addValue("tag_id", tag.id()))
-                .toArray(SqlParameterSource[]::new);
+        Set<Integer> addedTagIds = new HashSet<>(book.tags().size());
+        for (Tag tag : book.tags()) {
+            if (!currentTagIds.remove(tag.id())) {
+                addedTagIds.add(tag.id());
+            }
+        }
+        // whatever is left in currentTagIds is no longer on the book
 
-        var BATCH_TAG_ADD_SQL = "INSERT INTO book_tags(book_id, tag_id) VALUES (:book_id, :tag_id);";
+        if (!currentTagIds.isEmpty()) {
+            var REMOVE_TAGS_SQL = """
+                    DELETE FROM book_tags
+                    WHERE book_id=:id AND tag_id = ANY(:tags);
+                    """;
+            parameterJdbcTemplate.update(REMOVE_TAGS_SQL, tagParameters(book.id(), currentTagIds));
+        }
 
-        int[] addUpdates = parameterJdbcTemplate.batchUpdate(BATCH_TAG_ADD_SQL, argsForBatchInsert);
+        if (!addedTagIds.isEmpty()) {
+            var ADD_TAGS_SQL = """
+                    INSERT INTO book_tags(book_id, tag_id)
+                    SELECT :id, unnest(:tags)
+                    ON CONFLICT DO NOTHING;
+                    """;
+            parameterJdbcTemplate.update(ADD_TAGS_SQL, tagParameters(book.id(), addedTagIds));
+        }
 
-        return addUpdates.length == book.tags().size();
+        invalidationPublisher.publish(EntityType.BOOK, book.id());
+        return true;
     }
 
     @Override
     @Transactional
     public boolean deleteById(int id) {
-        return parameterJdbcTemplate.update("DELETE FROM book WHERE id=:id;", Map.of("id", id)) >= 1;
+        boolean deleted = parameterJdbcTemplate.update("DELETE FROM book WHERE id=:id;", Map.of("id", id)) >= 1;
+        if (deleted) {
+            invalidationPublisher.publish(EntityType.BOOK, id);
+        }
+        return deleted;
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Book> findByAuthorId(int id) {
-        var sql = """
-                SELECT b.id, b.title, b.author_id, b.publication_year, b.isbn, b.level, b.description, b.available,
-                t.id AS tag_id, t.name AS tag_name
-                FROM book AS b
-                JOIN book_tags bt on b.id = bt.book_id
-                LEFT JOIN tag t on t.id = bt.tag_id
-                WHERE b.author_id=:author_id;
-                """;
-        return parameterJdbcTemplate.query(sql, Map.of("author_id", id), new BookRowMapper());
+        return parameterJdbcTemplate.query(findByAuthorIdSql(), Map.of("author_id", id), bookRowMapper);
     }
 
-    //todo: rewrite SQL
     @Override
+    @Transactional(readOnly = true)
+    public byte[] findByAuthorIdJson(int id) {
+        return queryJson(findByAuthorIdSql(), "b.id", Map.of("author_id", id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<Book> findByTagId(int id, Page page) {
+        return parameterJdbcTemplate.query(findByTagIdSql(), tagPageParameters(id, page), bookRowMapper);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public byte[] findByTagIdJson(int id, Page page) {
+        return queryJson(findByTagIdSql(), "b.id", tagPageParameters(id, page));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Book> findByTagIds(int[] tagIds, TagMatch match, CursorPage page) {
+        if (!page.sort().equals("id")) {
+            throw new InvalidCursorException("Unsupported sort: " + page.sort());
+        }
+        if (tagIds.length == 0) {
+            return new Slice<>(List.of(), null);
+        }
+
+        var parameters = KEYSET.parameters(page)
+                .addValue("tag_id", tagIds[0])
+                .addValue("tags", tagIds, Types.ARRAY)
+                .addValue("others", Arrays.copyOfRange(tagIds, 1, tagIds.length), Types.ARRAY)
+                .addValue("other_count", (int) Arrays.stream(tagIds).distinct().filter(tag -> tag != tagIds[0]).count());
+
+        if (readModel == BookReadModel.PROJECTION) {
+            return KEYSET.slice(parameterJdbcTemplate.query(findByTagIdsInReadModelSql(match), parameters,
+                    bookRowMapper), page);
+        }
+
+        var ids = switch (match) {
+            // walks the first tag in book id order and probes the others by (book_id, tag_id)
+            case ALL -> """
+                    SELECT bt.book_id
+                    FROM book_tags AS bt
+                    WHERE bt.tag_id = :tag_id
+                      AND bt.book_id > :id
+                      AND (SELECT count(*)
+                           FROM book_tags AS o
+                           WHERE o.book_id = bt.book_id
+                             AND o.tag_id = ANY(:others)
+                             AND o.tag_id <> :tag_id) = :other_count
+                    ORDER BY bt.book_id
+                    LIMIT :size""";
+            // every tag contributes at most one page from its own index range, the union stays small
+            case ANY -> """
+                    SELECT DISTINCT t.book_id
+                    FROM unnest(:tags) AS q(tag_id)
+                    CROSS JOIN LATERAL (SELECT book_id
+                                        FROM book_tags
+                                        WHERE tag_id = q.tag_id
+                                          AND book_id > :id
+                                        ORDER BY book_id
+                                        LIMIT :size) AS t
+                    ORDER BY t.book_id
+                    LIMIT :size""";
+        };
 
         var sql = """
-                SELECT b.id, b.title, b.author_id, b.publication_year, b.isbn, b.level, b.description, b.available,
-                t.id AS tag_id, t.name AS tag_name
-                FROM tag AS t
-                JOIN public.book_tags bt on t.id = bt.tag_id
-                JOIN public.book b on b.id = bt.book_id
-                WHERE t.id=:tag_id
-                LIMIT :size
-                OFFSET :offset;
-                """;
+                SELECT %s
+                FROM (%s) AS bt
+                JOIN %s AS b ON b.id = bt.book_id
+                %s
+                ORDER BY b.id;
+                """.formatted(BookRowMapper.COLUMNS, ids, listSource, listTagsJoin);
 
-        return parameterJdbcTemplate.query(sql,
-                Map.of("tag_id", id, "size", page.size(), "offset", page.offset()),
-                new BookRowMapper());
+        return KEYSET.slice(parameterJdbcTemplate.query(sql, parameters, bookRowMapper), page);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Book> search(BookSearch search, CursorPage page) {
+        if (!page.sort().equals("rank")) {
+            throw new InvalidCursorException("Unsupported sort: " + page.sort());
+        }
+
+        var parameters = new MapSqlParameterSource()
+                .addValue("query", search.query())
+                .addValue("size", page.size() + 1);
+        var filters = new StringBuilder();
+        if (search.tagId() != null) {
+            filters.append(" AND EXISTS (SELECT 1 FROM book_tags AS bt WHERE bt.book_id = book.id AND bt.tag_id = :tag_id)");
+            parameters.addValue("tag_id", search.tagId());
+        }
+        if (search.level() != null) {
+            filters.append(" AND level = :level");
+            parameters.addValue("level", search.level().name());
+        }
+        if (search.available() != null) {
+            filters.append(" AND available = :available");
+            parameters.addValue("available", search.available());
+        }
+        if (!page.isFirst()) {
+            filters.append(" AND (ts_rank_cd(search_vector, q.query), id) < (:rank, :id)");
+            parameters.addValue("rank", parseRank(page.key()), Types.REAL).addValue("id", page.id());
+        }
+
+        // rank is float4, so the cursor carries it exactly and the keyset comparison does not drift
+        var sql = """
+                SELECT %s, b.rank
+                FROM (SELECT id, title, author_id, publication_year, isbn, level, description, available,
+                             ts_rank_cd(search_vector, q.query) AS rank
+                      FROM book, websearch_to_tsquery('english', :query) AS q(query)
+                      WHERE search_vector @@ q.query%s
+                      ORDER BY rank DESC, id DESC
+                      LIMIT :size) AS b
+                %s
+                ORDER BY b.rank DESC, b.id DESC;
+                """.formatted(BookRowMapper.COLUMNS, filters, TAGS_JOIN);
+
+        var rows = parameterJdbcTemplate.query(sql, parameters,
+                (rs, rowNum) -> new Ranked(bookRowMapper.mapRow(rs, rowNum), rs.getFloat(11)));
+
+        if (rows.size() <= page.size()) {
+            return new Slice<>(rows.stream().map(Ranked::book).toList(), null);
+        }
+        var content = rows.subList(0, page.size());
+        var last = content.getLast();
+        return new Slice<>(content.stream().map(Ranked::book).toList(),
+                page.next(last.rank(), last.book().id()).encode());
+    }
+
+    private String findAllSql() {
+        return """
+                SELECT %s
+                FROM (SELECT %s
+                      FROM %s
+                      ORDER BY title, id
+                      LIMIT :size OFFSET :offset) AS b
+                %s
+                ORDER BY b.title, b.id
+                """.formatted(BookRowMapper.COLUMNS, listColumns, listSource, listTagsJoin);
+    }
+
+    private String findByAuthorIdSql() {
+        return """
+                SELECT %s
+                FROM %s AS b
+                %s
+                WHERE b.author_id=:author_id
+                ORDER BY b.id
+                """.formatted(BookRowMapper.COLUMNS, listSource, listTagsJoin);
+    }
+
+    private String findByTagIdSql() {
+        if (readModel == BookReadModel.PROJECTION) {
+            // the live book_tags may already differ from the tags of the view
+            return """
+                    SELECT %s
+                    FROM book_read_model AS b
+                    %s
+                    WHERE b.tag_ids @> ARRAY[:tag_id]
+                    ORDER BY b.id
+                    LIMIT :size
+                    OFFSET :offset
+                    """.formatted(BookRowMapper.COLUMNS, READ_MODEL_TAGS);
+        }
+        // the page of ids comes from the (tag_id, book_id) index alone, only its books are read
+        return """
+                SELECT %s
+                FROM (SELECT book_id
+                      FROM book_tags
+                      WHERE tag_id=:tag_id
+                      ORDER BY book_id
+                      LIMIT :size
+                      OFFSET :offset) AS bt
+                JOIN %s AS b ON b.id = bt.book_id
+                %s
+                ORDER BY b.id
+                """.formatted(BookRowMapper.COLUMNS, listSource, listTagsJoin);
+    }
+
+    private static String findByTagIdsInReadModelSql(TagMatch match) {
+        var condition = switch (match) {
+            case ALL -> "b.tag_ids @> :tags";
+            case ANY -> "b.tag_ids && :tags";
+        };
+        return """
+                SELECT %s
+                FROM book_read_model AS b
+                %s
+                WHERE %s
+                  AND b.id > :id
+                ORDER BY b.id
+                LIMIT :size;
+                """.formatted(BookRowMapper.COLUMNS, READ_MODEL_TAGS, condition);
+    }
+
+    /**
+     * Runs a list query and aggregates its rows into one JSON array, which is returned as the driver received it
+     *
+     * @param sql     list query selecting {@link BookRowMapper#COLUMNS}
+     * @param orderBy order of the array elements over the rows {@code b} of the query
+     */
+    private byte[] queryJson(String sql, String orderBy, Map<String, ?> parameters) {
+        var json = """
+                SELECT '[' || coalesce(string_agg(%s, ',' ORDER BY %s), '') || ']'
+                FROM (%s) AS b;
+                """.formatted(BOOK_JSON, orderBy, sql);
+
+        var bytes = parameterJdbcTemplate.queryForObject(json, parameters, (rs, rowNum) -> rs.getBytes(1));
+        return JacksonEscaping.apply(bytes);
+    }
+
+    private static Map<String, Object> pageParameters(Page page) {
+        return Map.of("offset", page.offset(), "size", page.size());
+    }
+
+    private static Map<String, Object> tagPageParameters(int tagId, Page page) {
+        return Map.of("tag_id", tagId, "size", page.size(), "offset", page.offset());
+    }
+
+    private static float parseRank(String key) {
+        try {
+            return Float.parseFloat(key);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Invalid cursor key: " + key);
+        }
+    }
+
+    private static MapSqlParameterSource tagParameters(int bookId, Set<Integer> tagIds) {
+        return new MapSqlParameterSource()
+                .addValue("id", bookId)
+                .addValue("tags", tagIds.stream().mapToInt(Integer::intValue).sorted().toArray(), Types.ARRAY);
+    }
+
+    private record Ranked(Book book, float rank) {
     }
 }
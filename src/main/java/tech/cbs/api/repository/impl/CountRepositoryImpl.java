@@ -0,0 +1,112 @@
+package tech.cbs.api.repository.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import tech.cbs.api.repository.CountRepository;
+import tech.cbs.api.repository.invalidation.EntityType;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of {@link CountRepository}.
+ * Reads the {@code table_row_count} and {@code tag_book_count} tables maintained by the triggers of
+ * {@code V5__Row_counters.sql}, or {@code pg_class.reltuples}.
+ * The deltas are compacted in the background so that summing them stays cheap.
+ */
+@Repository
+public class CountRepositoryImpl implements CountRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(CountRepositoryImpl.class);
+
+    private final NamedParameterJdbcTemplate parameterJdbcTemplate;
+    private final Duration compactionInterval;
+    private ScheduledExecutorService compactor;
+
+    /**
+     * @param compactionInterval how often the counter deltas are folded, {@link Duration#ZERO} disables it
+     */
+    public CountRepositoryImpl(
+            NamedParameterJdbcTemplate parameterJdbcTemplate,
+            @Value("${cbs.counts.compaction-interval:1m}") Duration compactionInterval) {
+        this.parameterJdbcTemplate = parameterJdbcTemplate;
+        this.compactionInterval = compactionInterval;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (compactionInterval.isZero()) {
+            return;
+        }
+        compactor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("row-count-compaction").factory());
+        compactor.scheduleWithFixedDelay(this::compactQuietly,
+                compactionInterval.toMillis(), compactionInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (compactor != null) {
+            compactor.shutdownNow();
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long countExact(EntityType type) {
+        var sql = "SELECT coalesce(sum(total), 0) FROM table_row_count WHERE table_name=:table_name;";
+        return parameterJdbcTemplate.queryForObject(sql, Map.of("table_name", tableName(type)), Long.class);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long countEstimate(EntityType type) {
+        // reltuples is -1 until the first VACUUM or ANALYZE of the table
+        var sql = "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(:table_name);";
+        var estimate = parameterJdbcTemplate.queryForList(sql, Map.of("table_name", tableName(type)), Long.class);
+        if (estimate.isEmpty() || estimate.getFirst() < 0) {
+            return countExact(type);
+        }
+        return estimate.getFirst();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long countBooksByTag(int tagId) {
+        var sql = "SELECT coalesce(sum(books), 0) FROM tag_book_count WHERE tag_id=:tag_id;";
+        return parameterJdbcTemplate.queryForList(sql, Map.of("tag_id", tagId), Long.class)
+                .stream().findFirst().orElse(0L);
+    }
+
+    @Override
+    @Transactional
+    public void compact() {
+        parameterJdbcTemplate.getJdbcOperations().execute("SELECT compact_row_counts();");
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (DataAccessException e) {
+            log.warn("Could not compact the row counters", e);
+        }
+    }
+
+    private static String tableName(EntityType type) {
+        return switch (type) {
+            case BOOK -> "book";
+            case AUTHOR -> "author";
+            case TAG -> "tag";
+        };
+    }
+}
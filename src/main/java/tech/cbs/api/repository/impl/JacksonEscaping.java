@@ -0,0 +1,72 @@
+package tech.cbs.api.repository.impl;
+
+/**
+ * Rewrites JSON produced by PostgreSQL to the escaping Jackson uses, so both produce the same bytes.
+ * <p>
+ * PostgreSQL escapes control characters with lower case hex digits where Jackson uses upper case ones, and writes
+ * characters outside the Basic Multilingual Plane as UTF-8 where Jackson escapes them as a surrogate pair.
+ * The JSON is scanned, never parsed.
+ */
+final class JacksonEscaping {
+
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes();
+
+    private JacksonEscaping() {
+    }
+
+    /**
+     * @param json UTF-8 JSON written by PostgreSQL, upper-cased in place
+     * @return the same array, or a longer copy if supplementary characters had to be escaped
+     */
+    static byte[] apply(byte[] json) {
+        int supplementary = 0;
+        for (int i = 0; i < json.length; i++) {
+            int b = json[i] & 0xFF;
+            if (b == '\\') {
+                if (json[i + 1] == 'u') {
+                    for (int j = i + 2; j < i + 6; j++) {
+                        if (json[j] >= 'a' && json[j] <= 'f') {
+                            json[j] -= 'a' - 'A';
+                        }
+                    }
+                    i += 5;
+                } else {
+                    i++;
+                }
+            } else if (b >= 0xF0) {
+                // lead byte of a four byte sequence, everything outside strings is ASCII
+                supplementary++;
+                i += 3;
+            }
+        }
+        if (supplementary == 0) {
+            return json;
+        }
+
+        // 4 bytes of UTF-8 become two 6 byte escapes
+        var escaped = new byte[json.length + supplementary * 8];
+        int out = 0;
+        for (int i = 0; i < json.length; i++) {
+            int b = json[i] & 0xFF;
+            if (b < 0xF0) {
+                escaped[out++] = json[i];
+                continue;
+            }
+            int codePoint = (b & 0x07) << 18 | (json[i + 1] & 0x3F) << 12 | (json[i + 2] & 0x3F) << 6 | json[i + 3] & 0x3F;
+            out = escape(escaped, out, Character.highSurrogate(codePoint));
+            out = escape(escaped, out, Character.lowSurrogate(codePoint));
+            i += 3;
+        }
+        return escaped;
+    }
+
+    private static int escape(byte[] out, int offset, char c) {
+        out[offset++] = '\\';
+        out[offset++] = 'u';
+        out[offset++] = HEX[c >> 12 & 0xF];
+        out[offset++] = HEX[c >> 8 & 0xF];
+        out[offset++] = HEX[c >> 4 & 0xF];
+        out[offset++] = HEX[c & 0xF];
+        return offset;
+    }
+}
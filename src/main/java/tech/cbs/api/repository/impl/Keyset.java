@@ -0,0 +1,109 @@
+package tech.cbs.api.repository.impl;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import tech.cbs.api.exception.InvalidCursorException;
+import tech.cbs.api.repository.model.Model;
+import tech.cbs.api.service.dto.CursorPage;
+import tech.cbs.api.service.dto.Slice;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Seek pagination support shared by repositories.
+ * <p>
+ * Every sortable column is paired with {@code id} as a tie-breaker, so a page is addressed by
+ * {@code (column, id) > (:key, :id)} which is answered by a {@code (column, id)} btree index
+ * no matter how deep the page is.
+ *
+ * @param <T> model type
+ */
+final class Keyset<T extends Model> {
+
+    private final Map<String, Column<T>> columns;
+    private final ToIntFunction<T> id;
+
+    Keyset(Map<String, Column<T>> columns, ToIntFunction<T> id) {
+        this.columns = columns;
+        this.id = id;
+    }
+
+    /**
+     * Sortable column
+     *
+     * @param name   column name in SQL
+     * @param key    sort key extractor
+     * @param parser parses the sort key back from a cursor
+     */
+    record Column<T>(String name, Function<T, Object> key, Function<String, Object> parser) {
+
+        static <T> Column<T> text(String name, Function<T, Object> key) {
+            return new Column<>(name, key, value -> value);
+        }
+
+        static <T> Column<T> integer(String name, Function<T, Object> key) {
+            return new Column<>(name, key, Integer::valueOf);
+        }
+    }
+
+    Column<T> column(CursorPage page) {
+        var column = columns.get(page.sort());
+        if (column == null) {
+            throw new InvalidCursorException("Unsupported sort: " + page.sort());
+        }
+        return column;
+    }
+
+    /**
+     * @param page  page request
+     * @param alias table alias, may be empty
+     * @return {@code WHERE} clause for the page, empty for the first page
+     */
+    String where(CursorPage page, String alias) {
+        if (page.isFirst()) {
+            return "";
+        }
+        var column = column(page).name();
+        if (column.equals("id")) {
+            return "WHERE " + alias + "id > :id";
+        }
+        return "WHERE (" + alias + column + ", " + alias + "id) > (:key, :id)";
+    }
+
+    String orderBy(CursorPage page, String alias) {
+        var column = column(page).name();
+        if (column.equals("id")) {
+            return "ORDER BY " + alias + "id";
+        }
+        return "ORDER BY " + alias + column + ", " + alias + "id";
+    }
+
+    /**
+     * Binds {@code :key}, {@code :id} and {@code :size}. One extra row is requested to find out
+     * whether there is a next page.
+     */
+    MapSqlParameterSource parameters(CursorPage page) {
+        var parameters = new MapSqlParameterSource()
+                .addValue("id", page.id())
+                .addValue("size", page.size() + 1);
+        if (!page.isFirst()) {
+            try {
+                parameters.addValue("key", column(page).parser().apply(page.key()));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidCursorException("Invalid cursor key: " + page.key());
+            }
+        }
+        return parameters;
+    }
+
+    Slice<T> slice(List<T> rows, CursorPage page) {
+        if (rows.size() <= page.size()) {
+            return new Slice<>(rows, null);
+        }
+        var content = rows.subList(0, page.size());
+        var last = content.getLast();
+        return new Slice<>(content, page.next(column(page).key().apply(last), id.applyAsInt(last)).encode());
+    }
+}
@@ -0,0 +1,30 @@
+package tech.cbs.api.repository.impl;
+
+import org.springframework.jdbc.core.PreparedStatementCreator;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Forward-only statement with a bounded fetch size.
+ * <p>
+ * Inside a transaction the PostgreSQL driver turns it into a server-side cursor and pulls
+ * {@code fetchSize} rows per round trip instead of buffering the whole result.
+ */
+record StreamingStatement(String sql, int fetchSize) implements PreparedStatementCreator {
+
+    static final int DEFAULT_FETCH_SIZE = 1000;
+
+    StreamingStatement(String sql) {
+        this(sql, DEFAULT_FETCH_SIZE);
+    }
+
+    @Override
+    public PreparedStatement createPreparedStatement(Connection con) throws SQLException {
+        var statement = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(fetchSize);
+        return statement;
+    }
+}
@@ -0,0 +1,60 @@
+package tech.cbs.api.repository.impl;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import tech.cbs.api.repository.SuggestionRepository;
+import tech.cbs.api.repository.invalidation.EntityType;
+import tech.cbs.api.repository.model.Suggestion;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Implementation of {@link SuggestionRepository}
+ */
+@Repository
+public class SuggestionRepositoryImpl implements SuggestionRepository {
+
+    private final NamedParameterJdbcTemplate parameterJdbcTemplate;
+
+    public SuggestionRepositoryImpl(NamedParameterJdbcTemplate parameterJdbcTemplate) {
+        this.parameterJdbcTemplate = parameterJdbcTemplate;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Suggestion> findAll() {
+        var sql = """
+                SELECT 'BOOK' AS type, b.id, b.title AS text, 0 AS popularity
+                FROM book AS b
+                UNION ALL
+                SELECT 'AUTHOR', a.id, a.name, coalesce(c.books, 0)
+                FROM author AS a
+                LEFT JOIN (SELECT author_id, count(*) AS books FROM book GROUP BY author_id) AS c ON c.author_id = a.id
+                UNION ALL
+                SELECT 'TAG', t.id, t.name, coalesce(c.books, 0)
+                FROM tag AS t
+                LEFT JOIN (SELECT tag_id, count(*) AS books FROM book_tags GROUP BY tag_id) AS c ON c.tag_id = t.id;
+                """;
+
+        return parameterJdbcTemplate.getJdbcOperations().query(sql, (rs, rowNum) -> new Suggestion(
+                EntityType.valueOf(rs.getString(1)),
+                rs.getInt(2),
+                rs.getString(3),
+                rs.getInt(4)
+        ));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<String> findText(EntityType type, int id) {
+        var sql = switch (type) {
+            case BOOK -> "SELECT title FROM book WHERE id=:id;";
+            case AUTHOR -> "SELECT name FROM author WHERE id=:id;";
+            case TAG -> "SELECT name FROM tag WHERE id=:id;";
+        };
+        return parameterJdbcTemplate.queryForList(sql, Map.of("id", id), String.class).stream().findFirst();
+    }
+}
@@ -24,16 +24,28 @@
 
 package tech.cbs.api.repository.impl;
 
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import tech.cbs.api.repository.TagRegistry;
 import tech.cbs.api.repository.TagRepository;
+import tech.cbs.api.repository.invalidation.EntityType;
+import tech.cbs.api.repository.invalidation.InvalidationPublisher;
 import tech.cbs.api.repository.mapper.TagRowMapper;
 import tech.cbs.api.repository.model.Tag;
+import tech.cbs.api.service.dto.CursorPage;
 import tech.cbs.api.service.dto.Page;
+import tech.cbs.api.service.dto.Slice;
 
+import java.sql.Types;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 /**
  * Implementation of {@link TagRepository}
@@ -41,10 +53,22 @@ import java.util.Optional;
 @Repository
 public class TagRepositoryImpl implements TagRepository {
 
+    private static final Keyset<Tag> KEYSET = new Keyset<>(Map.of(
+            "id", Keyset.Column.integer("id", Tag::id),
+            "name", Keyset.Column.text("name", Tag::name)
+    ), Tag::id);
+
     private final NamedParameterJdbcTemplate parameterJdbcTemplate;
+    private final TagRegistry tagRegistry;
+    private final InvalidationPublisher invalidationPublisher;
 
-    public TagRepositoryImpl(NamedParameterJdbcTemplate parameterJdbcTemplate) {
+    public TagRepositoryImpl(
+            NamedParameterJdbcTemplate parameterJdbcTemplate,
+            TagRegistry tagRegistry,
+            InvalidationPublisher invalidationPublisher) {
         this.parameterJdbcTemplate = parameterJdbcTemplate;
+        this.tagRegistry = tagRegistry;
+        this.invalidationPublisher = invalidationPublisher;
     }
 
     @Override
@@ -58,6 +82,37 @@ public class TagRepositoryImpl implements TagRepository {
         return parameterJdbcTemplate.query(SQL, Map.of("size", page.size(), "offset", page.offset()), new TagRowMapper());
     }
 
+    @Override
+    public Slice<Tag> findAll(CursorPage page) {
+        var SQL = """
+                SELECT id, name
+                FROM tag
+                %s
+                %s
+                LIMIT :size;
+                """.formatted(KEYSET.where(page, ""), KEYSET.orderBy(page, ""));
+        return KEYSET.slice(parameterJdbcTemplate.query(SQL, KEYSET.parameters(page), new TagRowMapper()), page);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<Tag> consumer) {
+        var mapper = new TagRowMapper();
+        parameterJdbcTemplate.getJdbcOperations().query(
+                new StreamingStatement("SELECT id, name FROM tag ORDER BY id;"),
+                (RowCallbackHandler) rs -> consumer.accept(mapper.mapRow(rs, 0))
+        );
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamIds(IntConsumer consumer) {
+        parameterJdbcTemplate.getJdbcOperations().query(
+                new StreamingStatement("SELECT id FROM tag ORDER BY id;"),
+                (RowCallbackHandler) rs -> consumer.accept(rs.getInt(1))
+        );
+    }
+
     @Override
     public Optional<Tag> findById(int id) {
         return parameterJdbcTemplate.query("SELECT id, name FROM tag WHERE id=:id LIMIT 1;", Map.of("id", id), new TagRowMapper())
@@ -65,29 +120,67 @@ public class TagRepositoryImpl implements TagRepository {
     }
 
     @Override
+    public List<Tag> findAllByIds(int[] ids) {
+        return parameterJdbcTemplate.query(
+                "SELECT id, name FROM tag WHERE id = ANY(:ids) ORDER BY id;",
+                new MapSqlParameterSource().addValue("ids", ids, Types.ARRAY),
+                new TagRowMapper()
+        );
+    }
+
+    @Override
+    @Transactional
     public int save(Tag tag) {
-        var INSERT_TAG_SQL = "INSERT INTO tag(name) VALUES (:name) RETURNING id;";
-        return parameterJdbcTemplate.queryForObject(INSERT_TAG_SQL, tag.createParameterSources(), Integer.class);
+        return create(tag).id();
+    }
+
+    @Override
+    @Transactional
+    public Tag create(Tag tag) {
+        var INSERT_TAG_SQL = "INSERT INTO tag(name) VALUES (:name) RETURNING id, name;";
+        var created = parameterJdbcTemplate.queryForObject(INSERT_TAG_SQL, tag.createParameterSources(), new TagRowMapper());
+        written(created.id());
+        return created;
     }
 
     @Override
+    @Transactional
     public boolean update(Tag tag) {
-        return parameterJdbcTemplate.update("UPDATE tag SET name=:name WHERE id=:id;", tag.createParameterSources()) >= 1;
+        boolean updated = parameterJdbcTemplate.update("UPDATE tag SET name=:name WHERE id=:id;", tag.createParameterSources()) >= 1;
+        if (updated) {
+            written(tag.id());
+        }
+        return updated;
     }
 
     @Override
+    @Transactional
     public boolean deleteById(int id) {
-        return parameterJdbcTemplate.update("DELETE FROM tag WHERE id=:id;", Map.of("id", id)) >= 1;
+        boolean deleted = parameterJdbcTemplate.update("DELETE FROM tag WHERE id=:id;", Map.of("id", id)) >= 1;
+        if (deleted) {
+            written(id);
+        }
+        return deleted;
     }
 
     @Override
     public List<Tag> findTagsByBookId(int bookId) {
-        var SQL = """
-                SELECT tag.id, tag.name
-                FROM tag
-                         INNER JOIN book_tags bt on tag.id = bt.tag_id
-                WHERE bt.book_id = :bookId;
-                """;
-        return parameterJdbcTemplate.query(SQL, Map.of("bookId", bookId), new TagRowMapper());
+        var SQL = "SELECT tag_id FROM book_tags WHERE book_id = :bookId;";
+        List<Tag> tags = new ArrayList<>();
+        for (int tagId : parameterJdbcTemplate.queryForList(SQL, Map.of("bookId", bookId), Integer.class)) {
+            tagRegistry.findById(tagId)
+                    .or(() -> findById(tagId))
+                    .ifPresent(tags::add);
+        }
+        return tags;
+    }
+
+    /**
+     * The local registry is refreshed right after commit so that this node reads its own writes,
+     * other nodes refresh when the invalidation arrives.
+     */
+    private void written(int id) {
+        tagRegistry.refreshAfterCommit();
+        invalidationPublisher.publish(EntityType.TAG, id);
     }
 }
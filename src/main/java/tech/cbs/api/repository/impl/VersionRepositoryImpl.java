@@ -0,0 +1,63 @@
+package tech.cbs.api.repository.impl;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import tech.cbs.api.repository.VersionRepository;
+import tech.cbs.api.repository.invalidation.EntityType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Implementation of {@link VersionRepository}.
+ * Entity versions are primary key lookups, list versions sum the change counters of {@code table_row_count}.
+ */
+@Repository
+public class VersionRepositoryImpl implements VersionRepository {
+
+    /**
+     * A book is served with its tag names, so the version covers which tags it has and the version of each.
+     * Tag versions only grow and ids are never reused, so the same digest means the same tags with the same names.
+     */
+    private static final String BOOK_VERSION_SQL = """
+            SELECT b.version || '.' || (SELECT md5(coalesce(string_agg(tg.id || ':' || tg.version, ','
+                                                                       ORDER BY tg.id), ''))
+                                        FROM book_tags AS bt
+                                        JOIN tag AS tg ON tg.id = bt.tag_id
+                                        WHERE bt.book_id = b.id)
+            FROM book AS b
+            WHERE b.id=:id;
+            """;
+
+    private final NamedParameterJdbcTemplate parameterJdbcTemplate;
+
+    public VersionRepositoryImpl(NamedParameterJdbcTemplate parameterJdbcTemplate) {
+        this.parameterJdbcTemplate = parameterJdbcTemplate;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<String> findVersion(EntityType type, int id) {
+        var sql = switch (type) {
+            case BOOK -> BOOK_VERSION_SQL;
+            case AUTHOR -> "SELECT version::text FROM author WHERE id=:id;";
+            case TAG -> "SELECT version::text FROM tag WHERE id=:id;";
+        };
+        return parameterJdbcTemplate.queryForList(sql, Map.of("id", id), String.class)
+                .stream().findFirst();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String findListVersion(EntityType type) {
+        var tables = switch (type) {
+            case BOOK -> List.of("book", "book_tags", "tag");
+            case AUTHOR -> List.of("author");
+            case TAG -> List.of("tag");
+        };
+        var sql = "SELECT coalesce(sum(changes), 0)::text FROM table_row_count WHERE table_name IN (:tables);";
+        return parameterJdbcTemplate.queryForObject(sql, Map.of("tables", tables), String.class);
+    }
+}
@@ -0,0 +1,10 @@
+package tech.cbs.api.repository.invalidation;
+
+/**
+ * Entity types that can be invalidated over the {@link InvalidationBus}
+ */
+public enum EntityType {
+    BOOK,
+    AUTHOR,
+    TAG
+}
@@ -0,0 +1,173 @@
+package tech.cbs.api.repository.invalidation;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Receives the invalidations sent by {@link InvalidationPublisher} on every node.
+ * <p>
+ * Keeps one dedicated connection outside the pool in {@code LISTEN} and hands every notification to the
+ * registered {@link InvalidationListener}s. Notifications sent while the connection is down are lost,
+ * so after every (re)connect all listeners are flushed.
+ */
+@Component
+public class InvalidationBus implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(InvalidationBus.class);
+
+    private final JdbcConnectionDetails connectionDetails;
+    private final ObjectProvider<InvalidationListener> listenerProvider;
+    private final boolean enabled;
+    private final String channel;
+    private final Duration pollInterval;
+    private final Duration reconnectDelay;
+
+    private volatile List<InvalidationListener> listeners = List.of();
+    private volatile boolean running;
+    private volatile Connection connection;
+    private Thread thread;
+
+    public InvalidationBus(
+            JdbcConnectionDetails connectionDetails,
+            ObjectProvider<InvalidationListener> listenerProvider,
+            @Value("${cbs.invalidation.enabled:true}") boolean enabled,
+            @Value("${cbs.invalidation.channel:cbs_invalidation}") String channel,
+            @Value("${cbs.invalidation.poll-interval:10s}") Duration pollInterval,
+            @Value("${cbs.invalidation.reconnect-delay:1s}") Duration reconnectDelay) {
+        this.connectionDetails = connectionDetails;
+        this.listenerProvider = listenerProvider;
+        this.enabled = enabled;
+        this.channel = channel;
+        this.pollInterval = pollInterval;
+        this.reconnectDelay = reconnectDelay;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        listeners = listenerProvider.orderedStream().toList();
+        running = true;
+        thread = Thread.ofPlatform().daemon().name("invalidation-bus").start(this::run);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            closeQuietly(connection);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (running) {
+            try (Connection listenerConnection = DriverManager.getConnection(
+                    connectionDetails.getJdbcUrl(), connectionDetails.getUsername(), connectionDetails.getPassword())) {
+                connection = listenerConnection;
+                try (var statement = listenerConnection.createStatement()) {
+                    statement.execute("LISTEN \"" + channel.replace("\"", "\"\"") + "\"");
+                }
+                invalidateAll();
+                receive(listenerConnection);
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Invalidation listener connection lost, reconnecting in {}", reconnectDelay, e);
+                    sleep(reconnectDelay);
+                }
+            } finally {
+                connection = null;
+            }
+        }
+    }
+
+    private void receive(Connection listenerConnection) throws SQLException {
+        var pgConnection = listenerConnection.unwrap(PGConnection.class);
+        int timeout = (int) pollInterval.toMillis();
+        while (running) {
+            PGNotification[] notifications = pgConnection.getNotifications(timeout);
+            if (notifications == null || notifications.length == 0) {
+                // nothing arrived, make sure the socket is still alive
+                if (!listenerConnection.isValid(timeout / 1000 + 1)) {
+                    throw new SQLException("Invalidation listener connection is not valid");
+                }
+                continue;
+            }
+            for (PGNotification notification : notifications) {
+                dispatch(notification.getParameter());
+            }
+        }
+    }
+
+    private void dispatch(String payload) {
+        if (InvalidationPublisher.ALL.equals(payload)) {
+            invalidateAll();
+            return;
+        }
+        int separator = payload.indexOf(':');
+        EntityType type;
+        int id;
+        try {
+            type = EntityType.valueOf(payload.substring(0, separator));
+            id = Integer.parseInt(payload.substring(separator + 1));
+        } catch (RuntimeException e) {
+            log.debug("Ignoring invalidation {}", payload);
+            return;
+        }
+        for (InvalidationListener listener : listeners) {
+            try {
+                listener.invalidate(type, id);
+            } catch (RuntimeException e) {
+                log.warn("Invalidation of {} failed in {}", payload, listener, e);
+            }
+        }
+    }
+
+    private void invalidateAll() {
+        for (InvalidationListener listener : listeners) {
+            try {
+                listener.invalidateAll();
+            } catch (RuntimeException e) {
+                log.warn("Full invalidation failed in {}", listener, e);
+            }
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // the listener thread is going away anyway
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package tech.cbs.api.repository.invalidation;
+
+/**
+ * In-process cache that has to drop entries changed on any node.
+ * Beans implementing this interface are registered with the {@link InvalidationBus} automatically.
+ * Both methods are called from the bus thread and must not block for long.
+ */
+public interface InvalidationListener {
+
+    /**
+     * Entity was created, updated or deleted
+     *
+     * @param type entity type
+     * @param id   entity id
+     */
+    void invalidate(EntityType type, int id);
+
+    /**
+     * Invalidations may have been missed, drop everything
+     */
+    void invalidateAll();
+}
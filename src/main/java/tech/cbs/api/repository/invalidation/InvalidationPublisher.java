@@ -0,0 +1,53 @@
+package tech.cbs.api.repository.invalidation;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Sends invalidations with {@code pg_notify}.
+ * The notification is part of the caller's transaction, Postgres delivers it to the listeners only
+ * if that transaction commits, so caches never drop an entry for a write that was rolled back.
+ */
+@Component
+public class InvalidationPublisher {
+
+    /**
+     * Payload asking every listener to drop everything
+     */
+    static final String ALL = "*";
+
+    private final NamedParameterJdbcTemplate parameterJdbcTemplate;
+    private final String channel;
+
+    public InvalidationPublisher(
+            NamedParameterJdbcTemplate parameterJdbcTemplate,
+            @Value("${cbs.invalidation.channel:cbs_invalidation}") String channel) {
+        this.parameterJdbcTemplate = parameterJdbcTemplate;
+        this.channel = channel;
+    }
+
+    /**
+     * Must be called in the transaction of the write
+     *
+     * @param type entity type
+     * @param id   entity id
+     */
+    public void publish(EntityType type, int id) {
+        parameterJdbcTemplate.query("SELECT pg_notify(:channel, :payload);",
+                Map.of("channel", channel, "payload", type.name() + ':' + id),
+                rs -> null);
+    }
+
+    /**
+     * Must be called in the transaction of the write.
+     * For bulk writes, where one event per row would make every node re-read the rows one by one.
+     */
+    public void publishAll() {
+        parameterJdbcTemplate.query("SELECT pg_notify(:channel, :payload);",
+                Map.of("channel", channel, "payload", ALL),
+                rs -> null);
+    }
+}
@@ -1,77 +0,0 @@
-/*
- * MIT License
- *
- * Copyright (c) 2023 Artyom Nefedov
- *
- * Permission is hereby granted, free of charge, to any person obtaining a copy
- * of this software and associated documentation files (the "Software"), to deal
- * in the Software without restriction, including without limitation the rights
- * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
- * copies of the Software, and to permit persons to whom the Software is
- * furnished to do so, subject to the following conditions:
- *
- * The above copyright notice and this permission notice shall be included in all
- * copies or substantial portions of the Software.
- *
- * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
- * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
- * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
- * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
- * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
- * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
- * SOFTWARE.
- */
-
-package tech.cbs.api.repository.mapper;
-
-import org.springframework.dao.DataAccessException;
-import org.springframework.jdbc.core.ResultSetExtractor;
-import tech.cbs.api.repository.model.Book;
-import tech.cbs.api.repository.model.Level;
-import tech.cbs.api.repository.model.Tag;
-
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Map;
-
-public class BookResultSetExtractor implements ResultSetExtractor<List<Book>> {
-
-    @Override
-    public List<Book> extractData(ResultSet rs) throws SQLException, DataAccessException {
-
-        Map<Integer, Book> bookMap = new HashMap<>();
-
-        while (rs.next()) {
-            int id = rs.getInt("id");
-            Book book = bookMap.get(id);
-            if (book == null) {
-                book = new Book(
-                        id,
-                        rs.getString("title"),
-                        rs.getInt("author_id"),
-                        rs.getInt("publication_year"),
-                        rs.getString("isbn"),
-                        Level.valueOf(rs.getString("level")),
-                        rs.getString("description"),
-                        rs.getBoolean("available"),
-                        new HashSet<>()
-                );
-                bookMap.put(id, book);
-            }
-
-            int tagId = rs.getInt("tag_id");
-            if (tagId != 0) {
-                book.tags().add(
-                        new Tag(
-                                tagId,
-                                rs.getString("tag_name")
-                        ));
-            }
-        }
-        return new ArrayList<>(bookMap.values());
-    }
-}
@@ -1,44 +1,69 @@
 package tech.cbs.api.repository.mapper;
 
 import org.springframework.jdbc.core.RowMapper;
+import tech.cbs.api.repository.TagRegistry;
 import tech.cbs.api.repository.model.Book;
 import tech.cbs.api.repository.model.Level;
 import tech.cbs.api.repository.model.Tag;
 
+import java.sql.Array;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.HashSet;
+import java.util.Set;
 
 /**
- * Row mapper for {@link Book}
+ * Row mapper for {@link Book}.
+ * Expects one row per book with the columns in the order of {@link #COLUMNS},
+ * the tags aggregated into the parallel {@code tag_ids} and {@code tag_names} arrays.
+ * Tags are resolved to the canonical instances of the {@link TagRegistry}.
  */
 public class BookRowMapper implements RowMapper<Book> {
 
+    /**
+     * Select list matching the column indexes used by this mapper.
+     * {@code b} is the book and {@code tags} the relation holding the aggregated tag arrays.
+     */
+    public static final String COLUMNS = """
+            b.id, b.title, b.author_id, b.publication_year, b.isbn, b.level, b.description, b.available,
+            tags.tag_ids, tags.tag_names""";
+
+    private final TagRegistry tagRegistry;
+
+    public BookRowMapper(TagRegistry tagRegistry) {
+        this.tagRegistry = tagRegistry;
+    }
+
     @Override
     public Book mapRow(ResultSet rs, int rowNum) throws SQLException {
-
-        Book book = new Book(
-                rs.getInt("id"),
-                rs.getString("title"),
-                rs.getInt("author_id"),
-                rs.getInt("publication_year"),
-                rs.getString("isbn"),
-                Level.valueOf(rs.getString("level")),
-                rs.getString("description"),
-                rs.getBoolean("available"),
-                new HashSet<>()
+        return new Book(
+                rs.getInt(1),
+                rs.getString(2),
+                rs.getInt(3),
+                rs.getInt(4),
+                rs.getString(5),
+                Level.valueOf(rs.getString(6)),
+                rs.getString(7),
+                rs.getBoolean(8),
+                tags(rs.getArray(9), rs.getArray(10))
         );
+    }
 
-        while (rs.next()) {
-            int tagId = rs.getInt("tag_id");
-            if (tagId != 0) {
-                book.tags().add(new Tag(tagId, rs.getString("tag_name")));
-            } else {
-                break;
+    private Set<Tag> tags(Array idArray, Array nameArray) throws SQLException {
+        if (idArray == null) {
+            return new HashSet<>();
+        }
+        try {
+            var ids = (Integer[]) idArray.getArray();
+            var names = (String[]) nameArray.getArray();
+            Set<Tag> tags = HashSet.newHashSet(ids.length);
+            for (int i = 0; i < ids.length; i++) {
+                tags.add(tagRegistry.tag(ids[i], names[i]));
             }
+            return tags;
+        } finally {
+            idArray.free();
+            nameArray.free();
         }
-
-
-        return book;
     }
 }
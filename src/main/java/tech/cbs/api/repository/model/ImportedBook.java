@@ -0,0 +1,19 @@
+package tech.cbs.api.repository.model;
+
+import java.util.List;
+
+/**
+ * Book row of a bulk import, author and tags are referenced by name
+ */
+public record ImportedBook(
+        long line,
+        String title,
+        String author,
+        int publicationYear,
+        String isbn,
+        Level level,
+        String description,
+        boolean available,
+        List<String> tags
+) {
+}
@@ -0,0 +1,14 @@
+package tech.cbs.api.repository.model;
+
+import tech.cbs.api.repository.invalidation.EntityType;
+
+/**
+ * Typeahead candidate
+ *
+ * @param type       kind of the suggested entity
+ * @param id         entity id
+ * @param text       title or name matched against the typed prefix
+ * @param popularity number of books of an author or a tag, books themselves have none yet
+ */
+public record Suggestion(EntityType type, int id, String text, int popularity) {
+}
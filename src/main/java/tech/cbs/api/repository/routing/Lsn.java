@@ -0,0 +1,29 @@
+package tech.cbs.api.repository.routing;
+
+/**
+ * Conversions of Postgres WAL positions ({@code pg_lsn}, written as {@code 16/B374D848}) to comparable longs
+ */
+public final class Lsn {
+
+    private Lsn() {
+    }
+
+    /**
+     * @param lsn textual {@code pg_lsn}
+     * @return position as an unsigned long
+     * @throws IllegalArgumentException if the text is not a valid {@code pg_lsn}
+     */
+    public static long parse(String lsn) {
+        int separator = lsn.indexOf('/');
+        if (separator < 1 || separator == lsn.length() - 1 || separator > 8 || lsn.length() - separator - 1 > 8) {
+            throw new IllegalArgumentException("Invalid LSN: " + lsn);
+        }
+        long high = Long.parseLong(lsn, 0, separator, 16);
+        long low = Long.parseLong(lsn, separator + 1, lsn.length(), 16);
+        return high << 32 | low;
+    }
+
+    public static String format(long lsn) {
+        return Long.toHexString(lsn >>> 32).toUpperCase() + '/' + Long.toHexString(lsn & 0xFFFFFFFFL).toUpperCase();
+    }
+}
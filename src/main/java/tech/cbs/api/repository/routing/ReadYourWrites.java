@@ -0,0 +1,161 @@
+package tech.cbs.api.repository.routing;
+
+import javax.sql.DataSource;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Read-your-writes session of the current request.
+ * <p>
+ * Holds the WAL position a replica must have replayed before it may serve the reads of this request,
+ * and receives the position of every write committed by the request so it can be handed back to the client.
+ * Reads can also be kept on one data source, so that what is read later is never older than what was read first.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Session> SESSION = new ThreadLocal<>();
+    private static final ThreadLocal<Pin> PIN = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    /**
+     * @param requiredLsn WAL position reads must observe, {@code 0} if any replica is good enough
+     * @param onWrite     receives the WAL position after every committed write
+     */
+    public static void open(long requiredLsn, LongConsumer onWrite) {
+        SESSION.set(new Session(requiredLsn, onWrite));
+    }
+
+    public static void close() {
+        SESSION.remove();
+    }
+
+    static boolean isOpen() {
+        return SESSION.get() != null;
+    }
+
+    /**
+     * @return WAL position the reads of the current request must observe, {@code 0} if any replica is good enough
+     */
+    public static long requiredLsn() {
+        var session = SESSION.get();
+        return session == null ? 0 : session.requiredLsn;
+    }
+
+    /**
+     * Run reads done on behalf of other requests as well, e.g. a coalesced batch, so that they observe
+     * the WAL positions all of those requests require
+     *
+     * @param requiredLsn WAL position the reads must observe, on top of the one of the current request
+     * @param reads       reads to run
+     * @return result of the reads
+     */
+    public static <T> T requiring(long requiredLsn, Supplier<T> reads) {
+        if (requiredLsn <= requiredLsn()) {
+            return reads.get();
+        }
+        var restore = enter(requiredLsn);
+        try {
+            return reads.get();
+        } finally {
+            restore.run();
+        }
+    }
+
+    /**
+     * Run reads on the primary, e.g. to fill a cache that outlives the lag of the replicas
+     *
+     * @param reads reads to run
+     * @return result of the reads
+     */
+    public static <T> T onPrimary(Supplier<T> reads) {
+        // no replica ever replays this far
+        return requiring(Long.MAX_VALUE, reads);
+    }
+
+    /**
+     * Send the reads that follow on the current thread to the primary, for reads that cannot be wrapped
+     * in {@link #onPrimary(Supplier)}, like those of a handler run between two interceptor callbacks
+     *
+     * @return puts the previous session back
+     */
+    public static Runnable pinToPrimary() {
+        return enter(Long.MAX_VALUE);
+    }
+
+    /**
+     * Serve the read-only connections that follow on the current thread from the data source of the first one,
+     * or from the primary once that one cannot serve them. A replica only moves forward, so e.g. a version
+     * read first never names a newer state than the reads after it.
+     *
+     * @return puts the previous pin back
+     */
+    public static Runnable sameSource() {
+        var previous = PIN.get();
+        PIN.set(new Pin());
+        return () -> {
+            if (previous == null) {
+                PIN.remove();
+            } else {
+                PIN.set(previous);
+            }
+        };
+    }
+
+    /**
+     * @return data source read-only connections are kept on, {@code null} if none has been chosen yet
+     */
+    static DataSource pinnedSource() {
+        var pin = PIN.get();
+        return pin == null ? null : pin.source;
+    }
+
+    /**
+     * @param source data source the following read-only connections are kept on
+     */
+    static void pin(DataSource source) {
+        var pin = PIN.get();
+        if (pin != null) {
+            pin.source = source;
+        }
+    }
+
+    private static Runnable enter(long requiredLsn) {
+        var previous = SESSION.get();
+        SESSION.set(new Session(requiredLsn, previous == null ? lsn -> {
+        } : previous.onWrite));
+        return () -> {
+            if (previous == null) {
+                SESSION.remove();
+            } else {
+                SESSION.set(previous);
+            }
+        };
+    }
+
+    static void written(long lsn) {
+        var session = SESSION.get();
+        if (session != null) {
+            // later reads of the same request must see the write as well
+            session.requiredLsn = Math.max(session.requiredLsn, lsn);
+            session.onWrite.accept(lsn);
+        }
+    }
+
+    private static final class Pin {
+
+        private DataSource source;
+    }
+
+    private static final class Session {
+
+        private final LongConsumer onWrite;
+        private long requiredLsn;
+
+        private Session(long requiredLsn, LongConsumer onWrite) {
+            this.requiredLsn = requiredLsn;
+            this.onWrite = onWrite;
+        }
+    }
+}
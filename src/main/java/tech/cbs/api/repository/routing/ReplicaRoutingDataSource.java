@@ -0,0 +1,248 @@
+package tech.cbs.api.repository.routing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends the connections of read-only transactions to replicas and everything else to the primary.
+ * <p>
+ * The connection is fetched lazily, at the first statement, when the transaction has already marked it read-only.
+ * A replica is used only if its last health check succeeded and it had replayed the WAL up to the position
+ * required by the {@link ReadYourWrites} session; otherwise the next replica is tried and finally the primary.
+ * Every committed write of a session reports the primary WAL position back to the session. Reads pinned with
+ * {@link ReadYourWrites#sameSource()} stay on the first data source chosen, or fall back to the primary.
+ */
+public final class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private static final String REPLAY_LSN_SQL = """
+            SELECT CASE WHEN pg_is_in_recovery() THEN pg_last_wal_replay_lsn() ELSE pg_current_wal_lsn() END;
+            """;
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Duration healthCheckInterval;
+    private ScheduledExecutorService healthChecker;
+
+    /**
+     * @param primary             primary data source
+     * @param replicas            replica data sources
+     * @param healthCheckInterval how often replicas are probed, {@link Duration#ZERO} disables background checks
+     */
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration healthCheckInterval) {
+        super(new WriteTrackingDataSource(primary));
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.healthCheckInterval = healthCheckInterval;
+        setReadOnlyDataSource(new ReplicaSelector(primary, this.replicas));
+    }
+
+    /**
+     * Start the background health checks, until then replicas count as down and reads go to the primary
+     */
+    public void start() {
+        if (healthCheckInterval.isZero() || healthChecker != null) {
+            return;
+        }
+        healthChecker = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("replica-health-check").factory());
+        healthChecker.scheduleWithFixedDelay(this::checkReplicas, 0, healthCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Probe every replica for availability and replayed WAL position
+     */
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                replica.replayedLsn = queryLsn(connection);
+                if (!replica.healthy) {
+                    log.info("Replica {} is back", replica.dataSource);
+                }
+                replica.healthy = true;
+            } catch (SQLException | RuntimeException e) {
+                replica.markDown(e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            closeQuietly(replica.dataSource);
+        }
+        closeQuietly(primary);
+    }
+
+    private static long queryLsn(Connection connection) throws SQLException {
+        try (var statement = connection.createStatement();
+             var resultSet = statement.executeQuery(REPLAY_LSN_SQL)) {
+            if (!resultSet.next() || resultSet.getString(1) == null) {
+                throw new SQLException("No WAL position reported");
+            }
+            return Lsn.parse(resultSet.getString(1));
+        }
+    }
+
+    private static void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                log.warn("Could not close {}", dataSource, e);
+            }
+        }
+    }
+
+    private static final class Replica {
+
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+        private volatile long replayedLsn;
+
+        private Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        private void markDown(Exception e) {
+            if (healthy) {
+                log.warn("Replica {} is down, reads fail over", dataSource, e);
+            }
+            healthy = false;
+        }
+    }
+
+    /**
+     * Data source of read-only connections
+     */
+    private static final class ReplicaSelector extends AbstractDataSource {
+
+        private final DataSource primary;
+        private final List<Replica> replicas;
+        private final AtomicInteger next = new AtomicInteger();
+
+        private ReplicaSelector(DataSource primary, List<Replica> replicas) {
+            this.primary = primary;
+            this.replicas = replicas;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return connect(DataSource::getConnection);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return connect(dataSource -> dataSource.getConnection(username, password));
+        }
+
+        private Connection connect(Connector connector) throws SQLException {
+            long requiredLsn = ReadYourWrites.requiredLsn();
+            var pinned = ReadYourWrites.pinnedSource();
+            if (pinned != null) {
+                return connectPinned(connector, pinned, requiredLsn);
+            }
+            int start = next.getAndIncrement();
+            for (int i = 0; i < replicas.size(); i++) {
+                var replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+                if (!replica.healthy || replica.replayedLsn < requiredLsn) {
+                    continue;
+                }
+                try {
+                    var connection = connector.connect(replica.dataSource);
+                    ReadYourWrites.pin(replica.dataSource);
+                    return connection;
+                } catch (SQLException e) {
+                    replica.markDown(e);
+                }
+            }
+            ReadYourWrites.pin(primary);
+            return connector.connect(primary);
+        }
+
+        /**
+         * Another replica may be behind the pinned one, so the only fallback is the primary
+         */
+        private Connection connectPinned(Connector connector, DataSource pinned, long requiredLsn)
+                throws SQLException {
+            for (Replica replica : replicas) {
+                if (replica.dataSource != pinned) {
+                    continue;
+                }
+                if (replica.healthy && replica.replayedLsn >= requiredLsn) {
+                    try {
+                        return connector.connect(replica.dataSource);
+                    } catch (SQLException e) {
+                        replica.markDown(e);
+                    }
+                }
+            }
+            ReadYourWrites.pin(primary);
+            return connector.connect(primary);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Connector {
+
+        Connection connect(DataSource dataSource) throws SQLException;
+    }
+
+    /**
+     * Primary data source that reports the WAL position of every committed write transaction
+     */
+    private static final class WriteTrackingDataSource extends DelegatingDataSource {
+
+        private WriteTrackingDataSource(DataSource primary) {
+            super(primary);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            var connection = super.getConnection();
+            if (ReadYourWrites.isOpen()
+                    && TransactionSynchronizationManager.isSynchronizationActive()
+                    && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                    && !TransactionSynchronizationManager.hasResource(this)) {
+                TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        // the connection is released only after this callback, so no second connection is needed
+                        try {
+                            ReadYourWrites.written(queryLsn(connection));
+                        } catch (SQLException e) {
+                            log.warn("Could not read the WAL position after commit", e);
+                        }
+                    }
+
+                    @Override
+                    public void afterCompletion(int status) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(WriteTrackingDataSource.this);
+                    }
+                });
+            }
+            return connection;
+        }
+    }
+}
@@ -1,15 +1,34 @@
 package tech.cbs.api.service;
 
 import tech.cbs.api.service.dto.AuthorDto;
+import tech.cbs.api.service.dto.CountPrecision;
+import tech.cbs.api.service.dto.CountedPage;
+import tech.cbs.api.service.dto.CursorPage;
 import tech.cbs.api.service.dto.Page;
+import tech.cbs.api.service.dto.Slice;
+import tech.cbs.api.service.dto.Versioned;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface AuthorService {
     List<AuthorDto> getAuthors(Page page);
 
+    Slice<AuthorDto> getAuthors(CursorPage page);
+
+    CountedPage<AuthorDto> getAuthorPage(Page page, CountPrecision precision);
+
     AuthorDto getAuthor(int id);
 
+    /**
+     * @return {@link #getAuthor(int)} with the version it was read at
+     */
+    Versioned<AuthorDto> getVersionedAuthor(int id);
+
+    List<AuthorDto> getAuthorsByIds(int[] ids);
+
+    void exportAuthors(Consumer<AuthorDto> consumer);
+
     AuthorDto createAuthor(AuthorDto authorDto);
 
     boolean updateAuthor(AuthorDto authorDto);
@@ -0,0 +1,24 @@
+package tech.cbs.api.service;
+
+import tech.cbs.api.service.dto.ImportReport;
+import tech.cbs.api.service.importer.ImportFormat;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Optional;
+
+public interface BookImportService {
+
+    /**
+     * Imports books from the stream, blocks until the input is consumed and every batch is loaded
+     *
+     * @param in     import data
+     * @param format data format
+     * @return final report of the import
+     */
+    ImportReport importBooks(InputStream in, ImportFormat format);
+
+    Optional<ImportReport> getImport(String id);
+
+    List<ImportReport> getImports();
+}
@@ -1,16 +1,43 @@
 package tech.cbs.api.service;
 
 import tech.cbs.api.service.dto.BookDto;
+import tech.cbs.api.service.dto.BookSearch;
+import tech.cbs.api.service.dto.CountPrecision;
+import tech.cbs.api.service.dto.CountedPage;
+import tech.cbs.api.service.dto.CursorPage;
 import tech.cbs.api.service.dto.Page;
+import tech.cbs.api.service.dto.Slice;
+import tech.cbs.api.service.dto.TagMatch;
+import tech.cbs.api.service.dto.Versioned;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface BookService {
 
     List<BookDto> getBooks(Page page);
 
+    /**
+     * @return {@link #getBooks(Page)} as JSON built by the database, empty when the pass-through is disabled
+     */
+    Optional<byte[]> getBooksJson(Page page);
+
+    Slice<BookDto> getBooks(CursorPage page);
+
+    CountedPage<BookDto> getBookPage(Page page, CountPrecision precision);
+
     BookDto getBook(int id);
 
+    /**
+     * @return {@link #getBook(int)} with the version it was read at
+     */
+    Versioned<BookDto> getVersionedBook(int id);
+
+    List<BookDto> getBooksByIds(int[] ids);
+
+    void exportBooks(Consumer<BookDto> consumer);
+
     BookDto createBook(BookDto bookDto);
 
     boolean updateBook(BookDto bookDto);
@@ -19,5 +46,21 @@ public interface BookService {
 
     List<BookDto> getBooksByAuthor(int id);
 
+    /**
+     * @return {@link #getBooksByAuthor(int)} as JSON built by the database, empty when the pass-through is disabled
+     */
+    Optional<byte[]> getBooksByAuthorJson(int id);
+
     List<BookDto> getBooksByTag(int id, Page page);
+
+    /**
+     * @return {@link #getBooksByTag(int, Page)} as JSON built by the database, empty when the pass-through is disabled
+     */
+    Optional<byte[]> getBooksByTagJson(int id, Page page);
+
+    CountedPage<BookDto> getBookPageByTag(int id, Page page);
+
+    Slice<BookDto> getBooksByTags(int[] tagIds, TagMatch match, CursorPage page);
+
+    Slice<BookDto> searchBooks(BookSearch search, CursorPage page);
 }
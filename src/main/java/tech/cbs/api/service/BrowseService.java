@@ -0,0 +1,15 @@
+package tech.cbs.api.service;
+
+import tech.cbs.api.service.dto.BrowseDto;
+import tech.cbs.api.service.dto.BrowseQuery;
+import tech.cbs.api.service.dto.CursorPage;
+
+public interface BrowseService {
+
+    /**
+     * @param query filter
+     * @param page  cursor page, sorted by {@code id}
+     * @return page of matching books with facet counts
+     */
+    BrowseDto browse(BrowseQuery query, CursorPage page);
+}
@@ -0,0 +1,13 @@
+package tech.cbs.api.service;
+
+import tech.cbs.api.service.dto.CacheStats;
+
+import java.util.Map;
+
+public interface CacheService {
+
+    /**
+     * @return statistics of every entity cache by entity type
+     */
+    Map<String, CacheStats> getStats();
+}
@@ -0,0 +1,14 @@
+package tech.cbs.api.service;
+
+import tech.cbs.api.service.dto.PinnedStack;
+
+import java.util.List;
+
+public interface PinningService {
+
+    /**
+     * @return stacks that pinned a virtual thread to its carrier since startup, longest total pinning first;
+     * empty unless virtual threads are monitored
+     */
+    List<PinnedStack> getPinnedStacks();
+}
@@ -0,0 +1,12 @@
+package tech.cbs.api.service;
+
+import tech.cbs.api.service.dto.SpellingCorrectionDto;
+
+public interface SpellingService {
+
+    /**
+     * @param query search query
+     * @return the query with every unknown word replaced by the closest word of the catalog vocabulary
+     */
+    SpellingCorrectionDto correct(String query);
+}
@@ -0,0 +1,15 @@
+package tech.cbs.api.service;
+
+import tech.cbs.api.service.dto.SuggestionDto;
+
+import java.util.List;
+
+public interface SuggestService {
+
+    /**
+     * @param query typed prefix of any word of a title or name
+     * @param limit maximum number of suggestions
+     * @return most popular matches first
+     */
+    List<SuggestionDto> suggest(String query, int limit);
+}
@@ -1,15 +1,27 @@
 package tech.cbs.api.service;
 
+import tech.cbs.api.service.dto.CountedPage;
+import tech.cbs.api.service.dto.CursorPage;
 import tech.cbs.api.service.dto.Page;
+import tech.cbs.api.service.dto.Slice;
 import tech.cbs.api.service.dto.TagDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface TagService {
     List<TagDto> getTags(Page page);
 
+    Slice<TagDto> getTags(CursorPage page);
+
+    CountedPage<TagDto> getTagPage(Page page);
+
     TagDto getTag(int id);
 
+    List<TagDto> getTagsByIds(int[] ids);
+
+    void exportTags(Consumer<TagDto> consumer);
+
     TagDto createTag(TagDto tagDto);
 
     boolean updateTag(TagDto tagDto);
@@ -0,0 +1,14 @@
+package tech.cbs.api.service.dto;
+
+import tech.cbs.api.repository.model.Level;
+
+/**
+ * Full-text book search request, {@code null} filters are not applied
+ *
+ * @param query     web search syntax: words, "quoted phrases", OR and -exclusions
+ * @param tagId     only books with this tag
+ * @param level     only books of this level
+ * @param available only books with this availability
+ */
+public record BookSearch(String query, Integer tagId, Level level, Boolean available) {
+}
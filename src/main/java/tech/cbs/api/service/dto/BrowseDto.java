@@ -0,0 +1,28 @@
+package tech.cbs.api.service.dto;
+
+import tech.cbs.api.repository.model.Level;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of a filtered catalog with the facet counts of all matching books
+ *
+ * @param total     number of matching books
+ * @param content   page of matching books in id order
+ * @param next      cursor of the next page, {@code null} if this is the last page
+ * @param levels    matching books per level
+ * @param tags      matching books per tag id
+ * @param years     matching books per publication year
+ * @param available matching books per availability
+ */
+public record BrowseDto(
+        int total,
+        List<BookDto> content,
+        String next,
+        Map<Level, Integer> levels,
+        Map<Integer, Integer> tags,
+        Map<Integer, Integer> years,
+        Map<Boolean, Integer> available
+) {
+}
@@ -0,0 +1,27 @@
+package tech.cbs.api.service.dto;
+
+import tech.cbs.api.repository.model.Level;
+
+import java.util.Set;
+
+/**
+ * Catalog filter, {@code null} and empty conditions are not applied
+ *
+ * @param levels    books of any of these levels
+ * @param allTags   books with every one of these tags
+ * @param anyTags   books with at least one of these tags
+ * @param noTags    books with none of these tags
+ * @param available books with this availability
+ * @param yearFrom  books published in this year or later
+ * @param yearTo    books published in this year or earlier
+ */
+public record BrowseQuery(
+        Set<Level> levels,
+        Set<Integer> allTags,
+        Set<Integer> anyTags,
+        Set<Integer> noTags,
+        Boolean available,
+        Integer yearFrom,
+        Integer yearTo
+) {
+}
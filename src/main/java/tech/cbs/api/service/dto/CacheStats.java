@@ -0,0 +1,35 @@
+package tech.cbs.api.service.dto;
+
+/**
+ * Statistics of a cache since startup
+ *
+ * @param enabled            whether the cache is used, a disabled cache loads every lookup
+ * @param size               number of cached entities
+ * @param hits               lookups answered from the cache
+ * @param misses             lookups that had to load or join a load
+ * @param hitRate            hits among all lookups, 1 when there were none
+ * @param loads              loads sent to the repository, concurrent misses of one id share a load
+ * @param loadFailures       loads that threw
+ * @param averageLoadMillis  mean duration of a load
+ * @param evictions          entities dropped to stay within the maximum size or after expiring
+ * @param filteredMisses     lookups of ids the id filter knows do not exist, answered without the database
+ * @param negativeHits       lookups of ids already loaded and found missing, answered without the database
+ * @param staleHits          reads answered with a result past its soft TTL or, while the database was slow, outdated
+ * @param errorHits          reads answered with the last known result because the database failed
+ */
+public record CacheStats(
+        boolean enabled,
+        long size,
+        long hits,
+        long misses,
+        double hitRate,
+        long loads,
+        long loadFailures,
+        double averageLoadMillis,
+        long evictions,
+        long filteredMisses,
+        long negativeHits,
+        long staleHits,
+        long errorHits
+) {
+}
@@ -0,0 +1,15 @@
+package tech.cbs.api.service.dto;
+
+/**
+ * Precision of a total count
+ */
+public enum CountPrecision {
+    /**
+     * Transactionally maintained counter
+     */
+    EXACT,
+    /**
+     * Planner statistics, as fresh as the last {@code ANALYZE}; exact where it costs nothing more
+     */
+    ESTIMATE
+}
@@ -0,0 +1,19 @@
+package tech.cbs.api.service.dto;
+
+import java.util.List;
+
+/**
+ * Offset page with the total number of elements
+ *
+ * @param content   page content
+ * @param number    page number
+ * @param size      page size
+ * @param total     number of elements on all pages
+ * @param precision how the total was obtained
+ */
+public record CountedPage<T>(List<T> content, int number, int size, long total, CountPrecision precision) {
+
+    public static <T> CountedPage<T> of(List<T> content, Page page, long total, CountPrecision precision) {
+        return new CountedPage<>(content, page.number(), page.size(), total, precision);
+    }
+}
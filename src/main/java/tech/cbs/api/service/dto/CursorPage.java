@@ -0,0 +1,78 @@
+package tech.cbs.api.service.dto;
+
+import tech.cbs.api.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset page request.
+ * <p>
+ * {@code key} and {@code id} hold the sort key and the id of the last row of the previous page,
+ * both are empty for the first page. Clients only ever see the {@link #encode() encoded} cursor.
+ *
+ * @param sort sort column name
+ * @param key  sort key of the last seen row, {@code null} for the first page
+ * @param id   id of the last seen row
+ * @param size page size
+ */
+public record CursorPage(String sort, String key, int id, int size) {
+
+    /**
+     * Largest page a client can ask for
+     */
+    public static final int MAX_SIZE = 100;
+
+    private static final char SEPARATOR = '\n';
+
+    public CursorPage {
+        if (size < 1) {
+            throw new InvalidCursorException("Page size must be positive: " + size);
+        }
+        if (size > MAX_SIZE) {
+            throw new InvalidCursorException("Page size must be at most " + MAX_SIZE + ": " + size);
+        }
+    }
+
+    public static CursorPage first(String sort, int size) {
+        return new CursorPage(sort, null, 0, size);
+    }
+
+    /**
+     * Creates a page request from an opaque cursor.
+     * The sort stored in the cursor wins over {@code sort} so that a client can not switch order mid-way.
+     *
+     * @param cursor encoded cursor, {@code null} or blank for the first page
+     * @param sort   sort column name used for the first page
+     * @param size   page size
+     * @return page request
+     */
+    public static CursorPage of(String cursor, String sort, int size) {
+        if (cursor == null || cursor.isBlank()) {
+            return first(sort, size);
+        }
+        try {
+            var decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            var parts = decoded.split(String.valueOf(SEPARATOR), 3);
+            if (parts.length != 3) {
+                throw new InvalidCursorException("Invalid cursor: " + cursor);
+            }
+            return new CursorPage(parts[0], parts[2], Integer.parseInt(parts[1]), size);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public boolean isFirst() {
+        return key == null;
+    }
+
+    public CursorPage next(Object key, int id) {
+        return new CursorPage(sort, String.valueOf(key), id, size);
+    }
+
+    public String encode() {
+        var raw = sort + SEPARATOR + id + SEPARATOR + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
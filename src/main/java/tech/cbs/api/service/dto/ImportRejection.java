@@ -0,0 +1,4 @@
+package tech.cbs.api.service.dto;
+
+public record ImportRejection(long line, String reason) {
+}
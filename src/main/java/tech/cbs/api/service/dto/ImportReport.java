@@ -0,0 +1,17 @@
+package tech.cbs.api.service.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public record ImportReport(
+        String id,
+        String status,
+        long processed,
+        long imported,
+        long rejected,
+        List<ImportRejection> rejections,
+        String error,
+        Instant startedAt,
+        Instant finishedAt
+) {
+}
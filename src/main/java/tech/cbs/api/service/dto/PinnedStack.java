@@ -0,0 +1,21 @@
+package tech.cbs.api.service.dto;
+
+import java.util.List;
+
+/**
+ * Stack at which virtual threads were pinned to their carrier thread
+ *
+ * @param frames       innermost application or library frames, below the JDK frames that parked the thread
+ * @param inJdbcDriver whether the stack runs through the PostgreSQL JDBC driver
+ * @param count        pinned parks reported at this stack
+ * @param totalMillis  time spent pinned at this stack
+ * @param maxMillis    longest single pinned park
+ */
+public record PinnedStack(
+        List<String> frames,
+        boolean inJdbcDriver,
+        long count,
+        double totalMillis,
+        double maxMillis
+) {
+}
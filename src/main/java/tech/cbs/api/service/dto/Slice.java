@@ -0,0 +1,17 @@
+package tech.cbs.api.service.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset page of results.
+ *
+ * @param content page content
+ * @param next    cursor of the next page, {@code null} if this is the last page
+ */
+public record Slice<T>(List<T> content, String next) {
+
+    public <R> Slice<R> map(Function<? super T, ? extends R> mapper) {
+        return new Slice<>(content.stream().<R>map(mapper).toList(), next);
+    }
+}
@@ -0,0 +1,8 @@
+package tech.cbs.api.service.dto;
+
+/**
+ * @param query      query as typed
+ * @param correction query with misspelled words replaced, {@code null} if every word is known or no close word exists
+ */
+public record SpellingCorrectionDto(String query, String correction) {
+}
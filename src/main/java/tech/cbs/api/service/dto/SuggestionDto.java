@@ -0,0 +1,6 @@
+package tech.cbs.api.service.dto;
+
+import tech.cbs.api.repository.invalidation.EntityType;
+
+public record SuggestionDto(EntityType type, int id, String text) {
+}
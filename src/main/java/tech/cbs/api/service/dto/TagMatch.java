@@ -0,0 +1,15 @@
+package tech.cbs.api.service.dto;
+
+/**
+ * How books are matched against several tags
+ */
+public enum TagMatch {
+    /**
+     * Books having every tag
+     */
+    ALL,
+    /**
+     * Books having at least one of the tags
+     */
+    ANY
+}
@@ -0,0 +1,16 @@
+package tech.cbs.api.service.dto;
+
+import java.util.function.Function;
+
+/**
+ * Value read together with its row version, so the ETag it is sent with always names what it shows.
+ *
+ * @param value   value
+ * @param version token of {@link tech.cbs.api.repository.VersionRepository#findVersion} read in the same statement
+ */
+public record Versioned<T>(T value, String version) {
+
+    public <R> Versioned<R> map(Function<? super T, ? extends R> mapper) {
+        return new Versioned<>(mapper.apply(value), version);
+    }
+}
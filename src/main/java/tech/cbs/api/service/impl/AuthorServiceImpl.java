@@ -1,57 +1,139 @@
 package tech.cbs.api.service.impl;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import tech.cbs.api.exception.ResourceNotFoundException;
 import tech.cbs.api.repository.AuthorRepository;
+import tech.cbs.api.repository.CountRepository;
+import tech.cbs.api.repository.invalidation.EntityType;
+import tech.cbs.api.repository.model.Author;
 import tech.cbs.api.service.AuthorService;
 import tech.cbs.api.service.dto.AuthorDto;
+import tech.cbs.api.service.dto.CountPrecision;
+import tech.cbs.api.service.dto.CountedPage;
+import tech.cbs.api.service.dto.CursorPage;
 import tech.cbs.api.service.dto.Page;
+import tech.cbs.api.service.dto.Slice;
+import tech.cbs.api.service.dto.Versioned;
 import tech.cbs.api.service.mapper.AuthorMapper;
 
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class AuthorServiceImpl implements AuthorService {
 
+    private static final EntityType[] AUTHOR_TYPES = {EntityType.AUTHOR};
+
     private final AuthorRepository authorRepository;
+    private final CountRepository countRepository;
+    private final RequestCoalescer<Versioned<Author>> authorLoader;
+    private final CacheServiceImpl cacheService;
 
-    public AuthorServiceImpl(AuthorRepository authorRepository) {
+    public AuthorServiceImpl(
+            AuthorRepository authorRepository,
+            CountRepository countRepository,
+            CacheServiceImpl cacheService,
+            @Value("${cbs.coalescing.window:2ms}") Duration coalescingWindow,
+            @Value("${cbs.coalescing.max-batch-size:100}") int maxBatchSize) {
         this.authorRepository = authorRepository;
+        this.countRepository = countRepository;
+        this.cacheService = cacheService;
+        this.authorLoader = new RequestCoalescer<>(this::findAllVersionedByIds, coalescingWindow, maxBatchSize);
     }
 
     @Override
     public List<AuthorDto> getAuthors(Page page) {
-        return authorRepository.findAll(page)
+        return cacheService.reads().get("authors:" + page, AUTHOR_TYPES, () -> authorRepository.findAll(page)
                 .stream()
                 .map(AuthorMapper::toDto)
-                .toList();
+                .toList());
+    }
+
+    @Override
+    public Slice<AuthorDto> getAuthors(CursorPage page) {
+        return cacheService.reads().get("authors:" + page, AUTHOR_TYPES,
+                () -> authorRepository.findAll(page).map(AuthorMapper::toDto));
+    }
+
+    @Override
+    public CountedPage<AuthorDto> getAuthorPage(Page page, CountPrecision precision) {
+        long total = cacheService.reads().get("authors:count:" + precision, AUTHOR_TYPES, () -> precision == CountPrecision.EXACT
+                ? countRepository.countExact(EntityType.AUTHOR)
+                : countRepository.countEstimate(EntityType.AUTHOR));
+        return CountedPage.of(getAuthors(page), page, total, precision);
     }
 
     @Override
     public AuthorDto getAuthor(int id) {
-        return authorRepository.findById(id)
-                .map(AuthorMapper::toDto)
-                .orElseThrow(() -> new ResourceNotFoundException("Author with id " + id + " not found."));
+        return getVersionedAuthor(id).value();
     }
 
     @Override
-    public AuthorDto createAuthor(AuthorDto authorDto) {
+    public Versioned<AuthorDto> getVersionedAuthor(int id) {
+        return cacheService.reads().get("author:" + id, AUTHOR_TYPES,
+                        () -> cacheService.authors().get(id,
+                                key -> authorLoader.load(key).map(author -> author.map(AuthorMapper::toDto))))
+                .orElseThrow(() -> new ResourceNotFoundException("author", id));
+    }
+
+    @Override
+    public List<AuthorDto> getAuthorsByIds(int[] ids) {
+        return cacheService.reads().get("authors:ids:" + Arrays.toString(ids), AUTHOR_TYPES, () -> {
+            var found = findAllByIds(ids);
+            return Arrays.stream(ids)
+                    .mapToObj(found::get)
+                    .filter(Objects::nonNull)
+                    .map(AuthorMapper::toDto)
+                    .toList();
+        });
+    }
 
-        var author = AuthorMapper.toModel(authorDto);
-        var id = authorRepository.save(author);
+    @Override
+    public void exportAuthors(Consumer<AuthorDto> consumer) {
+        authorRepository.streamAll(author -> consumer.accept(AuthorMapper.toDto(author)));
+    }
 
-        return authorRepository.findById(id)
-                .map(AuthorMapper::toDto)
-                .orElseThrow(() -> new ResourceNotFoundException("Author with id " + id + " cannot be created."));
+    @Override
+    public AuthorDto createAuthor(AuthorDto authorDto) {
+        var created = AuthorMapper.toDto(authorRepository.create(AuthorMapper.toModel(authorDto)));
+        cacheService.invalidate(EntityType.AUTHOR, created.id());
+        return created;
     }
 
     @Override
     public boolean updateAuthor(AuthorDto authorDto) {
-        return authorRepository.update(AuthorMapper.toModel(authorDto));
+        try {
+            return authorRepository.update(AuthorMapper.toModel(authorDto));
+        } finally {
+            cacheService.invalidate(EntityType.AUTHOR, authorDto.id());
+        }
     }
 
     @Override
     public boolean deleteAuthor(int id) {
-        return authorRepository.deleteById(id);
+        try {
+            return authorRepository.deleteById(id);
+        } finally {
+            cacheService.invalidate(EntityType.AUTHOR, id);
+        }
+    }
+
+    private Map<Integer, Versioned<Author>> findAllVersionedByIds(int[] ids) {
+        return authorRepository.findAllVersionedByIds(ids)
+                .stream()
+                .collect(Collectors.toMap(author -> author.value().id(), Function.identity()));
+    }
+
+    private Map<Integer, Author> findAllByIds(int[] ids) {
+        return authorRepository.findAllByIds(ids)
+                .stream()
+                .collect(Collectors.toMap(Author::id, Function.identity()));
     }
 }
@@ -0,0 +1,212 @@
+package tech.cbs.api.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import tech.cbs.api.repository.BookImportRepository;
+import tech.cbs.api.repository.model.ImportedBook;
+import tech.cbs.api.service.BookImportService;
+import tech.cbs.api.service.dto.ImportRejection;
+import tech.cbs.api.service.dto.ImportReport;
+import tech.cbs.api.service.importer.BookRecordReader;
+import tech.cbs.api.service.importer.ImportFormat;
+
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bulk import pipeline.
+ * <p>
+ * The request thread parses the input and hands full batches to a loader thread through a bounded queue.
+ * When the database falls behind the queue fills up and parsing blocks, so at most
+ * {@code queue-capacity + 2} batches are held in memory regardless of the input size.
+ */
+@Service
+public class BookImportServiceImpl implements BookImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookImportServiceImpl.class);
+    private static final List<ImportedBook> END_OF_INPUT = List.of();
+    private static final String DUPLICATE_REASON = "a book with the same title or isbn already exists";
+
+    private final BookImportRepository bookImportRepository;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int queueCapacity;
+    private final int maxRejections;
+    private final int retainedJobs;
+    private final ExecutorService loaders = Executors.newThreadPerTaskExecutor(
+            Thread.ofPlatform().name("book-import-", 0).daemon().factory());
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public BookImportServiceImpl(
+            BookImportRepository bookImportRepository,
+            ObjectMapper objectMapper,
+            @Value("${cbs.import.batch-size:5000}") int batchSize,
+            @Value("${cbs.import.queue-capacity:4}") int queueCapacity,
+            @Value("${cbs.import.max-rejections:1000}") int maxRejections,
+            @Value("${cbs.import.retained-jobs:20}") int retainedJobs) {
+        this.bookImportRepository = bookImportRepository;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+        this.maxRejections = maxRejections;
+        this.retainedJobs = retainedJobs;
+    }
+
+    @Override
+    public ImportReport importBooks(InputStream in, ImportFormat format) {
+        var job = new Job(UUID.randomUUID().toString(), maxRejections);
+        jobs.put(job.id, job);
+        evictFinishedJobs();
+
+        BlockingQueue<List<ImportedBook>> queue = new ArrayBlockingQueue<>(queueCapacity);
+        Future<?> loader = loaders.submit(() -> load(queue, job));
+        try (var reader = BookRecordReader.of(format, in, objectMapper)) {
+            List<ImportedBook> batch = new ArrayList<>(batchSize);
+            BookRecordReader.Row row;
+            while ((row = reader.next()) != null) {
+                job.processed.incrementAndGet();
+                if (row.book() == null) {
+                    job.reject(row.line(), row.error());
+                    continue;
+                }
+                batch.add(row.book());
+                if (batch.size() == batchSize) {
+                    put(queue, batch, loader);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                put(queue, batch, loader);
+            }
+            put(queue, END_OF_INPUT, loader);
+            loader.get();
+            job.finish("COMPLETED", null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finish("FAILED", "interrupted");
+        } catch (Exception e) {
+            var cause = e instanceof ExecutionException ? e.getCause() : e;
+            log.warn("Book import {} failed", job.id, cause);
+            job.finish("FAILED", cause.getMessage());
+        } finally {
+            loader.cancel(true);
+        }
+        return job.report();
+    }
+
+    private void load(BlockingQueue<List<ImportedBook>> queue, Job job) {
+        try {
+            List<ImportedBook> batch;
+            while ((batch = queue.take()) != END_OF_INPUT) {
+                var skipped = bookImportRepository.importBatch(batch);
+                job.imported.addAndGet(batch.size() - skipped.size());
+                skipped.forEach(line -> job.reject(line, DUPLICATE_REASON));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Blocks while the queue is full, gives up when the loader died.
+     */
+    private static void put(BlockingQueue<List<ImportedBook>> queue, List<ImportedBook> batch, Future<?> loader)
+            throws InterruptedException, ExecutionException {
+        while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+            if (loader.isDone()) {
+                loader.get();
+                throw new IllegalStateException("Import loader stopped unexpectedly");
+            }
+        }
+    }
+
+    private void evictFinishedJobs() {
+        var finished = jobs.values().stream()
+                .filter(job -> job.finishedAt != null)
+                .sorted(Comparator.comparing((Job job) -> job.finishedAt).reversed())
+                .toList();
+        finished.stream().skip(retainedJobs).forEach(job -> jobs.remove(job.id));
+    }
+
+    @Override
+    public Optional<ImportReport> getImport(String id) {
+        return Optional.ofNullable(jobs.get(id)).map(Job::report);
+    }
+
+    @Override
+    public List<ImportReport> getImports() {
+        return jobs.values().stream()
+                .map(Job::report)
+                .sorted(Comparator.comparing(ImportReport::startedAt).reversed())
+                .toList();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        loaders.shutdownNow();
+    }
+
+    /**
+     * Progress of one import, updated by the parsing and the loading thread
+     */
+    private static final class Job {
+        private final String id;
+        private final int maxRejections;
+        private final Instant startedAt = Instant.now();
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong imported = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final List<ImportRejection> rejections = new ArrayList<>();
+        private volatile String status = "RUNNING";
+        private volatile String error;
+        private volatile Instant finishedAt;
+
+        private Job(String id, int maxRejections) {
+            this.id = id;
+            this.maxRejections = maxRejections;
+        }
+
+        private void reject(long line, String reason) {
+            rejected.incrementAndGet();
+            synchronized (rejections) {
+                if (rejections.size() < maxRejections) {
+                    rejections.add(new ImportRejection(line, reason));
+                }
+            }
+        }
+
+        private void finish(String status, String error) {
+            this.error = error;
+            this.status = status;
+            this.finishedAt = Instant.now();
+        }
+
+        private ImportReport report() {
+            List<ImportRejection> snapshot;
+            synchronized (rejections) {
+                snapshot = rejections.stream().sorted(Comparator.comparingLong(ImportRejection::line)).toList();
+            }
+            return new ImportReport(id, status, processed.get(), imported.get(), rejected.get(), snapshot, error,
+                    startedAt, finishedAt);
+        }
+    }
+}
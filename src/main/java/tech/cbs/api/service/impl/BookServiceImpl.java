@@ -1,72 +1,254 @@
 package tech.cbs.api.service.impl;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import tech.cbs.api.exception.ResourceNotFoundException;
 import tech.cbs.api.repository.BookRepository;
+import tech.cbs.api.repository.CountRepository;
+import tech.cbs.api.repository.TagRegistry;
+import tech.cbs.api.repository.invalidation.EntityType;
+import tech.cbs.api.repository.model.Book;
 import tech.cbs.api.service.BookService;
 import tech.cbs.api.service.dto.BookDto;
+import tech.cbs.api.service.dto.BookSearch;
+import tech.cbs.api.service.dto.CountPrecision;
+import tech.cbs.api.service.dto.CountedPage;
+import tech.cbs.api.service.dto.CursorPage;
 import tech.cbs.api.service.dto.Page;
+import tech.cbs.api.service.dto.Slice;
+import tech.cbs.api.service.dto.TagMatch;
+import tech.cbs.api.service.dto.Versioned;
 import tech.cbs.api.service.mapper.BookMapper;
 
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class BookServiceImpl implements BookService {
 
+    /**
+     * A book shows the names of its tags and is deleted with its author
+     */
+    private static final EntityType[] BOOK_TYPES = {EntityType.BOOK, EntityType.AUTHOR, EntityType.TAG};
+
     private final BookRepository bookRepository;
+    private final CountRepository countRepository;
+    private final RequestCoalescer<Versioned<Book>> bookLoader;
+    private final CacheServiceImpl cacheService;
+    private final PagePrefetcher prefetcher;
+    private final BookMapper bookMapper;
+    private final boolean jsonPassThrough;
 
-    public BookServiceImpl(BookRepository bookRepository) {
+    public BookServiceImpl(
+            BookRepository bookRepository,
+            CountRepository countRepository,
+            TagRegistry tagRegistry,
+            CacheServiceImpl cacheService,
+            PagePrefetcher prefetcher,
+            @Value("${cbs.coalescing.window:2ms}") Duration coalescingWindow,
+            @Value("${cbs.coalescing.max-batch-size:100}") int maxBatchSize,
+            @Value("${cbs.json-pass-through.enabled:false}") boolean jsonPassThrough) {
         this.bookRepository = bookRepository;
+        this.countRepository = countRepository;
+        this.jsonPassThrough = jsonPassThrough;
+        this.cacheService = cacheService;
+        this.prefetcher = prefetcher;
+        this.bookMapper = new BookMapper(tagRegistry);
+        this.bookLoader = new RequestCoalescer<>(this::findAllVersionedByIds, coalescingWindow, maxBatchSize);
     }
 
     @Override
     public List<BookDto> getBooks(Page page) {
-        return bookRepository.findAll(page)
-                .stream()
-                .map(BookMapper::toDto)
-                .toList();
+        return prefetcher.get("books", page, books -> books.size() < page.size() ? null : next(page),
+                p -> cacheService.reads().get("books:" + p, BOOK_TYPES, () -> findAll(p)), this::findAll);
+    }
+
+    @Override
+    public Optional<byte[]> getBooksJson(Page page) {
+        if (!jsonPassThrough) {
+            return Optional.empty();
+        }
+        return Optional.of(prefetcher.get("books:json", page, json -> isEmpty(json) ? null : next(page),
+                p -> cacheService.reads().get("books:json:" + p, BOOK_TYPES, () -> bookRepository.findAllJson(p)),
+                bookRepository::findAllJson));
+    }
+
+    @Override
+    public Slice<BookDto> getBooks(CursorPage page) {
+        return prefetcher.get("books:cursor", page,
+                slice -> slice.next() == null ? null : CursorPage.of(slice.next(), page.sort(), page.size()),
+                p -> cacheService.reads().get("books:" + p, BOOK_TYPES, () -> bookRepository.findAll(p).map(bookMapper)),
+                p -> bookRepository.findAll(p).map(bookMapper));
+    }
+
+    @Override
+    public CountedPage<BookDto> getBookPage(Page page, CountPrecision precision) {
+        long total = cacheService.reads().get("books:count:" + precision, BOOK_TYPES, () -> precision == CountPrecision.EXACT
+                ? countRepository.countExact(EntityType.BOOK)
+                : countRepository.countEstimate(EntityType.BOOK));
+        return CountedPage.of(getBooks(page), page, total, precision);
     }
 
     @Override
     public BookDto getBook(int id) {
-        return bookRepository.findById(id)
-                .map(BookMapper::toDto)
-                .orElseThrow(() -> new ResourceNotFoundException("Could not find book with id " + id));
+        return getVersionedBook(id).value();
     }
 
     @Override
-    public BookDto createBook(BookDto bookDto) {
+    public Versioned<BookDto> getVersionedBook(int id) {
+        return cacheService.reads().get("book:" + id, BOOK_TYPES,
+                        () -> cacheService.books().get(id, key -> bookLoader.load(key).map(book -> book.map(bookMapper))))
+                .orElseThrow(() -> new ResourceNotFoundException("book", id));
+    }
 
-        var book = BookMapper.toModel(bookDto);
-        int bookId = bookRepository.save(book);
-        return bookRepository.findById(bookId)
-                .map(BookMapper::toDto)
-                .orElseThrow(() -> new ResourceNotFoundException("Book cannot be created."));
+    @Override
+    public List<BookDto> getBooksByIds(int[] ids) {
+        return cacheService.reads().get("books:ids:" + Arrays.toString(ids), BOOK_TYPES, () -> {
+            var found = findAllByIds(ids);
+            return Arrays.stream(ids)
+                    .mapToObj(found::get)
+                    .filter(Objects::nonNull)
+                    .map(bookMapper)
+                    .toList();
+        });
+    }
+
+    @Override
+    public void exportBooks(Consumer<BookDto> consumer) {
+        bookRepository.streamAll(book -> consumer.accept(bookMapper.apply(book)));
+    }
+
+    @Override
+    public BookDto createBook(BookDto bookDto) {
+        var created = bookMapper.apply(bookRepository.create(BookMapper.toModel(bookDto)));
+        cacheService.invalidate(EntityType.BOOK, created.id());
+        return created;
     }
 
     @Override
     public boolean updateBook(BookDto bookDto) {
-        return bookRepository.update(BookMapper.toModel(bookDto));
+        try {
+            return bookRepository.update(BookMapper.toModel(bookDto));
+        } finally {
+            cacheService.invalidate(EntityType.BOOK, bookDto.id());
+        }
     }
 
     @Override
     public boolean deleteBook(int id) {
-        return bookRepository.deleteById(id);
+        try {
+            return bookRepository.deleteById(id);
+        } finally {
+            cacheService.invalidate(EntityType.BOOK, id);
+        }
     }
 
     @Override
     public List<BookDto> getBooksByAuthor(int id) {
-        return bookRepository.findByAuthorId(id)
+        return cacheService.reads().get("books:author:" + id, BOOK_TYPES, () -> bookRepository.findByAuthorId(id)
                 .stream()
-                .map(BookMapper::toDto)
-                .toList();
+                .map(bookMapper)
+                .toList());
+    }
+
+    @Override
+    public Optional<byte[]> getBooksByAuthorJson(int id) {
+        return jsonPassThrough
+                ? Optional.of(cacheService.reads().get("books:json:author:" + id, BOOK_TYPES, () -> bookRepository.findByAuthorIdJson(id)))
+                : Optional.empty();
     }
 
     @Override
     public List<BookDto> getBooksByTag(int id, Page page) {
-        return bookRepository.findByTagId(id, page)
+        var tagPage = new TagPage(id, page);
+        return prefetcher.get("books:tag", tagPage, books -> books.size() < page.size() ? null : tagPage.next(),
+                p -> cacheService.reads().get("books:" + p, BOOK_TYPES, () -> findByTagId(p)), this::findByTagId);
+    }
+
+    @Override
+    public Optional<byte[]> getBooksByTagJson(int id, Page page) {
+        if (!jsonPassThrough) {
+            return Optional.empty();
+        }
+        var tagPage = new TagPage(id, page);
+        return Optional.of(prefetcher.get("books:json:tag", tagPage, json -> isEmpty(json) ? null : tagPage.next(),
+                p -> cacheService.reads().get("books:json:" + p, BOOK_TYPES, () -> findByTagIdJson(p)),
+                this::findByTagIdJson));
+    }
+
+    @Override
+    public CountedPage<BookDto> getBookPageByTag(int id, Page page) {
+        long total = cacheService.reads().get("books:tag:count:" + id, BOOK_TYPES, () -> countRepository.countBooksByTag(id));
+        return CountedPage.of(getBooksByTag(id, page), page, total, CountPrecision.EXACT);
+    }
+
+    @Override
+    public Slice<BookDto> getBooksByTags(int[] tagIds, TagMatch match, CursorPage page) {
+        return cacheService.reads().get("books:tags:" + Arrays.toString(tagIds) + ":" + match + ":" + page, BOOK_TYPES,
+                () -> bookRepository.findByTagIds(tagIds, match, page).map(bookMapper));
+    }
+
+    @Override
+    public Slice<BookDto> searchBooks(BookSearch search, CursorPage page) {
+        if (search.query() == null || search.query().isBlank()) {
+            return new Slice<>(List.of(), null);
+        }
+        return bookRepository.search(search, page).map(bookMapper);
+    }
+
+    private List<BookDto> findAll(Page page) {
+        return bookRepository.findAll(page)
+                .stream()
+                .map(bookMapper)
+                .toList();
+    }
+
+    private List<BookDto> findByTagId(TagPage page) {
+        return bookRepository.findByTagId(page.tagId(), page.page())
                 .stream()
-                .map(BookMapper::toDto)
+                .map(bookMapper)
                 .toList();
     }
+
+    private byte[] findByTagIdJson(TagPage page) {
+        return bookRepository.findByTagIdJson(page.tagId(), page.page());
+    }
+
+    private static Page next(Page page) {
+        return new Page(page.number() + 1, page.size());
+    }
+
+    private static boolean isEmpty(byte[] json) {
+        // an empty JSON array, a non-empty one may still be the last page
+        return json.length <= 2;
+    }
+
+    private Map<Integer, Versioned<Book>> findAllVersionedByIds(int[] ids) {
+        return bookRepository.findAllVersionedByIds(ids)
+                .stream()
+                .collect(Collectors.toMap(book -> book.value().id(), Function.identity()));
+    }
+
+    private Map<Integer, Book> findAllByIds(int[] ids) {
+        return bookRepository.findAllByIds(ids)
+                .stream()
+                .collect(Collectors.toMap(Book::id, Function.identity()));
+    }
+
+    /**
+     * Page of the books of a tag
+     */
+    private record TagPage(int tagId, Page page) {
+
+        TagPage next() {
+            return new TagPage(tagId, BookServiceImpl.next(page));
+        }
+    }
 }
@@ -0,0 +1,184 @@
+package tech.cbs.api.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import tech.cbs.api.exception.InvalidCursorException;
+import tech.cbs.api.repository.AuthorRepository;
+import tech.cbs.api.repository.BookRepository;
+import tech.cbs.api.repository.TagRegistry;
+import tech.cbs.api.repository.invalidation.EntityType;
+import tech.cbs.api.repository.invalidation.InvalidationListener;
+import tech.cbs.api.repository.model.Level;
+import tech.cbs.api.repository.routing.ReadYourWrites;
+import tech.cbs.api.service.BrowseService;
+import tech.cbs.api.service.dto.BrowseDto;
+import tech.cbs.api.service.dto.BrowseQuery;
+import tech.cbs.api.service.dto.CursorPage;
+import tech.cbs.api.service.index.FacetIndex;
+import tech.cbs.api.service.mapper.BookMapper;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Filters the catalog and counts facets in an in-memory {@link FacetIndex}, then reads only the books
+ * of the requested page from the database.
+ * <p>
+ * The index is built at startup. A book written on any node arrives as an invalidation and is re-read
+ * and re-indexed on its own; tag writes and author deletes rebuild the index because deleting a tag removes
+ * it from books, and deleting an author deletes its books, without a book event. The index is read from
+ * the primary, a replica may not have replayed the write yet.
+ */
+@Service
+public class BrowseServiceImpl implements BrowseService, InvalidationListener {
+
+    private static final Logger log = LoggerFactory.getLogger(BrowseServiceImpl.class);
+
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    private final BookMapper bookMapper;
+    private final ExecutorService updater = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().daemon().name("facet-update").factory());
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean reloadQueued = new AtomicBoolean();
+
+    private FacetIndex index = new FacetIndex();
+
+    public BrowseServiceImpl(BookRepository bookRepository, AuthorRepository authorRepository, TagRegistry tagRegistry) {
+        this.bookRepository = bookRepository;
+        this.authorRepository = authorRepository;
+        this.bookMapper = new BookMapper(tagRegistry);
+    }
+
+    /**
+     * Rebuild the index from the database
+     */
+    @PostConstruct
+    public void reload() {
+        var rebuilt = new FacetIndex();
+        ReadYourWrites.onPrimary(() -> {
+            bookRepository.streamAll(rebuilt::put);
+            return null;
+        });
+
+        lock.writeLock().lock();
+        try {
+            index = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-index one book
+     *
+     * @param id book id
+     */
+    public void refresh(int id) {
+        var book = ReadYourWrites.onPrimary(() -> bookRepository.findById(id));
+
+        lock.writeLock().lock();
+        try {
+            book.ifPresentOrElse(index::put, () -> index.remove(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public BrowseDto browse(BrowseQuery query, CursorPage page) {
+        if (!page.sort().equals("id")) {
+            throw new InvalidCursorException("Unsupported sort: " + page.sort());
+        }
+
+        int[] ids = new int[page.size()];
+        int found = 0;
+        boolean more;
+        int total;
+        Map<Level, Integer> levels;
+        Map<Integer, Integer> tags;
+        Map<Integer, Integer> years;
+        Map<Boolean, Integer> available;
+        lock.readLock().lock();
+        try {
+            var matching = index.filter(query);
+            var iterator = matching.getIntIterator();
+            if (!page.isFirst()) {
+                iterator.advanceIfNeeded(page.id() + 1);
+            }
+            while (found < ids.length && iterator.hasNext()) {
+                ids[found++] = iterator.next();
+            }
+            more = iterator.hasNext();
+            total = matching.getCardinality();
+            levels = index.countLevels(matching);
+            tags = index.countTags(matching);
+            years = index.countYears(matching);
+            available = index.countAvailability(matching);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // the lock is not held while the page is read, a book deleted meanwhile is just left out
+        var content = bookRepository.findAllByIds(Arrays.copyOf(ids, found))
+                .stream()
+                .map(bookMapper)
+                .toList();
+        var next = more ? page.next(ids[found - 1], ids[found - 1]).encode() : null;
+        return new BrowseDto(total, content, next, levels, tags, years, available);
+    }
+
+    @Override
+    public void invalidate(EntityType type, int id) {
+        switch (type) {
+            case BOOK -> update(() -> refresh(id));
+            case TAG -> scheduleReload();
+            // the index has no author facet, only a delete changes the indexed books
+            case AUTHOR -> update(() -> {
+                if (authorRepository.findById(id).isEmpty()) {
+                    reload();
+                }
+            });
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        scheduleReload();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        updater.shutdownNow();
+    }
+
+    /**
+     * A reload that has not started yet already covers this one, bulk imports send one per batch
+     */
+    private void scheduleReload() {
+        if (reloadQueued.compareAndSet(false, true)) {
+            update(() -> {
+                reloadQueued.set(false);
+                reload();
+            });
+        }
+    }
+
+    private void update(Runnable update) {
+        updater.execute(() -> {
+            try {
+                update.run();
+            } catch (RuntimeException e) {
+                log.warn("Could not update the facet index", e);
+            }
+        });
+    }
+}
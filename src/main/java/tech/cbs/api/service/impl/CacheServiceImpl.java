@@ -0,0 +1,179 @@
+package tech.cbs.api.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import tech.cbs.api.repository.AbstractModelRepository;
+import tech.cbs.api.repository.AuthorRepository;
+import tech.cbs.api.repository.BookRepository;
+import tech.cbs.api.repository.invalidation.EntityType;
+import tech.cbs.api.repository.invalidation.InvalidationListener;
+import tech.cbs.api.service.CacheService;
+import tech.cbs.api.service.dto.AuthorDto;
+import tech.cbs.api.service.dto.BookDto;
+import tech.cbs.api.service.dto.CacheStats;
+import tech.cbs.api.service.dto.Versioned;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity caches of the single-entity lookups, the {@link StaleReadCache} of the catalog reads and the pages
+ * of the {@link PagePrefetcher}.
+ * <p>
+ * Tags have none, every tag is already in the {@link tech.cbs.api.repository.TagRegistry}, which keeps serving
+ * its last load while the database is down.
+ * Entities are cached with the version they were read at, the strong ETag of their responses.
+ * A cached book carries the names of its tags and disappears with its author, so author and tag writes
+ * drop all books. Services invalidate right after their own writes, writes on other nodes arrive through
+ * the {@link InvalidationListener}. The id filters of the caches are rebuilt in the background.
+ */
+@Service
+public class CacheServiceImpl implements CacheService, InvalidationListener {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheServiceImpl.class);
+
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    private final EntityCache<Versioned<BookDto>> books;
+    private final EntityCache<Versioned<AuthorDto>> authors;
+    private final StaleReadCache reads;
+    private final PagePrefetcher prefetcher;
+    private final Duration idFilterInterval;
+    private ScheduledExecutorService idFilterBuilder;
+
+    /**
+     * @param idFilterInterval how often the id filters are rebuilt, also the longest write transaction they
+     *                         tolerate; {@link Duration#ZERO} disables them
+     */
+    public CacheServiceImpl(
+            BookRepository bookRepository,
+            AuthorRepository authorRepository,
+            PagePrefetcher prefetcher,
+            @Value("${cbs.entity-cache.book.enabled:true}") boolean booksEnabled,
+            @Value("${cbs.entity-cache.book.maximum-size:10000}") long booksMaximumSize,
+            @Value("${cbs.entity-cache.author.enabled:true}") boolean authorsEnabled,
+            @Value("${cbs.entity-cache.author.maximum-size:10000}") long authorsMaximumSize,
+            @Value("${cbs.entity-cache.missing-maximum-size:100000}") long missingMaximumSize,
+            @Value("${cbs.entity-cache.expire-after-write:10m}") Duration expireAfterWrite,
+            @Value("${cbs.entity-cache.missing-expire-after-write:30s}") Duration missingExpireAfterWrite,
+            @Value("${cbs.entity-cache.id-filter-interval:5m}") Duration idFilterInterval,
+            @Value("${cbs.stale-reads.enabled:false}") boolean staleReadsEnabled,
+            @Value("${cbs.stale-reads.maximum-size:10000}") long staleReadsMaximumSize,
+            @Value("${cbs.stale-reads.soft-ttl:30s}") Duration softTtl,
+            @Value("${cbs.stale-reads.hard-ttl:1h}") Duration hardTtl,
+            @Value("${cbs.stale-reads.latency-threshold:500ms}") Duration latencyThreshold,
+            @Value("${cbs.stale-reads.refresh-threads:2}") int refreshThreads,
+            @Value("${cbs.stale-reads.refresh-queue:100}") int refreshQueue) {
+        this.bookRepository = bookRepository;
+        this.authorRepository = authorRepository;
+        this.prefetcher = prefetcher;
+        this.books = new EntityCache<>(booksEnabled, booksMaximumSize, missingMaximumSize, expireAfterWrite,
+                missingExpireAfterWrite);
+        this.authors = new EntityCache<>(authorsEnabled, authorsMaximumSize, missingMaximumSize, expireAfterWrite,
+                missingExpireAfterWrite);
+        this.reads = new StaleReadCache(staleReadsEnabled, staleReadsMaximumSize, softTtl, hardTtl, latencyThreshold,
+                refreshThreads, refreshQueue);
+        this.idFilterInterval = idFilterInterval;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (idFilterInterval.isZero()) {
+            return;
+        }
+        idFilterBuilder = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("id-filter-rebuild").factory());
+        idFilterBuilder.scheduleWithFixedDelay(this::rebuildIdFiltersQuietly,
+                0, idFilterInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (idFilterBuilder != null) {
+            idFilterBuilder.shutdownNow();
+        }
+        reads.close();
+    }
+
+    @Override
+    public Map<String, CacheStats> getStats() {
+        Map<String, CacheStats> stats = new LinkedHashMap<>();
+        stats.put("book", books.stats());
+        stats.put("author", authors.stats());
+        stats.put("reads", reads.stats());
+        stats.put("prefetch", prefetcher.stats());
+        return stats;
+    }
+
+    @Override
+    public void invalidate(EntityType type, int id) {
+        reads.invalidate(type);
+        // prefetches are only of book lists, which show every type
+        prefetcher.invalidateAll();
+        switch (type) {
+            case BOOK -> books.invalidate(id);
+            case AUTHOR -> {
+                authors.invalidate(id);
+                books.invalidateAll();
+            }
+            case TAG -> books.invalidateAll();
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        books.invalidateAll();
+        authors.invalidateAll();
+        reads.invalidateAll();
+        prefetcher.invalidateAll();
+    }
+
+    /**
+     * Rebuild the id filters of the enabled caches from the ids in the database
+     */
+    public void rebuildIdFilters() {
+        rebuildIdFilter(books, bookRepository);
+        rebuildIdFilter(authors, authorRepository);
+    }
+
+    EntityCache<Versioned<BookDto>> books() {
+        return books;
+    }
+
+    EntityCache<Versioned<AuthorDto>> authors() {
+        return authors;
+    }
+
+    StaleReadCache reads() {
+        return reads;
+    }
+
+    private void rebuildIdFiltersQuietly() {
+        try {
+            rebuildIdFilters();
+        } catch (DataAccessException e) {
+            log.warn("Could not rebuild the id filters", e);
+        }
+    }
+
+    private static void rebuildIdFilter(EntityCache<?> cache, AbstractModelRepository<?> repository) {
+        if (!cache.enabled()) {
+            return;
+        }
+        var ids = new RoaringBitmap();
+        repository.streamIds(ids::add);
+        // serial ids with few gaps compress into runs
+        ids.runOptimize();
+        cache.rebuildIdFilter(ids);
+    }
+}
@@ -0,0 +1,202 @@
+package tech.cbs.api.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.roaringbitmap.RoaringBitmap;
+import tech.cbs.api.repository.routing.ReadYourWrites;
+import tech.cbs.api.service.dto.CacheStats;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+/**
+ * Bounded cache of entities by id with single-flight loading.
+ * <p>
+ * Entries are kept in a Caffeine cache, whose W-TinyLFU policy keeps the frequently read entities when
+ * a scan of rarely read ones passes through. Concurrent misses of one id wait for the first caller's load
+ * instead of loading again. The load runs outside any cache lock, so a slow load does not hold up other ids.
+ * A load that overlaps an invalidation is returned but not cached, it may have read the entity before the write.
+ * Loads read from the primary: an invalidation arrives as soon as the write commits, a replica may still serve
+ * the entity from before the write and the cache would keep it. Requests that must read their own writes bypass
+ * the cache, they must not be answered with an entry loaded before the write reached this node.
+ * <p>
+ * Lookups of missing ids are answered without the database in two ways. An id filter, rebuilt periodically from
+ * all existing ids, rejects ids it knows do not exist; a bitmap of serial ids takes a few bits per id and has
+ * no false positives. Ids deleted since the last rebuild, or newer than it, are loaded once and then kept in
+ * a bounded negative cache until an invalidation of the id, e.g. its creation, drops them. Missing ids expire
+ * sooner than entities: a missed invalidation of a creation would otherwise answer 404 for a long time.
+ *
+ * @param <T> cached type
+ */
+class EntityCache<T> {
+
+    private final Cache<Integer, T> cache;
+    private final Cache<Integer, Boolean> missing;
+    private final Map<Integer, CompletableFuture<Optional<T>>> loading = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+    private final LongAdder filteredMisses = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private volatile IdFilter idFilter = new IdFilter(new RoaringBitmap(), Integer.MIN_VALUE);
+    private int lastId = Integer.MIN_VALUE;
+
+    /**
+     * @param enabled                 a disabled cache loads every lookup
+     * @param maximumSize             number of entities kept
+     * @param missingMaximumSize      number of missing ids kept
+     * @param expireAfterWrite        lifetime of an entry, bounds the staleness after a missed invalidation
+     * @param missingExpireAfterWrite lifetime of a missing id
+     */
+    EntityCache(boolean enabled, long maximumSize, long missingMaximumSize, Duration expireAfterWrite,
+                Duration missingExpireAfterWrite) {
+        this.cache = enabled
+                ? Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(expireAfterWrite).recordStats().build()
+                : null;
+        this.missing = enabled
+                ? Caffeine.newBuilder().maximumSize(missingMaximumSize).expireAfterWrite(missingExpireAfterWrite).build()
+                : null;
+    }
+
+    boolean enabled() {
+        return cache != null;
+    }
+
+    /**
+     * @param id     entity id
+     * @param loader loads the entity on a miss
+     * @return the entity, empty if it does not exist
+     */
+    Optional<T> get(int id, IntFunction<Optional<T>> loader) {
+        if (cache == null || ReadYourWrites.requiredLsn() > 0) {
+            return loader.apply(id);
+        }
+        var cached = cache.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        if (!idFilter.mayExist(id)) {
+            filteredMisses.increment();
+            return Optional.empty();
+        }
+        if (missing.getIfPresent(id) != null) {
+            negativeHits.increment();
+            return Optional.empty();
+        }
+
+        var load = new CompletableFuture<Optional<T>>();
+        var running = loading.putIfAbsent(id, load);
+        if (running != null) {
+            return join(running);
+        }
+        try {
+            // a load that completed between the lookup and the registration
+            cached = cache.asMap().get(id);
+            if (cached != null) {
+                load.complete(Optional.of(cached));
+                return Optional.of(cached);
+            }
+            long invalidationsBefore = invalidations.get();
+            long start = System.nanoTime();
+            Optional<T> loaded;
+            try {
+                loaded = ReadYourWrites.onPrimary(() -> loader.apply(id));
+            } catch (RuntimeException e) {
+                loadFailures.increment();
+                load.completeExceptionally(e);
+                throw e;
+            } finally {
+                loads.increment();
+                loadNanos.add(System.nanoTime() - start);
+            }
+            if (invalidations.get() == invalidationsBefore) {
+                if (loaded.isPresent()) {
+                    cache.put(id, loaded.get());
+                } else {
+                    missing.put(id, Boolean.TRUE);
+                }
+            }
+            load.complete(loaded);
+            return loaded;
+        } finally {
+            loading.remove(id, load);
+        }
+    }
+
+    void invalidate(int id) {
+        invalidations.incrementAndGet();
+        // later lookups must not join a load that may have read the entity before the write
+        loading.remove(id);
+        if (cache != null) {
+            cache.invalidate(id);
+            missing.invalidate(id);
+        }
+    }
+
+    void invalidateAll() {
+        invalidations.incrementAndGet();
+        loading.clear();
+        if (cache != null) {
+            cache.invalidateAll();
+            missing.invalidateAll();
+        }
+    }
+
+    /**
+     * Replace the id filter.
+     * The new filter only decides ids up to the largest id of the previous rebuild: such an id was taken from
+     * the sequence before that rebuild, so unless its transaction ran for a whole rebuild interval, its row is
+     * in {@code ids} if it exists. Larger ids may belong to transactions still running and are always loaded.
+     *
+     * @param ids every existing id
+     */
+    synchronized void rebuildIdFilter(RoaringBitmap ids) {
+        idFilter = new IdFilter(ids, lastId);
+        lastId = ids.isEmpty() ? 0 : ids.last();
+    }
+
+    CacheStats stats() {
+        if (cache == null) {
+            return new CacheStats(false, 0, 0, 0, 0, loads.sum(), loadFailures.sum(), averageLoadMillis(), 0, 0, 0, 0, 0);
+        }
+        var stats = cache.stats();
+        return new CacheStats(true, cache.estimatedSize(), stats.hitCount(), stats.missCount(), stats.hitRate(),
+                loads.sum(), loadFailures.sum(), averageLoadMillis(), stats.evictionCount(),
+                filteredMisses.sum(), negativeHits.sum(), 0, 0);
+    }
+
+    private double averageLoadMillis() {
+        long count = loads.sum();
+        return count == 0 ? 0 : loadNanos.sum() / 1e6 / count;
+    }
+
+    private static <T> Optional<T> join(CompletableFuture<Optional<T>> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @param ids     ids that existed at the rebuild
+     * @param horizon ids above it are not decided by the filter
+     */
+    private record IdFilter(RoaringBitmap ids, int horizon) {
+
+        boolean mayExist(int id) {
+            return id > horizon || ids.contains(id);
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package tech.cbs.api.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import tech.cbs.api.repository.limit.ConcurrencyLimitedDataSource;
+import tech.cbs.api.repository.routing.ReadYourWrites;
+import tech.cbs.api.service.dto.CacheStats;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Loads the next page of a list in the background while the client reads the current one.
+ * <p>
+ * A prefetched page is kept for a short time and handed out once, to the first read of the same page.
+ * Prefetches run on a few low-priority threads with a bounded queue and are skipped while a request waits for
+ * a connection, or the pool has fewer idle connections than the reserve, so they never keep a foreground request
+ * waiting for one. Prefetches read from the primary: a page outlives the lag of the replicas, and one read from
+ * a replica could be older than the version probe of the request it is handed to. With virtual threads
+ * a connection first takes a permit of the limiter.
+ * Every route counts how many of its prefetched pages are read; a route below the minimum hit rate only
+ * prefetches for a sample of its reads until the rate recovers. Any write drops all prefetched pages, and
+ * a prefetch that overlapped a write is not kept. A write on another node is only known once its invalidation
+ * arrives, so every page handed out is reported to {@link StaleReads} and sent without an ETag.
+ */
+@Service
+public class PagePrefetcher {
+
+    private static final Logger log = LoggerFactory.getLogger(PagePrefetcher.class);
+
+    private final Cache<String, Prefetched<?>> pages;
+    private final ThreadPoolExecutor prefetcher;
+    private final HikariDataSource pool;
+    private final ConcurrencyLimitedDataSource limiter;
+    private final int idleReserve;
+    private final int window;
+    private final double minHitRate;
+    private final int probeInterval;
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+
+    /**
+     * @param ttl           how long a prefetched page waits for its read
+     * @param idleReserve   idle connections of the primary pool, and limiter permits, left to foreground requests
+     * @param window        prefetches of a route between two decisions on its hit rate
+     * @param minHitRate    share of prefetched pages that must be read for a route to keep prefetching
+     * @param probeInterval a route below the minimum hit rate prefetches for one read in this many
+     */
+    public PagePrefetcher(
+            DataSource dataSource,
+            @Value("${cbs.prefetch.enabled:true}") boolean enabled,
+            @Value("${cbs.prefetch.threads:2}") int threads,
+            @Value("${cbs.prefetch.queue:16}") int queue,
+            @Value("${cbs.prefetch.ttl:10s}") Duration ttl,
+            @Value("${cbs.prefetch.maximum-size:1000}") long maximumSize,
+            @Value("${cbs.prefetch.idle-reserve:2}") int idleReserve,
+            @Value("${cbs.prefetch.window:100}") int window,
+            @Value("${cbs.prefetch.min-hit-rate:0.3}") double minHitRate,
+            @Value("${cbs.prefetch.probe-interval:20}") int probeInterval) {
+        // behind the replica routing this is the primary pool
+        this.pool = unwrap(dataSource, HikariDataSource.class);
+        this.limiter = unwrap(dataSource, ConcurrencyLimitedDataSource.class);
+        this.idleReserve = idleReserve;
+        this.window = window;
+        this.minHitRate = minHitRate;
+        this.probeInterval = probeInterval;
+        if (enabled) {
+            pages = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).recordStats().build();
+            prefetcher = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queue),
+                    Thread.ofPlatform().daemon().priority(Thread.MIN_PRIORITY).name("page-prefetch-", 0).factory());
+        } else {
+            pages = null;
+            prefetcher = null;
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (prefetcher != null) {
+            prefetcher.shutdownNow();
+        }
+    }
+
+    /**
+     * Read a page, from a prefetch if there is one, and prefetch the page after it
+     *
+     * @param route          list the page belongs to, hit rates are kept per route
+     * @param page           page to read, its {@code toString} identifies it within the route
+     * @param next           the page after a read one, {@code null} after the last page
+     * @param loader         reads a page for the caller
+     * @param prefetchLoader reads a page in the background
+     * @return the page
+     */
+    public <P, V> V get(String route, P page, Function<? super V, P> next, Function<P, V> loader,
+                        Function<P, V> prefetchLoader) {
+        // a read-your-writes request may need a newer state than a shared prefetch was read from
+        if (pages == null || ReadYourWrites.requiredLsn() > 0) {
+            return loader.apply(page);
+        }
+        var stats = routes.computeIfAbsent(route, Route::new);
+        @SuppressWarnings("unchecked")
+        var prefetched = (Prefetched<V>) pages.asMap().remove(key(route, page));
+        V value;
+        if (prefetched != null) {
+            hits.increment();
+            stats.hits.increment();
+            StaleReads.cached();
+            value = prefetched.value;
+        } else {
+            misses.increment();
+            value = loader.apply(page);
+        }
+
+        var nextPage = next.apply(value);
+        if (nextPage != null && stats.shouldPrefetch()) {
+            prefetch(route, nextPage, prefetchLoader, stats);
+        }
+        return value;
+    }
+
+    void invalidateAll() {
+        generation.incrementAndGet();
+        if (pages != null) {
+            pages.invalidateAll();
+        }
+    }
+
+    CacheStats stats() {
+        if (pages == null) {
+            return new CacheStats(false, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+        }
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long loadCount = loads.sum();
+        return new CacheStats(true, pages.estimatedSize(), hitCount, missCount,
+                hitCount + missCount == 0 ? 1 : (double) hitCount / (hitCount + missCount),
+                loadCount, loadFailures.sum(), loadCount == 0 ? 0 : loadNanos.sum() / 1e6 / loadCount,
+                pages.stats().evictionCount(), 0, 0, 0, 0);
+    }
+
+    /**
+     * @return whether the route prefetches for every read
+     */
+    boolean prefetching(String route) {
+        var stats = routes.get(route);
+        return stats == null || stats.enabled;
+    }
+
+    private <P, V> void prefetch(String route, P page, Function<P, V> loader, Route stats) {
+        var key = key(route, page);
+        if (pages.getIfPresent(key) != null || !hasIdleConnections() || !running.add(key)) {
+            return;
+        }
+        long generationBefore = generation.get();
+        try {
+            prefetcher.execute(() -> {
+                long start = System.nanoTime();
+                try {
+                    var value = ReadYourWrites.onPrimary(() -> loader.apply(page));
+                    if (generation.get() == generationBefore) {
+                        pages.put(key, new Prefetched<>(value));
+                        stats.prefetched();
+                    }
+                } catch (RuntimeException e) {
+                    loadFailures.increment();
+                    log.debug("Could not prefetch {}", key, e);
+                } finally {
+                    loads.increment();
+                    loadNanos.add(System.nanoTime() - start);
+                    running.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            running.remove(key);
+        }
+    }
+
+    private boolean hasIdleConnections() {
+        if (limiter != null && (limiter.waiting() > 0 || limiter.availablePermits() <= idleReserve)) {
+            return false;
+        }
+        return hasIdleConnections(pool);
+    }
+
+    private boolean hasIdleConnections(HikariDataSource pool) {
+        if (pool == null) {
+            return true;
+        }
+        var bean = pool.getHikariPoolMXBean();
+        // the pool starts with the first connection
+        return bean == null || bean.getThreadsAwaitingConnection() == 0 && bean.getIdleConnections() > idleReserve;
+    }
+
+    private static String key(String route, Object page) {
+        return route + ':' + page;
+    }
+
+    private static <D> D unwrap(DataSource dataSource, Class<D> type) {
+        if (type.isInstance(dataSource)) {
+            return type.cast(dataSource);
+        }
+        try {
+            return dataSource.isWrapperFor(type) ? dataSource.unwrap(type) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    private record Prefetched<V>(V value) {
+    }
+
+    /**
+     * Hit rate of the prefetches of one route
+     */
+    private final class Route {
+
+        private final String name;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder reads = new LongAdder();
+        private int prefetched;
+        private volatile boolean enabled = true;
+
+        private Route(String name) {
+            this.name = name;
+        }
+
+        private boolean shouldPrefetch() {
+            reads.increment();
+            return enabled || reads.sum() % probeInterval == 0;
+        }
+
+        /**
+         * Count a kept prefetch and decide on the route once per window; hits are counted as pages are read,
+         * so a decision misses the reads of the last few prefetches
+         */
+        private synchronized void prefetched() {
+            if (++prefetched < window) {
+                return;
+            }
+            double hitRate = (double) hits.sumThenReset() / prefetched;
+            prefetched = 0;
+            boolean keep = hitRate >= minHitRate;
+            if (keep != enabled) {
+                log.info("Prefetching for {} {}, hit rate {}", name, keep ? "resumed" : "paused", hitRate);
+            }
+            enabled = keep;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package tech.cbs.api.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import tech.cbs.api.service.PinningService;
+import tech.cbs.api.service.dto.PinnedStack;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reports virtual threads pinned to their carrier thread, from the {@code jdk.VirtualThreadPinned} JFR event.
+ * <p>
+ * A virtual thread that blocks while holding a monitor, or inside a native frame, keeps its carrier, and with
+ * enough of them the few carriers are all blocked. The event stream runs in-process; pinned parks longer than
+ * the threshold are grouped by stack, and the first park at every stack is logged, as a warning if it runs
+ * through the JDBC driver.
+ */
+@Service
+public class PinningServiceImpl implements PinningService {
+
+    private static final Logger log = LoggerFactory.getLogger(PinningServiceImpl.class);
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String JDBC_DRIVER_PACKAGE = "org.postgresql.";
+    private static final int MAX_FRAMES = 16;
+
+    private final int maxStacks;
+    private final Map<List<String>, Pinned> stacks = new ConcurrentHashMap<>();
+    private final RecordingStream stream;
+
+    /**
+     * @param enabled   follows the virtual thread mode unless set
+     * @param threshold shortest pinned park that is reported
+     * @param maxStacks distinct stacks kept, parks at further stacks are only logged
+     */
+    public PinningServiceImpl(
+            @Value("${cbs.pinning.enabled:${spring.threads.virtual.enabled:false}}") boolean enabled,
+            @Value("${cbs.pinning.threshold:20ms}") Duration threshold,
+            @Value("${cbs.pinning.max-stacks:100}") int maxStacks) {
+        this.maxStacks = maxStacks;
+        if (enabled) {
+            stream = new RecordingStream();
+            stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+            stream.onEvent(PINNED_EVENT, this::record);
+            stream.startAsync();
+        } else {
+            stream = null;
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    @Override
+    public List<PinnedStack> getPinnedStacks() {
+        return stacks.entrySet().stream()
+                .map(entry -> entry.getValue().toDto(entry.getKey()))
+                .sorted(Comparator.comparingDouble(PinnedStack::totalMillis).reversed())
+                .toList();
+    }
+
+    private void record(RecordedEvent event) {
+        var allFrames = event.getStackTrace() == null ? List.<RecordedFrame>of() : event.getStackTrace().getFrames();
+        var frames = frames(allFrames);
+        boolean inJdbcDriver = allFrames.stream()
+                .anyMatch(frame -> frame.getMethod().getType().getName().startsWith(JDBC_DRIVER_PACKAGE));
+        long nanos = event.getDuration().toNanos();
+
+        var pinned = stacks.get(frames);
+        if (pinned == null && stacks.size() < maxStacks) {
+            pinned = stacks.computeIfAbsent(frames, key -> new Pinned(inJdbcDriver));
+        }
+        if (pinned == null || pinned.count.sum() == 0) {
+            if (inJdbcDriver) {
+                log.warn("Virtual thread pinned for {} ms inside the JDBC driver at\n\t{}",
+                        nanos / 1_000_000, String.join("\n\t", frames));
+            } else {
+                log.info("Virtual thread pinned for {} ms at\n\t{}", nanos / 1_000_000, String.join("\n\t", frames));
+            }
+        }
+        if (pinned != null) {
+            pinned.add(nanos);
+        }
+    }
+
+    /**
+     * The frames below the JDK frames that parked the thread, those are the same for every stack
+     */
+    private static List<String> frames(List<RecordedFrame> frames) {
+        int first = 0;
+        while (first < frames.size() && isJdkFrame(frames.get(first))) {
+            first++;
+        }
+        if (first == frames.size()) {
+            first = 0;
+        }
+        List<String> result = new ArrayList<>(MAX_FRAMES);
+        for (int i = first; i < frames.size() && result.size() < MAX_FRAMES; i++) {
+            var frame = frames.get(i);
+            result.add(frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                    + ":" + frame.getLineNumber());
+        }
+        return List.copyOf(result);
+    }
+
+    private static boolean isJdkFrame(RecordedFrame frame) {
+        var type = frame.getMethod().getType().getName();
+        return type.startsWith("java.") || type.startsWith("jdk.") || type.startsWith("sun.");
+    }
+
+    private static final class Pinned {
+
+        private final boolean inJdbcDriver;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private volatile long maxNanos;
+
+        private Pinned(boolean inJdbcDriver) {
+            this.inJdbcDriver = inJdbcDriver;
+        }
+
+        private void add(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            synchronized (this) {
+                maxNanos = Math.max(maxNanos, nanos);
+            }
+        }
+
+        private PinnedStack toDto(List<String> frames) {
+            return new PinnedStack(frames, inJdbcDriver, count.sum(), totalNanos.sum() / 1e6, maxNanos / 1e6);
+        }
+    }
+}
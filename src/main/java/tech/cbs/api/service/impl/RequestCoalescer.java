@@ -0,0 +1,136 @@
+package tech.cbs.api.service.impl;
+
+import tech.cbs.api.repository.routing.ReadYourWrites;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+
+/**
+ * Merges concurrent single-id lookups into one multi-get.
+ * <p>
+ * The first caller of a batch becomes its leader. While no batch is loading the leader loads its id right
+ * away, so a lone lookup pays no window. Otherwise it waits for {@code window}, takes every id requested
+ * in the meantime and loads them with one call to the batch loader. Followers only wait for their result.
+ * A batch is cut early once it reaches {@code maxBatchSize} ids. A zero window disables coalescing.
+ * <p>
+ * A batch is loaded on its leader's thread but reads at the highest {@link ReadYourWrites} position of all
+ * its callers, so a follower holding a newer token is never served from a replica behind its write.
+ *
+ * @param <T> loaded type
+ */
+class RequestCoalescer<T> {
+
+    private final Function<int[], Map<Integer, T>> batchLoader;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final LongConsumer park;
+
+    private final Object lock = new Object();
+    private Map<Integer, CompletableFuture<T>> pending = new HashMap<>();
+    private long pendingLsn;
+    private int loading;
+
+    /**
+     * @param batchLoader  loads the given ids, missing ids are absent from the result
+     * @param window       how long the leader waits for more ids
+     * @param maxBatchSize largest number of ids in one batch
+     */
+    RequestCoalescer(Function<int[], Map<Integer, T>> batchLoader, Duration window, int maxBatchSize) {
+        this(batchLoader, window, maxBatchSize, LockSupport::parkNanos);
+    }
+
+    /**
+     * @param park waits for the given nanoseconds of the window
+     */
+    RequestCoalescer(Function<int[], Map<Integer, T>> batchLoader, Duration window, int maxBatchSize,
+                     LongConsumer park) {
+        this.batchLoader = batchLoader;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.park = park;
+    }
+
+    Optional<T> load(int id) {
+        if (windowNanos <= 0) {
+            return Optional.ofNullable(batchLoader.apply(new int[]{id}).get(id));
+        }
+
+        CompletableFuture<T> result;
+        boolean leader;
+        Batch<T> batch = null;
+        long requiredLsn = ReadYourWrites.requiredLsn();
+        synchronized (lock) {
+            leader = pending.isEmpty();
+            result = pending.computeIfAbsent(id, key -> new CompletableFuture<>());
+            pendingLsn = Math.max(pendingLsn, requiredLsn);
+            if (leader && loading == 0 || !leader && pending.size() >= maxBatchSize) {
+                batch = take();
+            }
+        }
+
+        if (batch == null && leader) {
+            park.accept(windowNanos);
+            synchronized (lock) {
+                batch = take();
+            }
+        }
+        if (batch != null) {
+            dispatch(batch);
+        }
+
+        try {
+            return Optional.ofNullable(result.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Called with the lock held
+     */
+    private Batch<T> take() {
+        var batch = new Batch<>(pending, pendingLsn);
+        pending = new HashMap<>();
+        pendingLsn = 0;
+        loading++;
+        return batch;
+    }
+
+    private void dispatch(Batch<T> batch) {
+        var futures = batch.futures();
+        try {
+            if (!futures.isEmpty()) {
+                var ids = futures.keySet().stream().mapToInt(Integer::intValue).toArray();
+                var loaded = ReadYourWrites.requiring(batch.requiredLsn(), () -> batchLoader.apply(ids));
+                futures.forEach((id, future) -> future.complete(loaded.get(id)));
+            }
+        } catch (Throwable e) {
+            // followers must never be left waiting, whatever the loader throws
+            futures.values().forEach(future -> future.completeExceptionally(e));
+        } finally {
+            synchronized (lock) {
+                loading--;
+            }
+        }
+    }
+
+    /**
+     * @param futures     results by id
+     * @param requiredLsn highest WAL position required by a caller
+     */
+    private record Batch<T>(Map<Integer, CompletableFuture<T>> futures, long requiredLsn) {
+    }
+}
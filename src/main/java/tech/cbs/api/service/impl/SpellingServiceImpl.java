@@ -0,0 +1,174 @@
+package tech.cbs.api.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import tech.cbs.api.repository.SuggestionRepository;
+import tech.cbs.api.repository.invalidation.EntityType;
+import tech.cbs.api.repository.invalidation.InvalidationListener;
+import tech.cbs.api.repository.routing.ReadYourWrites;
+import tech.cbs.api.repository.model.Suggestion;
+import tech.cbs.api.service.SpellingService;
+import tech.cbs.api.service.dto.SpellingCorrectionDto;
+import tech.cbs.api.service.index.SpellingIndex;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Corrects search queries against the words of book titles, author and tag names.
+ * <p>
+ * The vocabulary is a {@link SpellingIndex} built at startup. It remembers the words each entity contributed,
+ * so a write arriving as an invalidation only re-reads the changed title or name and moves the difference
+ * in and out of the index. Updates run on one background thread and take the write lock for the
+ * difference alone. Deleting an author deletes its books without events of their own, so a deleted author
+ * rebuilds the vocabulary. Reads go to the primary, a replica may not have replayed the write yet.
+ */
+@Service
+public class SpellingServiceImpl implements SpellingService, InvalidationListener {
+
+    private static final Logger log = LoggerFactory.getLogger(SpellingServiceImpl.class);
+
+    private final SuggestionRepository suggestionRepository;
+    private final ExecutorService updater = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().daemon().name("spelling-update").factory());
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean reloadQueued = new AtomicBoolean();
+
+    private SpellingIndex index = new SpellingIndex();
+    private Map<Source, List<String>> contributions = new HashMap<>();
+
+    public SpellingServiceImpl(SuggestionRepository suggestionRepository) {
+        this.suggestionRepository = suggestionRepository;
+    }
+
+    /**
+     * Rebuild the vocabulary from the database
+     */
+    @PostConstruct
+    public void reload() {
+        var rebuilt = new SpellingIndex();
+        Map<Source, List<String>> rebuiltContributions = new HashMap<>();
+        for (Suggestion suggestion : ReadYourWrites.onPrimary(suggestionRepository::findAll)) {
+            var words = SpellingIndex.tokenize(suggestion.text());
+            words.forEach(rebuilt::add);
+            rebuiltContributions.put(new Source(suggestion.type(), suggestion.id()), words);
+        }
+
+        lock.writeLock().lock();
+        try {
+            index = rebuilt;
+            contributions = rebuiltContributions;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Bring the words of one entity up to date
+     *
+     * @param type entity type
+     * @param id   entity id
+     */
+    public void refresh(EntityType type, int id) {
+        var source = new Source(type, id);
+        var text = ReadYourWrites.onPrimary(() -> suggestionRepository.findText(type, id));
+        if (text.isEmpty() && type == EntityType.AUTHOR) {
+            reload();
+            return;
+        }
+        var words = text.map(SpellingIndex::tokenize).orElse(List.of());
+
+        lock.writeLock().lock();
+        try {
+            var previous = contributions.getOrDefault(source, List.of());
+            words.forEach(index::add);
+            previous.forEach(index::remove);
+            if (words.isEmpty()) {
+                contributions.remove(source);
+            } else {
+                contributions.put(source, words);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public SpellingCorrectionDto correct(String query) {
+        var corrected = new StringBuilder(query.length());
+        boolean changed = false;
+
+        lock.readLock().lock();
+        try {
+            int start = -1;
+            for (int i = 0; i <= query.length(); i++) {
+                boolean wordChar = i < query.length() && Character.isLetterOrDigit(query.charAt(i));
+                if (wordChar && start < 0) {
+                    start = i;
+                } else if (!wordChar && start >= 0) {
+                    var word = query.substring(start, i);
+                    var normalized = word.toLowerCase(Locale.ROOT);
+                    var correction = index.correct(normalized);
+                    if (correction != null && !correction.equals(normalized)) {
+                        corrected.append(correction);
+                        changed = true;
+                    } else {
+                        corrected.append(word);
+                    }
+                    start = -1;
+                }
+                if (!wordChar && i < query.length()) {
+                    corrected.append(query.charAt(i));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new SpellingCorrectionDto(query, changed ? corrected.toString() : null);
+    }
+
+    @Override
+    public void invalidate(EntityType type, int id) {
+        updater.execute(() -> {
+            try {
+                refresh(type, id);
+            } catch (RuntimeException e) {
+                log.warn("Could not update the spelling vocabulary for {} {}", type, id, e);
+            }
+        });
+    }
+
+    @Override
+    public void invalidateAll() {
+        // a reload that has not started yet already covers this one, bulk imports send one per batch
+        if (!reloadQueued.compareAndSet(false, true)) {
+            return;
+        }
+        updater.execute(() -> {
+            reloadQueued.set(false);
+            try {
+                reload();
+            } catch (RuntimeException e) {
+                log.warn("Could not rebuild the spelling vocabulary", e);
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        updater.shutdownNow();
+    }
+
+    private record Source(EntityType type, int id) {
+    }
+}
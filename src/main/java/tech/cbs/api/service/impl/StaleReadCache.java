@@ -0,0 +1,213 @@
+package tech.cbs.api.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import tech.cbs.api.repository.invalidation.EntityType;
+import tech.cbs.api.repository.routing.ReadYourWrites;
+import tech.cbs.api.service.dto.CacheStats;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Last known results of catalog reads, served when the database cannot answer in time.
+ * <p>
+ * A result is fresh until its soft TTL and until a write to one of the entity types it shows; invalidations
+ * only advance a generation per type, the result itself is kept up to its hard TTL. A result past its soft TTL
+ * is served at once while a single background refresh replaces it. A result outdated by a write is loaded again,
+ * unless the database is failing: a load that throws a {@link DataAccessException}, or any load while the last
+ * one took longer than the latency threshold, is answered with the last known result. Every result served that
+ * way is reported to {@link StaleReads}, and so is every fresh result served from memory.
+ * <p>
+ * Results are loaded from the primary, since they are kept far longer than any replica lags. Reads of a
+ * {@link ReadYourWrites} session that requires a WAL position bypass the cache: the invalidation of their own
+ * write may still be on its way.
+ */
+class StaleReadCache implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(StaleReadCache.class);
+
+    private final Cache<String, Entry> entries;
+    private final ThreadPoolExecutor refresher;
+    private final AtomicLongArray generations = new AtomicLongArray(EntityType.values().length);
+    private final long softTtlNanos;
+    private final long latencyThresholdNanos;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder errorHits = new LongAdder();
+    private volatile boolean slow;
+
+    /**
+     * @param enabled          a disabled cache loads every read
+     * @param maximumSize      number of results kept
+     * @param softTtl          age after which a result is refreshed in the background
+     * @param hardTtl          age after which a result is never served
+     * @param latencyThreshold duration of a load after which the database counts as slow until a load is fast again
+     * @param refreshThreads   threads of the background refreshes
+     * @param refreshQueue     refreshes waiting for a thread, more are skipped until the next read
+     */
+    StaleReadCache(boolean enabled, long maximumSize, Duration softTtl, Duration hardTtl, Duration latencyThreshold,
+                   int refreshThreads, int refreshQueue) {
+        this.softTtlNanos = softTtl.toNanos();
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        if (enabled) {
+            entries = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(hardTtl).recordStats().build();
+            refresher = new ThreadPoolExecutor(refreshThreads, refreshThreads, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(refreshQueue), Thread.ofPlatform().daemon().name("stale-refresh-", 0).factory());
+        } else {
+            entries = null;
+            refresher = null;
+        }
+    }
+
+    /**
+     * @param key    identifies the read and its arguments
+     * @param types  entity types whose writes outdate the result
+     * @param loader reads from the database
+     * @return the loaded result or, if the database is failing, the last known one
+     */
+    @SuppressWarnings("unchecked")
+    <V> V get(String key, EntityType[] types, Supplier<V> loader) {
+        if (entries == null || ReadYourWrites.requiredLsn() > 0) {
+            return loader.get();
+        }
+        long generation = generation(types);
+        var entry = entries.getIfPresent(key);
+        if (entry != null) {
+            boolean current = entry.generation == generation;
+            if (current && entry.age() < softTtlNanos) {
+                hits.increment();
+                StaleReads.cached();
+                return (V) entry.value;
+            }
+            if (current || slow) {
+                refresh(key, types, loader, entry);
+                staleHits.increment();
+                StaleReads.served(Duration.ofNanos(entry.age()), false);
+                return (V) entry.value;
+            }
+        }
+        misses.increment();
+        try {
+            return load(key, generation, loader);
+        } catch (DataAccessException e) {
+            if (entry == null) {
+                throw e;
+            }
+            log.debug("Serving the last known result of {} after a failed read", key, e);
+            errorHits.increment();
+            StaleReads.served(Duration.ofNanos(entry.age()), true);
+            return (V) entry.value;
+        }
+    }
+
+    void invalidate(EntityType type) {
+        generations.incrementAndGet(type.ordinal());
+    }
+
+    void invalidateAll() {
+        for (EntityType type : EntityType.values()) {
+            invalidate(type);
+        }
+    }
+
+    CacheStats stats() {
+        if (entries == null) {
+            return new CacheStats(false, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+        }
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long loadCount = loads.sum();
+        return new CacheStats(true, entries.estimatedSize(), hitCount, missCount,
+                hitCount + missCount == 0 ? 1 : (double) hitCount / (hitCount + missCount),
+                loadCount, loadFailures.sum(), loadCount == 0 ? 0 : loadNanos.sum() / 1e6 / loadCount,
+                entries.stats().evictionCount(), 0, 0, staleHits.sum(), errorHits.sum());
+    }
+
+    @Override
+    public void close() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    /**
+     * Load and keep the result under the generation read before the load, a write during the load outdates it
+     */
+    private <V> V load(String key, long generation, Supplier<V> loader) {
+        long start = System.nanoTime();
+        try {
+            V value = ReadYourWrites.onPrimary(loader);
+            entries.put(key, new Entry(value, start, generation));
+            return value;
+        } catch (RuntimeException e) {
+            loadFailures.increment();
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            loads.increment();
+            loadNanos.add(elapsed);
+            slow = elapsed > latencyThresholdNanos;
+        }
+    }
+
+    private <V> void refresh(String key, EntityType[] types, Supplier<V> loader, Entry entry) {
+        if (!entry.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        long generation = generation(types);
+        try {
+            refresher.execute(() -> {
+                try {
+                    load(key, generation, loader);
+                } catch (RuntimeException e) {
+                    log.debug("Could not refresh {}", key, e);
+                } finally {
+                    entry.refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            entry.refreshing.set(false);
+        }
+    }
+
+    private long generation(EntityType[] types) {
+        long sum = 0;
+        for (EntityType type : types) {
+            sum += generations.get(type.ordinal());
+        }
+        return sum;
+    }
+
+    private static final class Entry {
+
+        private final Object value;
+        private final long loadedAt;
+        private final long generation;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private Entry(Object value, long loadedAt, long generation) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+            this.generation = generation;
+        }
+
+        private long age() {
+            return System.nanoTime() - loadedAt;
+        }
+    }
+}
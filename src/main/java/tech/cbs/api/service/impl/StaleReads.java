@@ -0,0 +1,83 @@
+package tech.cbs.api.service.impl;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Stale reads of the current request.
+ * <p>
+ * Receives every value the {@link StaleReadCache} served from its last known state instead of the database,
+ * so the response can tell the client how old it is, and learns of every value it or the {@link PagePrefetcher}
+ * served from memory at all.
+ */
+public final class StaleReads {
+
+    private static final ThreadLocal<Session> SESSION = new ThreadLocal<>();
+
+    private StaleReads() {
+    }
+
+    /**
+     * @param onStale  receives the oldest staleness served so far, after every stale read
+     * @param onCached runs after every read served from memory, fresh or stale
+     */
+    public static void open(Consumer<Staleness> onStale, Runnable onCached) {
+        SESSION.set(new Session(onStale, onCached));
+    }
+
+    public static void close() {
+        SESSION.remove();
+    }
+
+    /**
+     * Report a result served from memory within its soft TTL to the current request, if it has a session.
+     * It is not stale, but may still lag behind a write whose invalidation has not arrived yet.
+     */
+    public static void cached() {
+        var session = SESSION.get();
+        if (session != null) {
+            session.onCached.run();
+        }
+    }
+
+    /**
+     * Report a result served without the database to the current request, if it has a session
+     *
+     * @param age                time since the result was loaded
+     * @param revalidationFailed whether the database was asked and failed
+     */
+    public static void served(Duration age, boolean revalidationFailed) {
+        var session = SESSION.get();
+        if (session != null) {
+            // a response built from several reads is as old as its oldest part
+            var served = new Staleness(age, revalidationFailed);
+            session.staleness = session.staleness == null ? served : session.staleness.combine(served);
+            session.onCached.run();
+            session.onStale.accept(session.staleness);
+        }
+    }
+
+    /**
+     * @param age                time since the value was loaded
+     * @param revalidationFailed whether the database was asked and failed, otherwise it was not asked in time
+     */
+    public record Staleness(Duration age, boolean revalidationFailed) {
+
+        Staleness combine(Staleness other) {
+            return new Staleness(age.compareTo(other.age) >= 0 ? age : other.age,
+                    revalidationFailed || other.revalidationFailed);
+        }
+    }
+
+    private static final class Session {
+
+        private final Consumer<Staleness> onStale;
+        private final Runnable onCached;
+        private Staleness staleness;
+
+        private Session(Consumer<Staleness> onStale, Runnable onCached) {
+            this.onStale = onStale;
+            this.onCached = onCached;
+        }
+    }
+}
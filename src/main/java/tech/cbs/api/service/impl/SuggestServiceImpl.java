@@ -0,0 +1,101 @@
+package tech.cbs.api.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import tech.cbs.api.repository.SuggestionRepository;
+import tech.cbs.api.repository.invalidation.EntityType;
+import tech.cbs.api.repository.invalidation.InvalidationListener;
+import tech.cbs.api.repository.routing.ReadYourWrites;
+import tech.cbs.api.repository.model.Suggestion;
+import tech.cbs.api.service.SuggestService;
+import tech.cbs.api.service.dto.SuggestionDto;
+import tech.cbs.api.service.index.PrefixIndex;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Answers typeahead queries from an in-memory {@link PrefixIndex} over book titles, author and tag names.
+ * <p>
+ * The index is built at startup and rebuilt from scratch after writes. Writes arrive as invalidations from
+ * every node; they are coalesced so that a burst of writes within {@code cbs.suggest.refresh-delay}
+ * costs one rebuild, and lookups keep using the previous index meanwhile. Rebuilds read from the primary,
+ * a replica may not have replayed the writes yet.
+ */
+@Service
+public class SuggestServiceImpl implements SuggestService, InvalidationListener {
+
+    private static final Logger log = LoggerFactory.getLogger(SuggestServiceImpl.class);
+
+    private final SuggestionRepository suggestionRepository;
+    private final Duration refreshDelay;
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().daemon().name("suggest-refresh").factory());
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+
+    private volatile PrefixIndex<Suggestion> index = PrefixIndex.empty();
+
+    public SuggestServiceImpl(
+            SuggestionRepository suggestionRepository,
+            @Value("${cbs.suggest.refresh-delay:1s}") Duration refreshDelay) {
+        this.suggestionRepository = suggestionRepository;
+        this.refreshDelay = refreshDelay;
+    }
+
+    /**
+     * Rebuild the index from the database
+     */
+    @PostConstruct
+    public void reload() {
+        var suggestions = ReadYourWrites.onPrimary(suggestionRepository::findAll);
+        index = PrefixIndex.build(suggestions, Suggestion::text, Suggestion::popularity);
+    }
+
+    @Override
+    public List<SuggestionDto> suggest(String query, int limit) {
+        var found = index.search(query, limit);
+        var result = new SuggestionDto[found.size()];
+        for (int i = 0; i < result.length; i++) {
+            var suggestion = found.get(i);
+            result[i] = new SuggestionDto(suggestion.type(), suggestion.id(), suggestion.text());
+        }
+        return List.of(result);
+    }
+
+    @Override
+    public void invalidate(EntityType type, int id) {
+        scheduleRefresh();
+    }
+
+    @Override
+    public void invalidateAll() {
+        scheduleRefresh();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private void scheduleRefresh() {
+        if (!refreshScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        refresher.schedule(() -> {
+            refreshScheduled.set(false);
+            try {
+                reload();
+            } catch (RuntimeException e) {
+                log.warn("Could not rebuild the suggestion index, serving the previous one", e);
+            }
+        }, refreshDelay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+}
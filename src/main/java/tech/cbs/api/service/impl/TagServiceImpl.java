@@ -2,58 +2,108 @@ package tech.cbs.api.service.impl;
 
 import org.springframework.stereotype.Service;
 import tech.cbs.api.exception.ResourceNotFoundException;
+import tech.cbs.api.repository.TagRegistry;
 import tech.cbs.api.repository.TagRepository;
+import tech.cbs.api.repository.invalidation.EntityType;
+import tech.cbs.api.repository.model.Tag;
 import tech.cbs.api.service.TagService;
+import tech.cbs.api.service.dto.CountPrecision;
+import tech.cbs.api.service.dto.CountedPage;
+import tech.cbs.api.service.dto.CursorPage;
 import tech.cbs.api.service.dto.Page;
+import tech.cbs.api.service.dto.Slice;
 import tech.cbs.api.service.dto.TagDto;
 import tech.cbs.api.service.mapper.TagMapper;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class TagServiceImpl implements TagService {
 
     private final TagRepository tagRepository;
-    private final TagMapper tagMapper;
+    private final TagRegistry tagRegistry;
+    private final CacheServiceImpl cacheService;
 
-    public TagServiceImpl(TagRepository tagRepository) {
+    public TagServiceImpl(TagRepository tagRepository, TagRegistry tagRegistry, CacheServiceImpl cacheService) {
         this.tagRepository = tagRepository;
-        this.tagMapper = new TagMapper();
+        this.tagRegistry = tagRegistry;
+        this.cacheService = cacheService;
     }
 
     @Override
     public List<TagDto> getTags(Page page) {
-        return tagRepository.findAll(page)
+        return tagRegistry.findAll(page)
                 .stream()
-                .map(TagMapper::toDto)
+                .map(tagRegistry::dto)
                 .toList();
     }
 
+    @Override
+    public Slice<TagDto> getTags(CursorPage page) {
+        return tagRegistry.findAll(page).map(tagRegistry::dto);
+    }
+
+    @Override
+    public CountedPage<TagDto> getTagPage(Page page) {
+        // every tag is in the registry, its size is an exact count for free
+        return CountedPage.of(getTags(page), page, tagRegistry.size(), CountPrecision.EXACT);
+    }
+
     @Override
     public TagDto getTag(int id) {
-        return tagRepository.findById(id)
-                .map(tagMapper)
-                .orElseThrow(() -> new ResourceNotFoundException("Could not find tag with id " + id));
+        // a tag created by another instance is not in the registry until it reloads
+        return tagRegistry.findById(id)
+                .or(() -> tagRepository.findById(id))
+                .map(tagRegistry::dto)
+                .orElseThrow(() -> new ResourceNotFoundException("tag", id));
     }
 
     @Override
-    public TagDto createTag(TagDto tagDto) {
+    public List<TagDto> getTagsByIds(int[] ids) {
+        // like getTag, the few ids the registry does not know yet are read in one query
+        var unknown = Arrays.stream(ids).filter(id -> tagRegistry.findById(id).isEmpty()).distinct().toArray();
+        Map<Integer, Tag> loaded = unknown.length == 0
+                ? Map.of()
+                : tagRepository.findAllByIds(unknown).stream().collect(Collectors.toMap(Tag::id, Function.identity()));
+        return Arrays.stream(ids)
+                .mapToObj(id -> tagRegistry.findById(id).or(() -> Optional.ofNullable(loaded.get(id))))
+                .flatMap(Optional::stream)
+                .map(tagRegistry::dto)
+                .toList();
+    }
 
-        var tag = TagMapper.toModel(tagDto);
-        int tagId = tagRepository.save(tag);
+    @Override
+    public void exportTags(Consumer<TagDto> consumer) {
+        tagRegistry.findAll(new Page(0, Integer.MAX_VALUE))
+                .forEach(tag -> consumer.accept(tagRegistry.dto(tag)));
+    }
 
-        return tagRepository.findById(tagId)
-                .map(tagMapper)
-                .orElseThrow(() -> new ResourceNotFoundException("Tag cannot be created."));
+    @Override
+    public TagDto createTag(TagDto tagDto) {
+        return tagRegistry.dto(tagRepository.create(TagMapper.toModel(tagDto)));
     }
 
     @Override
     public boolean updateTag(TagDto tagDto) {
-        return tagRepository.update(TagMapper.toModel(tagDto));
+        try {
+            return tagRepository.update(TagMapper.toModel(tagDto));
+        } finally {
+            cacheService.invalidate(EntityType.TAG, tagDto.id());
+        }
     }
 
     @Override
     public boolean deleteTag(int id) {
-        return tagRepository.deleteById(id);
+        try {
+            return tagRepository.deleteById(id);
+        } finally {
+            cacheService.invalidate(EntityType.TAG, id);
+        }
     }
 }
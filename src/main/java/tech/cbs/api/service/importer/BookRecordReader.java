@@ -0,0 +1,101 @@
+package tech.cbs.api.service.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import tech.cbs.api.repository.model.ImportedBook;
+import tech.cbs.api.repository.model.Level;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Pull-based reader of book import records.
+ * Malformed records do not stop the reader, they are returned as rejected rows.
+ */
+public interface BookRecordReader extends Closeable {
+
+    /**
+     * Parsed record, either {@code book} or {@code error} is set
+     */
+    record Row(long line, ImportedBook book, String error) {
+
+        static Row rejected(long line, String error) {
+            return new Row(line, null, error);
+        }
+    }
+
+    /**
+     * @return next record or {@code null} at the end of input
+     */
+    Row next() throws IOException;
+
+    /**
+     * @param format       input format
+     * @param in           input
+     * @param objectMapper mapper parsing JSON records
+     * @return reader of the format
+     */
+    static BookRecordReader of(ImportFormat format, InputStream in, ObjectMapper objectMapper) {
+        return switch (format) {
+            case CSV -> new CsvBookRecordReader(in);
+            case NDJSON -> new NdjsonBookRecordReader(in, objectMapper);
+        };
+    }
+
+    /**
+     * Validates raw field values and builds the record.
+     */
+    static Row toRow(long line, String title, String author, String publicationYear, String isbn, String level,
+                     String description, String available, List<String> tags) {
+        if (isBlank(title) || title.length() > 255) {
+            return Row.rejected(line, "title is required and must be at most 255 characters");
+        }
+        if (isBlank(author) || author.length() > 100) {
+            return Row.rejected(line, "author is required and must be at most 100 characters");
+        }
+        if (description == null) {
+            return Row.rejected(line, "description is required");
+        }
+        if (isbn != null && isbn.length() > 13) {
+            return Row.rejected(line, "isbn must be at most 13 characters");
+        }
+        int year;
+        try {
+            year = Integer.parseInt(publicationYear == null ? "" : publicationYear.trim());
+        } catch (NumberFormatException e) {
+            return Row.rejected(line, "publication year is not a number: " + publicationYear);
+        }
+        if (year < Short.MIN_VALUE || year > Short.MAX_VALUE) {
+            return Row.rejected(line, "publication year is out of range: " + year);
+        }
+        Level parsedLevel;
+        try {
+            parsedLevel = isBlank(level)
+                    ? Level.BEGINNER
+                    : Level.valueOf(level.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return Row.rejected(line, "unknown level: " + level);
+        }
+        for (String tag : tags) {
+            if (isBlank(tag) || tag.length() > 25) {
+                return Row.rejected(line, "tag names are required and must be at most 25 characters");
+            }
+        }
+        return new Row(line, new ImportedBook(
+                line,
+                title,
+                author,
+                year,
+                isBlank(isbn) ? null : isbn,
+                parsedLevel,
+                description,
+                Boolean.parseBoolean(available == null ? null : available.trim()),
+                tags.stream().distinct().toList()
+        ), null);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
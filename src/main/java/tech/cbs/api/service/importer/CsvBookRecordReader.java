@@ -0,0 +1,156 @@
+package tech.cbs.api.service.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RFC 4180 CSV reader.
+ * <p>
+ * The first record is a header naming the columns {@code title, author, publication_year, isbn, level,
+ * description, available, tags}, in any order. Tags are separated by {@code |}.
+ * Quoted fields may contain separators, line breaks and doubled quotes.
+ */
+public class CsvBookRecordReader implements BookRecordReader {
+
+    private static final String[] REQUIRED_COLUMNS = {"title", "author", "publication_year", "description"};
+
+    private final BufferedReader reader;
+    private final List<String> fields = new ArrayList<>();
+    private final StringBuilder field = new StringBuilder();
+    private Map<String, Integer> columns;
+    private long line = 1;
+    private int next = -2;
+
+    public CsvBookRecordReader(InputStream in) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    @Override
+    public Row next() throws IOException {
+        if (columns == null) {
+            readHeader();
+        }
+        long start;
+        do {
+            start = line;
+            if (!readRecord()) {
+                return null;
+            }
+        } while (fields.size() == 1 && fields.getFirst().isEmpty());
+        if (fields.size() != columns.size()) {
+            return Row.rejected(start, "expected " + columns.size() + " fields but found " + fields.size());
+        }
+        var tags = get("tags");
+        return BookRecordReader.toRow(
+                start,
+                get("title"),
+                get("author"),
+                get("publication_year"),
+                get("isbn"),
+                get("level"),
+                get("description"),
+                get("available"),
+                tags == null || tags.isBlank() ? List.of() : Arrays.stream(tags.split("\\|")).map(String::trim).toList()
+        );
+    }
+
+    private void readHeader() throws IOException {
+        if (!readRecord()) {
+            throw new IOException("CSV input is empty");
+        }
+        columns = new HashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            columns.put(fields.get(i).trim().toLowerCase(), i);
+        }
+        for (String column : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(column)) {
+                throw new IOException("CSV header misses column " + column);
+            }
+        }
+    }
+
+    private String get(String column) {
+        var index = columns.get(column);
+        return index == null ? null : fields.get(index);
+    }
+
+    /**
+     * Reads one record into {@link #fields}
+     *
+     * @return false at the end of input
+     */
+    private boolean readRecord() throws IOException {
+        fields.clear();
+        field.setLength(0);
+        int c = read();
+        if (c == -1) {
+            return false;
+        }
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field starting before line " + line);
+                }
+                if (c == '"') {
+                    c = read();
+                    if (c == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r') {
+                int peek = read();
+                if (peek != '\n') {
+                    next = peek;
+                }
+                line++;
+                break;
+            } else if (c == '\n') {
+                line++;
+                break;
+            } else if (c == -1) {
+                break;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+        fields.add(field.toString());
+        return true;
+    }
+
+    private int read() throws IOException {
+        if (next != -2) {
+            int c = next;
+            next = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,20 @@
+package tech.cbs.api.service.importer;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Supported bulk import formats
+ */
+public enum ImportFormat {
+    CSV,
+    NDJSON;
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    public static ImportFormat of(MediaType contentType) {
+        if (contentType != null && contentType.isCompatibleWith(MediaType.APPLICATION_NDJSON)) {
+            return NDJSON;
+        }
+        return CSV;
+    }
+}
@@ -0,0 +1,81 @@
+package tech.cbs.api.service.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Newline delimited JSON reader, one book object per line:
+ * <pre>
+ * {"title": "...", "author": "...", "publicationYear": 2018, "isbn": "...", "level": "ADVANCED",
+ *  "description": "...", "available": true, "tags": ["java", "concurrency"]}
+ * </pre>
+ */
+public class NdjsonBookRecordReader implements BookRecordReader {
+
+    private final ObjectMapper objectMapper;
+    private final BufferedReader reader;
+    private long line;
+
+    public NdjsonBookRecordReader(InputStream in, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    @Override
+    public Row next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            line++;
+            if (text == null) {
+                return null;
+            }
+        } while (text.isBlank());
+
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(text);
+        } catch (JsonProcessingException e) {
+            return Row.rejected(line, "malformed JSON: " + e.getOriginalMessage());
+        }
+        if (!node.isObject()) {
+            return Row.rejected(line, "expected a JSON object");
+        }
+
+        List<String> tags = new ArrayList<>();
+        var tagsNode = node.get("tags");
+        if (tagsNode != null && tagsNode.isArray()) {
+            tagsNode.forEach(tag -> tags.add(tag.asText()));
+        }
+        return BookRecordReader.toRow(
+                line,
+                text(node, "title"),
+                text(node, "author"),
+                text(node, "publicationYear"),
+                text(node, "isbn"),
+                text(node, "level"),
+                text(node, "description"),
+                text(node, "available"),
+                tags
+        );
+    }
+
+    private static String text(JsonNode node, String field) {
+        var value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,171 @@
+package tech.cbs.api.service.index;
+
+import org.roaringbitmap.RoaringBitmap;
+import tech.cbs.api.repository.model.Book;
+import tech.cbs.api.repository.model.Level;
+import tech.cbs.api.repository.model.Tag;
+import tech.cbs.api.service.dto.BrowseQuery;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Book ids by facet value in compressed bitmaps: one per tag, per {@link Level}, per availability and per
+ * publication year.
+ * <p>
+ * A filter is evaluated with bitmap AND, OR and ANDNOT, and facet counts are the cardinalities of the
+ * result intersected with every facet bitmap, so neither depends on the number of rows touched in the database.
+ * <p>
+ * Not thread-safe, callers guard reads against concurrent updates.
+ */
+public final class FacetIndex {
+
+    private static final RoaringBitmap EMPTY = new RoaringBitmap();
+
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final RoaringBitmap available = new RoaringBitmap();
+    private final Map<Level, RoaringBitmap> byLevel = new EnumMap<>(Level.class);
+    private final Map<Integer, RoaringBitmap> byTag = new HashMap<>();
+    private final TreeMap<Integer, RoaringBitmap> byYear = new TreeMap<>();
+
+    public int size() {
+        return all.getCardinality();
+    }
+
+    /**
+     * Index a book, replacing what was indexed for it before
+     *
+     * @param book book
+     */
+    public void put(Book book) {
+        remove(book.id());
+        all.add(book.id());
+        if (book.available()) {
+            available.add(book.id());
+        }
+        byLevel.computeIfAbsent(book.level(), level -> new RoaringBitmap()).add(book.id());
+        byYear.computeIfAbsent(book.publicationYear(), year -> new RoaringBitmap()).add(book.id());
+        for (Tag tag : book.tags()) {
+            byTag.computeIfAbsent(tag.id(), id -> new RoaringBitmap()).add(book.id());
+        }
+    }
+
+    /**
+     * @param id book id
+     */
+    public void remove(int id) {
+        if (!all.contains(id)) {
+            return;
+        }
+        all.remove(id);
+        available.remove(id);
+        byLevel.values().forEach(bitmap -> bitmap.remove(id));
+        removeFrom(byTag, id);
+        removeFrom(byYear, id);
+    }
+
+    /**
+     * @param query filter, {@code null} and empty conditions are not applied
+     * @return ids of the matching books
+     */
+    public RoaringBitmap filter(BrowseQuery query) {
+        var result = all.clone();
+        if (query.levels() != null && !query.levels().isEmpty()) {
+            var levels = new RoaringBitmap();
+            query.levels().forEach(level -> levels.or(byLevel.getOrDefault(level, EMPTY)));
+            result.and(levels);
+        }
+        if (query.allTags() != null) {
+            for (int tag : query.allTags()) {
+                result.and(byTag.getOrDefault(tag, EMPTY));
+            }
+        }
+        if (query.anyTags() != null && !query.anyTags().isEmpty()) {
+            var tags = new RoaringBitmap();
+            query.anyTags().forEach(tag -> tags.or(byTag.getOrDefault(tag, EMPTY)));
+            result.and(tags);
+        }
+        if (query.noTags() != null) {
+            for (int tag : query.noTags()) {
+                result.andNot(byTag.getOrDefault(tag, EMPTY));
+            }
+        }
+        if (query.available() != null) {
+            if (query.available()) {
+                result.and(available);
+            } else {
+                result.andNot(available);
+            }
+        }
+        if (query.yearFrom() != null || query.yearTo() != null) {
+            var years = new RoaringBitmap();
+            int from = query.yearFrom() == null ? Integer.MIN_VALUE : query.yearFrom();
+            int to = query.yearTo() == null ? Integer.MAX_VALUE : query.yearTo();
+            if (from <= to) {
+                byYear.subMap(from, true, to, true).values().forEach(years::or);
+            }
+            result.and(years);
+        }
+        return result;
+    }
+
+    /**
+     * @param ids matching books
+     * @return number of them per level, levels without books are left out
+     */
+    public Map<Level, Integer> countLevels(RoaringBitmap ids) {
+        Map<Level, Integer> counts = new EnumMap<>(Level.class);
+        byLevel.forEach((level, bitmap) -> putCount(counts, level, ids, bitmap));
+        return counts;
+    }
+
+    /**
+     * @param ids matching books
+     * @return number of them per tag id, in tag id order, tags without books are left out
+     */
+    public Map<Integer, Integer> countTags(RoaringBitmap ids) {
+        Map<Integer, Integer> counts = new TreeMap<>();
+        byTag.forEach((tag, bitmap) -> putCount(counts, tag, ids, bitmap));
+        return counts;
+    }
+
+    /**
+     * @param ids matching books
+     * @return number of them per publication year, in year order, years without books are left out
+     */
+    public Map<Integer, Integer> countYears(RoaringBitmap ids) {
+        Map<Integer, Integer> counts = new LinkedHashMap<>();
+        byYear.forEach((year, bitmap) -> putCount(counts, year, ids, bitmap));
+        return counts;
+    }
+
+    /**
+     * @param ids matching books
+     * @return number of them available and not available
+     */
+    public Map<Boolean, Integer> countAvailability(RoaringBitmap ids) {
+        int availableCount = RoaringBitmap.andCardinality(ids, available);
+        return Map.of(true, availableCount, false, ids.getCardinality() - availableCount);
+    }
+
+    private static <K> void putCount(Map<K, Integer> counts, K key, RoaringBitmap ids, RoaringBitmap bitmap) {
+        int count = RoaringBitmap.andCardinality(ids, bitmap);
+        if (count > 0) {
+            counts.put(key, count);
+        }
+    }
+
+    private static void removeFrom(Map<Integer, RoaringBitmap> bitmaps, int id) {
+        var iterator = bitmaps.values().iterator();
+        while (iterator.hasNext()) {
+            var bitmap = iterator.next();
+            bitmap.remove(id);
+            if (bitmap.isEmpty()) {
+                iterator.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package tech.cbs.api.service.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Immutable prefix index returning the top-k values whose text has a word starting with a typed prefix.
+ * <p>
+ * Every word start of every text is a key; the lowercased keys are kept in one sorted array, so the keys
+ * sharing a prefix form a contiguous range found with two binary searches. A segment tree over that array
+ * holds the best ranked key of each subrange, the k best values of a range are taken from it one at a time,
+ * splitting the range around every pick. A lookup compares the query in place and works in preallocated
+ * per-thread buffers, the only allocation is the returned list unless a lookup outgrows the buffers.
+ *
+ * @param <T> indexed value
+ */
+public final class PrefixIndex<T> {
+
+    /**
+     * Largest number of values one lookup returns
+     */
+    public static final int MAX_LIMIT = 50;
+
+    /**
+     * Word starts of a text that are indexed, bounds the keys of very long titles
+     */
+    private static final int MAX_WORDS = 8;
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final Object[] values;
+    private final String[] keys;
+    private final int[] owners;
+    private final int[] ranks;
+    private final int[] tree;
+
+    private PrefixIndex(Object[] values, String[] keys, int[] owners, int[] ranks) {
+        this.values = values;
+        this.keys = keys;
+        this.owners = owners;
+        this.ranks = ranks;
+
+        int n = keys.length;
+        tree = new int[2 * n];
+        for (int i = 0; i < n; i++) {
+            tree[n + i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            tree[i] = better(tree[2 * i], tree[2 * i + 1]);
+        }
+    }
+
+    public static <T> PrefixIndex<T> empty() {
+        return new PrefixIndex<>(new Object[0], new String[0], new int[0], new int[0]);
+    }
+
+    /**
+     * @param values     values to index
+     * @param text       text of a value, {@code null} texts are not indexed
+     * @param popularity higher is suggested first; ties go to the shorter text, then alphabetically
+     * @return index
+     */
+    public static <T> PrefixIndex<T> build(List<T> values, Function<? super T, String> text, ToIntFunction<? super T> popularity) {
+        int size = values.size();
+        var normalized = new String[size];
+        var order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            normalized[i] = normalize(text.apply(values.get(i)));
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.<Integer>comparingInt(i -> -popularity.applyAsInt(values.get(i)))
+                .thenComparingInt(i -> normalized[i] == null ? Integer.MAX_VALUE : normalized[i].length())
+                .thenComparing(i -> normalized[i], Comparator.nullsLast(Comparator.naturalOrder())));
+        var ranks = new int[size];
+        for (int rank = 0; rank < size; rank++) {
+            ranks[order[rank]] = rank;
+        }
+
+        record Key(String key, int owner) {
+        }
+        List<Key> keyList = new ArrayList<>(size * 3);
+        for (int i = 0; i < size; i++) {
+            var key = normalized[i];
+            if (key == null) {
+                continue;
+            }
+            int words = 0;
+            for (int start = 0; start < key.length() && words < MAX_WORDS; start++) {
+                if (Character.isLetterOrDigit(key.charAt(start))
+                        && (start == 0 || !Character.isLetterOrDigit(key.charAt(start - 1)))) {
+                    keyList.add(new Key(key.substring(start), i));
+                    words++;
+                }
+            }
+        }
+        keyList.sort(Comparator.comparing(Key::key).thenComparingInt(Key::owner));
+
+        var keys = new String[keyList.size()];
+        var owners = new int[keyList.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = keyList.get(i).key();
+            owners[i] = keyList.get(i).owner();
+        }
+        return new PrefixIndex<>(values.toArray(), keys, owners, ranks);
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * @param query prefix, compared case-insensitively and without surrounding whitespace
+     * @param limit maximum number of values, at most {@link #MAX_LIMIT}
+     * @return best ranked values with a word starting with the query, best first
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> search(CharSequence query, int limit) {
+        int from = 0;
+        int to = query.length();
+        while (from < to && Character.isWhitespace(query.charAt(from))) {
+            from++;
+        }
+        while (to > from && Character.isWhitespace(query.charAt(to - 1))) {
+            to--;
+        }
+        limit = Math.min(limit, MAX_LIMIT);
+        if (from == to || limit < 1 || keys.length == 0) {
+            return List.of();
+        }
+
+        int lo = bound(query, from, to, false);
+        int hi = bound(query, from, to, true);
+
+        var scratch = SCRATCH.get();
+        scratch.candidates = 0;
+        push(scratch, lo, hi);
+        int found = 0;
+        while (found < limit && scratch.candidates > 0) {
+            int best = 0;
+            for (int c = 1; c < scratch.candidates; c++) {
+                if (ranks[owners[scratch.arg[c]]] < ranks[owners[scratch.arg[best]]]) {
+                    best = c;
+                }
+            }
+            int arg = scratch.arg[best];
+            int rangeLo = scratch.lo[best];
+            int rangeHi = scratch.hi[best];
+            int last = --scratch.candidates;
+            scratch.lo[best] = scratch.lo[last];
+            scratch.hi[best] = scratch.hi[last];
+            scratch.arg[best] = scratch.arg[last];
+
+            // a value is reachable through several of its words, report it once
+            int owner = owners[arg];
+            boolean seen = false;
+            for (int i = 0; i < found && !seen; i++) {
+                seen = scratch.found[i] == owner;
+            }
+            if (!seen) {
+                scratch.found[found++] = owner;
+            }
+            push(scratch, rangeLo, arg);
+            push(scratch, arg + 1, rangeHi);
+        }
+
+        var result = new Object[found];
+        for (int i = 0; i < found; i++) {
+            result[i] = values[scratch.found[i]];
+        }
+        return (List<T>) Arrays.asList(result);
+    }
+
+    private void push(Scratch scratch, int lo, int hi) {
+        if (lo >= hi) {
+            return;
+        }
+        if (scratch.candidates == scratch.arg.length) {
+            // a value picked again through another word adds a range without a result, so the number of
+            // ranges is not bounded by the limit; dropping one could lose a better value
+            scratch.grow();
+        }
+        int c = scratch.candidates++;
+        scratch.lo[c] = lo;
+        scratch.hi[c] = hi;
+        scratch.arg[c] = best(lo, hi);
+    }
+
+    /**
+     * Best ranked key in [lo, hi)
+     */
+    private int best(int lo, int hi) {
+        int n = keys.length;
+        int result = -1;
+        for (lo += n, hi += n; lo < hi; lo >>= 1, hi >>= 1) {
+            if ((lo & 1) == 1) {
+                result = result < 0 ? tree[lo] : better(result, tree[lo]);
+                lo++;
+            }
+            if ((hi & 1) == 1) {
+                hi--;
+                result = result < 0 ? tree[hi] : better(result, tree[hi]);
+            }
+        }
+        return result;
+    }
+
+    private int better(int a, int b) {
+        return ranks[owners[a]] <= ranks[owners[b]] ? a : b;
+    }
+
+    /**
+     * First key that is not below the query, or with {@code after} the first key above every key starting with it
+     */
+    private int bound(CharSequence query, int from, int to, boolean after) {
+        int lo = 0;
+        int hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = comparePrefix(keys[mid], query, from, to);
+            if (cmp < 0 || after && cmp == 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * @return 0 if the key starts with the query, otherwise the order of the key relative to the query
+     */
+    private static int comparePrefix(String key, CharSequence query, int from, int to) {
+        int length = to - from;
+        for (int i = 0; i < length; i++) {
+            if (i == key.length()) {
+                return -1;
+            }
+            int diff = key.charAt(i) - Character.toLowerCase(query.charAt(from + i));
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return 0;
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return null;
+        }
+        var chars = new char[text.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(text.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    private static final class Scratch {
+
+        private static final int INITIAL_CAPACITY = 4 * MAX_LIMIT;
+
+        private int[] lo = new int[INITIAL_CAPACITY];
+        private int[] hi = new int[INITIAL_CAPACITY];
+        private int[] arg = new int[INITIAL_CAPACITY];
+        private final int[] found = new int[MAX_LIMIT];
+        private int candidates;
+
+        /**
+         * Kept by the thread for later lookups
+         */
+        private void grow() {
+            lo = Arrays.copyOf(lo, 2 * lo.length);
+            hi = Arrays.copyOf(hi, 2 * hi.length);
+            arg = Arrays.copyOf(arg, 2 * arg.length);
+        }
+    }
+}
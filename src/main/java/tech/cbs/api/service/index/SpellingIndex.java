@@ -0,0 +1,260 @@
+package tech.cbs.api.service.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Spelling corrector over a word vocabulary using symmetric-delete precomputation.
+ * <p>
+ * Every word is stored under each string obtained by deleting up to {@link #MAX_DISTANCE} characters from
+ * its first {@link #PREFIX_LENGTH} characters. A misspelling is looked up under its own deletes, which finds
+ * every word within that edit distance of the prefix without scanning the vocabulary; candidates are then
+ * verified with the full optimal string alignment distance. Words are reference counted, so the vocabulary
+ * can be updated incrementally as the texts containing them change.
+ * <p>
+ * Not thread-safe, callers guard lookups against concurrent updates.
+ */
+public final class SpellingIndex {
+
+    public static final int MAX_DISTANCE = 2;
+
+    /**
+     * Only deletes of a word prefix are stored, which bounds the deletes of long words; the suffix is checked
+     * when candidates are verified
+     */
+    static final int PREFIX_LENGTH = 7;
+
+    private static final int[] NO_WORDS = new int[0];
+
+    private final Map<String, Integer> wordIds = new HashMap<>();
+    private final List<String> words = new ArrayList<>();
+    private final List<Integer> counts = new ArrayList<>();
+    private final List<Integer> freeIds = new ArrayList<>();
+    private final Map<String, int[]> deletes = new HashMap<>();
+
+    /**
+     * @return number of distinct words
+     */
+    public int size() {
+        return wordIds.size();
+    }
+
+    /**
+     * @param word word, already normalized with {@link #tokenize(String)}
+     * @return whether the vocabulary has the word
+     */
+    public boolean contains(String word) {
+        return wordIds.containsKey(word);
+    }
+
+    /**
+     * Add one occurrence of a word
+     *
+     * @param word word, already normalized with {@link #tokenize(String)}
+     */
+    public void add(String word) {
+        var id = wordIds.get(word);
+        if (id != null) {
+            counts.set(id, counts.get(id) + 1);
+            return;
+        }
+        if (freeIds.isEmpty()) {
+            id = words.size();
+            words.add(word);
+            counts.add(1);
+        } else {
+            id = freeIds.removeLast();
+            words.set(id, word);
+            counts.set(id, 1);
+        }
+        wordIds.put(word, id);
+        for (String delete : deletes(word)) {
+            deletes.merge(delete, new int[]{id}, SpellingIndex::append);
+        }
+    }
+
+    /**
+     * Remove one occurrence of a word, the word leaves the vocabulary with its last occurrence
+     *
+     * @param word word, already normalized with {@link #tokenize(String)}
+     */
+    public void remove(String word) {
+        var id = wordIds.get(word);
+        if (id == null) {
+            return;
+        }
+        int count = counts.get(id) - 1;
+        counts.set(id, count);
+        if (count > 0) {
+            return;
+        }
+        wordIds.remove(word);
+        words.set(id, null);
+        freeIds.add(id);
+        for (String delete : deletes(word)) {
+            deletes.computeIfPresent(delete, (key, ids) -> without(ids, id));
+        }
+    }
+
+    /**
+     * @param word word, already normalized with {@link #tokenize(String)}
+     * @return the word if it is known, otherwise the closest known word preferring the most frequent one,
+     * {@code null} if nothing is close enough
+     */
+    public String correct(String word) {
+        if (wordIds.containsKey(word)) {
+            return word;
+        }
+        // one edit in a short word already changes a large part of it
+        int maxDistance = word.length() <= 4 ? 1 : MAX_DISTANCE;
+        if (word.length() <= maxDistance) {
+            return null;
+        }
+
+        String best = null;
+        int bestDistance = maxDistance + 1;
+        int bestCount = 0;
+        Set<Integer> checked = new HashSet<>();
+        for (String delete : deletes(word, maxDistance)) {
+            for (int id : deletes.getOrDefault(delete, NO_WORDS)) {
+                if (!checked.add(id)) {
+                    continue;
+                }
+                var candidate = words.get(id);
+                int distance = distance(word, candidate, maxDistance);
+                if (distance > maxDistance) {
+                    continue;
+                }
+                int count = counts.get(id);
+                if (distance < bestDistance
+                        || distance == bestDistance && (count > bestCount
+                        || count == bestCount && candidate.compareTo(best) < 0)) {
+                    best = candidate;
+                    bestDistance = distance;
+                    bestCount = count;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Split a text into lowercase words of letters and digits
+     *
+     * @param text text, may be {@code null}
+     * @return words in text order, with repetitions
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static Set<String> deletes(String word) {
+        return deletes(word, MAX_DISTANCE);
+    }
+
+    /**
+     * The prefix of the word and every string obtained by deleting up to {@code maxDistance} characters from it
+     */
+    private static Set<String> deletes(String word, int maxDistance) {
+        var prefix = word.length() > PREFIX_LENGTH ? word.substring(0, PREFIX_LENGTH) : word;
+        Set<String> result = new HashSet<>();
+        result.add(prefix);
+        List<String> level = List.of(prefix);
+        for (int d = 0; d < maxDistance; d++) {
+            List<String> next = new ArrayList<>();
+            for (String s : level) {
+                if (s.length() <= 1) {
+                    continue;
+                }
+                for (int i = 0; i < s.length(); i++) {
+                    var delete = s.substring(0, i) + s.substring(i + 1);
+                    if (result.add(delete)) {
+                        next.add(delete);
+                    }
+                }
+            }
+            level = next;
+        }
+        return result;
+    }
+
+    /**
+     * Optimal string alignment distance, computed only up to {@code max}
+     *
+     * @return the distance, or {@code max + 1} if it is larger than {@code max}
+     */
+    static int distance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] rotated = previous2;
+            previous2 = previous;
+            previous = current;
+            current = rotated;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    private static int[] append(int[] ids, int[] added) {
+        var result = Arrays.copyOf(ids, ids.length + added.length);
+        System.arraycopy(added, 0, result, ids.length, added.length);
+        return result;
+    }
+
+    private static int[] without(int[] ids, int id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                if (ids.length == 1) {
+                    return null;
+                }
+                var result = Arrays.copyOf(ids, ids.length - 1);
+                if (i < result.length) {
+                    result[i] = ids[ids.length - 1];
+                }
+                return result;
+            }
+        }
+        return ids;
+    }
+}
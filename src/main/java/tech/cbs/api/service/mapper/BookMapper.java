@@ -1,18 +1,32 @@
 package tech.cbs.api.service.mapper;
 
+import tech.cbs.api.repository.TagRegistry;
 import tech.cbs.api.repository.model.Book;
 import tech.cbs.api.repository.model.Level;
 import tech.cbs.api.repository.model.Tag;
 import tech.cbs.api.service.dto.BookDto;
 import tech.cbs.api.service.dto.TagDto;
 
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
- * Mapper for {@link Book}
+ * Mapper for {@link Book}.
+ * The instance mapper resolves tags to the shared {@link TagDto} instances of the {@link TagRegistry}
+ * and keeps them in id order, so a book always serializes to the same JSON.
  */
 public class BookMapper implements Function<Book, BookDto> {
+
+    private final TagRegistry tagRegistry;
+
+    public BookMapper(TagRegistry tagRegistry) {
+        this.tagRegistry = tagRegistry;
+    }
+
     public static BookDto toDto(Book book) {
         return new BookDto(
                 book.id(),
@@ -47,6 +61,12 @@ public class BookMapper implements Function<Book, BookDto> {
 
     @Override
     public BookDto apply(Book book) {
+        var sorted = book.tags().toArray(Tag[]::new);
+        Arrays.sort(sorted, Comparator.comparingInt(Tag::id));
+        Set<TagDto> tags = LinkedHashSet.newLinkedHashSet(sorted.length);
+        for (Tag tag : sorted) {
+            tags.add(tagRegistry.dto(tag));
+        }
         return new BookDto(
                 book.id(),
                 book.title(),
@@ -56,9 +76,7 @@ public class BookMapper implements Function<Book, BookDto> {
                 book.level().name(),
                 book.description(),
                 book.available(),
-                book.tags().stream()
-                        .map(tag -> new TagDto(tag.id(), tag.name()))
-                        .collect(Collectors.toSet())
+                tags
         );
     }
 }
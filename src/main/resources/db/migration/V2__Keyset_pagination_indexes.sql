@@ -0,0 +1,5 @@
+-- Composite (sort key, id) indexes backing the seek predicates of cursor pagination.
+CREATE INDEX idx_book_title_id ON book (title, id);
+CREATE INDEX idx_book_publication_year_id ON book (publication_year, id);
+CREATE INDEX idx_author_name_id ON author (name, id);
+CREATE INDEX idx_tag_name_id ON tag (name, id);
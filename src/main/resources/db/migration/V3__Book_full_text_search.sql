@@ -0,0 +1,9 @@
+-- Weighted search document of a book: title (A) ranks above description (B).
+-- The column is generated, so every write path keeps it current without application code.
+ALTER TABLE book
+    ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(description, '')), 'B')
+        ) STORED;
+
+CREATE INDEX idx_book_search_vector ON book USING GIN (search_vector);
@@ -0,0 +1,2 @@
+-- Reverse of UNIQUE (book_id, tag_id): the books of a tag in id order, answered by index-only scans.
+CREATE INDEX idx_book_tags_tag_id_book_id ON book_tags (tag_id, book_id);
@@ -0,0 +1,106 @@
+-- Exact row counts maintained in the writing transaction, so pagers never scan a table with count(*).
+-- Writers only ever append deltas, so concurrent writes never wait on or deadlock over a counter row;
+-- a count is the sum of the deltas and compact_row_counts() periodically folds them into one row.
+CREATE TABLE table_row_count
+(
+    table_name VARCHAR(63) NOT NULL,
+    total      BIGINT      NOT NULL
+);
+
+CREATE INDEX idx_table_row_count_table_name ON table_row_count (table_name);
+
+INSERT INTO table_row_count (table_name, total)
+SELECT 'book', count(*) FROM book
+UNION ALL
+SELECT 'author', count(*) FROM author
+UNION ALL
+SELECT 'tag', count(*) FROM tag;
+
+CREATE FUNCTION count_inserted_rows() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    INSERT INTO table_row_count (table_name, total)
+    SELECT TG_TABLE_NAME, count(*)
+    FROM inserted
+    HAVING count(*) > 0;
+    RETURN NULL;
+END;
+$$;
+
+CREATE FUNCTION count_deleted_rows() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    INSERT INTO table_row_count (table_name, total)
+    SELECT TG_TABLE_NAME, -count(*)
+    FROM deleted
+    HAVING count(*) > 0;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER book_count_insert AFTER INSERT ON book
+    REFERENCING NEW TABLE AS inserted FOR EACH STATEMENT EXECUTE FUNCTION count_inserted_rows();
+CREATE TRIGGER book_count_delete AFTER DELETE ON book
+    REFERENCING OLD TABLE AS deleted FOR EACH STATEMENT EXECUTE FUNCTION count_deleted_rows();
+CREATE TRIGGER author_count_insert AFTER INSERT ON author
+    REFERENCING NEW TABLE AS inserted FOR EACH STATEMENT EXECUTE FUNCTION count_inserted_rows();
+CREATE TRIGGER author_count_delete AFTER DELETE ON author
+    REFERENCING OLD TABLE AS deleted FOR EACH STATEMENT EXECUTE FUNCTION count_deleted_rows();
+CREATE TRIGGER tag_count_insert AFTER INSERT ON tag
+    REFERENCING NEW TABLE AS inserted FOR EACH STATEMENT EXECUTE FUNCTION count_inserted_rows();
+CREATE TRIGGER tag_count_delete AFTER DELETE ON tag
+    REFERENCING OLD TABLE AS deleted FOR EACH STATEMENT EXECUTE FUNCTION count_deleted_rows();
+
+-- Number of books per tag, appended the same way. There is no foreign key to tag: deleting a tag
+-- cascades to book_tags, whose deltas then bring the tag's sum to zero.
+CREATE TABLE tag_book_count
+(
+    tag_id INTEGER NOT NULL,
+    books  BIGINT  NOT NULL
+);
+
+CREATE INDEX idx_tag_book_count_tag_id ON tag_book_count (tag_id);
+
+INSERT INTO tag_book_count (tag_id, books)
+SELECT tag_id, count(*) FROM book_tags GROUP BY tag_id;
+
+CREATE FUNCTION count_tagged_books() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    INSERT INTO tag_book_count (tag_id, books)
+    SELECT tag_id, count(*) FROM inserted GROUP BY tag_id;
+    RETURN NULL;
+END;
+$$;
+
+CREATE FUNCTION count_untagged_books() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    INSERT INTO tag_book_count (tag_id, books)
+    SELECT tag_id, -count(*) FROM deleted GROUP BY tag_id;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER book_tags_count_insert AFTER INSERT ON book_tags
+    REFERENCING NEW TABLE AS inserted FOR EACH STATEMENT EXECUTE FUNCTION count_tagged_books();
+CREATE TRIGGER book_tags_count_delete AFTER DELETE ON book_tags
+    REFERENCING OLD TABLE AS deleted FOR EACH STATEMENT EXECUTE FUNCTION count_untagged_books();
+
+-- Folds the deltas into one row per table and per tag. Only rows this call deleted are summed,
+-- so deltas appended meanwhile and concurrent calls keep every sum intact.
+CREATE FUNCTION compact_row_counts() RETURNS VOID
+    LANGUAGE sql AS
+$$
+WITH folded AS (DELETE FROM table_row_count RETURNING table_name, total)
+INSERT INTO table_row_count (table_name, total)
+SELECT table_name, sum(total) FROM folded GROUP BY table_name;
+
+WITH folded AS (DELETE FROM tag_book_count RETURNING tag_id, books)
+INSERT INTO tag_book_count (tag_id, books)
+SELECT tag_id, sum(books) FROM folded GROUP BY tag_id HAVING sum(books) <> 0;
+$$;
@@ -0,0 +1,85 @@
+-- Row versions for ETags: every update of a book, author or tag increments its version.
+ALTER TABLE book ADD COLUMN version BIGINT NOT NULL DEFAULT 1;
+ALTER TABLE author ADD COLUMN version BIGINT NOT NULL DEFAULT 1;
+ALTER TABLE tag ADD COLUMN version BIGINT NOT NULL DEFAULT 1;
+
+CREATE FUNCTION increment_version() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    NEW.version := OLD.version + 1;
+    RETURN NEW;
+END;
+$$;
+
+CREATE TRIGGER book_version BEFORE UPDATE ON book FOR EACH ROW EXECUTE FUNCTION increment_version();
+CREATE TRIGGER author_version BEFORE UPDATE ON author FOR EACH ROW EXECUTE FUNCTION increment_version();
+CREATE TRIGGER tag_version BEFORE UPDATE ON tag FOR EACH ROW EXECUTE FUNCTION increment_version();
+
+-- Version of a whole table for list ETags: the number of rows ever inserted, updated or deleted, appended next to
+-- the row count deltas of V5. Unlike a max(version) it grows when a change becomes visible, whatever the commit order.
+ALTER TABLE table_row_count ADD COLUMN changes BIGINT NOT NULL DEFAULT 0;
+
+CREATE OR REPLACE FUNCTION count_inserted_rows() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    INSERT INTO table_row_count (table_name, total, changes)
+    SELECT TG_TABLE_NAME, count(*), count(*)
+    FROM inserted
+    HAVING count(*) > 0;
+    RETURN NULL;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION count_deleted_rows() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    INSERT INTO table_row_count (table_name, total, changes)
+    SELECT TG_TABLE_NAME, -count(*), count(*)
+    FROM deleted
+    HAVING count(*) > 0;
+    RETURN NULL;
+END;
+$$;
+
+CREATE FUNCTION count_updated_rows() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    INSERT INTO table_row_count (table_name, total, changes)
+    SELECT TG_TABLE_NAME, 0, count(*)
+    FROM updated
+    HAVING count(*) > 0;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER book_count_update AFTER UPDATE ON book
+    REFERENCING NEW TABLE AS updated FOR EACH STATEMENT EXECUTE FUNCTION count_updated_rows();
+CREATE TRIGGER author_count_update AFTER UPDATE ON author
+    REFERENCING NEW TABLE AS updated FOR EACH STATEMENT EXECUTE FUNCTION count_updated_rows();
+CREATE TRIGGER tag_count_update AFTER UPDATE ON tag
+    REFERENCING NEW TABLE AS updated FOR EACH STATEMENT EXECUTE FUNCTION count_updated_rows();
+
+-- book lists embed the tags of every book, retagging changes them as well
+INSERT INTO table_row_count (table_name, total)
+SELECT 'book_tags', count(*) FROM book_tags;
+
+CREATE TRIGGER book_tags_row_count_insert AFTER INSERT ON book_tags
+    REFERENCING NEW TABLE AS inserted FOR EACH STATEMENT EXECUTE FUNCTION count_inserted_rows();
+CREATE TRIGGER book_tags_row_count_delete AFTER DELETE ON book_tags
+    REFERENCING OLD TABLE AS deleted FOR EACH STATEMENT EXECUTE FUNCTION count_deleted_rows();
+
+CREATE OR REPLACE FUNCTION compact_row_counts() RETURNS VOID
+    LANGUAGE sql AS
+$$
+WITH folded AS (DELETE FROM table_row_count RETURNING table_name, total, changes)
+INSERT INTO table_row_count (table_name, total, changes)
+SELECT table_name, sum(total), sum(changes) FROM folded GROUP BY table_name;
+
+WITH folded AS (DELETE FROM tag_book_count RETURNING tag_id, books)
+INSERT INTO tag_book_count (tag_id, books)
+SELECT tag_id, sum(books) FROM folded GROUP BY tag_id HAVING sum(books) <> 0;
+$$;
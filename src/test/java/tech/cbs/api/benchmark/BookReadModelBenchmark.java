@@ -0,0 +1,134 @@
+package tech.cbs.api.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import tech.cbs.api.repository.BookReadModel;
+import tech.cbs.api.repository.TagRegistry;
+import tech.cbs.api.repository.impl.BookRepositoryImpl;
+import tech.cbs.api.repository.invalidation.InvalidationPublisher;
+import tech.cbs.api.repository.model.Book;
+import tech.cbs.api.service.dto.CursorPage;
+import tech.cbs.api.service.dto.Page;
+import tech.cbs.api.service.dto.Slice;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Book list latency reading the tables against reading the {@code book_read_model} view.
+ * <p>
+ * Needs an empty PostgreSQL database, given with {@code -Dcbs.benchmark.url}, {@code -Dcbs.benchmark.user} and
+ * {@code -Dcbs.benchmark.password}; the schema is migrated and filled on the first trial of every size.
+ * Not part of the test run; start {@link #main(String[])} from the IDE, or
+ * {@code org.openjdk.jmh.Main BookReadModelBenchmark} on the test classpath after {@code mvn test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BookReadModelBenchmark {
+
+    private static final int AUTHORS = 10_000;
+    private static final int TAGS = 500;
+    private static final int PAGE_SIZE = 20;
+
+    private static final String FILL_SQL = """
+            TRUNCATE book, author, tag RESTART IDENTITY CASCADE;
+            INSERT INTO author (name, biography)
+            SELECT 'Author ' || i, 'Biography ' || i FROM generate_series(1, %1$d) AS i;
+            INSERT INTO tag (name)
+            SELECT 'tag-' || i FROM generate_series(1, %2$d) AS i;
+            INSERT INTO book (title, author_id, publication_year, isbn, level, description, available)
+            SELECT 'Book ' || md5(i::text), 1 + i %% %1$d, 1980 + i %% 44, lpad(i::text, 13, '0'),
+                   (ARRAY['BEGINNER', 'INTERMEDIATE', 'ADVANCED'])[1 + i %% 3], 'Description ' || i, i %% 2 = 0
+            FROM generate_series(1, %3$d) AS i;
+            INSERT INTO book_tags (book_id, tag_id)
+            SELECT DISTINCT b.id, 1 + (b.id * t + t * t) %% %2$d
+            FROM book AS b, generate_series(1, 3) AS t;
+            REFRESH MATERIALIZED VIEW book_read_model;
+            ANALYZE;
+            """;
+
+    @Param({"100000", "1000000"})
+    private int books;
+
+    @Param({"JOIN", "PROJECTION"})
+    private BookReadModel readModel;
+
+    private HikariDataSource dataSource;
+    private BookRepositoryImpl bookRepository;
+    private String[] titles;
+
+    @Setup(Level.Trial)
+    public void fill() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(System.getProperty("cbs.benchmark.url", "jdbc:postgresql://localhost:5432/cbs_benchmark"));
+        dataSource.setUsername(System.getProperty("cbs.benchmark.user", "postgres"));
+        dataSource.setPassword(System.getProperty("cbs.benchmark.password", "postgres"));
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        var jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        var count = jdbcTemplate.queryForObject("SELECT count(*) FROM book;", Map.of(), Long.class);
+        if (count != books) {
+            jdbcTemplate.getJdbcOperations().execute(FILL_SQL.formatted(AUTHORS, TAGS, books));
+        }
+
+        var tagRegistry = new TagRegistry(jdbcTemplate);
+        tagRegistry.reload();
+        bookRepository = new BookRepositoryImpl(jdbcTemplate, tagRegistry,
+                new InvalidationPublisher(jdbcTemplate, "cbs_benchmark"), readModel);
+        titles = jdbcTemplate.queryForList("SELECT title FROM book TABLESAMPLE SYSTEM (1) LIMIT 1024;", Map.of(),
+                String.class).toArray(String[]::new);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public List<Book> offsetPage() {
+        return bookRepository.findAll(new Page(ThreadLocalRandom.current().nextInt(100), PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Slice<Book> cursorPage() {
+        var title = titles[ThreadLocalRandom.current().nextInt(titles.length)];
+        return bookRepository.findAll(new CursorPage("title", title, 0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public List<Book> byAuthor() {
+        return bookRepository.findByAuthorId(1 + ThreadLocalRandom.current().nextInt(AUTHORS));
+    }
+
+    @Benchmark
+    public List<Book> byTag() {
+        return bookRepository.findByTagId(1 + ThreadLocalRandom.current().nextInt(TAGS), new Page(0, PAGE_SIZE));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(BookReadModelBenchmark.class.getSimpleName()).build()).run();
+    }
+}
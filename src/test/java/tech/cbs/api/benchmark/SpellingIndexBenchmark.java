@@ -0,0 +1,96 @@
+package tech.cbs.api.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import tech.cbs.api.service.index.SpellingIndex;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup latency of {@link SpellingIndex} against the vocabulary size.
+ * <p>
+ * Not part of the test run; start {@link #main(String[])} from the IDE, or
+ * {@code org.openjdk.jmh.Main SpellingIndexBenchmark} on the test classpath after {@code mvn test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpellingIndexBenchmark {
+
+    private static final String LETTERS = "etaoinshrdlcumwfgypbvkjxqz";
+
+    @Param({"1000", "10000", "100000"})
+    private int vocabularySize;
+
+    private final SpellingIndex index = new SpellingIndex();
+    private String[] sampled;
+    private String[] misspelled;
+    private String[] unknown;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void fill() {
+        var rn = new Random(42);
+        var known = new String[vocabularySize];
+        for (int i = 0; i < vocabularySize; i++) {
+            known[i] = word(rn, rn.nextInt(4, 14));
+            index.add(known[i]);
+        }
+        sampled = new String[1024];
+        misspelled = new String[1024];
+        unknown = new String[1024];
+        for (int i = 0; i < misspelled.length; i++) {
+            sampled[i] = known[rn.nextInt(vocabularySize)];
+            var word = new StringBuilder(sampled[i]);
+            word.deleteCharAt(rn.nextInt(word.length()));
+            word.insert(rn.nextInt(word.length()), LETTERS.charAt(rn.nextInt(LETTERS.length())));
+            misspelled[i] = word.toString();
+            unknown[i] = word(rn, rn.nextInt(4, 14));
+        }
+    }
+
+    @Benchmark
+    public String knownWord() {
+        return index.correct(sampled[next++ & 1023]);
+    }
+
+    @Benchmark
+    public String misspelledWord() {
+        return index.correct(misspelled[next++ & 1023]);
+    }
+
+    @Benchmark
+    public String unknownWord() {
+        return index.correct(unknown[next++ & 1023]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SpellingIndexBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private static String word(Random rn, int length) {
+        var word = new char[length];
+        for (int i = 0; i < length; i++) {
+            // skewed towards frequent letters, like real words
+            word[i] = LETTERS.charAt((int) (Math.pow(rn.nextDouble(), 2) * LETTERS.length()));
+        }
+        return new String(word);
+    }
+}
@@ -0,0 +1,139 @@
+package tech.cbs.api.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import tech.cbs.api.repository.limit.ConcurrencyLimitedDataSource;
+import tech.cbs.api.service.dto.PinnedStack;
+import tech.cbs.api.service.impl.PinningServiceImpl;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to serve a burst of concurrent requests on platform threads against virtual threads, with a slow database.
+ * <p>
+ * A request first blocks for {@code outsideMillis} on something other than the database, like a downstream call,
+ * then runs a query taking {@value #QUERY_MILLIS} ms in {@code pg_sleep}. Queries share a pool of
+ * {@value #POOL_SIZE} connections behind a {@link ConcurrencyLimitedDataSource}, as in the virtual thread mode.
+ * {@code PLATFORM} serves the requests on {@value #PLATFORM_THREADS} threads, the Tomcat default,
+ * {@code VIRTUAL} on a virtual thread each. Without outside blocking both are bound by the pool; with it, the
+ * platform threads become the bound. Pinned parks seen during a trial are printed after it.
+ * <p>
+ * Needs a PostgreSQL database, given with {@code -Dcbs.benchmark.url}, {@code -Dcbs.benchmark.user} and
+ * {@code -Dcbs.benchmark.password}; nothing is written to it.
+ * Not part of the test run; start {@link #main(String[])} from the IDE, or
+ * {@code org.openjdk.jmh.Main ThreadingBenchmark} on the test classpath after {@code mvn test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ThreadingBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(ThreadingBenchmark.class);
+
+    private static final int POOL_SIZE = 10;
+    private static final int PLATFORM_THREADS = 200;
+    private static final int QUERY_MILLIS = 5;
+
+    public enum Threads {
+        PLATFORM,
+        VIRTUAL
+    }
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    private Threads threads;
+
+    @Param({"1000", "10000"})
+    private int requests;
+
+    @Param({"0", "200"})
+    private int outsideMillis;
+
+    private HikariDataSource pool;
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private PinningServiceImpl pinning;
+
+    @Setup(Level.Trial)
+    public void open() {
+        pool = new HikariDataSource();
+        pool.setJdbcUrl(System.getProperty("cbs.benchmark.url", "jdbc:postgresql://localhost:5432/cbs_benchmark"));
+        pool.setUsername(System.getProperty("cbs.benchmark.user", "postgres"));
+        pool.setPassword(System.getProperty("cbs.benchmark.password", "postgres"));
+        pool.setMaximumPoolSize(POOL_SIZE);
+        jdbcTemplate = new NamedParameterJdbcTemplate(
+                new ConcurrencyLimitedDataSource(pool, POOL_SIZE, Duration.ofMinutes(5)));
+        pinning = new PinningServiceImpl(true, Duration.ofMillis(1), 100);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        pinning.close();
+        var stacks = pinning.getPinnedStacks();
+        if (stacks.isEmpty()) {
+            log.info("No pinned virtual threads");
+        }
+        for (PinnedStack stack : stacks) {
+            log.info("Pinned virtual threads: {} parks, {} ms in total{}\n\t{}", stack.count(),
+                    String.format("%.1f", stack.totalMillis()), stack.inJdbcDriver() ? ", inside the JDBC driver" : "",
+                    String.join("\n\t", stack.frames()));
+        }
+        pool.close();
+    }
+
+    @Benchmark
+    public int serveBurst() throws InterruptedException, ExecutionException {
+        try (ExecutorService executor = threads == Threads.VIRTUAL
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(PLATFORM_THREADS)) {
+            List<Future<Integer>> responses = new ArrayList<>(requests);
+            for (int i = 0; i < requests; i++) {
+                responses.add(executor.submit(this::request));
+            }
+            int served = 0;
+            for (Future<Integer> response : responses) {
+                served += response.get();
+            }
+            return served;
+        }
+    }
+
+    private int request() throws InterruptedException {
+        if (outsideMillis > 0) {
+            Thread.sleep(outsideMillis);
+        }
+        return jdbcTemplate.queryForObject("SELECT 1 FROM pg_sleep(:seconds);",
+                Map.of("seconds", QUERY_MILLIS / 1000.0), Integer.class);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ThreadingBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,187 @@
+package tech.cbs.api.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import tech.cbs.api.controller.TagController;
+import tech.cbs.api.repository.BookReadModel;
+import tech.cbs.api.repository.invalidation.EntityType;
+import tech.cbs.api.repository.routing.ReadYourWrites;
+import tech.cbs.api.service.TagService;
+import tech.cbs.api.service.dto.Page;
+import tech.cbs.api.service.dto.TagDto;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test class for {@link ResponseCacheFilter}
+ */
+@ExtendWith(MockitoExtension.class)
+class ResponseCacheFilterTest {
+
+    @Mock
+    private TagService tagService;
+    @InjectMocks
+    private TagController tagController;
+
+    private ResponseCache cache;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ResponseCache(1 << 20, 1 << 16, 256, Duration.ofMinutes(5));
+        mockMvc = MockMvcBuilders.standaloneSetup(tagController)
+                .addFilters(new ResponseCacheFilter(cache))
+                .addInterceptors(new ResponseCacheInterceptor(cache, BookReadModel.JOIN))
+                .build();
+    }
+
+    @Test
+    void ResponseCacheFilter_Get_SecondRequestServedFromCache() throws Exception {
+        doReturn(createTags()).when(this.tagService).getTags(new Page(0, 100));
+
+        var first = mockMvc.perform(get("/api/v1/tags/0/100"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn().getResponse().getContentAsByteArray();
+        var second = mockMvc.perform(get("/api/v1/tags/0/100"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/json"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(second).isEqualTo(first);
+        verify(this.tagService, times(1)).getTags(new Page(0, 100));
+    }
+
+    @Test
+    void ResponseCacheFilter_Get_SendsPrecompressedVariant() throws Exception {
+        doReturn(createTags()).when(this.tagService).getTags(new Page(0, 100));
+
+        var identity = mockMvc.perform(get("/api/v1/tags/0/100"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn().getResponse().getContentAsByteArray();
+        var gzip = mockMvc.perform(get("/api/v1/tags/0/100").header(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(gzip.length).isLessThan(identity.length);
+        try (var in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            assertThat(in.readAllBytes()).isEqualTo(identity);
+        }
+        verify(this.tagService, times(1)).getTags(new Page(0, 100));
+    }
+
+    @Test
+    void ResponseCacheFilter_Get_ReloadsAfterInvalidation() throws Exception {
+        doReturn(createTags()).when(this.tagService).getTags(new Page(0, 100));
+        mockMvc.perform(get("/api/v1/tags/0/100")).andExpect(status().isOk());
+
+        cache.invalidate(EntityType.AUTHOR, 1);
+        mockMvc.perform(get("/api/v1/tags/0/100")).andExpect(status().isOk());
+        verify(this.tagService, times(1)).getTags(new Page(0, 100));
+
+        cache.invalidate(EntityType.TAG, 1);
+        mockMvc.perform(get("/api/v1/tags/0/100")).andExpect(status().isOk());
+        verify(this.tagService, times(2)).getTags(new Page(0, 100));
+    }
+
+    @Test
+    void ResponseCacheFilter_Get_BypassedWithReadYourWritesToken() throws Exception {
+        doReturn(createTags()).when(this.tagService).getTags(new Page(0, 100));
+
+        mockMvc.perform(get("/api/v1/tags/0/100")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/tags/0/100").header(ReadYourWritesFilter.HEADER, "0/16B3748"))
+                .andExpect(status().isOk());
+
+        verify(this.tagService, times(2)).getTags(new Page(0, 100));
+    }
+
+    @Test
+    void ResponseCacheFilter_Get_ReadsCapturedResponseFromPrimary() throws Exception {
+        List<Long> requiredLsns = new ArrayList<>();
+        doAnswer(invocation -> {
+            requiredLsns.add(ReadYourWrites.requiredLsn());
+            return createTags();
+        }).when(this.tagService).getTags(new Page(0, 100));
+
+        mockMvc.perform(get("/api/v1/tags/0/100")).andExpect(status().isOk());
+
+        assertThat(requiredLsns).containsExactly(Long.MAX_VALUE);
+        assertThat(ReadYourWrites.requiredLsn()).isZero();
+    }
+
+    @Test
+    void ResponseCache_Get_ExpiresAfterWrite() {
+        var now = new AtomicLong();
+        var expiring = new ResponseCache(3000, 2000, 4096, Duration.ofMinutes(5), now::get);
+        var types = new EntityType[]{EntityType.TAG};
+        expiring.put("/", expiring.entry(new byte[10], "application/json", null, types, expiring.generation(types)));
+
+        now.set(Duration.ofMinutes(5).toNanos() - 1);
+        assertThat(expiring.get("/")).isNotNull();
+
+        now.set(Duration.ofMinutes(5).toNanos());
+        assertThat(expiring.get("/")).isNull();
+        assertThat(expiring.size()).isZero();
+    }
+
+    @Test
+    void ResponseCacheFilter_AcceptsGzip_HonoursQualities() {
+        assertThat(ResponseCacheFilter.acceptsGzip(null)).isFalse();
+        assertThat(ResponseCacheFilter.acceptsGzip("identity")).isFalse();
+        assertThat(ResponseCacheFilter.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(ResponseCacheFilter.acceptsGzip("GZIP;q=0.5")).isTrue();
+        assertThat(ResponseCacheFilter.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(ResponseCacheFilter.acceptsGzip("*")).isTrue();
+        assertThat(ResponseCacheFilter.acceptsGzip("*;q=1, gzip;q=0")).isFalse();
+    }
+
+    @Test
+    void ResponseCache_Put_EvictsLeastRecentlyUsed() {
+        var small = new ResponseCache(3000, 2000, 4096, Duration.ofMinutes(5));
+        var types = new EntityType[]{EntityType.TAG};
+        for (int i = 0; i < 3; i++) {
+            small.put("/" + i, small.entry(new byte[1000], "application/json", null, types, small.generation(types)));
+        }
+        assertThat(small.get("/0")).isNotNull();
+
+        small.put("/3", small.entry(new byte[1000], "application/json", null, types, small.generation(types)));
+
+        assertThat(small.get("/1")).isNull();
+        assertThat(small.get("/0")).isNotNull();
+        assertThat(small.get("/3")).isNotNull();
+        assertThat(small.size()).isEqualTo(3000);
+
+        small.put("/big", small.entry(new byte[2001], "application/json", null, types, small.generation(types)));
+        assertThat(small.get("/big")).isNull();
+    }
+
+    private static List<TagDto> createTags() {
+        var tags = new ArrayList<TagDto>();
+        for (int i = 0; i < 100; i++) {
+            tags.add(new TagDto(i, "Tag #" + i));
+        }
+        return tags;
+    }
+}
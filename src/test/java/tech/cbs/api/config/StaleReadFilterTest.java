@@ -0,0 +1,124 @@
+package tech.cbs.api.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import tech.cbs.api.controller.BookController;
+import tech.cbs.api.repository.BookReadModel;
+import tech.cbs.api.repository.VersionRepository;
+import tech.cbs.api.repository.invalidation.EntityType;
+import tech.cbs.api.repository.model.Level;
+import tech.cbs.api.service.BookService;
+import tech.cbs.api.service.BrowseService;
+import tech.cbs.api.service.dto.BookDto;
+import tech.cbs.api.service.impl.StaleReads;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test class for {@link StaleReadFilter}
+ */
+@ExtendWith(MockitoExtension.class)
+class StaleReadFilterTest {
+
+    private static final BookDto BOOK = new BookDto(7, "Title", 1, 2020, null, Level.values()[0].name(),
+            "Description", true, Set.of());
+
+    @Mock
+    private BookService bookService;
+    @Mock
+    private BrowseService browseService;
+    @Mock
+    private VersionRepository versionRepository;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+    @InjectMocks
+    private BookController bookController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(bookController)
+                .addFilters(new StaleReadFilter())
+                .addInterceptors(new ConditionalGetInterceptor(versionRepository, BookReadModel.JOIN))
+                .build();
+    }
+
+    @Test
+    void StaleReadFilter_GetBooksByIds_KeepsETagOfDatabaseResponse() throws Exception {
+        doReturn("3").when(this.versionRepository).findListVersion(EntityType.BOOK);
+        doReturn(List.of(BOOK)).when(this.bookService).getBooksByIds(any());
+
+        mockMvc.perform(get("/api/v1/books/batch").param("ids", Integer.toString(BOOK.id())))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"3\""))
+                .andExpect(header().doesNotExist(HttpHeaders.WARNING))
+                .andExpect(header().doesNotExist(HttpHeaders.AGE));
+    }
+
+    @Test
+    void StaleReadFilter_GetBooksByIds_DropsETagOfFreshCachedResponse() throws Exception {
+        doReturn("3").when(this.versionRepository).findListVersion(EntityType.BOOK);
+        doAnswer(invocation -> {
+            StaleReads.cached();
+            return List.of(BOOK);
+        }).when(this.bookService).getBooksByIds(any());
+
+        mockMvc.perform(get("/api/v1/books/batch").param("ids", Integer.toString(BOOK.id())))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(header().doesNotExist(HttpHeaders.WARNING))
+                .andExpect(header().doesNotExist(HttpHeaders.AGE));
+    }
+
+    @Test
+    void StaleReadFilter_GetBooksByIds_MarksStaleResponseWithoutETag() throws Exception {
+        doReturn("3").when(this.versionRepository).findListVersion(EntityType.BOOK);
+        doAnswer(invocation -> {
+            StaleReads.served(Duration.ofSeconds(42), false);
+            return List.of(BOOK);
+        }).when(this.bookService).getBooksByIds(any());
+
+        mockMvc.perform(get("/api/v1/books/batch").param("ids", Integer.toString(BOOK.id())))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.WARNING, StaleReadFilter.STALE_WARNING))
+                .andExpect(header().string(HttpHeaders.AGE, "42"))
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void StaleReadFilter_GetBooksByIds_ReportsFailedRevalidationWhenDatabaseIsDown() throws Exception {
+        doThrow(new QueryTimeoutException("down")).when(this.versionRepository).findListVersion(EntityType.BOOK);
+        doAnswer(invocation -> {
+            StaleReads.served(Duration.ofSeconds(5), false);
+            StaleReads.served(Duration.ofSeconds(90), true);
+            return List.of(BOOK);
+        }).when(this.bookService).getBooksByIds(any());
+
+        mockMvc.perform(get("/api/v1/books/batch").param("ids", Integer.toString(BOOK.id())))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.WARNING, StaleReadFilter.REVALIDATION_FAILED_WARNING))
+                .andExpect(header().string(HttpHeaders.AGE, "90"))
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+}
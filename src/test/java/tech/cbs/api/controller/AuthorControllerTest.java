@@ -11,7 +11,10 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import tech.cbs.api.service.AuthorService;
 import tech.cbs.api.service.dto.AuthorDto;
+import tech.cbs.api.service.dto.CountPrecision;
+import tech.cbs.api.service.dto.CountedPage;
 import tech.cbs.api.service.dto.Page;
+import tech.cbs.api.service.dto.Versioned;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -55,15 +58,27 @@ class AuthorControllerTest {
         assertThat(responseEntity.getBody()).isEqualTo(authors);
     }
 
+    @Test
+    void AuthorController_GetAuthorPage_ReturnsCountedPage() throws Exception {
+        var page = new CountedPage<>(createAuthors(), 0, authorsCount, 42, CountPrecision.EXACT);
+        doReturn(page).when(this.authorService).getAuthorPage(new Page(0, authorsCount), CountPrecision.EXACT);
+
+        var responseEntity = this.authorController.getAuthorPage(0, authorsCount, CountPrecision.EXACT);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(responseEntity.getBody()).isEqualTo(page);
+    }
+
     @Test
     void AuthorController_GetAuthor_ReturnsAuthor() throws Exception {
         var author = new AuthorDto(1, "Author #1", "Biography #1");
-        doReturn(author).when(this.authorService).getAuthor(1);
+        doReturn(new Versioned<>(author, "7")).when(this.authorService).getVersionedAuthor(1);
 
         var responseEntity = this.authorController.getAuthor(1);
 
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(responseEntity.getBody()).isEqualTo(author);
+        assertThat(responseEntity.getHeaders().getETag()).isEqualTo("\"7\"");
     }
 
     @Test
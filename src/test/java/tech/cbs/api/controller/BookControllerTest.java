@@ -1,28 +1,64 @@
 package tech.cbs.api.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import tech.cbs.api.config.ConditionalGetInterceptor;
+import tech.cbs.api.exception.ResourceNotFoundException;
+import tech.cbs.api.repository.BookReadModel;
+import tech.cbs.api.repository.VersionRepository;
+import tech.cbs.api.repository.invalidation.EntityType;
 import tech.cbs.api.repository.model.Level;
 import tech.cbs.api.service.BookService;
+import tech.cbs.api.service.BrowseService;
 import tech.cbs.api.service.dto.AuthorDto;
 import tech.cbs.api.service.dto.BookDto;
+import tech.cbs.api.service.dto.BookSearch;
+import tech.cbs.api.service.dto.BrowseDto;
+import tech.cbs.api.service.dto.BrowseQuery;
+import tech.cbs.api.service.dto.CountPrecision;
+import tech.cbs.api.service.dto.CountedPage;
+import tech.cbs.api.service.dto.CursorPage;
 import tech.cbs.api.service.dto.Page;
+import tech.cbs.api.service.dto.Slice;
+import tech.cbs.api.service.dto.TagMatch;
+import tech.cbs.api.service.dto.Versioned;
 import tech.cbs.api.service.dto.TagDto;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Random;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
 class BookControllerTest {
@@ -30,6 +66,15 @@ class BookControllerTest {
     @Mock
     private BookService bookService;
 
+    @Mock
+    private BrowseService browseService;
+
+    @Mock
+    private VersionRepository versionRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     @InjectMocks
     private BookController bookController;
 
@@ -44,7 +89,9 @@ class BookControllerTest {
 
     @BeforeEach
     void setUp() {
-        mockMvc = MockMvcBuilders.standaloneSetup(bookController).build();
+        mockMvc = MockMvcBuilders.standaloneSetup(bookController)
+                .addInterceptors(new ConditionalGetInterceptor(versionRepository, BookReadModel.JOIN))
+                .build();
     }
 
     @Test
@@ -58,10 +105,105 @@ class BookControllerTest {
         assertThat(responseEntity.getBody()).isEqualTo(books);
     }
 
+    @Test
+    void BookController_GetBooksByCursor_ReturnsSliceOfBooks() throws Exception {
+        var books = new Slice<>(createBooks(), "next");
+        var page = CursorPage.first("title", booksCount).next("Title", 5);
+        doReturn(books).when(this.bookService).getBooks(page);
+
+        var responseEntity = this.bookController.getBooks(page.encode(), "year", booksCount);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(responseEntity.getBody()).isEqualTo(books);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void BookController_ExportBooks_StreamsOneJsonLinePerBook() throws Exception {
+        var books = createBooks();
+        doAnswer(invocation -> {
+            books.forEach(invocation.<Consumer<BookDto>>getArgument(0));
+            return null;
+        }).when(this.bookService).exportBooks(any(Consumer.class));
+
+        var responseEntity = this.bookController.exportBooks();
+        var out = new ByteArrayOutputStream();
+        responseEntity.getBody().writeTo(out);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(responseEntity.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON);
+        var lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines.length).isEqualTo(books.size());
+        for (int i = 0; i < books.size(); i++) {
+            assertThat(objectMapper.readValue(lines[i], BookDto.class)).isEqualTo(books.get(i));
+        }
+    }
+
+    @Test
+    void BookController_ExportBooks_StreamsWithExportTimeout() throws Exception {
+        var result = mockMvc.perform(get("/api/v1/books/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertThat(result.getRequest().getAsyncContext().getTimeout()).isEqualTo(NdjsonResponses.TIMEOUT.toMillis());
+    }
+
+    @Test
+    void BookController_SearchBooks_ReturnsSliceOfBooks() throws Exception {
+        var books = new Slice<>(createBooks(), null);
+        var search = new BookSearch("dragon", 3, Level.BEGINNER, true);
+        doReturn(books).when(this.bookService).searchBooks(search, CursorPage.first("rank", booksCount));
+
+        var responseEntity = this.bookController.searchBooks("dragon", 3, Level.BEGINNER, true, null, booksCount);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(responseEntity.getBody()).isEqualTo(books);
+    }
+
+    @Test
+    void BookController_BrowseBooks_ReturnsPageWithFacets() throws Exception {
+        var books = createBooks();
+        var browse = new BrowseDto(books.size(), books, null, Map.of(Level.ADVANCED, books.size()), Map.of(),
+                Map.of(), Map.of(true, books.size(), false, 0));
+        var query = new BrowseQuery(Set.of(Level.ADVANCED), Set.of(1, 2), null, Set.of(3), true, 2019, null);
+        doReturn(browse).when(this.browseService).browse(query, CursorPage.first("id", booksCount));
+
+        var responseEntity = this.bookController.browseBooks(Set.of(Level.ADVANCED), Set.of(1, 2), null, Set.of(3),
+                true, 2019, null, null, booksCount);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(responseEntity.getBody()).isEqualTo(browse);
+    }
+
+    @Test
+    void BookController_GetBooksByIds_ReturnsListOfBooks() throws Exception {
+        var books = createBooks().subList(0, 3);
+        int[] ids = books.stream().mapToInt(BookDto::id).toArray();
+        doReturn(books).when(this.bookService).getBooksByIds(ids);
+
+        var responseEntity = this.bookController.getBooksByIds(ids);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(responseEntity.getBody()).isEqualTo(books);
+    }
+
+    @Test
+    void BookController_GetBooksByIds_RejectsTooManyIds() throws Exception {
+        var ids = new StringBuilder("1");
+        for (int id = 2; id <= 101; id++) {
+            ids.append(',').append(id);
+        }
+
+        mockMvc.perform(get("/api/v1/books/batch").param("ids", ids.toString()))
+                .andExpect(status().isBadRequest());
+
+        verify(bookService, never()).getBooksByIds(any());
+    }
+
     @Test
     void BookController_GetBook_ReturnsBook() throws Exception {
         var book = createBook(100);
-        doReturn(book).when(this.bookService).getBook(book.id());
+        doReturn(new Versioned<>(book, "3.2")).when(this.bookService).getVersionedBook(book.id());
 
         var responseEntity = this.bookController.getBook(book.id());
 
@@ -99,6 +241,104 @@ class BookControllerTest {
         assertThat(responseEntity.getBody()).isEqualTo(bookByTag);
     }
 
+    @Test
+    void BookController_GetBooksByTag_WritesDatabaseJsonAsIs() throws Exception {
+        var json = "[{\"id\":1,\"title\":\"Caf\u00e9\"}]".getBytes(StandardCharsets.UTF_8);
+        doReturn(Optional.of(json)).when(this.bookService).getBooksByTagJson(3, new Page(0, 20));
+
+        mockMvc.perform(get("/api/v1/books/tag/3/0/20"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().bytes(json));
+        verify(this.bookService, never()).getBooksByTag(3, new Page(0, 20));
+    }
+
+    @Test
+    void BookController_GetBook_SendsVersionAsETag() throws Exception {
+        var book = createBooks().getFirst();
+        doReturn(new Versioned<>(book, "3.2")).when(this.bookService).getVersionedBook(book.id());
+
+        mockMvc.perform(get("/api/v1/books/" + book.id()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3.2\""));
+        // the version comes with the possibly cached body, not from a probe
+        verifyNoInteractions(this.versionRepository);
+    }
+
+    @Test
+    void BookController_GetBook_NotModifiedWithVersionOfServedBook() throws Exception {
+        var book = createBooks().getFirst();
+        doReturn(new Versioned<>(book, "3.2")).when(this.bookService).getVersionedBook(book.id());
+
+        mockMvc.perform(get("/api/v1/books/" + book.id()).header(HttpHeaders.IF_NONE_MATCH, "\"3.2\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3.2\""))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void BookController_GetBook_ModifiedAfterUpdate() throws Exception {
+        var book = createBooks().getFirst();
+        doReturn(new Versioned<>(book, "4.2")).when(this.bookService).getVersionedBook(book.id());
+
+        mockMvc.perform(get("/api/v1/books/" + book.id()).header(HttpHeaders.IF_NONE_MATCH, "\"3.2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4.2\""));
+    }
+
+    @Test
+    void BookController_GetBook_NotFound() throws Exception {
+        doThrow(new ResourceNotFoundException("book", 7)).when(this.bookService).getVersionedBook(7);
+
+        mockMvc.perform(get("/api/v1/books/7"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void BookController_GetBooksByTag_NotModifiedWithWeakListETag() throws Exception {
+        doReturn("42").when(this.versionRepository).findListVersion(EntityType.BOOK);
+
+        mockMvc.perform(get("/api/v1/books/tag/3/0/20").header(HttpHeaders.IF_NONE_MATCH, "W/\"42\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"42\""));
+        verify(this.bookService, never()).getBooksByTagJson(3, new Page(0, 20));
+        verify(this.bookService, never()).getBooksByTag(3, new Page(0, 20));
+    }
+
+    @Test
+    void BookController_GetBookPageByTag_ReturnsCountedPage() throws Exception {
+        var page = new CountedPage<>(createBooks(), 2, booksCount, 1000, CountPrecision.EXACT);
+        doReturn(page).when(this.bookService).getBookPageByTag(3, new Page(2, booksCount));
+
+        var responseEntity = this.bookController.getBookPageByTag(3, 2, booksCount);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(responseEntity.getBody()).isEqualTo(page);
+    }
+
+    @Test
+    void BookController_GetBookPage_ReturnsCountedPage() throws Exception {
+        var page = new CountedPage<>(createBooks(), 0, booksCount, 1000, CountPrecision.ESTIMATE);
+        doReturn(page).when(this.bookService).getBookPage(new Page(0, booksCount), CountPrecision.ESTIMATE);
+
+        var responseEntity = this.bookController.getBookPage(0, booksCount, CountPrecision.ESTIMATE);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(responseEntity.getBody()).isEqualTo(page);
+    }
+
+    @Test
+    void BookController_GetBooksByTags_ReturnsSliceOfBooks() throws Exception {
+        var books = new Slice<>(createBooks(), "next");
+        int[] tagIds = {1, 2};
+        doReturn(books).when(this.bookService).getBooksByTags(tagIds, TagMatch.ANY, CursorPage.first("id", booksCount));
+
+        var responseEntity = this.bookController.getBooksByTags(tagIds, TagMatch.ANY, null, booksCount);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(responseEntity.getBody()).isEqualTo(books);
+    }
+
     @Test
     void BookController_CreateBook_ReturnsBook() throws Exception {
         var book = createBook(100);
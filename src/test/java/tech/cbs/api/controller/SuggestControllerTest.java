@@ -0,0 +1,55 @@
+package tech.cbs.api.controller;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import tech.cbs.api.repository.invalidation.EntityType;
+import tech.cbs.api.service.SpellingService;
+import tech.cbs.api.service.SuggestService;
+import tech.cbs.api.service.dto.SpellingCorrectionDto;
+import tech.cbs.api.service.dto.SuggestionDto;
+
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.mockito.Mockito.doReturn;
+
+@ExtendWith(MockitoExtension.class)
+class SuggestControllerTest {
+
+    @Mock
+    private SuggestService suggestService;
+
+    @Mock
+    private SpellingService spellingService;
+
+    @InjectMocks
+    private SuggestController suggestController;
+
+    @Test
+    void SuggestController_Suggest_ReturnsListOfSuggestions() {
+        var suggestions = List.of(
+                new SuggestionDto(EntityType.TAG, 4, "java"),
+                new SuggestionDto(EntityType.BOOK, 17, "Effective Java"));
+        doReturn(suggestions).when(this.suggestService).suggest("jav", 5);
+
+        var responseEntity = this.suggestController.suggest("jav", 5);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(responseEntity.getBody()).isEqualTo(suggestions);
+    }
+
+    @Test
+    void SuggestController_CorrectSpelling_ReturnsCorrection() {
+        var correction = new SpellingCorrectionDto("kubernets", "kubernetes");
+        doReturn(correction).when(this.spellingService).correct("kubernets");
+
+        var responseEntity = this.suggestController.correctSpelling("kubernets");
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(responseEntity.getBody()).isEqualTo(correction);
+    }
+}
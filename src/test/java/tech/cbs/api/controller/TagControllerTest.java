@@ -10,6 +10,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import tech.cbs.api.service.TagService;
+import tech.cbs.api.service.dto.CountPrecision;
+import tech.cbs.api.service.dto.CountedPage;
 import tech.cbs.api.service.dto.Page;
 import tech.cbs.api.service.dto.TagDto;
 
@@ -54,6 +56,17 @@ class TagControllerTest {
         assertThat(responseEntity.getBody()).isEqualTo(tags);
     }
 
+    @Test
+    void TagController_GetTagPage_ReturnsCountedPage() throws Exception {
+        var page = new CountedPage<>(createTags(), 1, tagsCount, 42, CountPrecision.EXACT);
+        doReturn(page).when(this.tagService).getTagPage(new Page(1, tagsCount));
+
+        var responseEntity = this.tagController.getTagPage(1, tagsCount);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(responseEntity.getBody()).isEqualTo(page);
+    }
+
     @Test
     void TagController_GetTag_ReturnsTag() throws Exception {
         var tag = new TagDto(1, "Tag #1");
@@ -105,6 +105,17 @@ class AuthorRepositoryTest {
 
     }
 
+    @Test
+    void AuthorRepository_Create_ReturnsStoredAuthor() {
+        var author = createAuthor();
+        var created = authorRepository.create(author);
+
+        assertTrue(created.id() > 0);
+        assertEquals(author.name(), created.name());
+        assertEquals(author.biography(), created.biography());
+        assertEquals(Optional.of(created), authorRepository.findById(created.id()));
+    }
+
     @Test
     void AuthorRepository_Save_ReturnsSavedAuthorId() {
         var author = createAuthor();
@@ -0,0 +1,151 @@
+package tech.cbs.api.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import tech.cbs.api.repository.impl.BookReadModelRefresher;
+import tech.cbs.api.repository.model.Author;
+import tech.cbs.api.repository.model.Book;
+import tech.cbs.api.repository.model.Level;
+import tech.cbs.api.repository.model.Tag;
+import tech.cbs.api.service.dto.CursorPage;
+import tech.cbs.api.service.dto.Page;
+import tech.cbs.api.service.dto.TagMatch;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Test class for {@link BookRepository} reading lists from the {@link BookReadModel#PROJECTION}
+ */
+@SpringBootTest(properties = {"cbs.read-model.mode=PROJECTION", "cbs.read-model.refresh-delay=50ms"})
+@Testcontainers
+class BookReadModelTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:16.0-alpine3.18");
+
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private TagRepository tagRepository;
+    @Autowired
+    private BookReadModelRefresher refresher;
+    @Autowired
+    private NamedParameterJdbcTemplate parameterJdbcTemplate;
+    @Autowired
+    private DataSource dataSource;
+
+    @AfterEach
+    void clearData() {
+        parameterJdbcTemplate.update("DELETE FROM book; DELETE FROM author; DELETE FROM tag;", Map.of());
+        refresher.refresh();
+    }
+
+    @Test
+    void BookReadModel_Refresh_ListsMatchTables() {
+        var author = authorRepository.create(new Author(0, "Projected Author", "bio"));
+        var java = tagRepository.create(new Tag(0, "projected-java"));
+        var sql = tagRepository.create(new Tag(0, "projected-sql"));
+        int[] ids = new int[6];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = bookRepository.create(new Book(0, "Projected " + (5 - i), author.id(), 2000 + i, "PRJ" + i,
+                    Level.INTERMEDIATE, "", i % 2 == 0, i % 3 == 0 ? Set.of() : Set.of(java, sql))).id();
+        }
+        refresher.refresh();
+
+        var fromTables = bookRepository.findAllByIds(ids).stream()
+                .sorted(Comparator.comparing(Book::title).thenComparingInt(Book::id))
+                .toList();
+
+        assertThat(bookRepository.findAll(new Page(0, 10))).containsExactlyElementsOf(fromTables);
+        assertThat(bookRepository.findAll(CursorPage.first("title", 10)).content()).containsExactlyElementsOf(fromTables);
+        assertThat(bookRepository.findByAuthorId(author.id())).containsExactlyElementsOf(
+                bookRepository.findAllByIds(ids));
+        assertThat(bookRepository.findByTagId(java.id(), new Page(0, 10)))
+                .allSatisfy(book -> assertThat(book.tags()).contains(java, sql))
+                .hasSize(4);
+    }
+
+    @Test
+    void BookReadModel_Refresh_ListsBooksWithoutAuthor() {
+        int id = parameterJdbcTemplate.queryForObject("""
+                INSERT INTO book (title, publication_year, description)
+                VALUES ('Anonymous', 1999, '')
+                RETURNING id;
+                """, Map.of(), Integer.class);
+        refresher.refresh();
+
+        assertThat(bookRepository.findAll(new Page(0, 10))).extracting(Book::id).contains(id);
+    }
+
+    @Test
+    void BookReadModel_FindByTagIds_ListsTagsOfLastRefresh() {
+        int tag = parameterJdbcTemplate.queryForObject(
+                "INSERT INTO tag (name) VALUES ('projected-tag') RETURNING id;", Map.of(), Integer.class);
+        int book = parameterJdbcTemplate.queryForObject("""
+                INSERT INTO book (title, publication_year, description)
+                VALUES ('Tagged later', 2001, '')
+                RETURNING id;
+                """, Map.of(), Integer.class);
+        refresher.refresh();
+        // written behind the repository, no invalidation refreshes the view
+        parameterJdbcTemplate.update("INSERT INTO book_tags (book_id, tag_id) VALUES (:book, :tag);",
+                Map.of("book", book, "tag", tag));
+
+        assertThat(bookRepository.findByTagId(tag, new Page(0, 10))).isEmpty();
+        assertThat(bookRepository.findByTagIds(new int[]{tag}, TagMatch.ANY, CursorPage.first("id", 10)).content())
+                .isEmpty();
+
+        refresher.refresh();
+
+        assertThat(bookRepository.findByTagId(tag, new Page(0, 10))).singleElement()
+                .satisfies(listed -> assertThat(listed.tags()).extracting(Tag::id).containsExactly(tag));
+        assertThat(bookRepository.findByTagIds(new int[]{tag, tag}, TagMatch.ALL, CursorPage.first("id", 10)).content())
+                .extracting(Book::id).containsExactly(book);
+    }
+
+    @Test
+    void BookReadModel_Refresh_SkipsWhileAnotherNodeRefreshes() throws SQLException {
+        try (var connection = dataSource.getConnection();
+             var statement = connection.createStatement()) {
+            statement.execute("SELECT pg_advisory_lock(hashtext('book_read_model'));");
+
+            assertThat(refresher.tryRefresh()).isFalse();
+
+            statement.execute("SELECT pg_advisory_unlock(hashtext('book_read_model'));");
+        }
+        assertThat(refresher.tryRefresh()).isTrue();
+    }
+
+    @Test
+    void BookReadModel_Write_IsListedAfterRefresh() {
+        var author = authorRepository.create(new Author(0, "Refreshed Author", "bio"));
+        var book = bookRepository.create(new Book(0, "Refreshed", author.id(), 2020, "RFR", Level.BEGINNER, "",
+                true, Set.of()));
+
+        await().atMost(Duration.ofSeconds(10))
+                .untilAsserted(() -> assertThat(bookRepository.findByAuthorId(author.id())).containsExactly(book));
+
+        bookRepository.deleteById(book.id());
+
+        await().atMost(Duration.ofSeconds(10))
+                .untilAsserted(() -> assertThat(bookRepository.findByAuthorId(author.id())).isEmpty());
+    }
+}
@@ -10,11 +10,16 @@ import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
+import tech.cbs.api.exception.InvalidCursorException;
 import tech.cbs.api.repository.model.Author;
 import tech.cbs.api.repository.model.Book;
 import tech.cbs.api.repository.model.Level;
 import tech.cbs.api.repository.model.Tag;
+import tech.cbs.api.service.dto.BookSearch;
+import tech.cbs.api.service.dto.CursorPage;
 import tech.cbs.api.service.dto.Page;
+import tech.cbs.api.service.dto.Slice;
+import tech.cbs.api.service.dto.TagMatch;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -25,9 +30,15 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * Test class for {@link BookRepository}
@@ -132,6 +143,48 @@ class BookRepositoryTest {
         assertThat(bookList).containsAll(testBooks);
     }
 
+    @Test
+    void BookRepository_FindAllByCursor_WalksAllBooksInOrder() {
+
+        for (String sort : List.of("id", "title", "year")) {
+            List<Book> walked = new ArrayList<>();
+            Slice<Book> slice = bookRepository.findAll(CursorPage.first(sort, 7));
+            walked.addAll(slice.content());
+            while (slice.next() != null) {
+                slice = bookRepository.findAll(CursorPage.of(slice.next(), sort, 7));
+                walked.addAll(slice.content());
+            }
+
+            assertThat(walked.stream().map(Book::id).distinct().count()).isEqualTo(walked.size());
+            assertThat(walked).containsAll(testBooks);
+        }
+
+        List<Book> byTitle = bookRepository.findAll(CursorPage.first("title", bookCount)).content();
+        assertThat(byTitle).isSortedAccordingTo((a, b) -> a.title().compareTo(b.title()));
+    }
+
+    @Test
+    void BookRepository_StreamAll_ReturnsEveryBookOnceInIdOrder() {
+
+        List<Book> streamed = new ArrayList<>();
+        bookRepository.streamAll(streamed::add);
+
+        assertThat(streamed).containsAll(testBooks);
+        assertThat(streamed).isSortedAccordingTo((a, b) -> Integer.compare(a.id(), b.id()));
+        assertThat(streamed.stream().map(Book::id).distinct().count()).isEqualTo(streamed.size());
+    }
+
+    @Test
+    void BookRepository_StreamIds_ReturnsEveryIdInOrder() {
+
+        List<Integer> streamed = new ArrayList<>();
+        bookRepository.streamIds(streamed::add);
+
+        assertThat(streamed).containsAll(testBooks.stream().map(Book::id).toList());
+        assertThat(streamed).isSorted();
+        assertThat(streamed).doesNotHaveDuplicates();
+    }
+
     @Test
     void BookRepository_FindById_ReturnsBookAsOptional() {
 
@@ -151,6 +204,19 @@ class BookRepositoryTest {
         assertThat(testBook.tags()).isEqualTo(book.tags());
     }
 
+    @Test
+    void BookRepository_FindAllByIds_ReturnsExistingBooks() {
+
+        List<Book> expected = testBooks.subList(0, 5);
+        int[] ids = expected.stream().mapToInt(Book::id).toArray();
+        int[] idsWithMissing = Arrays.copyOf(ids, ids.length + 1);
+        idsWithMissing[ids.length] = -1;
+
+        List<Book> books = bookRepository.findAllByIds(idsWithMissing);
+
+        assertThat(books).containsExactlyInAnyOrderElementsOf(expected);
+    }
+
     @Test
     void BookRepository_Save_ReturnsSavedBookId() {
 
@@ -174,6 +240,19 @@ class BookRepositoryTest {
         assertThat(testBook.tags()).isEqualTo(book.tags());
     }
 
+    @Test
+    void BookRepository_Create_ReturnsStoredBookWithTags() {
+
+        Book book = createBook();
+
+        Book created = bookRepository.create(book);
+
+        assertThat(created.id()).isNotZero();
+        assertThat(created).isEqualTo(new Book(created.id(), book.title(), book.authorId(), book.publicationYear(),
+                book.isbn(), book.level(), book.description(), book.available(), book.tags()));
+        assertThat(bookRepository.findById(created.id())).contains(created);
+    }
+
     @Test
     void BookRepository_Update_ReturnsBoolean() {
 
@@ -203,6 +282,72 @@ class BookRepositoryTest {
         assertThat(result).isTrue();
     }
 
+    @Test
+    void BookRepository_Update_AppliesOnlyTagDifference() {
+
+        Book bookFromDb = testBooks.getFirst();
+        Set<Tag> newTags = new HashSet<>(testTags.subList(0, 3));
+        var updatedBook = new Book(bookFromDb.id(), bookFromDb.title(), bookFromDb.authorId(),
+                bookFromDb.publicationYear(), bookFromDb.isbn(), bookFromDb.level(), bookFromDb.description(),
+                bookFromDb.available(), newTags);
+
+        assertThat(bookRepository.update(updatedBook)).isTrue();
+        var unchangedCtids = bookTagCtids(bookFromDb.id());
+        assertThat(bookRepository.update(updatedBook)).isTrue();
+
+        assertThat(bookRepository.findById(bookFromDb.id()).orElseThrow().tags()).isEqualTo(newTags);
+        // an update that keeps the tag set must not rewrite book_tags rows
+        assertThat(bookTagCtids(bookFromDb.id())).isEqualTo(unchangedCtids);
+        assertThat(bookRepository.update(new Book(-1, "Missing", bookFromDb.authorId(), 2000, null,
+                Level.BEGINNER, "Missing", true, newTags))).isFalse();
+    }
+
+    @Test
+    void BookRepository_Update_ConcurrentOverlappingEditsKeepLastTagSet() throws Exception {
+
+        List<Book> books = testBooks.subList(0, 3);
+        int writers = 8;
+        int iterations = 25;
+        Map<String, Set<Tag>> writtenTags = new ConcurrentHashMap<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(writers)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int writer = 0; writer < writers; writer++) {
+                int writerId = writer;
+                futures.add(executor.submit(() -> {
+                    var random = new Random(writerId);
+                    for (int i = 0; i < iterations; i++) {
+                        Book book = books.get(random.nextInt(books.size()));
+                        Set<Tag> tags = new HashSet<>();
+                        for (int t = 0; t < random.nextInt(1, 6); t++) {
+                            tags.add(testTags.get(random.nextInt(testTags.size())));
+                        }
+                        // the title identifies the write, so the final row tells which tag set must have won
+                        String title = "Concurrent #" + book.id() + "-" + writerId + "-" + i;
+                        writtenTags.put(title, tags);
+                        assertThat(bookRepository.update(new Book(book.id(), title, book.authorId(),
+                                book.publicationYear(), book.isbn(), book.level(), book.description(),
+                                book.available(), tags))).isTrue();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        }
+
+        for (Book book : books) {
+            Book fromDb = bookRepository.findById(book.id()).orElseThrow();
+            assertThat(fromDb.tags()).isEqualTo(writtenTags.get(fromDb.title()));
+        }
+    }
+
+    private List<String> bookTagCtids(int bookId) {
+        return parameterJdbcTemplate.queryForList(
+                "SELECT ctid::text FROM book_tags WHERE book_id=:id ORDER BY tag_id;",
+                Map.of("id", bookId), String.class);
+    }
+
     @Test
     void BookRepository_DeleteById_ReturnsBoolean() {
 
@@ -246,6 +391,97 @@ class BookRepositoryTest {
 //                    .collect(Collectors.toList())).contains(testTagId);
     }
 
+    @Test
+    void BookRepository_FindByTagIds_WalksMatchingBooksInIdOrder() {
+        int[] tagIds = {testTags.get(0).id(), testTags.get(1).id(), testTags.get(2).id()};
+        Set<Integer> wanted = Arrays.stream(tagIds).boxed().collect(Collectors.toSet());
+        // setData saves bookCount + 1 books but keeps only bookCount of them in testBooks
+        var allBooks = bookRepository.findAll(new Page(0, bookCount + 1));
+
+        for (TagMatch match : TagMatch.values()) {
+            var expected = allBooks.stream()
+                    .filter(book -> {
+                        var ids = book.tags().stream().map(Tag::id).collect(Collectors.toSet());
+                        return match == TagMatch.ALL ? ids.containsAll(wanted) : ids.stream().anyMatch(wanted::contains);
+                    })
+                    .sorted((a, b) -> Integer.compare(a.id(), b.id()))
+                    .toList();
+
+            List<Book> walked = new ArrayList<>();
+            Slice<Book> slice = bookRepository.findByTagIds(tagIds, match, CursorPage.first("id", 2));
+            walked.addAll(slice.content());
+            while (slice.next() != null) {
+                slice = bookRepository.findByTagIds(tagIds, match, CursorPage.of(slice.next(), "id", 2));
+                walked.addAll(slice.content());
+            }
+
+            assertThat(walked).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    void BookRepository_FindByTagIds_AllRequiresEveryTag() {
+        var first = testTags.get(0);
+        var second = testTags.get(1);
+        var both = bookRepository.create(searchableBook("Both tags", "", Level.BEGINNER, true, Set.of(first, second)));
+        bookRepository.create(searchableBook("First tag", "", Level.BEGINNER, true, Set.of(first)));
+
+        var all = bookRepository.findByTagIds(new int[]{first.id(), second.id(), first.id()}, TagMatch.ALL,
+                CursorPage.first("id", 100)).content();
+
+        assertThat(all).contains(both);
+        assertThat(all).allMatch(book -> book.tags().containsAll(Set.of(first, second)));
+        assertThat(bookRepository.findByTagIds(new int[0], TagMatch.ANY, CursorPage.first("id", 10)).content()).isEmpty();
+    }
+
+    @Test
+    void BookRepository_Search_RanksTitleAboveDescriptionAndAppliesFilters() {
+        var tag = testTags.getFirst();
+        var inDescription = bookRepository.create(searchableBook("A quiet harbour", "A dragon sleeps under the harbour",
+                Level.BEGINNER, true, Set.of(tag)));
+        var inTitle = bookRepository.create(searchableBook("Dragon tales", "Short stories",
+                Level.ADVANCED, false, Set.of()));
+
+        var all = bookRepository.search(new BookSearch("dragons", null, null, null), CursorPage.first("rank", 10));
+        assertThat(all.content()).containsExactly(inTitle, inDescription);
+        assertThat(all.next()).isNull();
+
+        assertThat(bookRepository.search(new BookSearch("dragon", tag.id(), null, null), CursorPage.first("rank", 10))
+                .content()).containsExactly(inDescription);
+        assertThat(bookRepository.search(new BookSearch("dragon", null, Level.ADVANCED, null), CursorPage.first("rank", 10))
+                .content()).containsExactly(inTitle);
+        assertThat(bookRepository.search(new BookSearch("dragon", null, null, true), CursorPage.first("rank", 10))
+                .content()).containsExactly(inDescription);
+        assertThat(bookRepository.search(new BookSearch("dragon -harbour", null, null, null), CursorPage.first("rank", 10))
+                .content()).containsExactly(inTitle);
+    }
+
+    @Test
+    void BookRepository_SearchByCursor_WalksAllMatchesOnce() {
+
+        List<Book> walked = new ArrayList<>();
+        Slice<Book> slice = bookRepository.search(new BookSearch("test", null, null, null), CursorPage.first("rank", 4));
+        walked.addAll(slice.content());
+        while (slice.next() != null) {
+            slice = bookRepository.search(new BookSearch("test", null, null, null), CursorPage.of(slice.next(), "rank", 4));
+            walked.addAll(slice.content());
+        }
+
+        assertThat(walked.stream().map(Book::id).distinct().count()).isEqualTo(walked.size());
+        assertThat(walked).containsAll(testBooks);
+    }
+
+    @Test
+    void BookRepository_Search_RejectsOtherSort() {
+        assertThatThrownBy(() -> bookRepository.search(new BookSearch("test", null, null, null), CursorPage.first("title", 4)))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    private static Book searchableBook(String title, String description, Level level, boolean available, Set<Tag> tags) {
+        return new Book(0, title, testAuthors.getFirst().id(), 2001, "ISBN #" + rn.nextInt(1000000, 2000000), level, description, available,
+                new HashSet<>(tags));
+    }
+
     private static Author createAuthor() {
         return new Author(0, "Test Author fullname #" + rn.nextInt(), "test bio");
     }
@@ -0,0 +1,112 @@
+package tech.cbs.api.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import tech.cbs.api.repository.invalidation.EntityType;
+import tech.cbs.api.repository.model.Author;
+import tech.cbs.api.repository.model.Book;
+import tech.cbs.api.repository.model.Level;
+import tech.cbs.api.repository.model.Tag;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for {@link CountRepository}
+ */
+@SpringBootTest
+@Testcontainers
+class CountRepositoryTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:16.0-alpine3.18");
+
+    @Autowired
+    private CountRepository countRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private TagRepository tagRepository;
+    @Autowired
+    private NamedParameterJdbcTemplate parameterJdbcTemplate;
+
+    @AfterEach
+    void clearData() {
+        parameterJdbcTemplate.update("DELETE FROM book; DELETE FROM author; DELETE FROM tag;", Map.of());
+    }
+
+    @Test
+    void CountRepository_CountExact_FollowsInsertsAndDeletes() {
+        var author = authorRepository.create(new Author(0, "Counted Author", "bio"));
+        var java = tagRepository.create(new Tag(0, "counted-java"));
+        var sql = tagRepository.create(new Tag(0, "counted-sql"));
+        for (int i = 0; i < 5; i++) {
+            bookRepository.create(new Book(0, "Counted " + i, author.id(), 2020, "CNT" + i, Level.BEGINNER, "",
+                    true, i < 3 ? Set.of(java, sql) : Set.of(java)));
+        }
+
+        assertThat(countRepository.countExact(EntityType.BOOK)).isEqualTo(5);
+        assertThat(countRepository.countExact(EntityType.AUTHOR)).isEqualTo(1);
+        assertThat(countRepository.countExact(EntityType.TAG)).isEqualTo(2);
+        assertThat(countRepository.countBooksByTag(java.id())).isEqualTo(5);
+        assertThat(countRepository.countBooksByTag(sql.id())).isEqualTo(3);
+
+        parameterJdbcTemplate.update("DELETE FROM book WHERE title IN ('Counted 0', 'Counted 4');", Map.of());
+
+        assertThat(countRepository.countExact(EntityType.BOOK)).isEqualTo(3);
+        assertThat(countRepository.countBooksByTag(java.id())).isEqualTo(3);
+        assertThat(countRepository.countBooksByTag(sql.id())).isEqualTo(2);
+
+        tagRepository.deleteById(sql.id());
+
+        assertThat(countRepository.countExact(EntityType.TAG)).isEqualTo(1);
+        assertThat(countRepository.countBooksByTag(sql.id())).isZero();
+        assertThat(countRepository.countExact(EntityType.BOOK)).isEqualTo(
+                parameterJdbcTemplate.queryForObject("SELECT count(*) FROM book;", Map.of(), Long.class));
+    }
+
+    @Test
+    void CountRepository_Compact_FoldsDeltasKeepingCounts() {
+        var author = authorRepository.create(new Author(0, "Compacted Author", "bio"));
+        var tag = tagRepository.create(new Tag(0, "compacted"));
+        for (int i = 0; i < 4; i++) {
+            bookRepository.create(new Book(0, "Compacted " + i, author.id(), 2020, "CMP" + i, Level.BEGINNER, "",
+                    true, Set.of(tag)));
+        }
+        parameterJdbcTemplate.update("DELETE FROM book WHERE title = 'Compacted 0';", Map.of());
+
+        countRepository.compact();
+
+        assertThat(countRepository.countExact(EntityType.BOOK)).isEqualTo(3);
+        assertThat(countRepository.countBooksByTag(tag.id())).isEqualTo(3);
+        assertThat(parameterJdbcTemplate.queryForObject(
+                "SELECT count(*) FROM table_row_count WHERE table_name = 'book';", Map.of(), Long.class)).isEqualTo(1);
+        assertThat(parameterJdbcTemplate.queryForObject(
+                "SELECT count(*) FROM tag_book_count WHERE tag_id = :tag_id;", Map.of("tag_id", tag.id()), Long.class))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void CountRepository_CountEstimate_UsesStatisticsOnceAnalyzed() {
+        var author = authorRepository.create(new Author(0, "Estimated Author", "bio"));
+        for (int i = 0; i < 20; i++) {
+            bookRepository.create(new Book(0, "Estimated " + i, author.id(), 2020, "EST" + i, Level.BEGINNER, "",
+                    true, Set.of()));
+        }
+        parameterJdbcTemplate.getJdbcOperations().execute("ANALYZE book;");
+
+        assertThat(countRepository.countEstimate(EntityType.BOOK)).isEqualTo(20);
+    }
+}
@@ -0,0 +1,74 @@
+package tech.cbs.api.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import tech.cbs.api.exception.InvalidCursorException;
+import tech.cbs.api.repository.model.Tag;
+import tech.cbs.api.service.dto.CursorPage;
+import tech.cbs.api.service.dto.Page;
+import tech.cbs.api.service.dto.Slice;
+import tech.cbs.api.service.dto.TagDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test class for {@link TagRegistry}
+ */
+class TagRegistryTest {
+
+    private final TagRegistry tagRegistry = new TagRegistry(Mockito.mock(NamedParameterJdbcTemplate.class));
+    private final List<Tag> tags = IntStream.rangeClosed(1, 50)
+            .mapToObj(i -> new Tag(i * 7, "tag-" + (char) ('a' + i % 26) + i))
+            .toList();
+
+    @BeforeEach
+    void load() {
+        tagRegistry.load(tags);
+    }
+
+    @Test
+    void TagRegistry_Tag_ReturnsCanonicalInstances() {
+        var tag = tags.get(3);
+
+        assertThat(tagRegistry.tag(tag.id(), tag.name())).isSameAs(tag);
+        assertThat(tagRegistry.findById(tag.id())).containsSame(tag);
+        assertThat(tagRegistry.dto(new Tag(tag.id(), tag.name())))
+                .isEqualTo(new TagDto(tag.id(), tag.name()))
+                .isSameAs(tagRegistry.dto(tag));
+    }
+
+    @Test
+    void TagRegistry_Tag_ReturnsNewInstanceForUnknownOrRenamedTag() {
+        var tag = tags.get(3);
+
+        assertThat(tagRegistry.findById(1)).isEmpty();
+        assertThat(tagRegistry.tag(1, "unknown")).isEqualTo(new Tag(1, "unknown"));
+        assertThat(tagRegistry.tag(tag.id(), "renamed")).isEqualTo(new Tag(tag.id(), "renamed"));
+    }
+
+    @Test
+    void TagRegistry_FindAllByCursor_WalksAllTagsInNameOrder() {
+        List<Tag> walked = new ArrayList<>();
+        var page = CursorPage.first("name", 8);
+        Slice<Tag> slice;
+        do {
+            slice = tagRegistry.findAll(page);
+            walked.addAll(slice.content());
+            page = CursorPage.of(slice.next(), "name", 8);
+        } while (slice.next() != null);
+
+        assertThat(walked).containsExactlyElementsOf(tags.stream()
+                .sorted((a, b) -> a.name().compareTo(b.name()))
+                .toList());
+        assertThat(tagRegistry.findAll(new Page(1, 10))).containsExactlyElementsOf(tags.subList(10, 20));
+        assertThatThrownBy(() -> tagRegistry.findAll(CursorPage.first("title", 8)))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+}
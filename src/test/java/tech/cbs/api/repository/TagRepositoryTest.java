@@ -171,6 +171,16 @@ class TagRepositoryTest {
         assertEquals(testTags.get(tagNum), tag.get());
     }
 
+    @Test
+    void TagRepository_Create_ReturnsStoredTag() {
+        var tag = createTag();
+        var created = tagRepository.create(tag);
+
+        assertTrue(created.id() > 0);
+        assertEquals(tag.name(), created.name());
+        assertEquals(Optional.of(created), tagRepository.findById(created.id()));
+    }
+
     @Test
     void TagRepository_Save_ReturnTag() {
         var tag = createTag();
@@ -0,0 +1,159 @@
+package tech.cbs.api.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import tech.cbs.api.repository.invalidation.EntityType;
+import tech.cbs.api.repository.model.Author;
+import tech.cbs.api.repository.model.Book;
+import tech.cbs.api.repository.model.Level;
+import tech.cbs.api.repository.model.Tag;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for {@link VersionRepository}
+ */
+@SpringBootTest
+@Testcontainers
+class VersionRepositoryTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:16.0-alpine3.18");
+
+    @Autowired
+    private VersionRepository versionRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private TagRepository tagRepository;
+    @Autowired
+    private CountRepository countRepository;
+    @Autowired
+    private NamedParameterJdbcTemplate parameterJdbcTemplate;
+
+    @AfterEach
+    void clearData() {
+        parameterJdbcTemplate.update("DELETE FROM book; DELETE FROM author; DELETE FROM tag;", Map.of());
+    }
+
+    @Test
+    void VersionRepository_FindVersion_ChangesOnUpdateOnly() {
+        var author = authorRepository.create(new Author(0, "Versioned Author", "bio"));
+
+        var created = versionRepository.findVersion(EntityType.AUTHOR, author.id()).orElseThrow();
+        assertThat(versionRepository.findVersion(EntityType.AUTHOR, author.id())).contains(created);
+
+        authorRepository.update(new Author(author.id(), "Versioned Author", "new bio"));
+
+        assertThat(versionRepository.findVersion(EntityType.AUTHOR, author.id())).isPresent()
+                .get().isNotEqualTo(created);
+    }
+
+    @Test
+    void VersionRepository_FindVersion_BookChangesWithItsTags() {
+        var author = authorRepository.create(new Author(0, "Versioned Author", "bio"));
+        var tag = tagRepository.create(new Tag(0, "versioned-tag"));
+        var other = tagRepository.create(new Tag(0, "other-tag"));
+        var book = bookRepository.create(new Book(0, "Versioned Book", author.id(), 2020, "VER1", Level.BEGINNER, "",
+                true, Set.of(tag)));
+        var created = versionRepository.findVersion(EntityType.BOOK, book.id()).orElseThrow();
+
+        tagRepository.update(new Tag(other.id(), "other-renamed"));
+        assertThat(versionRepository.findVersion(EntityType.BOOK, book.id())).contains(created);
+
+        tagRepository.update(new Tag(tag.id(), "versioned-renamed"));
+        assertThat(versionRepository.findVersion(EntityType.BOOK, book.id())).isPresent()
+                .get().isNotEqualTo(created);
+    }
+
+    @Test
+    void VersionRepository_FindVersion_BookDoesNotRepeatAfterTagRemovedAndRenamed() {
+        var author = authorRepository.create(new Author(0, "Versioned Author", "bio"));
+        var kept = tagRepository.create(new Tag(0, "kept-tag"));
+        var removed = tagRepository.create(new Tag(0, "removed-tag"));
+        var book = bookRepository.create(new Book(0, "Versioned Book", author.id(), 2020, "VER2", Level.BEGINNER, "",
+                true, Set.of(kept, removed)));
+        var created = versionRepository.findVersion(EntityType.BOOK, book.id()).orElseThrow();
+
+        // dropping one tag and renaming the other used to add up to the same sum of tag versions
+        tagRepository.deleteById(removed.id());
+        tagRepository.update(new Tag(kept.id(), "kept-renamed"));
+
+        assertThat(versionRepository.findVersion(EntityType.BOOK, book.id())).isPresent()
+                .get().isNotEqualTo(created);
+    }
+
+    @Test
+    void VersionRepository_FindVersion_MatchesVersionLoadedWithEntity() {
+        var author = authorRepository.create(new Author(0, "Versioned Author", "bio"));
+        var tag = tagRepository.create(new Tag(0, "versioned-tag"));
+        var tagged = bookRepository.create(new Book(0, "Tagged Book", author.id(), 2020, "VER3", Level.BEGINNER, "",
+                true, Set.of(tag)));
+        var untagged = bookRepository.create(new Book(0, "Untagged Book", author.id(), 2020, "VER4", Level.BEGINNER, "",
+                true, Set.of()));
+
+        var books = bookRepository.findAllVersionedByIds(new int[]{tagged.id(), untagged.id()});
+        var authors = authorRepository.findAllVersionedByIds(new int[]{author.id()});
+
+        assertThat(books).hasSize(2).allSatisfy(book -> assertThat(book.version())
+                .isEqualTo(versionRepository.findVersion(EntityType.BOOK, book.value().id()).orElseThrow()));
+        assertThat(authors).singleElement().satisfies(loaded -> assertThat(loaded.version())
+                .isEqualTo(versionRepository.findVersion(EntityType.AUTHOR, author.id()).orElseThrow()));
+    }
+
+    @Test
+    void VersionRepository_FindVersion_EmptyForMissingEntity() {
+        assertThat(versionRepository.findVersion(EntityType.BOOK, Integer.MAX_VALUE)).isEmpty();
+        assertThat(versionRepository.findVersion(EntityType.AUTHOR, Integer.MAX_VALUE)).isEmpty();
+        assertThat(versionRepository.findVersion(EntityType.TAG, Integer.MAX_VALUE)).isEmpty();
+    }
+
+    @Test
+    void VersionRepository_FindListVersion_ChangesOnEveryWrite() {
+        var author = authorRepository.create(new Author(0, "Listed Author", "bio"));
+        var tag = tagRepository.create(new Tag(0, "listed-tag"));
+        var book = bookRepository.create(new Book(0, "Listed Book", author.id(), 2020, "LST1", Level.BEGINNER, "",
+                true, Set.of()));
+
+        var inserted = versionRepository.findListVersion(EntityType.BOOK);
+        assertThat(versionRepository.findListVersion(EntityType.BOOK)).isEqualTo(inserted);
+
+        parameterJdbcTemplate.update("INSERT INTO book_tags (book_id, tag_id) VALUES (:book, :tag);",
+                Map.of("book", book.id(), "tag", tag.id()));
+        var tagged = versionRepository.findListVersion(EntityType.BOOK);
+        assertThat(tagged).isNotEqualTo(inserted);
+
+        tagRepository.update(new Tag(tag.id(), "listed-renamed"));
+        var renamed = versionRepository.findListVersion(EntityType.BOOK);
+        assertThat(renamed).isNotEqualTo(tagged);
+
+        var authors = versionRepository.findListVersion(EntityType.AUTHOR);
+        bookRepository.deleteById(book.id());
+        assertThat(versionRepository.findListVersion(EntityType.BOOK)).isNotEqualTo(renamed);
+        assertThat(versionRepository.findListVersion(EntityType.AUTHOR)).isEqualTo(authors);
+    }
+
+    @Test
+    void VersionRepository_FindListVersion_KeptByCompaction() {
+        var author = authorRepository.create(new Author(0, "Compacted Author", "bio"));
+        authorRepository.update(new Author(author.id(), "Compacted Author", "new bio"));
+        var version = versionRepository.findListVersion(EntityType.AUTHOR);
+
+        countRepository.compact();
+
+        assertThat(versionRepository.findListVersion(EntityType.AUTHOR)).isEqualTo(version);
+    }
+}
@@ -0,0 +1,128 @@
+package tech.cbs.api.repository.invalidation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import tech.cbs.api.repository.TagRegistry;
+import tech.cbs.api.repository.TagRepository;
+import tech.cbs.api.repository.model.Tag;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Test class for {@link InvalidationBus}
+ */
+@SpringBootTest(properties = "cbs.invalidation.reconnect-delay=100ms")
+@Testcontainers
+class InvalidationBusTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:16.0-alpine3.18");
+
+    @Autowired
+    private RecordingListener listener;
+    @Autowired
+    private TagRepository tagRepository;
+    @Autowired
+    private TagRegistry tagRegistry;
+    @Autowired
+    private InvalidationPublisher invalidationPublisher;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private NamedParameterJdbcTemplate parameterJdbcTemplate;
+
+    @AfterEach
+    void cleanData() {
+        parameterJdbcTemplate.update("DELETE FROM tag;", Map.of());
+        listener.events.clear();
+    }
+
+    @Test
+    void InvalidationBus_Write_DeliversInvalidationAfterCommit() {
+        var tag = tagRepository.create(new Tag(0, "invalidation"));
+        tagRepository.update(new Tag(tag.id(), "invalidation renamed"));
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> assertThat(listener.events)
+                .containsSubsequence("TAG:" + tag.id(), "TAG:" + tag.id()));
+        assertThat(tagRegistry.findById(tag.id())).contains(new Tag(tag.id(), "invalidation renamed"));
+    }
+
+    @Test
+    void InvalidationBus_RolledBackWrite_DeliversNothing() {
+        transactionTemplate.executeWithoutResult(status -> {
+            invalidationPublisher.publish(EntityType.BOOK, -1);
+            status.setRollbackOnly();
+        });
+        invalidationPublisher.publish(EntityType.BOOK, -2);
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> assertThat(listener.events).contains("BOOK:-2"));
+        assertThat(listener.events).doesNotContain("BOOK:-1");
+    }
+
+    @Test
+    void InvalidationBus_PublishAll_FlushesListeners() {
+        int flushes = listener.flushes.get();
+
+        invalidationPublisher.publishAll();
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> listener.flushes.get() > flushes);
+        assertThat(listener.events).isEmpty();
+    }
+
+    @Test
+    void InvalidationBus_ListenerConnectionLost_ReconnectsAndFlushes() {
+        int flushes = listener.flushes.get();
+
+        parameterJdbcTemplate.queryForList("""
+                SELECT pg_terminate_backend(pid)
+                FROM pg_stat_activity
+                WHERE query LIKE 'LISTEN%' AND pid <> pg_backend_pid();
+                """, Map.of());
+
+        await().atMost(Duration.ofSeconds(30)).until(() -> listener.flushes.get() > flushes);
+        invalidationPublisher.publish(EntityType.AUTHOR, 7);
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> assertThat(listener.events).contains("AUTHOR:7"));
+    }
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        RecordingListener recordingListener() {
+            return new RecordingListener();
+        }
+    }
+
+    static class RecordingListener implements InvalidationListener {
+
+        final Queue<String> events = new ConcurrentLinkedQueue<>();
+        final AtomicInteger flushes = new AtomicInteger();
+
+        @Override
+        public void invalidate(EntityType type, int id) {
+            events.add(type.name() + ':' + id);
+        }
+
+        @Override
+        public void invalidateAll() {
+            flushes.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package tech.cbs.api.repository.limit;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for {@link ConcurrencyLimitedDataSource}
+ */
+class ConcurrencyLimitedDataSourceTest {
+
+    private static DataSource target() throws SQLException {
+        var dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        return dataSource;
+    }
+
+    @Test
+    void ConcurrencyLimitedDataSource_Close_ReleasesPermitOnce() throws Exception {
+        var dataSource = new ConcurrencyLimitedDataSource(target(), 2, Duration.ofSeconds(1));
+
+        var first = dataSource.getConnection();
+        var second = dataSource.getConnection();
+        assertThat(dataSource.availablePermits()).isZero();
+
+        first.close();
+        first.close();
+        assertThat(dataSource.availablePermits()).isEqualTo(1);
+        second.close();
+        assertThat(dataSource.availablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    void ConcurrencyLimitedDataSource_GetConnection_TimesOutWithoutPermit() throws Exception {
+        var dataSource = new ConcurrencyLimitedDataSource(target(), 1, Duration.ofMillis(50));
+
+        try (var ignored = dataSource.getConnection()) {
+            assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        }
+        assertThat(dataSource.availablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void ConcurrencyLimitedDataSource_GetConnection_ReleasesPermitWhenTargetFails() throws Exception {
+        var target = mock(DataSource.class);
+        doThrow(new SQLException("down")).when(target).getConnection();
+        var dataSource = new ConcurrencyLimitedDataSource(target, 1, Duration.ofSeconds(1));
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertThat(dataSource.availablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void ConcurrencyLimitedDataSource_GetConnection_ServesWaitersInArrivalOrder() throws Exception {
+        var dataSource = new ConcurrencyLimitedDataSource(target(), 1, Duration.ofSeconds(5));
+        List<Integer> order = new CopyOnWriteArrayList<>();
+
+        var held = dataSource.getConnection();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> waiters = new CopyOnWriteArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                int waiter = i;
+                waiters.add(executor.submit(() -> {
+                    try (var ignored = dataSource.getConnection()) {
+                        order.add(waiter);
+                    }
+                    return null;
+                }));
+                while (dataSource.waiting() < i + 1) {
+                    Thread.sleep(1);
+                }
+            }
+            held.close();
+            for (Future<?> waiter : waiters) {
+                waiter.get();
+            }
+        }
+
+        assertThat(order).containsExactly(0, 1, 2, 3, 4);
+    }
+}
@@ -26,19 +26,28 @@ package tech.cbs.api.repository.mapper;
 
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import tech.cbs.api.repository.TagRegistry;
 import tech.cbs.api.repository.model.Author;
+import tech.cbs.api.repository.model.Book;
+import tech.cbs.api.repository.model.Level;
 import tech.cbs.api.repository.model.Tag;
 
+import java.sql.Array;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.List;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
- * Test class for {@link AuthorRowMapper}, {@link TagRowMapper}
+ * Test class for {@link AuthorRowMapper}, {@link TagRowMapper}, {@link BookRowMapper}
  */
 class RowMappersTest {
 
+    private final TagRegistry tagRegistry = new TagRegistry(Mockito.mock(NamedParameterJdbcTemplate.class));
+
     @Test
     void AuthorRowMapper_MapRow_ReturnsAuthor() throws SQLException {
 
@@ -68,4 +77,42 @@ class RowMappersTest {
         assertThat(tag).isEqualTo(tagRowMapper.mapRow(resultSet, 1));
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void BookRowMapper_MapRow_ReturnsBookWithAggregatedTags() throws SQLException {
+        Book book = new Book(1, "Title", 2, 2020, "ISBN", Level.ADVANCED, "Description", true,
+                Set.of(new Tag(3, "java"), new Tag(4, "spring")));
+
+        ResultSet resultSet = Mockito.mock(ResultSet.class);
+        Array tagIds = Mockito.mock(Array.class);
+        Array tagNames = Mockito.mock(Array.class);
+        Mockito.when(resultSet.getInt(1)).thenReturn(book.id());
+        Mockito.when(resultSet.getString(2)).thenReturn(book.title());
+        Mockito.when(resultSet.getInt(3)).thenReturn(book.authorId());
+        Mockito.when(resultSet.getInt(4)).thenReturn(book.publicationYear());
+        Mockito.when(resultSet.getString(5)).thenReturn(book.isbn());
+        Mockito.when(resultSet.getString(6)).thenReturn(book.level().name());
+        Mockito.when(resultSet.getString(7)).thenReturn(book.description());
+        Mockito.when(resultSet.getBoolean(8)).thenReturn(book.available());
+        Mockito.when(resultSet.getArray(9)).thenReturn(tagIds);
+        Mockito.when(resultSet.getArray(10)).thenReturn(tagNames);
+        Mockito.when(tagIds.getArray()).thenReturn(new Integer[]{3, 4});
+        Mockito.when(tagNames.getArray()).thenReturn(new String[]{"java", "spring"});
+
+        var java = new Tag(3, "java");
+        tagRegistry.load(List.of(java));
+
+        var mapped = new BookRowMapper(tagRegistry).mapRow(resultSet, 1);
+
+        assertThat(mapped).isEqualTo(book);
+        assertThat(mapped.tags()).anySatisfy(tag -> assertThat(tag).isSameAs(java));
+    }
+
+    @Test
+    void BookRowMapper_MapRow_ReturnsBookWithoutTags() throws SQLException {
+        ResultSet resultSet = Mockito.mock(ResultSet.class);
+        Mockito.when(resultSet.getString(6)).thenReturn(Level.BEGINNER.name());
+
+        assertThat(new BookRowMapper(tagRegistry).mapRow(resultSet, 1).tags()).isEmpty();
+    }
+}
@@ -0,0 +1,179 @@
+package tech.cbs.api.repository.routing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for {@link ReplicaRoutingDataSource}, {@link Lsn}
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private final DataSource primary = Mockito.mock(DataSource.class);
+    private final DataSource replica = Mockito.mock(DataSource.class);
+    private final List<String> executed = new ArrayList<>();
+
+    private Connection primaryConnection;
+    private Connection replicaConnection;
+    private ReplicaRoutingDataSource routing;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        primaryConnection = connection("primary", "0/300");
+        replicaConnection = connection("replica", "0/200");
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+
+        routing = new ReplicaRoutingDataSource(primary, List.of(replica), Duration.ZERO);
+        routing.checkReplicas();
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(routing));
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWrites.close();
+        routing.close();
+    }
+
+    @Test
+    void ReplicaRoutingDataSource_ReadOnlyTransaction_UsesReplica() {
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.executeWithoutResult(status -> new JdbcTemplate(routing).execute("SELECT 1"));
+
+        assertThat(executed).containsExactly("replica: SELECT 1");
+    }
+
+    @Test
+    void ReplicaRoutingDataSource_ReplicaBehindToken_UsesPrimary() {
+        ReadYourWrites.open(Lsn.parse("0/250"), lsn -> {
+        });
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.executeWithoutResult(status -> new JdbcTemplate(routing).execute("SELECT 1"));
+
+        assertThat(executed).containsExactly("primary: SELECT 1");
+    }
+
+    @Test
+    void ReadYourWrites_OnPrimary_UsesPrimary() {
+        transactionTemplate.setReadOnly(true);
+        ReadYourWrites.onPrimary(() -> transactionTemplate.execute(status -> {
+            new JdbcTemplate(routing).execute("SELECT 1");
+            return null;
+        }));
+        transactionTemplate.executeWithoutResult(status -> new JdbcTemplate(routing).execute("SELECT 2"));
+
+        assertThat(executed).containsExactly("primary: SELECT 1", "replica: SELECT 2");
+    }
+
+    @Test
+    void ReplicaRoutingDataSource_ReadOnlyConnectionWithCredentials_UsesReplica() throws SQLException {
+        when(replica.getConnection("reader", "secret")).thenReturn(replicaConnection);
+
+        try (var connection = routing.getConnection("reader", "secret")) {
+            connection.setReadOnly(true);
+            connection.createStatement().execute("SELECT 1");
+        }
+
+        assertThat(executed).containsExactly("replica: SELECT 1");
+    }
+
+    @Test
+    void ReplicaRoutingDataSource_ReplicaDown_FailsOverToPrimary() throws SQLException {
+        when(replica.getConnection()).thenThrow(new SQLException("connection refused"));
+        routing.checkReplicas();
+
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.executeWithoutResult(status -> new JdbcTemplate(routing).execute("SELECT 1"));
+
+        assertThat(executed).containsExactly("primary: SELECT 1");
+    }
+
+    @Test
+    void ReadYourWrites_SameSource_KeepsReadsOnFirstReplicaThenPrimary() throws SQLException {
+        var other = Mockito.mock(DataSource.class);
+        var otherConnection = connection("other", "0/100");
+        when(other.getConnection()).thenReturn(otherConnection);
+        try (var twoReplicas = new ReplicaRoutingDataSource(primary, List.of(replica, other), Duration.ZERO)) {
+            twoReplicas.checkReplicas();
+            var template = new TransactionTemplate(new DataSourceTransactionManager(twoReplicas));
+            template.setReadOnly(true);
+
+            var restore = ReadYourWrites.sameSource();
+            try {
+                for (int i = 1; i <= 3; i++) {
+                    var sql = "SELECT " + i;
+                    template.executeWithoutResult(status -> new JdbcTemplate(twoReplicas).execute(sql));
+                }
+                when(replica.getConnection()).thenThrow(new SQLException("connection refused"));
+                // the other replica may be further behind
+                template.executeWithoutResult(status -> new JdbcTemplate(twoReplicas).execute("SELECT 4"));
+            } finally {
+                restore.run();
+            }
+        }
+
+        assertThat(executed).containsExactly(
+                "replica: SELECT 1", "replica: SELECT 2", "replica: SELECT 3", "primary: SELECT 4");
+    }
+
+    @Test
+    void ReplicaRoutingDataSource_WriteTransaction_ReportsLsnAfterCommit() throws SQLException {
+        var reported = new AtomicReference<String>();
+        ReadYourWrites.open(0, lsn -> reported.set(Lsn.format(lsn)));
+
+        transactionTemplate.executeWithoutResult(status -> new JdbcTemplate(routing).execute("UPDATE book SET available = true"));
+
+        assertThat(executed.getFirst()).isEqualTo("primary: UPDATE book SET available = true");
+        assertThat(reported.get()).isEqualTo("0/300");
+        verify(replica, atLeastOnce()).getConnection();
+        verify(replicaConnection, never()).setAutoCommit(false);
+        // the following reads of the request have to see the write
+        assertThat(ReadYourWrites.requiredLsn()).isEqualTo(Lsn.parse("0/300"));
+    }
+
+    @Test
+    void Lsn_ParseAndFormat_RoundTrip() {
+        assertThat(Lsn.parse("16/B374D848")).isEqualTo(0x16B374D848L);
+        assertThat(Lsn.format(0x16B374D848L)).isEqualTo("16/B374D848");
+        assertThat(Lsn.parse("0/300")).isGreaterThan(Lsn.parse("0/2FF"));
+    }
+
+    private Connection connection(String name, String lsn) throws SQLException {
+        var connection = Mockito.mock(Connection.class);
+        var statement = Mockito.mock(Statement.class);
+        var resultSet = Mockito.mock(ResultSet.class);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.getTransactionIsolation()).thenReturn(Connection.TRANSACTION_READ_COMMITTED);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.execute(anyString())).thenAnswer(invocation -> {
+            executed.add(name + ": " + invocation.getArgument(0));
+            return false;
+        });
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getString(1)).thenReturn(lsn);
+        return connection;
+    }
+}
@@ -0,0 +1,102 @@
+package tech.cbs.api.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import tech.cbs.api.service.dto.BrowseQuery;
+import tech.cbs.api.service.dto.CursorPage;
+import tech.cbs.api.service.dto.ImportRejection;
+import tech.cbs.api.service.importer.ImportFormat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Test class for {@link BookImportService}
+ */
+@SpringBootTest(properties = "cbs.import.batch-size=7")
+@Testcontainers
+class BookImportServiceTest {
+
+    private static final int bookCount = 50;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:16.0-alpine3.18");
+
+    @Autowired
+    private BookImportService bookImportService;
+    @Autowired
+    private BrowseService browseService;
+    @Autowired
+    private NamedParameterJdbcTemplate parameterJdbcTemplate;
+
+    @AfterEach
+    void cleanData() {
+        parameterJdbcTemplate.update("""
+                DELETE FROM book;
+                DELETE FROM author;
+                DELETE FROM tag;
+                """, Map.of());
+    }
+
+    @Test
+    void BookImportService_ImportBooks_LoadsBooksAuthorsAndTags() {
+        var csv = new StringBuilder("title,author,publication_year,isbn,level,description,available,tags\n");
+        for (int i = 0; i < bookCount; i++) {
+            csv.append("Imported Book #").append(i)
+                    .append(",Imported Author #").append(i % 5)
+                    .append(',').append(1990 + i % 30)
+                    .append(",ISBN").append(i)
+                    .append(",ADVANCED,\"Description, #").append(i).append('"')
+                    .append(',').append(i % 2 == 0)
+                    .append(",imported-java|imported-tag-").append(i % 3)
+                    .append('\n');
+        }
+        csv.append("Imported Book #1,Imported Author #1,2001,,,duplicate title,true,\n");
+        csv.append("Broken Book,Imported Author #1,soon,,,bad year,true,\n");
+
+        var report = bookImportService.importBooks(
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV);
+
+        assertThat(report.status()).isEqualTo("COMPLETED");
+        assertThat(report.processed()).isEqualTo(bookCount + 2);
+        assertThat(report.imported()).isEqualTo(bookCount);
+        assertThat(report.rejected()).isEqualTo(2);
+        assertThat(report.rejections()).extracting(ImportRejection::line).containsExactly(bookCount + 2L, bookCount + 3L);
+        assertThat(bookImportService.getImport(report.id())).contains(report);
+
+        assertThat(count("SELECT count(*) FROM book WHERE title LIKE 'Imported Book #%'")).isEqualTo(bookCount);
+        assertThat(count("SELECT count(*) FROM author WHERE name LIKE 'Imported Author #%'")).isEqualTo(5);
+        assertThat(count("SELECT count(*) FROM tag WHERE name LIKE 'imported-%'")).isEqualTo(4);
+        assertThat(count("SELECT count(*) FROM book_tags")).isEqualTo(bookCount * 2);
+    }
+
+    @Test
+    void BookImportService_ImportBooks_InvalidatesInMemoryIndexes() {
+        var all = new BrowseQuery(null, null, null, null, null, null, null);
+        int before = browseService.browse(all, CursorPage.first("id", 1)).total();
+        var csv = "title,author,publication_year,description\n"
+                + "Indexed Import,Imported Author,2001,Description\n";
+
+        bookImportService.importBooks(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV);
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                assertThat(browseService.browse(all, CursorPage.first("id", 1)).total()).isEqualTo(before + 1));
+    }
+
+    private long count(String sql) {
+        return parameterJdbcTemplate.queryForObject(sql, Map.of(), Long.class);
+    }
+}
@@ -0,0 +1,111 @@
+package tech.cbs.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import tech.cbs.api.repository.AuthorRepository;
+import tech.cbs.api.repository.BookRepository;
+import tech.cbs.api.repository.TagRepository;
+import tech.cbs.api.repository.model.Author;
+import tech.cbs.api.repository.model.Book;
+import tech.cbs.api.repository.model.Level;
+import tech.cbs.api.repository.model.Tag;
+import tech.cbs.api.service.dto.Page;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The JSON built by PostgreSQL for the book list endpoints has to be byte for byte what Jackson writes for the DTOs
+ */
+@SpringBootTest(properties = "cbs.json-pass-through.enabled=true")
+@Testcontainers
+class BookJsonContractTest {
+
+    /**
+     * Quotes, backslashes, every kind of escaped control character and multibyte characters
+     */
+    private static final String AWKWARD = "\"q\" \\b/ \t\n\r\b\f \u0001\u000b\u001f\u007f é 漢字 😀 \u2028";
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:16.0-alpine3.18");
+
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private TagRepository tagRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private NamedParameterJdbcTemplate parameterJdbcTemplate;
+
+    private Author author;
+    private Tag awkwardTag;
+
+    @BeforeEach
+    void setData() {
+        author = authorRepository.create(new Author(0, "Json Author", "bio"));
+        awkwardTag = tagRepository.create(new Tag(0, "\"tag\" \\ \u0002 ü"));
+        var plainTag = tagRepository.create(new Tag(0, "json-plain"));
+        var otherTag = tagRepository.create(new Tag(0, "json-other"));
+
+        bookRepository.create(new Book(0, "Json " + AWKWARD, author.id(), 1999, null, Level.ADVANCED,
+                AWKWARD, true, Set.of(otherTag, awkwardTag, plainTag)));
+        bookRepository.create(new Book(0, "Json untagged", author.id(), 2001, "JSN1", Level.BEGINNER,
+                "", false, Set.of()));
+        for (int i = 0; i < 5; i++) {
+            bookRepository.create(new Book(0, "Json " + i, author.id(), 2010 + i, "JSN" + (i + 2), Level.INTERMEDIATE,
+                    "Description " + i, i % 2 == 0, Set.of(plainTag, awkwardTag)));
+        }
+    }
+
+    @AfterEach
+    void clearData() {
+        parameterJdbcTemplate.update("DELETE FROM book; DELETE FROM author; DELETE FROM tag;", Map.of());
+    }
+
+    @Test
+    void BookService_GetBooksJson_MatchesJackson() throws Exception {
+        for (Page page : new Page[]{new Page(0, 3), new Page(1, 3), new Page(2, 3), new Page(5, 3)}) {
+            assertSameBytes(objectMapper.writeValueAsBytes(bookService.getBooks(page)),
+                    bookService.getBooksJson(page).orElseThrow());
+        }
+    }
+
+    @Test
+    void BookService_GetBooksByAuthorJson_MatchesJackson() throws Exception {
+        assertSameBytes(objectMapper.writeValueAsBytes(bookService.getBooksByAuthor(author.id())),
+                bookService.getBooksByAuthorJson(author.id()).orElseThrow());
+        assertSameBytes(objectMapper.writeValueAsBytes(bookService.getBooksByAuthor(-1)),
+                bookService.getBooksByAuthorJson(-1).orElseThrow());
+    }
+
+    @Test
+    void BookService_GetBooksByTagJson_MatchesJackson() throws Exception {
+        var page = new Page(0, 10);
+        assertSameBytes(objectMapper.writeValueAsBytes(bookService.getBooksByTag(awkwardTag.id(), page)),
+                bookService.getBooksByTagJson(awkwardTag.id(), page).orElseThrow());
+    }
+
+    private static void assertSameBytes(byte[] jackson, byte[] database) {
+        // compared as text first for a readable failure
+        assertThat(new String(database, StandardCharsets.UTF_8)).isEqualTo(new String(jackson, StandardCharsets.UTF_8));
+        assertThat(database).isEqualTo(jackson);
+    }
+}
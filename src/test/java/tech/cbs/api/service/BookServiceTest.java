@@ -77,6 +77,8 @@ class BookServiceTest {
     @Autowired
     private BookService bookService;
     @Autowired
+    private TagService tagService;
+    @Autowired
     private BookRepository bookRepository;
     @Autowired
     private AuthorRepository authorRepository;
@@ -246,6 +248,8 @@ class BookServiceTest {
                         .collect(Collectors.toSet())
         );
 
+        // cached before the update
+        bookService.getBook(originalBookDto.id());
         boolean result = bookService.updateBook(updatedBookDto);
 
         assertThat(result).isTrue();
@@ -273,12 +277,25 @@ class BookServiceTest {
     void BookService_DeleteBook_ReturnResultAsBoolean() {
         BookDto bookDto = testBooks.get(rn.nextInt(0, bookCount - 1));
 
+        bookService.getBook(bookDto.id());
         boolean result = bookService.deleteBook(bookDto.id());
 
         assertThat(result).isTrue();
 
         Throwable thrown = assertThrows(ResourceNotFoundException.class, () -> bookService.getBook(bookDto.id()));
         assertThat(thrown.getMessage()).isNotNull();
+        assertThat(thrown.getStackTrace()).isEmpty();
+    }
+
+    @Test
+    void BookService_GetBook_ShowsRenamedTag() {
+        BookDto bookDto = testBooks.stream().filter(book -> !book.tags().isEmpty()).findFirst().orElseThrow();
+        TagDto tagDto = bookDto.tags().iterator().next();
+        bookService.getBook(bookDto.id());
+
+        tagService.updateTag(new TagDto(tagDto.id(), "Renamed #" + tagDto.id()));
+
+        assertThat(bookService.getBook(bookDto.id()).tags()).contains(new TagDto(tagDto.id(), "Renamed #" + tagDto.id()));
     }
 
     @Test
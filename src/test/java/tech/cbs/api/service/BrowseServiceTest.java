@@ -0,0 +1,133 @@
+package tech.cbs.api.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import tech.cbs.api.repository.AuthorRepository;
+import tech.cbs.api.repository.BookRepository;
+import tech.cbs.api.repository.TagRepository;
+import tech.cbs.api.repository.model.Author;
+import tech.cbs.api.repository.model.Book;
+import tech.cbs.api.repository.model.Level;
+import tech.cbs.api.repository.model.Tag;
+import tech.cbs.api.service.dto.BookDto;
+import tech.cbs.api.service.dto.BrowseDto;
+import tech.cbs.api.service.dto.BrowseQuery;
+import tech.cbs.api.service.dto.CursorPage;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Test class for {@link BrowseService}
+ */
+@SpringBootTest
+@Testcontainers
+class BrowseServiceTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:16.0-alpine3.18");
+
+    @Autowired
+    private BrowseService browseService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private TagRepository tagRepository;
+    @Autowired
+    private NamedParameterJdbcTemplate parameterJdbcTemplate;
+
+    private final List<Book> books = new ArrayList<>();
+    private Tag java;
+
+    @BeforeEach
+    void setData() {
+        var author = authorRepository.create(new Author(0, "Browse Author", "bio"));
+        java = tagRepository.create(new Tag(0, "browse-java"));
+        for (int i = 0; i < 12; i++) {
+            books.add(bookRepository.create(new Book(0, "Browse " + i, author.id(), 2015 + i % 6, "BR" + i,
+                    Level.values()[i % 3], "", i % 2 == 0, i % 4 == 0 ? Set.of(java) : Set.of())));
+        }
+    }
+
+    @AfterEach
+    void clearData() {
+        parameterJdbcTemplate.update("DELETE FROM book; DELETE FROM author; DELETE FROM tag;", Map.of());
+        books.clear();
+    }
+
+    @Test
+    void BrowseService_Browse_FiltersCountsAndPages() {
+        var query = new BrowseQuery(null, null, null, null, true, 2017, null);
+        var expected = books.stream()
+                .filter(Book::available)
+                .filter(book -> book.publicationYear() >= 2017)
+                .map(Book::id)
+                .toList();
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                assertThat(browseService.browse(query, CursorPage.first("id", 2)).total()).isEqualTo(expected.size()));
+
+        List<Integer> walked = new ArrayList<>();
+        BrowseDto page = browseService.browse(query, CursorPage.first("id", 2));
+        page.content().stream().map(BookDto::id).forEach(walked::add);
+        while (page.next() != null) {
+            page = browseService.browse(query, CursorPage.of(page.next(), "id", 2));
+            page.content().stream().map(BookDto::id).forEach(walked::add);
+        }
+
+        assertThat(walked).containsExactlyElementsOf(expected);
+        assertThat(page.available()).isEqualTo(Map.of(true, expected.size(), false, 0));
+        assertThat(page.years().keySet()).allMatch(year -> year >= 2017);
+    }
+
+    @Test
+    void BrowseService_Browse_FollowsWrites() {
+        var tagged = new BrowseQuery(null, Set.of(java.id()), null, null, null, null, null);
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                assertThat(browseService.browse(tagged, CursorPage.first("id", 20)).total()).isEqualTo(3));
+
+        var book = books.get(1);
+        bookRepository.update(new Book(book.id(), book.title(), book.authorId(), book.publicationYear(), book.isbn(),
+                book.level(), book.description(), book.available(), Set.of(java)));
+        bookRepository.deleteById(books.getFirst().id());
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> {
+            var result = browseService.browse(tagged, CursorPage.first("id", 20));
+            assertThat(result.content()).extracting(BookDto::id)
+                    .containsExactly(book.id(), books.get(4).id(), books.get(8).id());
+            assertThat(result.tags()).isEqualTo(Map.of(java.id(), 3));
+        });
+    }
+
+    @Test
+    void BrowseService_Browse_DropsBooksOfDeletedAuthor() {
+        var all = new BrowseQuery(null, null, null, null, null, null, null);
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                assertThat(browseService.browse(all, CursorPage.first("id", 20)).total()).isEqualTo(books.size()));
+
+        authorRepository.deleteById(books.getFirst().authorId());
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> {
+            var result = browseService.browse(all, CursorPage.first("id", 20));
+            assertThat(result.total()).isZero();
+            assertThat(result.levels()).isEmpty();
+        });
+    }
+}
@@ -0,0 +1,84 @@
+package tech.cbs.api.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import tech.cbs.api.repository.AuthorRepository;
+import tech.cbs.api.repository.BookRepository;
+import tech.cbs.api.repository.model.Author;
+import tech.cbs.api.repository.model.Book;
+import tech.cbs.api.repository.model.Level;
+import tech.cbs.api.service.dto.SpellingCorrectionDto;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Test class for {@link SpellingService}
+ */
+@SpringBootTest
+@Testcontainers
+class SpellingServiceTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:16.0-alpine3.18");
+
+    @Autowired
+    private SpellingService spellingService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private NamedParameterJdbcTemplate parameterJdbcTemplate;
+
+    @AfterEach
+    void clearData() {
+        parameterJdbcTemplate.update("DELETE FROM book; DELETE FROM author;", Map.of());
+    }
+
+    @Test
+    void SpellingService_Correct_FollowsWrites() {
+        var author = authorRepository.create(new Author(0, "Martin Fowler", "bio"));
+        var book = bookRepository.create(new Book(0, "Kubernetes Patterns", author.id(), 2019, "9781492050285",
+                Level.INTERMEDIATE, "Reusable elements", true, Set.of()));
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                assertThat(spellingService.correct("Kubernets by Martin Fowlr!")).isEqualTo(
+                        new SpellingCorrectionDto("Kubernets by Martin Fowlr!", "kubernetes by Martin fowler!")));
+        assertThat(spellingService.correct("Martin Fowler").correction()).isNull();
+
+        bookRepository.update(new Book(book.id(), "Cloud Native Patterns", author.id(), 2019, "9781492050285",
+                Level.INTERMEDIATE, "Reusable elements", true, Set.of()));
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                assertThat(spellingService.correct("kubernets natve").correction()).isEqualTo("kubernets native"));
+    }
+
+    @Test
+    void SpellingService_Correct_ForgetsBooksOfDeletedAuthor() {
+        var author = authorRepository.create(new Author(0, "Bilgin Ibryam", "bio"));
+        bookRepository.create(new Book(0, "Kubernetes Patterns", author.id(), 2019, "9781492050285",
+                Level.INTERMEDIATE, "Reusable elements", true, Set.of()));
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                assertThat(spellingService.correct("kubernets").correction()).isEqualTo("kubernetes"));
+
+        authorRepository.deleteById(author.id());
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                assertThat(spellingService.correct("kubernets").correction()).isNull());
+        assertThat(spellingService.correct("patterns").correction()).isNull();
+        assertThat(spellingService.correct("patterms").correction()).isNull();
+    }
+}
@@ -0,0 +1,97 @@
+package tech.cbs.api.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import tech.cbs.api.repository.AuthorRepository;
+import tech.cbs.api.repository.BookRepository;
+import tech.cbs.api.repository.SuggestionRepository;
+import tech.cbs.api.repository.TagRepository;
+import tech.cbs.api.repository.invalidation.EntityType;
+import tech.cbs.api.repository.model.Author;
+import tech.cbs.api.repository.model.Book;
+import tech.cbs.api.repository.model.Level;
+import tech.cbs.api.repository.model.Suggestion;
+import tech.cbs.api.repository.model.Tag;
+import tech.cbs.api.repository.routing.ReadYourWrites;
+import tech.cbs.api.service.dto.SuggestionDto;
+import tech.cbs.api.service.impl.SuggestServiceImpl;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for {@link SuggestService}
+ */
+@SpringBootTest(properties = "cbs.suggest.refresh-delay=50ms")
+@Testcontainers
+class SuggestServiceTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:16.0-alpine3.18");
+
+    @Autowired
+    private SuggestService suggestService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private TagRepository tagRepository;
+    @Autowired
+    private NamedParameterJdbcTemplate parameterJdbcTemplate;
+
+    @AfterEach
+    void clearData() {
+        parameterJdbcTemplate.update("DELETE FROM book; DELETE FROM author; DELETE FROM tag;", Map.of());
+    }
+
+    @Test
+    void SuggestService_Suggest_FollowsWritesAndRanksByPopularity() {
+        var author = authorRepository.create(new Author(0, "Hobart Lane", "bio"));
+        var tag = tagRepository.create(new Tag(0, "hobbies"));
+        var book = bookRepository.create(new Book(0, "The Hobbit", author.id(), 1937, "9780261103344",
+                Level.BEGINNER, "There and back again", true, Set.of(tag)));
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                assertThat(suggestService.suggest("hob", 10)).containsExactlyInAnyOrder(
+                        new SuggestionDto(EntityType.AUTHOR, author.id(), "Hobart Lane"),
+                        new SuggestionDto(EntityType.TAG, tag.id(), "hobbies"),
+                        new SuggestionDto(EntityType.BOOK, book.id(), "The Hobbit")));
+        assertThat(suggestService.suggest("hob", 10).getLast().type()).isEqualTo(EntityType.BOOK);
+
+        bookRepository.deleteById(book.id());
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                assertThat(suggestService.suggest("hobb", 10)).containsExactly(
+                        new SuggestionDto(EntityType.TAG, tag.id(), "hobbies")));
+    }
+
+    @Test
+    void SuggestService_Reload_ReadsFromPrimary() {
+        var suggestionRepository = Mockito.mock(SuggestionRepository.class);
+        // a replica may not have replayed the write behind the invalidation yet
+        when(suggestionRepository.findAll()).thenAnswer(invocation -> ReadYourWrites.requiredLsn() == Long.MAX_VALUE
+                ? List.of(new Suggestion(EntityType.TAG, 1, "hobbies", 0))
+                : List.of());
+        var service = new SuggestServiceImpl(suggestionRepository, Duration.ofMillis(50));
+
+        service.reload();
+
+        assertThat(service.suggest("hob", 10)).containsExactly(new SuggestionDto(EntityType.TAG, 1, "hobbies"));
+    }
+}
@@ -91,6 +91,18 @@ class TagServiceTest {
         assertThat(tag).isEqualTo(testTag);
     }
 
+    @Test
+    void TagService_GetTagsByIds_IncludesTagsNotYetInRegistry() {
+        TagDto known = testTags.getFirst();
+        // written behind the registry's back, like a tag created on another instance before its event arrives
+        int unknownId = parameterJdbcTemplate.queryForObject("INSERT INTO tag (name) VALUES (:name) RETURNING id;",
+                Map.of("name", "Unregistered tag"), Integer.class);
+
+        List<TagDto> tags = tagService.getTagsByIds(new int[]{unknownId, known.id(), -1});
+
+        assertThat(tags).containsExactly(new TagDto(unknownId, "Unregistered tag"), known);
+    }
+
     @Test
     void TagService_CreateTag_ReturnTagDto() {
         TagDto tag = new TagDto(0, "Tag name # " + rn.nextInt());
@@ -0,0 +1,48 @@
+package tech.cbs.api.service.dto;
+
+import org.junit.jupiter.api.Test;
+import tech.cbs.api.exception.InvalidCursorException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Test class for {@link CursorPage}
+ */
+class CursorPageTest {
+
+    @Test
+    void CursorPage_Of_ReturnsFirstPageWithoutCursor() {
+        var page = CursorPage.of(null, "title", 20);
+
+        assertThat(page.isFirst()).isTrue();
+        assertThat(page.sort()).isEqualTo("title");
+        assertThat(page.size()).isEqualTo(20);
+    }
+
+    @Test
+    void CursorPage_Encode_RoundTripsThroughOf() {
+        var next = CursorPage.first("title", 20).next("Clean Code\nSecond Edition", 42);
+
+        var decoded = CursorPage.of(next.encode(), "year", 10);
+
+        assertThat(decoded.isFirst()).isFalse();
+        assertThat(decoded.sort()).isEqualTo("title");
+        assertThat(decoded.key()).isEqualTo("Clean Code\nSecond Edition");
+        assertThat(decoded.id()).isEqualTo(42);
+        assertThat(decoded.size()).isEqualTo(10);
+    }
+
+    @Test
+    void CursorPage_Of_ThrowsOnMalformedCursor() {
+        assertThrows(InvalidCursorException.class, () -> CursorPage.of("not a cursor", "title", 20));
+        assertThrows(InvalidCursorException.class, () -> CursorPage.of("dGl0bGU", "title", 20));
+        assertThrows(InvalidCursorException.class, () -> CursorPage.first("title", 0));
+    }
+
+    @Test
+    void CursorPage_Of_ThrowsOnTooLargePage() {
+        assertThat(CursorPage.of(null, "title", CursorPage.MAX_SIZE).size()).isEqualTo(CursorPage.MAX_SIZE);
+        assertThrows(InvalidCursorException.class, () -> CursorPage.of(null, "title", 1_000_000));
+    }
+}
@@ -0,0 +1,225 @@
+package tech.cbs.api.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+import tech.cbs.api.repository.routing.ReadYourWrites;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Test class for {@link EntityCache}
+ */
+class EntityCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void closeSession() {
+        ReadYourWrites.close();
+    }
+
+    private Optional<String> load(int id) {
+        loads.incrementAndGet();
+        return id % 2 == 0 ? Optional.of("#" + id) : Optional.empty();
+    }
+
+    @Test
+    void EntityCache_Get_CollapsesConcurrentMissesIntoOneLoad() throws Exception {
+        var cache = new EntityCache<String>(true, 100, 100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        int callers = 20;
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+
+        try (var executor = Executors.newFixedThreadPool(callers)) {
+            List<Future<Optional<String>>> results = new CopyOnWriteArrayList<>();
+            results.add(executor.submit(() -> cache.get(2, id -> {
+                started.countDown();
+                await(release);
+                return load(id);
+            })));
+            started.await();
+            for (int i = 1; i < callers; i++) {
+                results.add(executor.submit(() -> cache.get(2, this::load)));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<Optional<String>> result : results) {
+                assertThat(result.get()).contains("#2");
+            }
+        }
+
+        assertThat(loads).hasValue(1);
+        assertThat(cache.stats().loads()).isEqualTo(1);
+    }
+
+    @Test
+    void EntityCache_Get_HitsUntilInvalidated() {
+        var cache = new EntityCache<String>(true, 100, 100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+        assertThat(cache.get(4, this::load)).contains("#4");
+        assertThat(cache.get(4, this::load)).contains("#4");
+        assertThat(loads).hasValue(1);
+
+        cache.invalidate(4);
+        assertThat(cache.get(4, this::load)).contains("#4");
+        assertThat(loads).hasValue(2);
+
+        cache.invalidateAll();
+        assertThat(cache.get(4, this::load)).contains("#4");
+        assertThat(loads).hasValue(3);
+
+        var stats = cache.stats();
+        assertThat(stats.enabled()).isTrue();
+        assertThat(stats.hits()).isEqualTo(1);
+        assertThat(stats.size()).isEqualTo(1);
+    }
+
+    @Test
+    void EntityCache_Get_CachesMissingEntitiesUntilInvalidated() {
+        var cache = new EntityCache<String>(true, 100, 100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+        assertThat(cache.get(3, this::load)).isEmpty();
+        assertThat(cache.get(3, this::load)).isEmpty();
+        assertThat(loads).hasValue(1);
+        assertThat(cache.stats().negativeHits()).isEqualTo(1);
+
+        cache.invalidate(3);
+        assertThat(cache.get(3, id -> Optional.of("created"))).contains("created");
+    }
+
+    @Test
+    void EntityCache_Get_ForgetsMissingEntitiesSoonerThanEntities() throws InterruptedException {
+        var cache = new EntityCache<String>(true, 100, 100, Duration.ofMinutes(1), Duration.ofMillis(50));
+
+        assertThat(cache.get(18, this::load)).contains("#18");
+        assertThat(cache.get(19, this::load)).isEmpty();
+        Thread.sleep(100);
+
+        // the creation of 19 was never invalidated
+        assertThat(cache.get(19, id -> Optional.of("created"))).contains("created");
+        assertThat(cache.get(18, this::load)).contains("#18");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void EntityCache_Get_ReadYourWritesRequestSeesCreatedEntity() {
+        var cache = new EntityCache<String>(true, 100, 100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        var lsns = new CopyOnWriteArrayList<Long>();
+        assertThat(cache.get(21, id -> {
+            lsns.add(ReadYourWrites.requiredLsn());
+            return load(id);
+        })).isEmpty();
+
+        ReadYourWrites.open(42, lsn -> {
+        });
+        assertThat(cache.get(21, id -> Optional.of("created"))).contains("created");
+
+        // the miss was read from the primary, not from a replica that had not seen the id yet
+        assertThat(lsns).containsExactly(Long.MAX_VALUE);
+    }
+
+    @Test
+    void EntityCache_Get_IdFilterRejectsOnlyIdsUpToPreviousRebuild() {
+        var cache = new EntityCache<String>(true, 100, 100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+        cache.rebuildIdFilter(RoaringBitmap.bitmapOf(2, 4, 6));
+        assertThat(cache.get(5, this::load)).isEmpty();
+        assertThat(loads).hasValue(1);
+
+        // ids 7 and 8 were taken before this rebuild, 8 by a transaction that had not committed yet
+        cache.rebuildIdFilter(RoaringBitmap.bitmapOf(2, 4, 6, 7, 10));
+        assertThat(cache.get(1, this::load)).isEmpty();
+        assertThat(cache.get(3, this::load)).isEmpty();
+        assertThat(loads).hasValue(1);
+        assertThat(cache.get(8, this::load)).contains("#8");
+        assertThat(cache.get(12, this::load)).contains("#12");
+        assertThat(loads).hasValue(3);
+        assertThat(cache.stats().filteredMisses()).isEqualTo(2);
+    }
+
+    @Test
+    void EntityCache_Get_DoesNotCacheLoadOverlappingInvalidation() {
+        var cache = new EntityCache<String>(true, 100, 100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+        assertThat(cache.get(6, id -> {
+            cache.invalidate(id);
+            return Optional.of("stale");
+        })).contains("stale");
+
+        assertThat(cache.get(6, this::load)).contains("#6");
+    }
+
+    @Test
+    void EntityCache_Get_FillsFromPrimaryOnly() {
+        var cache = new EntityCache<String>(true, 100, 100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        var lsns = new CopyOnWriteArrayList<Long>();
+
+        cache.get(12, id -> {
+            lsns.add(ReadYourWrites.requiredLsn());
+            return load(id);
+        });
+
+        // no replica replays this far, the load cannot see the entity from before an invalidation
+        assertThat(lsns).containsExactly(Long.MAX_VALUE);
+    }
+
+    @Test
+    void EntityCache_Get_BypassedByReadYourWritesRequest() {
+        var cache = new EntityCache<String>(true, 100, 100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        assertThat(cache.get(14, this::load)).contains("#14");
+        assertThat(cache.get(15, this::load)).isEmpty();
+
+        ReadYourWrites.open(42, lsn -> {
+        });
+        assertThat(cache.get(14, id -> Optional.of("written"))).contains("written");
+        assertThat(cache.get(15, id -> Optional.of("created"))).contains("created");
+        assertThat(cache.get(16, this::load)).contains("#16");
+        ReadYourWrites.close();
+
+        assertThat(cache.get(16, this::load)).contains("#16");
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    void EntityCache_Get_DisabledCacheLoadsEveryTime() {
+        var cache = new EntityCache<String>(false, 100, 100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+        cache.get(8, this::load);
+        cache.get(8, this::load);
+
+        assertThat(loads).hasValue(2);
+        assertThat(cache.stats().enabled()).isFalse();
+    }
+
+    @Test
+    void EntityCache_Get_PropagatesLoadFailure() {
+        var cache = new EntityCache<String>(true, 100, 100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+        assertThrows(IllegalStateException.class, () -> cache.get(10, id -> {
+            throw new IllegalStateException("database down");
+        }));
+
+        assertThat(cache.stats().loadFailures()).isEqualTo(1);
+        assertThat(cache.get(10, this::load)).contains("#10");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package tech.cbs.api.service.impl;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import tech.cbs.api.repository.limit.ConcurrencyLimitedDataSource;
+import tech.cbs.api.repository.routing.ReadYourWrites;
+import tech.cbs.api.repository.routing.ReplicaRoutingDataSource;
+import tech.cbs.api.service.dto.Page;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for {@link PagePrefetcher}
+ */
+class PagePrefetcherTest {
+
+    private final AtomicInteger foregroundLoads = new AtomicInteger();
+    private final AtomicInteger backgroundLoads = new AtomicInteger();
+    private PagePrefetcher prefetcher;
+
+    @AfterEach
+    void tearDown() {
+        if (prefetcher != null) {
+            prefetcher.close();
+        }
+    }
+
+    private PagePrefetcher prefetcher(int window, double minHitRate) {
+        return prefetcher(new SimpleDriverDataSource(), window, minHitRate);
+    }
+
+    private PagePrefetcher prefetcher(DataSource dataSource, int window, double minHitRate) {
+        return new PagePrefetcher(dataSource, true, 1, 16, Duration.ofMinutes(1), 100, 2, window, minHitRate, 1000);
+    }
+
+    private List<Integer> read(Page page) {
+        return prefetcher.get("books", page, books -> new Page(page.number() + 1, page.size()),
+                p -> {
+                    foregroundLoads.incrementAndGet();
+                    return List.of(p.number());
+                },
+                p -> {
+                    backgroundLoads.incrementAndGet();
+                    return List.of(p.number());
+                });
+    }
+
+    @Test
+    void PagePrefetcher_Get_ServesNextPageFromPrefetch() throws Exception {
+        prefetcher = prefetcher(100, 0.3);
+
+        assertThat(read(new Page(0, 10))).containsExactly(0);
+        awaitTrue(() -> prefetcher.stats().size() == 1);
+        assertThat(read(new Page(1, 10))).containsExactly(1);
+
+        assertThat(foregroundLoads).hasValue(1);
+        assertThat(prefetcher.stats().hits()).isEqualTo(1);
+    }
+
+    @Test
+    void PagePrefetcher_Get_DropsPrefetchOnInvalidation() throws Exception {
+        prefetcher = prefetcher(100, 0.3);
+
+        read(new Page(0, 10));
+        awaitTrue(() -> prefetcher.stats().size() == 1);
+        prefetcher.invalidateAll();
+        read(new Page(1, 10));
+
+        assertThat(foregroundLoads).hasValue(2);
+        assertThat(prefetcher.stats().hits()).isZero();
+    }
+
+    @Test
+    void PagePrefetcher_Get_DoesNotPrefetchAfterLastPage() throws Exception {
+        prefetcher = prefetcher(100, 0.3);
+
+        prefetcher.get("books", new Page(0, 10), books -> null, p -> List.of(), p -> {
+            backgroundLoads.incrementAndGet();
+            return List.of();
+        });
+        Thread.sleep(50);
+
+        assertThat(backgroundLoads).hasValue(0);
+    }
+
+    @Test
+    void PagePrefetcher_Get_PausesRouteWhosePrefetchesAreNotRead() throws Exception {
+        prefetcher = prefetcher(5, 0.5);
+
+        for (int i = 0; i < 5; i++) {
+            read(new Page(i * 10, 10));
+            int expected = i + 1;
+            awaitTrue(() -> prefetcher.stats().loads() == expected);
+        }
+        assertThat(prefetcher.prefetching("books")).isFalse();
+
+        read(new Page(100, 10));
+        Thread.sleep(50);
+        assertThat(backgroundLoads).hasValue(5);
+    }
+
+    @Test
+    void PagePrefetcher_Get_SkipsPrefetchWithoutSparePermits() throws Exception {
+        prefetcher = prefetcher(new ConcurrencyLimitedDataSource(new SimpleDriverDataSource(), 2, Duration.ofSeconds(1)),
+                100, 0.3);
+
+        read(new Page(0, 10));
+        Thread.sleep(50);
+
+        assertThat(backgroundLoads).hasValue(0);
+    }
+
+    @Test
+    void PagePrefetcher_Get_SkipsPrefetchWhilePrimaryPoolIsBusy() throws Exception {
+        var routing = new ReplicaRoutingDataSource(pool(0), List.of(pool(10)), Duration.ZERO);
+        routing.checkReplicas();
+        prefetcher = prefetcher(new ConcurrencyLimitedDataSource(routing, 20, Duration.ofSeconds(1)), 100, 0.3);
+
+        // the replica pool is idle, but the prefetch would read from the primary
+        read(new Page(0, 10));
+        Thread.sleep(50);
+
+        assertThat(backgroundLoads).hasValue(0);
+    }
+
+    @Test
+    void PagePrefetcher_Get_PrefetchesFromPrimaryAndReportsHitAsCached() throws Exception {
+        prefetcher = prefetcher(100, 0.3);
+        var requiredLsn = new AtomicLong();
+        var cached = new AtomicInteger();
+
+        prefetcher.get("books", new Page(0, 10), books -> new Page(1, 10), p -> List.of(0), p -> {
+            requiredLsn.set(ReadYourWrites.requiredLsn());
+            return List.of(1);
+        });
+        awaitTrue(() -> prefetcher.stats().size() == 1);
+        StaleReads.open(staleness -> {
+        }, cached::incrementAndGet);
+        try {
+            read(new Page(1, 10));
+        } finally {
+            StaleReads.close();
+        }
+
+        assertThat(requiredLsn).hasValue(Long.MAX_VALUE);
+        assertThat(cached).hasValue(1);
+    }
+
+    private static HikariDataSource pool(int idleConnections) throws SQLException {
+        var pool = Mockito.mock(HikariDataSource.class);
+        var bean = Mockito.mock(HikariPoolMXBean.class);
+        when(pool.getHikariPoolMXBean()).thenReturn(bean);
+        when(pool.isWrapperFor(HikariDataSource.class)).thenReturn(true);
+        when(pool.unwrap(HikariDataSource.class)).thenReturn(pool);
+        when(bean.getIdleConnections()).thenReturn(idleConnections);
+
+        var connection = Mockito.mock(Connection.class);
+        var statement = Mockito.mock(Statement.class);
+        var resultSet = Mockito.mock(ResultSet.class);
+        when(pool.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getString(1)).thenReturn("0/100");
+        return pool;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package tech.cbs.api.service.impl;
+
+import org.junit.jupiter.api.Test;
+import tech.cbs.api.service.dto.PinnedStack;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for {@link PinningServiceImpl}
+ */
+class PinningServiceImplTest {
+
+    private final Object lock = new Object();
+
+    @Test
+    void PinningService_GetPinnedStacks_ReportsSleepInsideMonitor() throws Exception {
+        var service = new PinningServiceImpl(true, Duration.ofMillis(10), 100);
+        try {
+            // JFR starts the stream asynchronously, keep pinning until the events arrive
+            List<PinnedStack> stacks = List.of();
+            long deadline = System.nanoTime() + Duration.ofSeconds(20).toNanos();
+            while (stacks.isEmpty() && System.nanoTime() < deadline) {
+                Thread.ofVirtual().start(this::sleepHoldingLock).join();
+                Thread.sleep(200);
+                stacks = service.getPinnedStacks();
+            }
+
+            assertThat(stacks).isNotEmpty();
+            var stack = stacks.getFirst();
+            assertThat(stack.frames()).anyMatch(frame -> frame.contains("sleepHoldingLock"));
+            assertThat(stack.inJdbcDriver()).isFalse();
+            assertThat(stack.maxMillis()).isGreaterThanOrEqualTo(10);
+        } finally {
+            service.close();
+        }
+    }
+
+    @Test
+    void PinningService_GetPinnedStacks_EmptyWhenDisabled() {
+        var service = new PinningServiceImpl(false, Duration.ofMillis(10), 100);
+
+        assertThat(service.getPinnedStacks()).isEmpty();
+        service.close();
+    }
+
+    private void sleepHoldingLock() {
+        synchronized (lock) {
+            try {
+                Thread.sleep(30);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package tech.cbs.api.service.impl;
+
+import org.junit.jupiter.api.Test;
+import tech.cbs.api.repository.routing.ReadYourWrites;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Test class for {@link RequestCoalescer}
+ */
+class RequestCoalescerTest {
+
+    private final List<int[]> batches = new CopyOnWriteArrayList<>();
+
+    private Map<Integer, String> load(int[] ids) {
+        batches.add(ids);
+        // keeps the loader busy long enough for concurrent callers to queue behind it
+        LockSupport.parkNanos(Duration.ofMillis(50).toNanos());
+        return Arrays.stream(ids)
+                .filter(id -> id % 2 == 0)
+                .boxed()
+                .collect(Collectors.toMap(Function.identity(), id -> "#" + id));
+    }
+
+    @Test
+    void RequestCoalescer_Load_MergesConcurrentCallsIntoOneBatch() throws Exception {
+        var coalescer = new RequestCoalescer<>(this::load, Duration.ofMillis(200), 100);
+        int callers = 20;
+        var start = new CountDownLatch(1);
+
+        try (var executor = Executors.newFixedThreadPool(callers)) {
+            List<Future<Optional<String>>> results = new CopyOnWriteArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                int id = i;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return coalescer.load(id);
+                }));
+            }
+            start.countDown();
+
+            for (int i = 0; i < callers; i++) {
+                assertThat(results.get(i).get()).isEqualTo(i % 2 == 0 ? Optional.of("#" + i) : Optional.empty());
+            }
+        }
+
+        assertThat(batches.size()).isLessThan(callers);
+        assertThat(batches.stream().mapToInt(batch -> batch.length).sum()).isEqualTo(callers);
+    }
+
+    @Test
+    void RequestCoalescer_Load_CutsBatchAtMaxSize() throws Exception {
+        var coalescer = new RequestCoalescer<>(this::load, Duration.ofMillis(200), 4);
+
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 8; i++) {
+                int id = i;
+                executor.submit(() -> coalescer.load(id));
+            }
+        }
+
+        assertThat(batches).allSatisfy(batch -> assertThat(batch.length).isLessThanOrEqualTo(4));
+    }
+
+    @Test
+    void RequestCoalescer_Load_CallsLoaderDirectlyWithoutWindow() {
+        var coalescer = new RequestCoalescer<>(this::load, Duration.ZERO, 100);
+
+        assertThat(coalescer.load(2)).contains("#2");
+        assertThat(coalescer.load(3)).isEmpty();
+        assertThat(batches).hasSize(2);
+    }
+
+    @Test
+    void RequestCoalescer_Load_DoesNotWaitWhenNothingIsLoading() {
+        var coalescer = new RequestCoalescer<>(this::load, Duration.ofSeconds(10), 100);
+
+        long start = System.nanoTime();
+        assertThat(coalescer.load(2)).contains("#2");
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+        assertThat(batches).hasSize(1);
+    }
+
+    @Test
+    void RequestCoalescer_Load_ReleasesFollowersWhenLoaderThrowsError() throws Exception {
+        var entered = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var coalescer = new RequestCoalescer<String>(ids -> {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new AssertionError("loader bug");
+        }, Duration.ofMillis(50), 100);
+
+        try (var executor = Executors.newFixedThreadPool(3)) {
+            var first = executor.submit(() -> coalescer.load(1));
+            entered.await();
+            var second = executor.submit(() -> coalescer.load(2));
+            var third = executor.submit(() -> coalescer.load(3));
+            release.countDown();
+
+            for (Future<Optional<String>> future : List.of(first, second, third)) {
+                var thrown = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+                assertThat(thrown.getCause()).isInstanceOf(AssertionError.class);
+            }
+        }
+    }
+
+    @Test
+    void RequestCoalescer_Load_ReadsAtHighestRequiredLsnOfBatch() throws Exception {
+        var entered = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var parked = new CountDownLatch(1);
+        var joined = new CountDownLatch(1);
+        Map<Integer, Long> lsnById = new ConcurrentHashMap<>();
+        var coalescer = new RequestCoalescer<String>(ids -> {
+            Arrays.stream(ids).forEach(id -> lsnById.put(id, ReadYourWrites.requiredLsn()));
+            if (ids[0] == 1) {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return Map.of();
+        }, Duration.ofSeconds(1), 100, nanos -> {
+            // the window ends once the follower has joined, however slow the machine
+            parked.countDown();
+            try {
+                joined.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        var busy = Thread.ofPlatform().start(() -> coalescer.load(1));
+        entered.await();
+        // waits for followers because the first batch is still loading
+        var leader = Thread.ofPlatform().start(() -> coalescer.load(2));
+        parked.await();
+        var follower = Thread.ofPlatform().start(() -> {
+            ReadYourWrites.open(500, lsn -> {
+            });
+            try {
+                coalescer.load(3);
+            } finally {
+                ReadYourWrites.close();
+            }
+        });
+        await().atMost(Duration.ofSeconds(10)).until(() -> follower.getState() == Thread.State.WAITING);
+        joined.countDown();
+        release.countDown();
+        for (Thread thread : List.of(busy, leader, follower)) {
+            thread.join(Duration.ofSeconds(10));
+        }
+
+        assertThat(lsnById).containsEntry(1, 0L).containsEntry(2, 500L).containsEntry(3, 500L);
+    }
+
+    @Test
+    void RequestCoalescer_Load_PropagatesLoaderFailure() {
+        var coalescer = new RequestCoalescer<String>(ids -> {
+            throw new IllegalStateException("database is down");
+        }, Duration.ofMillis(1), 100);
+
+        assertThrows(IllegalStateException.class, () -> coalescer.load(1));
+    }
+}
@@ -0,0 +1,198 @@
+package tech.cbs.api.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import tech.cbs.api.repository.invalidation.EntityType;
+import tech.cbs.api.repository.routing.ReadYourWrites;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Test class for {@link StaleReadCache}
+ */
+class StaleReadCacheTest {
+
+    private static final EntityType[] TYPES = {EntityType.BOOK};
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final List<StaleReads.Staleness> served = new CopyOnWriteArrayList<>();
+    private final AtomicInteger cached = new AtomicInteger();
+    private StaleReadCache cache;
+
+    @AfterEach
+    void tearDown() {
+        StaleReads.close();
+        if (cache != null) {
+            cache.close();
+        }
+    }
+
+    private String load(String value) {
+        loads.incrementAndGet();
+        return value;
+    }
+
+    @Test
+    void StaleReadCache_Get_ServesFreshResultWithoutLoading() {
+        cache = new StaleReadCache(true, 100, Duration.ofMinutes(1), Duration.ofHours(1), Duration.ofSeconds(1), 1, 10);
+        StaleReads.open(served::add, cached::incrementAndGet);
+
+        assertThat(cache.get("key", TYPES, () -> load("v1"))).isEqualTo("v1");
+        assertThat(cache.get("key", TYPES, () -> load("v2"))).isEqualTo("v1");
+
+        assertThat(loads).hasValue(1);
+        assertThat(served).isEmpty();
+        assertThat(cached).hasValue(1);
+        assertThat(cache.stats().hits()).isEqualTo(1);
+    }
+
+    @Test
+    void StaleReadCache_Get_ReloadsAfterInvalidation() {
+        cache = new StaleReadCache(true, 100, Duration.ofMinutes(1), Duration.ofHours(1), Duration.ofSeconds(1), 1, 10);
+
+        cache.get("key", TYPES, () -> load("v1"));
+        cache.invalidate(EntityType.TAG);
+        assertThat(cache.get("key", TYPES, () -> load("v2"))).isEqualTo("v1");
+        cache.invalidate(EntityType.BOOK);
+        assertThat(cache.get("key", TYPES, () -> load("v3"))).isEqualTo("v3");
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void StaleReadCache_Get_ServesResultPastSoftTtlWhileOneRefreshRuns() throws Exception {
+        cache = new StaleReadCache(true, 100, Duration.ZERO, Duration.ofHours(1), Duration.ofSeconds(1), 2, 10);
+        StaleReads.open(served::add, cached::incrementAndGet);
+        cache.get("key", TYPES, () -> load("v1"));
+
+        var release = new CountDownLatch(1);
+        for (int i = 0; i < 5; i++) {
+            assertThat(cache.get("key", TYPES, () -> {
+                await(release);
+                return load("v2");
+            })).isEqualTo("v1");
+        }
+        release.countDown();
+        awaitTrue(() -> loads.get() == 2);
+        awaitTrue(() -> cache.get("key", TYPES, () -> "v3").equals("v2"));
+
+        assertThat(loads).hasValue(2);
+        assertThat(served).isNotEmpty().noneMatch(StaleReads.Staleness::revalidationFailed);
+        assertThat(cache.stats().staleHits()).isGreaterThanOrEqualTo(5);
+    }
+
+    @Test
+    void StaleReadCache_Get_ServesLastKnownResultWhenDatabaseFails() {
+        cache = new StaleReadCache(true, 100, Duration.ofMinutes(1), Duration.ofHours(1), Duration.ofSeconds(1), 1, 10);
+        StaleReads.open(served::add, cached::incrementAndGet);
+        cache.get("key", TYPES, () -> load("v1"));
+        cache.invalidate(EntityType.BOOK);
+
+        assertThat(cache.<String>get("key", TYPES, () -> {
+            throw new QueryTimeoutException("down");
+        })).isEqualTo("v1");
+        assertThrows(QueryTimeoutException.class, () -> cache.get("other", TYPES, () -> {
+            throw new QueryTimeoutException("down");
+        }));
+
+        assertThat(served).hasSize(1);
+        assertThat(served.getFirst().revalidationFailed()).isTrue();
+        assertThat(cache.stats().errorHits()).isEqualTo(1);
+        assertThat(cache.stats().loadFailures()).isEqualTo(2);
+    }
+
+    @Test
+    void StaleReadCache_Get_ServesOutdatedResultWhileDatabaseIsSlow() throws Exception {
+        cache = new StaleReadCache(true, 100, Duration.ofMinutes(1), Duration.ofHours(1), Duration.ofMillis(20), 1, 10);
+        cache.get("key", TYPES, () -> {
+            sleep(100);
+            return load("v1");
+        });
+        cache.invalidate(EntityType.BOOK);
+
+        // the refresh is fast again and ends the slow state
+        assertThat(cache.get("key", TYPES, () -> load("v2"))).isEqualTo("v1");
+        awaitTrue(() -> cache.get("key", TYPES, () -> "v3").equals("v2"));
+        cache.invalidate(EntityType.BOOK);
+        assertThat(cache.get("key", TYPES, () -> load("v4"))).isEqualTo("v4");
+    }
+
+    @Test
+    void StaleReadCache_Get_LoadsAndRefreshesFromPrimary() throws Exception {
+        cache = new StaleReadCache(true, 100, Duration.ZERO, Duration.ofHours(1), Duration.ofSeconds(1), 1, 10);
+        List<Long> requiredLsns = new CopyOnWriteArrayList<>();
+
+        cache.get("key", TYPES, () -> {
+            requiredLsns.add(ReadYourWrites.requiredLsn());
+            return load("v1");
+        });
+        cache.get("key", TYPES, () -> {
+            requiredLsns.add(ReadYourWrites.requiredLsn());
+            return load("v2");
+        });
+        awaitTrue(() -> loads.get() == 2);
+
+        assertThat(requiredLsns).containsExactly(Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    @Test
+    void StaleReadCache_Get_BypassedWithReadYourWritesToken() {
+        cache = new StaleReadCache(true, 100, Duration.ofMinutes(1), Duration.ofHours(1), Duration.ofSeconds(1), 1, 10);
+        cache.get("key", TYPES, () -> load("v1"));
+
+        ReadYourWrites.open(500, lsn -> {
+        });
+        try {
+            assertThat(cache.get("key", TYPES, () -> load("v2"))).isEqualTo("v2");
+        } finally {
+            ReadYourWrites.close();
+        }
+
+        assertThat(loads).hasValue(2);
+        assertThat(cache.get("key", TYPES, () -> load("v3"))).isEqualTo("v1");
+    }
+
+    @Test
+    void StaleReadCache_Get_DisabledLoadsEveryRead() {
+        cache = new StaleReadCache(false, 100, Duration.ofMinutes(1), Duration.ofHours(1), Duration.ofSeconds(1), 1, 10);
+
+        cache.get("key", TYPES, () -> load("v1"));
+        cache.get("key", TYPES, () -> load("v1"));
+
+        assertThat(loads).hasValue(2);
+        assertThat(cache.stats().enabled()).isFalse();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
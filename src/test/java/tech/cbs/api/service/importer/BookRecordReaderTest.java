@@ -0,0 +1,113 @@
+package tech.cbs.api.service.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import tech.cbs.api.repository.model.Level;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for {@link CsvBookRecordReader}, {@link NdjsonBookRecordReader}
+ */
+class BookRecordReaderTest {
+
+    private static List<BookRecordReader.Row> readAll(ImportFormat format, String input) throws IOException {
+        List<BookRecordReader.Row> rows = new ArrayList<>();
+        var in = new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8));
+        try (var reader = BookRecordReader.of(format, in, new ObjectMapper())) {
+            BookRecordReader.Row row;
+            while ((row = reader.next()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    @Test
+    void CsvBookRecordReader_Next_ParsesQuotedFields() throws IOException {
+        var csv = """
+                title,author,publication_year,isbn,level,description,available,tags
+                "Effective Java, 3rd Edition",Joshua Bloch,2018,9780134685991,advanced,"Best practices
+                for the ""Java"" platform",true,java|best practices
+                Clean Code,Robert Martin,2008,,,A handbook,false,
+                """;
+
+        var rows = readAll(ImportFormat.CSV, csv);
+
+        assertThat(rows).hasSize(2);
+        var first = rows.getFirst().book();
+        assertThat(rows.getFirst().line()).isEqualTo(2);
+        assertThat(first.title()).isEqualTo("Effective Java, 3rd Edition");
+        assertThat(first.author()).isEqualTo("Joshua Bloch");
+        assertThat(first.publicationYear()).isEqualTo(2018);
+        assertThat(first.level()).isEqualTo(Level.ADVANCED);
+        assertThat(first.description()).isEqualTo("Best practices\nfor the \"Java\" platform");
+        assertThat(first.available()).isTrue();
+        assertThat(first.tags()).containsExactly("java", "best practices");
+
+        var second = rows.get(1).book();
+        assertThat(rows.get(1).line()).isEqualTo(4);
+        assertThat(second.isbn()).isNull();
+        assertThat(second.level()).isEqualTo(Level.BEGINNER);
+        assertThat(second.tags()).isEmpty();
+    }
+
+    @Test
+    void CsvBookRecordReader_Next_RejectsInvalidRowsAndContinues() throws IOException {
+        var csv = """
+                title,author,publication_year,description
+                Book,Author,not a year,Description
+                ,Author,2001,Description
+                Book,Author,2001
+                Valid,Author,2001,Description
+                """;
+
+        var rows = readAll(ImportFormat.CSV, csv);
+
+        assertThat(rows).hasSize(4);
+        assertThat(rows.subList(0, 3)).allSatisfy(row -> {
+            assertThat(row.book()).isNull();
+            assertThat(row.error()).isNotBlank();
+        });
+        assertThat(rows.get(3).book().title()).isEqualTo("Valid");
+    }
+
+    @Test
+    void CsvBookRecordReader_Next_SkipsManyBlankLines() throws IOException {
+        var csv = "title,author,publication_year,description\n"
+                + "\n".repeat(100_000)
+                + "Valid,Author,2001,Description\n";
+
+        var rows = readAll(ImportFormat.CSV, csv);
+
+        assertThat(rows).hasSize(1);
+        assertThat(rows.getFirst().line()).isEqualTo(100_002);
+        assertThat(rows.getFirst().book().title()).isEqualTo("Valid");
+    }
+
+    @Test
+    void NdjsonBookRecordReader_Next_ParsesObjectsAndRejectsMalformedLines() throws IOException {
+        var ndjson = """
+                {"title":"Refactoring","author":"Martin Fowler","publicationYear":2018,"level":"INTERMEDIATE","description":"Improving code","available":true,"tags":["refactoring","java"]}
+                {"title":
+                
+                {"title":"Kubernetes in Action","author":"Marko Luksa","publicationYear":"2017","description":"Containers"}
+                """;
+
+        var rows = readAll(ImportFormat.NDJSON, ndjson);
+
+        assertThat(rows).hasSize(3);
+        assertThat(rows.getFirst().book().tags()).containsExactly("refactoring", "java");
+        assertThat(rows.getFirst().book().level()).isEqualTo(Level.INTERMEDIATE);
+        assertThat(rows.get(1).line()).isEqualTo(2);
+        assertThat(rows.get(1).error()).startsWith("malformed JSON");
+        assertThat(rows.get(2).line()).isEqualTo(4);
+        assertThat(rows.get(2).book().publicationYear()).isEqualTo(2017);
+    }
+}
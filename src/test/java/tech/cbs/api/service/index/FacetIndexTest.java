@@ -0,0 +1,111 @@
+package tech.cbs.api.service.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tech.cbs.api.repository.model.Book;
+import tech.cbs.api.repository.model.Level;
+import tech.cbs.api.repository.model.Tag;
+import tech.cbs.api.service.dto.BrowseQuery;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for {@link FacetIndex}
+ */
+class FacetIndexTest {
+
+    private static final List<Tag> tags = List.of(new Tag(1, "java"), new Tag(2, "concurrency"), new Tag(3, "sql"));
+
+    private final FacetIndex index = new FacetIndex();
+    private final List<Book> books = new ArrayList<>();
+
+    @BeforeEach
+    void fill() {
+        var rn = new Random(7);
+        for (int id = 1; id <= 500; id++) {
+            Set<Tag> bookTags = new HashSet<>();
+            tags.stream().filter(tag -> rn.nextInt(3) == 0).forEach(bookTags::add);
+            var book = new Book(id, "Title " + id, 1, rn.nextInt(2010, 2024), null,
+                    Level.values()[rn.nextInt(3)], "", rn.nextBoolean(), bookTags);
+            books.add(book);
+            index.put(book);
+        }
+    }
+
+    @Test
+    void FacetIndex_Filter_AgreesWithLinearScan() {
+        var query = new BrowseQuery(Set.of(Level.ADVANCED, Level.INTERMEDIATE), Set.of(1), Set.of(2, 3), Set.of(),
+                true, 2019, null);
+
+        var expected = books.stream()
+                .filter(book -> query.levels().contains(book.level()))
+                .filter(book -> hasTag(book, 1))
+                .filter(book -> hasTag(book, 2) || hasTag(book, 3))
+                .filter(Book::available)
+                .filter(book -> book.publicationYear() >= 2019)
+                .mapToInt(Book::id)
+                .toArray();
+
+        assertThat(expected).isNotEmpty();
+        assertThat(index.filter(query).toArray()).containsExactly(expected);
+    }
+
+    @Test
+    void FacetIndex_Filter_ExcludesTagsAndUnavailableBooks() {
+        var query = new BrowseQuery(null, null, null, Set.of(1, 2), false, null, 2015);
+
+        var expected = books.stream()
+                .filter(book -> !hasTag(book, 1) && !hasTag(book, 2))
+                .filter(book -> !book.available())
+                .filter(book -> book.publicationYear() <= 2015)
+                .mapToInt(Book::id)
+                .toArray();
+
+        assertThat(index.filter(query).toArray()).containsExactly(expected);
+        assertThat(index.filter(new BrowseQuery(null, Set.of(99), null, null, null, null, null)).isEmpty()).isTrue();
+        assertThat(index.filter(new BrowseQuery(null, null, null, null, null, 2020, 2019)).isEmpty()).isTrue();
+    }
+
+    @Test
+    void FacetIndex_Count_MatchesGroupedScan() {
+        var matching = index.filter(new BrowseQuery(Set.of(Level.BEGINNER), null, null, null, null, null, null));
+        var beginner = books.stream().filter(book -> book.level() == Level.BEGINNER).toList();
+
+        assertThat(index.countLevels(matching)).isEqualTo(Map.of(Level.BEGINNER, beginner.size()));
+        assertThat(index.countYears(matching)).isEqualTo(beginner.stream()
+                .collect(Collectors.groupingBy(Book::publicationYear, Collectors.summingInt(book -> 1))));
+        assertThat(index.countTags(matching)).isEqualTo(beginner.stream()
+                .flatMap(book -> book.tags().stream())
+                .collect(Collectors.groupingBy(Tag::id, Collectors.summingInt(tag -> 1))));
+        int available = (int) beginner.stream().filter(Book::available).count();
+        assertThat(index.countAvailability(matching)).isEqualTo(Map.of(true, available, false, beginner.size() - available));
+    }
+
+    @Test
+    void FacetIndex_Put_ReplacesPreviousFacetsOfBook() {
+        var book = books.getFirst();
+        var moved = new Book(book.id(), book.title(), 1, 1999, null, Level.ADVANCED, "", true, Set.of(tags.get(2)));
+        index.put(moved);
+
+        var only1999 = index.filter(new BrowseQuery(null, null, null, null, null, 1999, 1999));
+        assertThat(only1999.toArray()).containsExactly(book.id());
+        assertThat(index.countTags(only1999)).isEqualTo(Map.of(3, 1));
+        assertThat(index.size()).isEqualTo(books.size());
+
+        index.remove(book.id());
+        assertThat(index.filter(new BrowseQuery(null, null, null, null, null, 1999, 1999)).isEmpty()).isTrue();
+        assertThat(index.size()).isEqualTo(books.size() - 1);
+    }
+
+    private static boolean hasTag(Book book, int tagId) {
+        return book.tags().stream().anyMatch(tag -> tag.id() == tagId);
+    }
+}
@@ -0,0 +1,112 @@
+package tech.cbs.api.service.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for {@link PrefixIndex}
+ */
+class PrefixIndexTest {
+
+    private record Entry(String text, int popularity) {
+    }
+
+    private static final List<Entry> entries = List.of(
+            new Entry("The Hobbit", 3),
+            new Entry("Hobbies for programmers", 9),
+            new Entry("Java Concurrency in Practice", 1),
+            new Entry("Effective Java", 5),
+            new Entry("java", 5),
+            new Entry("Hob", 0)
+    );
+
+    private final PrefixIndex<Entry> index = PrefixIndex.build(entries, Entry::text, Entry::popularity);
+
+    @Test
+    void PrefixIndex_Search_MatchesWordStartsByPopularity() {
+        assertThat(index.search("hob", 10)).extracting(Entry::text)
+                .containsExactly("Hobbies for programmers", "The Hobbit", "Hob");
+        assertThat(index.search("  HOBBIT ", 10)).extracting(Entry::text)
+                .containsExactly("The Hobbit");
+        assertThat(index.search("java c", 10)).extracting(Entry::text)
+                .containsExactly("Java Concurrency in Practice");
+    }
+
+    @Test
+    void PrefixIndex_Search_BreaksTiesByLengthAndReportsEachValueOnce() {
+        assertThat(index.search("j", 10)).extracting(Entry::text)
+                .containsExactly("java", "Effective Java", "Java Concurrency in Practice");
+        assertThat(index.search("j", 2)).extracting(Entry::text)
+                .containsExactly("java", "Effective Java");
+    }
+
+    @Test
+    void PrefixIndex_Search_ReturnsNothingForBlankOrUnknownPrefix() {
+        assertThat(index.search("", 10)).isEmpty();
+        assertThat(index.search("   ", 10)).isEmpty();
+        assertThat(index.search("zzz", 10)).isEmpty();
+        assertThat(index.search("hobbits", 10)).isEmpty();
+        assertThat(PrefixIndex.<Entry>empty().search("a", 10)).isEmpty();
+    }
+
+    @Test
+    void PrefixIndex_Search_IndexesFirstEightWordsOnly() {
+        var longIndex = PrefixIndex.build(List.of(new Entry("one two three four five six seven eight nine", 1)),
+                Entry::text, Entry::popularity);
+
+        assertThat(longIndex.search("eight", 10)).hasSize(1);
+        assertThat(longIndex.search("nine", 10)).isEmpty();
+    }
+
+    @Test
+    void PrefixIndex_Search_FindsTopValuesBehindManyRepeatedWords() {
+        // every value has the prefix at each of its word starts, so each value is picked several times
+        List<Entry> repeated = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            repeated.add(new Entry("a ".repeat(9) + "#" + i, 1000 - i));
+        }
+        var repeatedIndex = PrefixIndex.build(repeated, Entry::text, Entry::popularity);
+
+        assertThat(repeatedIndex.search("a", PrefixIndex.MAX_LIMIT))
+                .containsExactlyElementsOf(repeated.subList(0, PrefixIndex.MAX_LIMIT));
+    }
+
+    @Test
+    void PrefixIndex_Search_AgreesWithLinearScan() {
+        var rn = new Random(42);
+        List<Entry> random = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            var text = new StringBuilder();
+            for (int w = rn.nextInt(1, 5); w > 0; w--) {
+                for (int c = rn.nextInt(1, 6); c > 0; c--) {
+                    text.append((char) ('a' + rn.nextInt(4)));
+                }
+                text.append(' ');
+            }
+            random.add(new Entry(text.toString().trim() + " #" + i, rn.nextInt(100)));
+        }
+        var randomIndex = PrefixIndex.build(random, Entry::text, Entry::popularity);
+        Comparator<Entry> order = Comparator.comparingInt((Entry e) -> -e.popularity())
+                .thenComparingInt(e -> e.text().length())
+                .thenComparing(Entry::text);
+
+        for (String query : List.of("a", "ab", "dca", "b c", "cc", "ddd")) {
+            var wordStart = Pattern.compile("(^|[^\\p{L}\\p{N}])" + Pattern.quote(query));
+            var expected = random.stream()
+                    .filter(e -> wordStart.matcher(e.text().toLowerCase(Locale.ROOT)).find())
+                    .sorted(order)
+                    .limit(PrefixIndex.MAX_LIMIT)
+                    .toList();
+
+            assertThat(randomIndex.search(query, PrefixIndex.MAX_LIMIT)).containsExactlyElementsOf(expected);
+        }
+    }
+}
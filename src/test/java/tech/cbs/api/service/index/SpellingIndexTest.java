@@ -0,0 +1,72 @@
+package tech.cbs.api.service.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for {@link SpellingIndex}
+ */
+class SpellingIndexTest {
+
+    private final SpellingIndex index = new SpellingIndex();
+
+    @BeforeEach
+    void fill() {
+        List.of("Kubernetes in Action", "Kubernetes Patterns", "Refactoring by Martin Fowler",
+                        "Martin Kleppmann", "Designing Data-Intensive Applications", "Java", "Jakarta EE")
+                .stream()
+                .map(SpellingIndex::tokenize)
+                .forEach(words -> words.forEach(index::add));
+    }
+
+    @Test
+    void SpellingIndex_Correct_FindsClosestKnownWord() {
+        assertThat(index.correct("kubernets")).isEqualTo("kubernetes");
+        assertThat(index.correct("fowlr")).isEqualTo("fowler");
+        assertThat(index.correct("klepmann")).isEqualTo("kleppmann");
+        assertThat(index.correct("desgining")).isEqualTo("designing");
+        assertThat(index.correct("applicatoinss")).isEqualTo("applications");
+        assertThat(index.correct("martin")).isEqualTo("martin");
+    }
+
+    @Test
+    void SpellingIndex_Correct_LimitsDistanceByWordLength() {
+        assertThat(index.correct("jvaa")).isEqualTo("java");
+        assertThat(index.correct("jxxa")).isNull();
+        assertThat(index.correct("kxbxrnxtes")).isNull();
+        assertThat(index.correct("zz")).isNull();
+    }
+
+    @Test
+    void SpellingIndex_Correct_PrefersMoreFrequentWordAtSameDistance() {
+        index.add("lava");
+        assertThat(index.correct("kava")).isEqualTo("java");
+
+        index.add("lava");
+        assertThat(index.correct("kava")).isEqualTo("lava");
+    }
+
+    @Test
+    void SpellingIndex_Remove_DropsWordWithLastOccurrence() {
+        index.remove("kubernetes");
+        assertThat(index.correct("kubernets")).isEqualTo("kubernetes");
+
+        index.remove("kubernetes");
+        assertThat(index.contains("kubernetes")).isFalse();
+        assertThat(index.correct("kubernets")).isNull();
+
+        index.add("kubernetes");
+        assertThat(index.correct("kubernets")).isEqualTo("kubernetes");
+    }
+
+    @Test
+    void SpellingIndex_Distance_CountsTranspositionAsOneEdit() {
+        assertThat(SpellingIndex.distance("fowler", "folwer", 2)).isEqualTo(1);
+        assertThat(SpellingIndex.distance("fowler", "fowlr", 2)).isEqualTo(1);
+        assertThat(SpellingIndex.distance("fowler", "martin", 2)).isEqualTo(3);
+    }
+}